@@ -288,6 +288,8 @@ class RemoteStorageManagerTest extends RsaKeyAwareTest {
         }
 
         assertThat(manifest.get("compression").asBoolean()).isEqualTo(compression);
+        // Zstd without a dictionary is read without the compression metadata, so it's not written.
+        assertThat(manifest.get("compressionMetadata")).isNull();
         final JsonNode encryptionNode = manifest.get("encryption");
         if (encryption) {
             assertThat(encryptionNode).isNotNull();
@@ -371,7 +373,7 @@ class RemoteStorageManagerTest extends RsaKeyAwareTest {
                     throw new RuntimeException(e);
                 }
 
-                if (compression) {
+                if (compression && !chunk.raw) {
                     final byte[] decompressChunk = new byte[chunk.originalSize];
                     Zstd.decompress(decompressChunk, detransformedChunk);
                     detransformedChunk = decompressChunk;
@@ -467,7 +469,7 @@ class RemoteStorageManagerTest extends RsaKeyAwareTest {
             logSegmentPath, offsetIndexFilePath, timeIndexFilePath, Optional.empty(),
             producerSnapshotFilePath, ByteBuffer.wrap(LEADER_EPOCH_INDEX_BYTES));
 
-        final boolean requires = rsm.requiresCompression(logSegmentData);
+        final boolean requires = rsm.requiresCompression(REMOTE_LOG_METADATA, logSegmentData);
         assertThat(requires).isEqualTo(expectedResult);
     }
 
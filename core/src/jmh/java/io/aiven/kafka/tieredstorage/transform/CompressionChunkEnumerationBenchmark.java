@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.github.luben.zstd.ZstdCompressCtx;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the compression of a chunk with a new Zstd context per chunk
+ * and with the pooled context and output buffer reused by {@link CompressionChunkEnumeration}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CompressionChunkEnumerationBenchmark {
+    @Param({"65536", "4194304"})
+    int chunkSize;
+
+    byte[] chunk;
+    ContextPool<CompressionContext> contextPool;
+
+    @Setup
+    public void setUp() {
+        // Record-like content to get a realistic compression ratio.
+        final Random random = new Random(0);
+        final StringBuilder sb = new StringBuilder(chunkSize);
+        while (sb.length() < chunkSize) {
+            sb.append("{\"id\":").append(random.nextInt())
+                .append(",\"name\":\"user-").append(random.nextInt(1000))
+                .append("\",\"amount\":").append(random.nextDouble())
+                .append("}\n");
+        }
+        chunk = sb.substring(0, chunkSize).getBytes(StandardCharsets.UTF_8);
+        contextPool = CompressionContext.pool(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        contextPool.close();
+    }
+
+    @Benchmark
+    public byte[] newContextPerChunk() {
+        try (final ZstdCompressCtx compressCtx = new ZstdCompressCtx()) {
+            compressCtx.setPledgedSrcSize(chunk.length);
+            compressCtx.setContentSize(true);
+            return compressCtx.compress(chunk);
+        }
+    }
+
+    @Benchmark
+    public byte[] reusedContext() {
+        return new CompressionChunkEnumeration(
+            new SingleChunk(chunk), CompressionCodec.ZSTD, CompressionCodec.ZSTD_DEFAULT_LEVEL, null, null, contextPool)
+            .nextElement();
+    }
+
+    private static class SingleChunk implements TransformChunkEnumeration {
+        private final byte[] chunk;
+
+        SingleChunk(final byte[] chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int originalChunkSize() {
+            return chunk.length;
+        }
+
+        @Override
+        public Integer transformedChunkSize() {
+            return chunk.length;
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            return true;
+        }
+
+        @Override
+        public byte[] nextElement() {
+            return chunk;
+        }
+    }
+}
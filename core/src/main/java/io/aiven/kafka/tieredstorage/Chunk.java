@@ -16,6 +16,8 @@
 
 package io.aiven.kafka.tieredstorage;
 
+import java.util.Objects;
+
 import io.aiven.kafka.tieredstorage.storage.BytesRange;
 
 public class Chunk {
@@ -24,15 +26,39 @@ public class Chunk {
     public final int originalSize;
     public final int transformedPosition;
     public final int transformedSize;
+    /**
+     * Whether the chunk is stored raw, i.e. without compression even though the segment is compressed.
+     */
+    public final boolean raw;
+    /**
+     * The CRC32C checksum of the original content of the chunk, or {@code null} if it wasn't recorded.
+     */
+    public final Integer checksum;
 
     public Chunk(final int id,
                  final int originalPosition, final int originalSize,
                  final int transformedPosition, final int transformedSize) {
+        this(id, originalPosition, originalSize, transformedPosition, transformedSize, false);
+    }
+
+    public Chunk(final int id,
+                 final int originalPosition, final int originalSize,
+                 final int transformedPosition, final int transformedSize,
+                 final boolean raw) {
+        this(id, originalPosition, originalSize, transformedPosition, transformedSize, raw, null);
+    }
+
+    public Chunk(final int id,
+                 final int originalPosition, final int originalSize,
+                 final int transformedPosition, final int transformedSize,
+                 final boolean raw, final Integer checksum) {
         this.id = id;
         this.originalPosition = originalPosition;
         this.originalSize = originalSize;
         this.transformedPosition = transformedPosition;
         this.transformedSize = transformedSize;
+        this.raw = raw;
+        this.checksum = checksum;
     }
 
     @Override
@@ -46,19 +72,13 @@ public class Chunk {
 
         final Chunk that = (Chunk) o;
 
-        if (id != that.id) {
-            return false;
-        }
-        if (originalPosition != that.originalPosition) {
-            return false;
-        }
-        if (originalSize != that.originalSize) {
-            return false;
-        }
-        if (transformedPosition != that.transformedPosition) {
-            return false;
-        }
-        return transformedSize == that.transformedSize;
+        return id == that.id
+            && originalPosition == that.originalPosition
+            && originalSize == that.originalSize
+            && transformedPosition == that.transformedPosition
+            && transformedSize == that.transformedSize
+            && raw == that.raw
+            && Objects.equals(checksum, that.checksum);
     }
 
     public BytesRange range() {
@@ -72,6 +92,8 @@ public class Chunk {
         result = 31 * result + originalSize;
         result = 31 * result + transformedPosition;
         result = 31 * result + transformedSize;
+        result = 31 * result + (raw ? 1 : 0);
+        result = 31 * result + Objects.hashCode(checksum);
         return result;
     }
 
@@ -83,6 +105,8 @@ public class Chunk {
             + ", originalSize=" + originalSize
             + ", transformedPosition=" + transformedPosition
             + ", transformedSize=" + transformedSize
+            + ", raw=" + raw
+            + ", checksum=" + checksum
             + ")";
     }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.kafka.common.TopicIdPartition;
+import org.apache.kafka.common.Uuid;
+
+import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
+import io.aiven.kafka.tieredstorage.storage.ObjectFetcher;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectUploader;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the Zstd compression dictionaries of topics.
+ *
+ * <p>The dictionary of a topic is trained on slices of the first compressed segment of this topic
+ * and uploaded as a separate object, which the manifests of the segments compressed with it refer to.
+ * The key of the dictionary is then uploaded as the current dictionary of the topic,
+ * so other brokers and later runs of the plugin reuse it instead of training their own.
+ * If training fails, for example because there is too little data in the segment,
+ * the segment is compressed without a dictionary and training is attempted again with the next segment.
+ *
+ * <p>Brokers training a dictionary of a topic at the same time upload one each. Both remain valid
+ * for the segments compressed with them, and the one uploaded last as current is used afterwards.
+ */
+public class CompressionDictionaries implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(CompressionDictionaries.class);
+
+    private final ObjectKeyFactory objectKeyFactory;
+    private final CompressionDictionaryTrainer trainer;
+    private final int level;
+
+    private final ConcurrentMap<Uuid, TopicDictionary> dictionaries = new ConcurrentHashMap<>();
+
+    /**
+     * @param chunkSize      the size of chunks, which are compressed independently.
+     * @param dictionarySize the maximum size of a dictionary.
+     * @param level          the Zstd compression level to use with the dictionaries.
+     */
+    public CompressionDictionaries(final ObjectKeyFactory objectKeyFactory,
+                                   final int chunkSize,
+                                   final int dictionarySize,
+                                   final int level) {
+        this.objectKeyFactory = Objects.requireNonNull(objectKeyFactory, "objectKeyFactory cannot be null");
+        this.trainer = new CompressionDictionaryTrainer(chunkSize, dictionarySize);
+        this.level = level;
+    }
+
+    /**
+     * Gets the dictionary of the topic, fetching the current one or, if there's none yet,
+     * training it on the segment and uploading it.
+     *
+     * @return the dictionary or {@code null} if it couldn't be trained.
+     */
+    public CompressionDictionary get(final TopicIdPartition topicIdPartition,
+                                     final Path logSegment,
+                                     final ObjectFetcher fetcher,
+                                     final ObjectUploader uploader)
+        throws IOException, StorageBackendException {
+        final TopicDictionary topicDictionary =
+            dictionaries.computeIfAbsent(topicIdPartition.topicId(), ignored -> new TopicDictionary());
+        // Segments of different partitions of the topic may be uploaded concurrently, train only one dictionary.
+        synchronized (topicDictionary) {
+            if (topicDictionary.dictionary == null) {
+                topicDictionary.dictionary = fetchCurrent(topicIdPartition, fetcher);
+            }
+            if (topicDictionary.dictionary == null) {
+                topicDictionary.dictionary = trainAndUpload(topicIdPartition, logSegment, uploader);
+            }
+            return topicDictionary.dictionary;
+        }
+    }
+
+    private CompressionDictionary fetchCurrent(final TopicIdPartition topicIdPartition,
+                                               final ObjectFetcher fetcher)
+        throws IOException, StorageBackendException {
+        final String dictionaryId;
+        try (final InputStream is = fetcher.fetch(objectKeyFactory.currentDictionaryKey(topicIdPartition))) {
+            dictionaryId = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (final KeyNotFoundException e) {
+            return null;
+        }
+        final ObjectKey key = objectKeyFactory.dictionaryKey(topicIdPartition, dictionaryId);
+        final byte[] dictionary;
+        try (final InputStream is = fetcher.fetch(key)) {
+            dictionary = is.readAllBytes();
+        } catch (final KeyNotFoundException e) {
+            log.warn("Current compression dictionary {} of {} not found, training a new one",
+                key, topicIdPartition.topicPartition().topic());
+            return null;
+        }
+        log.info("Using compression dictionary {} of {}", key, topicIdPartition.topicPartition().topic());
+        return new CompressionDictionary(key.value(), new ZstdDictCompress(dictionary, level));
+    }
+
+    private CompressionDictionary trainAndUpload(final TopicIdPartition topicIdPartition,
+                                                 final Path logSegment,
+                                                 final ObjectUploader uploader)
+        throws IOException, StorageBackendException {
+        final byte[] dictionary;
+        try {
+            dictionary = trainer.train(logSegment);
+        } catch (final ZstdException e) {
+            log.warn("Failed to train compression dictionary for {} on {}, compressing without dictionary",
+                topicIdPartition.topicPartition().topic(), logSegment, e);
+            return null;
+        }
+
+        final String dictionaryId = Uuid.randomUuid().toString();
+        final ObjectKey key = objectKeyFactory.dictionaryKey(topicIdPartition, dictionaryId);
+        uploader.upload(List.of(ByteBuffer.wrap(dictionary)), key);
+        // The dictionary is uploaded before it's made current, so the current one always exists.
+        uploader.upload(List.of(ByteBuffer.wrap(dictionaryId.getBytes(StandardCharsets.UTF_8))),
+            objectKeyFactory.currentDictionaryKey(topicIdPartition));
+        log.info("Uploaded compression dictionary of {} bytes for {} to {}",
+            dictionary.length, topicIdPartition.topicPartition().topic(), key);
+        return new CompressionDictionary(key.value(), new ZstdDictCompress(dictionary, level));
+    }
+
+    /**
+     * Closes the loaded dictionaries. They must not be used by compressions afterwards.
+     */
+    @Override
+    public void close() {
+        for (final TopicDictionary topicDictionary : dictionaries.values()) {
+            synchronized (topicDictionary) {
+                if (topicDictionary.dictionary != null) {
+                    topicDictionary.dictionary.dictionary.close();
+                }
+            }
+        }
+        dictionaries.clear();
+    }
+
+    private static class TopicDictionary {
+        private CompressionDictionary dictionary;
+    }
+
+    public static class CompressionDictionary {
+        public final String key;
+        public final ZstdDictCompress dictionary;
+
+        CompressionDictionary(final String key, final ZstdDictCompress dictionary) {
+            this.key = key;
+            this.dictionary = dictionary;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.github.luben.zstd.ZstdDictTrainer;
+import com.github.luben.zstd.ZstdException;
+
+/**
+ * Trains Zstd compression dictionaries on samples of log segments.
+ */
+final class CompressionDictionaryTrainer {
+    // Zstd recommends to train a dictionary on about 100 times more data than the dictionary size.
+    static final int SAMPLES_TO_DICTIONARY_SIZE_RATIO = 100;
+    // Zstd trains better on many small samples than on few large ones, so chunks are sampled by slices.
+    static final int MAX_SAMPLE_SIZE = 4 * 1024;
+
+    private final int chunkSize;
+    private final int dictionarySize;
+
+    /**
+     * @param chunkSize      the size of chunks, which are compressed independently.
+     * @param dictionarySize the maximum size of a dictionary.
+     */
+    CompressionDictionaryTrainer(final int chunkSize, final int dictionarySize) {
+        this.chunkSize = chunkSize;
+        this.dictionarySize = dictionarySize;
+    }
+
+    /**
+     * Trains a dictionary on the slices of the segment.
+     *
+     * @throws ZstdException if training fails, for example because there is too little data in the segment.
+     */
+    byte[] train(final Path logSegment) throws IOException {
+        try (final SeekableByteChannel channel = Files.newByteChannel(logSegment)) {
+            final long segmentSize = channel.size();
+            final int sampleSize = Math.min(chunkSize, MAX_SAMPLE_SIZE);
+            final long samplesSize = Math.min((long) dictionarySize * SAMPLES_TO_DICTIONARY_SIZE_RATIO, segmentSize);
+            // The samples are spread over the whole segment rather than taken from its start.
+            final long stride = Math.max(sampleSize, segmentSize / Math.max(1, samplesSize / sampleSize));
+            final ZstdDictTrainer trainer = new ZstdDictTrainer((int) Math.min(samplesSize, Integer.MAX_VALUE),
+                dictionarySize);
+            for (long position = 0; position < segmentSize; position += stride) {
+                final ByteBuffer sample = ByteBuffer.allocate((int) Math.min(sampleSize, segmentSize - position));
+                readFully(channel, sample, position);
+                if (!trainer.addSample(sample.array())) {
+                    break;
+                }
+            }
+            return trainer.trainSamples();
+        }
+    }
+
+    private static void readFully(final SeekableByteChannel channel, final ByteBuffer buffer, final long position)
+        throws IOException {
+        channel.position(position);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Segment truncated while sampled");
+            }
+        }
+    }
+}
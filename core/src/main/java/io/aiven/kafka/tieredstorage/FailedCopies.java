@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.util.Objects;
+
+import org.apache.kafka.server.log.remote.storage.RemoteLogSegmentId;
+
+import io.aiven.kafka.tieredstorage.manifest.SegmentCompressionMetadataV1;
+import io.aiven.kafka.tieredstorage.manifest.index.ChunkIndex;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Remembers the failed copies of segments and the segment logs they uploaded,
+ * so only retries of copies look for objects uploaded already.
+ *
+ * <p>A first copy can't find any, and looking for them would cost a request per object.
+ * The attempts are kept in memory for a limited number of segments, as they only save work:
+ * a retry without one uploads everything again.
+ */
+class FailedCopies {
+    // Failed copies are retried soon, so only the latest ones are worth remembering.
+    private static final int MAX_SIZE = 100;
+
+    private final Cache<RemoteLogSegmentId, Attempt> attempts = Caffeine.newBuilder()
+        .maximumSize(MAX_SIZE)
+        .build();
+
+    /**
+     * Returns the last failed attempt to copy the segment, or {@code null} if there is none.
+     */
+    Attempt lastAttempt(final RemoteLogSegmentId remoteLogSegmentId) {
+        return attempts.getIfPresent(remoteLogSegmentId);
+    }
+
+    void failed(final RemoteLogSegmentId remoteLogSegmentId, final Attempt attempt) {
+        attempts.put(remoteLogSegmentId, attempt);
+    }
+
+    void remove(final RemoteLogSegmentId remoteLogSegmentId) {
+        attempts.invalidate(remoteLogSegmentId);
+    }
+
+    /**
+     * What an attempt to copy a segment uploaded.
+     */
+    static class Attempt {
+        private volatile ChunkIndex logChunkIndex;
+        private volatile SegmentCompressionMetadataV1 logCompression;
+
+        /**
+         * Records the uploaded segment log. Encrypted logs must not be recorded, as their data keys are not reused.
+         */
+        void logUploaded(final ChunkIndex chunkIndex, final SegmentCompressionMetadataV1 compression) {
+            this.logCompression = compression;
+            this.logChunkIndex = chunkIndex;
+        }
+
+        /**
+         * Returns the chunk index of the uploaded segment log if it was compressed the same way and has
+         * the checksums of the original chunks to check the segment file against, or {@code null} otherwise.
+         *
+         * <p>The other transformation settings can't change between attempts of the same plugin instance.
+         */
+        ChunkIndex uploadedLog(final SegmentCompressionMetadataV1 compression) {
+            final ChunkIndex chunkIndex = logChunkIndex;
+            if (chunkIndex == null
+                || chunkIndex.chunks().isEmpty()
+                || !Objects.equals(logCompression, compression)
+                || chunkIndex.chunks().stream().anyMatch(chunk -> chunk.checksum == null)) {
+                return null;
+            }
+            return chunkIndex;
+        }
+    }
+}
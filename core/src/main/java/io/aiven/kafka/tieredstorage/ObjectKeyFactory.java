@@ -38,12 +38,20 @@ public final class ObjectKeyFactory {
     /**
      * Supported files and extensions, including log, index types, and segment manifest.
      *
+     * <p>A packed segment has all of them in a single object instead.
+     * Small segments of a partition may be stored in a shared pack, which is described by its pack index;
+     * their keys are created with {@link #packKey}.
+     *
      * @see org.apache.kafka.server.log.remote.storage.RemoteStorageManager.IndexType
+     * @see io.aiven.kafka.tieredstorage.manifest.PackedSegmentFooter
      */
     public enum Suffix {
         LOG("log"),
         INDEXES("indexes"),
-        MANIFEST("rsm-manifest");
+        MANIFEST("rsm-manifest"),
+        PACKED("rsm-packed"),
+        PACK("rsm-pack"),
+        PACK_INDEX("rsm-pack-index");
 
         public final String value;
 
@@ -52,6 +60,8 @@ public final class ObjectKeyFactory {
         }
     }
 
+    static final String DICTIONARY_SUFFIX = "zstd-dict";
+
     private final String prefix;
     private final BiFunction<String, String, ObjectKey> objectKeyConstructor;
 
@@ -107,6 +117,62 @@ public final class ObjectKeyFactory {
         return objectKeyConstructor.apply(prefix, main + "." + suffix.value);
     }
 
+    /**
+     * Creates the object key/path of a pack of small segments of the partition of the segment,
+     * prioritizing the prefix in custom metadata, with the following format:
+     *
+     * <pre>
+     * $(prefix)$(topic_name)-$(topic_uuid)/$(partition)/$(pack_id).$(suffix)
+     * </pre>
+     *
+     * @see ObjectKeyFactory#packId(RemoteLogSegmentMetadata)
+     */
+    public ObjectKey packKey(final Map<Integer, Object> fields,
+                             final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                             final String packId,
+                             final Suffix suffix) {
+        Objects.requireNonNull(fields, "fields cannot be null");
+        Objects.requireNonNull(remoteLogSegmentMetadata, "remoteLogSegmentMetadata cannot be null");
+        Objects.requireNonNull(packId, "packId cannot be null");
+        Objects.requireNonNull(suffix, "suffix cannot be null");
+
+        final var prefix = (String) fields.getOrDefault(OBJECT_PREFIX.index(), this.prefix);
+        final TopicIdPartition topicIdPartition = remoteLogSegmentMetadata.remoteLogSegmentId().topicIdPartition();
+        return objectKeyConstructor.apply(prefix, partitionPath(topicIdPartition) + "/" + packId + "." + suffix.value);
+    }
+
+    /**
+     * Creates the object key/path of a compression dictionary of a topic in the following format:
+     *
+     * <pre>
+     * $(prefix)$(topic_name)-$(topic_uuid)/dictionaries/$(dictionary_id).zstd-dict
+     * </pre>
+     *
+     * <p>Dictionaries are shared by segments of all partitions of the topic.
+     */
+    public ObjectKey dictionaryKey(final TopicIdPartition topicIdPartition, final String dictionaryId) {
+        Objects.requireNonNull(topicIdPartition, "topicIdPartition cannot be null");
+        Objects.requireNonNull(dictionaryId, "dictionaryId cannot be null");
+
+        return objectKeyConstructor.apply(prefix, topicPath(topicIdPartition)
+            + "/dictionaries/" + dictionaryId + "." + DICTIONARY_SUFFIX);
+    }
+
+    /**
+     * Creates the object key/path of the current compression dictionary of a topic in the following format:
+     *
+     * <pre>
+     * $(prefix)$(topic_name)-$(topic_uuid)/dictionaries/current
+     * </pre>
+     *
+     * <p>It holds the ID of the dictionary used for new segments of the topic.
+     */
+    public ObjectKey currentDictionaryKey(final TopicIdPartition topicIdPartition) {
+        Objects.requireNonNull(topicIdPartition, "topicIdPartition cannot be null");
+
+        return objectKeyConstructor.apply(prefix, topicPath(topicIdPartition) + "/dictionaries/current");
+    }
+
     /**
      * Prepares the main part of the key path containing remote log segment metadata, following this format:
      *
@@ -115,12 +181,28 @@ public final class ObjectKeyFactory {
      * </pre>
      */
     public static String mainPath(final RemoteLogSegmentMetadata remoteLogSegmentMetadata) {
+        return partitionPath(remoteLogSegmentMetadata.remoteLogSegmentId().topicIdPartition())
+            + "/" + packId(remoteLogSegmentMetadata);
+    }
+
+    /**
+     * Prepares the ID of a pack started by the segment, which is also the file name part of the segment keys:
+     *
+     * <pre>
+     * $(000+start_offset length=20)-$(segment_uuid)
+     * </pre>
+     */
+    public static String packId(final RemoteLogSegmentMetadata remoteLogSegmentMetadata) {
         final RemoteLogSegmentId remoteLogSegmentId = remoteLogSegmentMetadata.remoteLogSegmentId();
-        final TopicIdPartition topicIdPartition = remoteLogSegmentId.topicIdPartition();
+        return filenamePrefixFromOffset(remoteLogSegmentMetadata.startOffset()) + "-" + remoteLogSegmentId.id();
+    }
+
+    private static String partitionPath(final TopicIdPartition topicIdPartition) {
+        return topicPath(topicIdPartition) + "/" + topicIdPartition.topicPartition().partition();
+    }
 
-        return topicIdPartition.topicPartition().topic() + "-" + topicIdPartition.topicId()
-            + "/" + topicIdPartition.topicPartition().partition()
-            + "/" + filenamePrefixFromOffset(remoteLogSegmentMetadata.startOffset()) + "-" + remoteLogSegmentId.id();
+    private static String topicPath(final TopicIdPartition topicIdPartition) {
+        return topicIdPartition.topicPartition().topic() + "-" + topicIdPartition.topicId();
     }
 
     public String prefix() {
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.apache.kafka.common.Uuid;
+
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+
+/**
+ * A pack that segments of a partition are added to until it's sealed.
+ *
+ * <p>Only the ranges of the segments are kept, their content stays in their own objects until the pack is sealed.
+ * Removing a segment leaves a gap at its range, unless it's the last one, so the ranges of the other segments
+ * don't change. It's not thread-safe, the segments of a partition are added and removed one at a time.
+ */
+class OpenSegmentPack {
+    private final String packId;
+    private final ObjectKey packKey;
+    private final ObjectKey indexKey;
+    private final long startedMs;
+    private final List<Member> members = new ArrayList<>();
+
+    OpenSegmentPack(final String packId, final ObjectKey packKey, final ObjectKey indexKey, final long startedMs) {
+        this.packId = Objects.requireNonNull(packId, "packId cannot be null");
+        this.packKey = Objects.requireNonNull(packKey, "packKey cannot be null");
+        this.indexKey = Objects.requireNonNull(indexKey, "indexKey cannot be null");
+        this.startedMs = startedMs;
+    }
+
+    ObjectKey packKey() {
+        return packKey;
+    }
+
+    ObjectKey indexKey() {
+        return indexKey;
+    }
+
+    long startedMs() {
+        return startedMs;
+    }
+
+    List<Member> members() {
+        return List.copyOf(members);
+    }
+
+    boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    /**
+     * Returns the size of the pack, up to the end of its last segment.
+     */
+    int size() {
+        if (members.isEmpty()) {
+            return 0;
+        }
+        final Member last = members.get(members.size() - 1);
+        return last.position + last.size;
+    }
+
+    /**
+     * Adds the segment at the end of the pack, removing its earlier range if any.
+     */
+    SegmentPackMember add(final Uuid segmentId, final ObjectKey segmentKey, final int size) {
+        remove(segmentId);
+        final Member member = new Member(segmentId, segmentKey, size(), size);
+        members.add(member);
+        return new SegmentPackMember(packId, member.position, member.size);
+    }
+
+    /**
+     * Removes the segment from the pack.
+     *
+     * @return whether the segment was in the pack.
+     */
+    boolean remove(final Uuid segmentId) {
+        return members.removeIf(m -> m.segmentId.equals(segmentId));
+    }
+
+    SegmentPackIndex index() {
+        return new SegmentPackIndex(members.stream()
+            .map(m -> new SegmentPackIndex.Entry(m.segmentId.toString(), m.position, m.size))
+            .collect(Collectors.toList()));
+    }
+
+    @Override
+    public String toString() {
+        return "OpenSegmentPack("
+            + "packKey=" + packKey
+            + ", segments=" + members.size()
+            + ", size=" + size()
+            + ")";
+    }
+
+    /**
+     * A segment of the pack, and the key of its own object holding its content until the pack is sealed.
+     */
+    static class Member {
+        final Uuid segmentId;
+        final ObjectKey key;
+        final int position;
+        final int size;
+
+        Member(final Uuid segmentId, final ObjectKey key, final int position, final int size) {
+            this.segmentId = segmentId;
+            this.key = key;
+            this.position = position;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.Optional;
+
+import io.aiven.kafka.tieredstorage.storage.BytesRange;
+import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
+import io.aiven.kafka.tieredstorage.storage.ObjectFetcher;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectMetadata;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.storage.VersionedContent;
+
+/**
+ * The fetcher that reads segments added to packs from ranges of the packs, and other objects as they are.
+ *
+ * <p>So the segments of packs are read the same way as the segments uploaded as single objects.
+ * A segment whose pack isn't found is read from its own object, as the pack isn't sealed yet.
+ * Its own object is deleted only once the pack is sealed, so the pack is tried again if it's gone meanwhile.
+ *
+ * @see PackMemberObjectKey
+ */
+class PackMemberObjectFetcher implements ObjectFetcher {
+    private final ObjectFetcher delegate;
+
+    PackMemberObjectFetcher(final ObjectFetcher delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+    }
+
+    @Override
+    public InputStream fetch(final ObjectKey key) throws StorageBackendException {
+        if (key instanceof PackMemberObjectKey) {
+            final var member = (PackMemberObjectKey) key;
+            return fetchMember(member, member.range(), delegate::fetch);
+        }
+        return delegate.fetch(key);
+    }
+
+    @Override
+    public InputStream fetch(final ObjectKey key, final BytesRange range) throws StorageBackendException {
+        if (key instanceof PackMemberObjectKey) {
+            final var member = (PackMemberObjectKey) key;
+            return fetchMember(member, member.packRange(range), segment -> delegate.fetch(segment, range));
+        }
+        return delegate.fetch(key, range);
+    }
+
+    @Override
+    public InputStream fetchSuffix(final ObjectKey key, final int size) throws StorageBackendException {
+        if (key instanceof PackMemberObjectKey) {
+            final var member = (PackMemberObjectKey) key;
+            return fetchMember(member, member.packSuffixRange(size), segment -> delegate.fetchSuffix(segment, size));
+        }
+        return delegate.fetchSuffix(key, size);
+    }
+
+    private InputStream fetchMember(final PackMemberObjectKey member,
+                                    final BytesRange packRange,
+                                    final SegmentFetch segmentFetch) throws StorageBackendException {
+        try {
+            return delegate.fetch(member.pack(), packRange);
+        } catch (final KeyNotFoundException e) {
+            // The pack isn't sealed yet.
+        }
+        try {
+            return segmentFetch.fetch(member.segment());
+        } catch (final KeyNotFoundException e) {
+            // The pack was sealed meanwhile.
+            return delegate.fetch(member.pack(), packRange);
+        }
+    }
+
+    @Override
+    public Optional<ObjectMetadata> metadata(final ObjectKey key) throws StorageBackendException {
+        if (key instanceof PackMemberObjectKey) {
+            return Optional.empty();
+        }
+        return delegate.metadata(key);
+    }
+
+    @Override
+    public VersionedContent fetchVersioned(final ObjectKey key) throws StorageBackendException {
+        if (key instanceof PackMemberObjectKey) {
+            // A range of a pack has no version of its own.
+            return ObjectFetcher.super.fetchVersioned(key);
+        }
+        return delegate.fetchVersioned(key);
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    @FunctionalInterface
+    private interface SegmentFetch {
+        InputStream fetch(ObjectKey segment) throws StorageBackendException;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.util.Objects;
+
+import io.aiven.kafka.tieredstorage.storage.BytesRange;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+
+/**
+ * The key of a segment added to a pack, i.e. the range of the pack object holding the segment.
+ *
+ * <p>Until the pack is sealed, the segment is held by its own object in the packed layout instead,
+ * with the same content.
+ *
+ * <p>Its value is not the path of an object, but distinguishes the segments of a pack, e.g. in caches.
+ * It's resolved to ranges of the pack or to the object of the segment by {@link PackMemberObjectFetcher}.
+ */
+class PackMemberObjectKey implements ObjectKey {
+    private final ObjectKey pack;
+    private final BytesRange range;
+    private final ObjectKey segment;
+
+    PackMemberObjectKey(final ObjectKey pack, final BytesRange range, final ObjectKey segment) {
+        this.pack = Objects.requireNonNull(pack, "pack cannot be null");
+        this.range = Objects.requireNonNull(range, "range cannot be null");
+        if (range.isEmpty()) {
+            throw new IllegalArgumentException("range cannot be empty");
+        }
+        this.segment = Objects.requireNonNull(segment, "segment cannot be null");
+    }
+
+    ObjectKey pack() {
+        return pack;
+    }
+
+    /**
+     * Returns the key of the object holding the segment until its pack is sealed.
+     */
+    ObjectKey segment() {
+        return segment;
+    }
+
+    BytesRange range() {
+        return range;
+    }
+
+    /**
+     * Returns the range of the pack holding the range of the segment, up to the end of the segment.
+     */
+    BytesRange packRange(final BytesRange segmentRange) {
+        if (segmentRange.firstPosition() >= range.size()) {
+            throw new IllegalArgumentException(
+                "Range " + segmentRange + " starts beyond the segment of size " + range.size() + " in " + pack);
+        }
+        final int from = range.firstPosition() + segmentRange.firstPosition();
+        if (segmentRange.isEmpty()) {
+            return BytesRange.empty(from);
+        }
+        return BytesRange.of(from, range.firstPosition() + Math.min(segmentRange.lastPosition(), range.size() - 1));
+    }
+
+    /**
+     * Returns the range of the last bytes of the segment.
+     */
+    BytesRange packSuffixRange(final int size) {
+        final int suffixSize = Math.min(size, range.size());
+        return BytesRange.of(range.lastPosition() - suffixSize + 1, range.lastPosition());
+    }
+
+    @Override
+    public String value() {
+        return pack.value() + "@" + range.firstPosition();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final PackMemberObjectKey that = (PackMemberObjectKey) o;
+        return Objects.equals(pack, that.pack)
+            && Objects.equals(range, that.range)
+            && Objects.equals(segment, that.segment);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(pack, range, segment);
+    }
+
+    @Override
+    public String toString() {
+        return pack + "@" + range.firstPosition();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import io.aiven.kafka.tieredstorage.manifest.PackedSegmentFooter;
+import io.aiven.kafka.tieredstorage.storage.ByteBuffersInputStream;
+import io.aiven.kafka.tieredstorage.storage.ObjectUploader;
+
+/**
+ * The content of the object a segment is packed into, see {@link PackedSegmentFooter}.
+ *
+ * <p>The indexes, the manifest and the footer follow the log, so they are made only once the log is read
+ * to its end, when the size of the transformed log and its chunk index are known.
+ */
+class PackedSegmentContent implements Enumeration<InputStream> {
+    private final CountingInputStream log;
+    private final List<ByteBuffer> indexes;
+    private final ManifestWriter manifestWriter;
+    private int enumerated = 0;
+
+    @FunctionalInterface
+    interface ManifestWriter {
+        /**
+         * Returns the serialized manifest, with the indexes at the given position.
+         *
+         * @param indexesPosition the position of the indexes, right after the log.
+         */
+        byte[] write(int indexesPosition) throws IOException;
+    }
+
+    /**
+     * @param log            the transformed segment log.
+     * @param indexes        the transformed indexes, in the order of their positions in the manifest.
+     * @param manifestWriter writes the manifest once the log is read.
+     */
+    PackedSegmentContent(final InputStream log,
+                         final List<ByteBuffer> indexes,
+                         final ManifestWriter manifestWriter) {
+        this.log = new CountingInputStream(Objects.requireNonNull(log, "log cannot be null"));
+        this.indexes = Objects.requireNonNull(indexes, "indexes cannot be null");
+        this.manifestWriter = Objects.requireNonNull(manifestWriter, "manifestWriter cannot be null");
+    }
+
+    @Override
+    public boolean hasMoreElements() {
+        return enumerated < 2;
+    }
+
+    @Override
+    public InputStream nextElement() {
+        if (!hasMoreElements()) {
+            throw new NoSuchElementException();
+        }
+        enumerated++;
+        return enumerated == 1 ? log : new TrailerInputStream();
+    }
+
+    private List<ByteBuffer> trailer() throws IOException {
+        if (log.count > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Transformed log of " + log.count + " bytes is too large to be packed");
+        }
+        final int indexesPosition = (int) log.count;
+        final byte[] manifest = manifestWriter.write(indexesPosition);
+        final PackedSegmentFooter footer = new PackedSegmentFooter(
+            indexesPosition, indexesPosition + ObjectUploader.remaining(indexes), manifest.length);
+
+        final List<ByteBuffer> trailer = new ArrayList<>(indexes.size() + 2);
+        trailer.addAll(indexes);
+        trailer.add(ByteBuffer.wrap(manifest));
+        trailer.add(footer.toByteBuffer());
+        return trailer;
+    }
+
+    InputStream toInputStream() {
+        return new SequenceInputStream(this);
+    }
+
+    /**
+     * Makes the trailer on the first read, as the sequence stream requests it also when closed before the end.
+     */
+    private class TrailerInputStream extends InputStream {
+        private InputStream trailer = null;
+
+        @Override
+        public int read() throws IOException {
+            return trailer().read();
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            return trailer().read(b, off, len);
+        }
+
+        private InputStream trailer() throws IOException {
+            if (trailer == null) {
+                trailer = new ByteBuffersInputStream(PackedSegmentContent.this.trailer());
+            }
+            return trailer;
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count = 0;
+
+        CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
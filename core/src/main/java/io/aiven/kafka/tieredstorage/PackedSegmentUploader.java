@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.kafka.server.log.remote.storage.RemoteLogSegmentMetadata;
+
+import io.aiven.kafka.tieredstorage.manifest.SegmentCompressionMetadataV1;
+import io.aiven.kafka.tieredstorage.manifest.SegmentEncryptionMetadataV1;
+import io.aiven.kafka.tieredstorage.manifest.SegmentIndexesV1;
+import io.aiven.kafka.tieredstorage.manifest.SegmentManifestV1;
+import io.aiven.kafka.tieredstorage.manifest.index.ChunkIndex;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectUploader;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Uploads the log, the indexes and the manifest of a segment as a single packed object,
+ * see {@link io.aiven.kafka.tieredstorage.manifest.PackedSegmentFooter}.
+ *
+ * <p>The uploader is passed to each call, as it may be replaced after the plugin is configured.
+ */
+class PackedSegmentUploader {
+    private final ObjectKeyFactory objectKeyFactory;
+    private final ObjectMapper mapper;
+
+    PackedSegmentUploader(final ObjectKeyFactory objectKeyFactory, final ObjectMapper mapper) {
+        this.objectKeyFactory = objectKeyFactory;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Uploads the packed object, writing the manifest once the log is read.
+     *
+     * @param logContent     the transformed segment log.
+     * @param chunkIndex     the chunk index of the log, known once it's read to its end.
+     * @param indexes        the transformed indexes, in the order of their positions in {@code segmentIndexes}.
+     * @param segmentIndexes the positions of the indexes relative to the first one.
+     * @return the size of the uploaded object.
+     */
+    long upload(final ObjectUploader uploader,
+                final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                final InputStream logContent,
+                final Supplier<ChunkIndex> chunkIndex,
+                final List<ByteBuffer> indexes,
+                final SegmentIndexesV1 segmentIndexes,
+                final SegmentCompressionMetadataV1 compressionMetadata,
+                final SegmentEncryptionMetadataV1 encryptionMetadata) throws IOException, StorageBackendException {
+        final var packedContent = new PackedSegmentContent(logContent, indexes, indexesPosition ->
+            mapper.writeValueAsBytes(new SegmentManifestV1(
+                chunkIndex.get(),
+                segmentIndexes.movedBy(indexesPosition),
+                compressionMetadata,
+                encryptionMetadata,
+                remoteLogSegmentMetadata)));
+        final ObjectKey key = objectKeyFactory.key(remoteLogSegmentMetadata, ObjectKeyFactory.Suffix.PACKED);
+        try (final InputStream content = packedContent.toInputStream()) {
+            return uploader.upload(
+                content, key, remoteLogSegmentMetadata.segmentSizeInBytes() + ObjectUploader.remaining(indexes));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectUploader;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.storage.UploadCheckpoint;
+
+/**
+ * The uploader that passes the uploaded content through an {@link UploadRateLimiter}.
+ *
+ * <p>Streams and channels are limited as the backend reads them. The bytes of each read are acquired
+ * right after it returns, so the throttling delays the next read, not the current one,
+ * and a single read may go over the limit by up to its own size.
+ *
+ * <p>Buffers and the byte arrays of conditional writes are passed to the backend as they are,
+ * so their whole size is acquired before the upload starts.
+ * A large buffer upload waits for all its bytes at once and leaves the limiter in debt for the uploads after it.
+ * They are only used for small objects like indexes, manifests and pack indexes.
+ */
+public class RateLimitedObjectUploader implements ObjectUploader {
+    private final ObjectUploader delegate;
+    private final UploadRateLimiter rateLimiter;
+
+    public RateLimitedObjectUploader(final ObjectUploader delegate, final UploadRateLimiter rateLimiter) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+        this.rateLimiter = Objects.requireNonNull(rateLimiter, "rateLimiter cannot be null");
+    }
+
+    @Override
+    public long upload(final InputStream inputStream, final ObjectKey key) throws StorageBackendException {
+        return delegate.upload(new RateLimitedInputStream(inputStream), key);
+    }
+
+    @Override
+    public long upload(final InputStream inputStream,
+                       final ObjectKey key,
+                       final long sizeHint) throws StorageBackendException {
+        return delegate.upload(new RateLimitedInputStream(inputStream), key, sizeHint);
+    }
+
+    @Override
+    public long upload(final ReadableByteChannel channel,
+                       final long contentLength,
+                       final ObjectKey key) throws StorageBackendException {
+        return delegate.upload(new RateLimitedChannel(channel), contentLength, key);
+    }
+
+    @Override
+    public long upload(final List<ByteBuffer> buffers, final ObjectKey key) throws StorageBackendException {
+        try {
+            rateLimiter.acquire(ObjectUploader.remaining(buffers));
+        } catch (final InterruptedIOException e) {
+            throw new StorageBackendException("Failed to upload " + key, e);
+        }
+        return delegate.upload(buffers, key);
+    }
+
+    @Override
+    public long upload(final InputStream inputStream,
+                       final ObjectKey key,
+                       final long sizeHint,
+                       final UploadCheckpoint checkpoint,
+                       final Consumer<UploadCheckpoint> checkpointListener) throws StorageBackendException {
+        return delegate.upload(new RateLimitedInputStream(inputStream), key, sizeHint, checkpoint, checkpointListener);
+    }
+
+    @Override
+    public boolean canResumeUpload(final ObjectKey key, final UploadCheckpoint checkpoint)
+        throws StorageBackendException {
+        return delegate.canResumeUpload(key, checkpoint);
+    }
+
+    @Override
+    public void abortUpload(final ObjectKey key, final String uploadId) throws StorageBackendException {
+        delegate.abortUpload(key, uploadId);
+    }
+
+    @Override
+    public String uploadIfVersion(final byte[] content, final ObjectKey key, final String version)
+        throws StorageBackendException {
+        try {
+            rateLimiter.acquire(content.length);
+        } catch (final InterruptedIOException e) {
+            throw new StorageBackendException("Failed to upload " + key, e);
+        }
+        return delegate.uploadIfVersion(content, key, version);
+    }
+
+    private class RateLimitedInputStream extends FilterInputStream {
+        private RateLimitedInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                rateLimiter.acquire(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = super.read(b, off, len);
+            rateLimiter.acquire(read);
+            return read;
+        }
+    }
+
+    private class RateLimitedChannel implements ReadableByteChannel {
+        private final ReadableByteChannel channel;
+
+        private RateLimitedChannel(final ReadableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            final int read = channel.read(dst);
+            rateLimiter.acquire(read);
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -16,46 +16,57 @@
 
 package io.aiven.kafka.tieredstorage;
 
-import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.KeyPair;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.kafka.common.metrics.MetricConfig;
 import org.apache.kafka.common.metrics.Sensor;
 import org.apache.kafka.common.utils.ByteBufferInputStream;
+import org.apache.kafka.common.utils.ThreadUtils;
 import org.apache.kafka.common.utils.Time;
 import org.apache.kafka.server.log.remote.storage.LogSegmentData;
+import org.apache.kafka.server.log.remote.storage.RemoteLogSegmentId;
 import org.apache.kafka.server.log.remote.storage.RemoteLogSegmentMetadata;
 import org.apache.kafka.server.log.remote.storage.RemoteLogSegmentMetadata.CustomMetadata;
 import org.apache.kafka.server.log.remote.storage.RemoteResourceNotFoundException;
 import org.apache.kafka.server.log.remote.storage.RemoteStorageException;
 
+import io.aiven.kafka.tieredstorage.CompressionDictionaries.CompressionDictionary;
 import io.aiven.kafka.tieredstorage.config.RemoteStorageManagerConfig;
 import io.aiven.kafka.tieredstorage.fetch.ChunkManager;
 import io.aiven.kafka.tieredstorage.fetch.ChunkManagerFactory;
+import io.aiven.kafka.tieredstorage.fetch.ChunkReadAhead;
 import io.aiven.kafka.tieredstorage.fetch.FetchChunkEnumeration;
 import io.aiven.kafka.tieredstorage.fetch.KeyNotFoundRuntimeException;
 import io.aiven.kafka.tieredstorage.fetch.index.MemorySegmentIndexesCache;
 import io.aiven.kafka.tieredstorage.fetch.index.SegmentIndexesCache;
+import io.aiven.kafka.tieredstorage.manifest.SegmentCompressionMetadataV1;
 import io.aiven.kafka.tieredstorage.manifest.SegmentEncryptionMetadata;
 import io.aiven.kafka.tieredstorage.manifest.SegmentEncryptionMetadataV1;
 import io.aiven.kafka.tieredstorage.manifest.SegmentIndex;
@@ -65,6 +76,7 @@ import io.aiven.kafka.tieredstorage.manifest.SegmentManifest;
 import io.aiven.kafka.tieredstorage.manifest.SegmentManifestProvider;
 import io.aiven.kafka.tieredstorage.manifest.SegmentManifestV1;
 import io.aiven.kafka.tieredstorage.manifest.index.ChunkIndex;
+import io.aiven.kafka.tieredstorage.manifest.index.FixedSizeChunkIndex;
 import io.aiven.kafka.tieredstorage.manifest.serde.EncryptionSerdeModule;
 import io.aiven.kafka.tieredstorage.manifest.serde.KafkaTypeSerdeModule;
 import io.aiven.kafka.tieredstorage.metadata.SegmentCustomMetadataBuilder;
@@ -75,23 +87,38 @@ import io.aiven.kafka.tieredstorage.security.AesEncryptionProvider;
 import io.aiven.kafka.tieredstorage.security.DataKeyAndAAD;
 import io.aiven.kafka.tieredstorage.security.RsaEncryptionProvider;
 import io.aiven.kafka.tieredstorage.security.RsaKeyReader;
+import io.aiven.kafka.tieredstorage.storage.ByteBuffersInputStream;
 import io.aiven.kafka.tieredstorage.storage.BytesRange;
 import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
+import io.aiven.kafka.tieredstorage.storage.MemoryBudget;
 import io.aiven.kafka.tieredstorage.storage.ObjectDeleter;
 import io.aiven.kafka.tieredstorage.storage.ObjectFetcher;
 import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectMetadata;
 import io.aiven.kafka.tieredstorage.storage.ObjectUploader;
 import io.aiven.kafka.tieredstorage.storage.StorageBackend;
 import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.transform.BaseBufferTransformChunkEnumeration;
 import io.aiven.kafka.tieredstorage.transform.BaseDetransformChunkEnumeration;
 import io.aiven.kafka.tieredstorage.transform.BaseTransformChunkEnumeration;
+import io.aiven.kafka.tieredstorage.transform.BufferTransformChunkEnumeration;
+import io.aiven.kafka.tieredstorage.transform.BufferTransformFinisher;
+import io.aiven.kafka.tieredstorage.transform.ChunkBufferPool;
+import io.aiven.kafka.tieredstorage.transform.ChunkChecksumChannel;
+import io.aiven.kafka.tieredstorage.transform.CompressionBufferChunkEnumeration;
 import io.aiven.kafka.tieredstorage.transform.CompressionChunkEnumeration;
+import io.aiven.kafka.tieredstorage.transform.CompressionCodec;
+import io.aiven.kafka.tieredstorage.transform.CompressionContext;
+import io.aiven.kafka.tieredstorage.transform.ContextPool;
 import io.aiven.kafka.tieredstorage.transform.DecryptionChunkEnumeration;
 import io.aiven.kafka.tieredstorage.transform.DetransformChunkEnumeration;
 import io.aiven.kafka.tieredstorage.transform.DetransformFinisher;
+import io.aiven.kafka.tieredstorage.transform.EncryptionBufferChunkEnumeration;
 import io.aiven.kafka.tieredstorage.transform.EncryptionChunkEnumeration;
+import io.aiven.kafka.tieredstorage.transform.ParallelTransformChunkEnumeration;
 import io.aiven.kafka.tieredstorage.transform.TransformChunkEnumeration;
 import io.aiven.kafka.tieredstorage.transform.TransformFinisher;
+import io.aiven.kafka.tieredstorage.transform.TransformedChunk;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
@@ -108,16 +135,26 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
     private final Time time;
 
     private Metrics metrics;
+    private MemoryBudget memoryBudget;
 
     private final Executor executor = new ForkJoinPool();
+    private ExecutorService uploadExecutor;
 
     private ObjectFetcher fetcher;
     private ObjectUploader uploader;
     private ObjectDeleter deleter;
     private boolean compressionEnabled;
-    private boolean compressionHeuristic;
+    private SegmentCompressionChecker compressionChecker;
+    private CompressionCodec compressionCodec;
+    private int compressionZstdLevel;
+    private Double compressionRawFallbackMargin;
+    private CompressionDictionaries compressionDictionaries;
     private boolean encryptionEnabled;
     private int chunkSize;
+    private int transformPoolSize;
+    private ExecutorService transformExecutor;
+    private ContextPool<CompressionContext> compressionContextPool;
+    private ChunkBufferPool transformBufferPool;
     private RsaEncryptionProvider rsaEncryptionProvider;
     private AesEncryptionProvider aesEncryptionProvider;
     private ObjectMapper mapper;
@@ -125,6 +162,17 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
     private ObjectKeyFactory objectKeyFactory;
     private SegmentCustomMetadataSerde customMetadataSerde;
     private Set<SegmentCustomMetadataField> customMetadataFields;
+    private ResumableSegmentLogUploader resumableUploader;
+    private PackedSegmentUploader packedSegmentUploader;
+    private final FailedCopies failedCopies = new FailedCopies();
+    private boolean segmentPackedEnabled;
+    private int segmentPackMaxBytes;
+    private long segmentPackMaxAgeMs;
+    private int segmentPackSegmentMaxBytes;
+    private SegmentPacks segmentPacks;
+    private int fetchCoalescedMaxBytes;
+    private ChunkReadAhead fetchReadAhead;
+    private ExecutorService fetchDetransformExecutor;
 
     private SegmentManifestProvider segmentManifestProvider;
     private SegmentIndexesCache segmentIndexesCache;
@@ -147,8 +195,26 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
             .timeWindow(config.getLong(METRICS_SAMPLE_WINDOW_MS_CONFIG), TimeUnit.MILLISECONDS)
             .recordLevel(Sensor.RecordingLevel.forName(config.getString(METRICS_RECORDING_LEVEL_CONFIG)));
         metrics = new Metrics(time, metricConfig);
-        setStorage(config.storage());
+        // Shared by all copies and fetches, so it bounds the buffer memory of the whole broker.
+        memoryBudget = config.memoryBudgetBytes() > 0
+            ? new MemoryBudget(config.memoryBudgetBytes(), config.memoryBudgetMaxWaitMs())
+            : MemoryBudget.unlimited();
+        metrics.registerMemoryBudget(memoryBudget);
+        final StorageBackend storage = config.storage();
+        storage.setMemoryBudget(memoryBudget);
+        setStorage(storage);
+        // Shared by all copies, so it bounds the number of indexes uploads of the broker running at once.
+        uploadExecutor = Executors.newFixedThreadPool(
+            config.uploadIndexesPoolSize(), ThreadUtils.createThreadFactory("rsm-upload-%d", true));
+        if (config.uploadRateLimitBytesPerSecond() > 0) {
+            // The plugin has a single instance per broker, so the limit applies to the whole broker.
+            uploader = new RateLimitedObjectUploader(
+                uploader, new UploadRateLimiter(config.uploadRateLimitBytesPerSecond(), time, metrics));
+        }
+        segmentPackedEnabled = config.segmentPackedEnabled();
+        configureFetch(config);
         objectKeyFactory = new ObjectKeyFactory(config.keyPrefix(), config.keyPrefixMask());
+        configureSegmentPacks(config);
         encryptionEnabled = config.encryptionEnabled();
         if (encryptionEnabled) {
             final Map<String, KeyPair> keyRing = new HashMap<>();
@@ -158,14 +224,42 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
             rsaEncryptionProvider = new RsaEncryptionProvider(config.encryptionKeyPairId(), keyRing);
             aesEncryptionProvider = new AesEncryptionProvider();
         }
-        final ChunkManagerFactory chunkManagerFactory = new ChunkManagerFactory();
-        chunkManagerFactory.configure(configs);
-        chunkManager = chunkManagerFactory.initChunkManager(fetcher, aesEncryptionProvider);
         chunkSize = config.chunkSize();
         compressionEnabled = config.compressionEnabled();
-        compressionHeuristic = config.compressionHeuristicEnabled();
+        compressionCodec = config.compressionCodec();
+        compressionZstdLevel = config.compressionZstdLevel();
+        if (config.compressionHeuristicEnabled()) {
+            compressionChecker = new SegmentCompressionChecker(
+                config.compressionHeuristicSampleBatches(),
+                config.compressionHeuristicTrialSize(),
+                config.compressionHeuristicMinSavings(),
+                compressionCodec,
+                compressionZstdLevel);
+        }
+        compressionRawFallbackMargin = config.compressionRawFallbackMargin().orElse(null);
+        configureResumableUploads(config);
+        if (config.compressionZstdDictionaryEnabled()) {
+            compressionDictionaries = new CompressionDictionaries(
+                objectKeyFactory, chunkSize, config.compressionZstdDictionarySize(), compressionZstdLevel);
+        }
+        transformPoolSize = config.transformPoolSize();
+        if (transformPoolSize > 0) {
+            transformExecutor = Executors.newFixedThreadPool(
+                transformPoolSize, ThreadUtils.createThreadFactory("rsm-transform-%d", true));
+        }
+        // Enough contexts are kept for all threads compressing at once, as compression is CPU-bound.
+        compressionContextPool = CompressionContext.pool(
+            Math.max(transformPoolSize, Runtime.getRuntime().availableProcessors()));
+        if (config.transformBufferPoolSize() > 0) {
+            transformBufferPool = new ChunkBufferPool(
+                config.transformBufferPoolSize(), transformBufferSize(), config.transformBufferPoolDirect());
+            metrics.registerTransformBufferPool(transformBufferPool);
+        }
+        // The buffers of fetched chunks are sized like the transformation ones, so it's configured after them.
+        configureChunkManager(configs, config);
 
         mapper = getObjectMapper();
+        packedSegmentUploader = new PackedSegmentUploader(objectKeyFactory, mapper);
 
         segmentManifestProvider = new SegmentManifestProvider(
             config.segmentManifestCacheSize(),
@@ -181,11 +275,60 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
         customMetadataFields = config.customMetadataKeysIncluded();
     }
 
+    private void configureResumableUploads(final RemoteStorageManagerConfig config) {
+        if (config.uploadCheckpointDir() == null) {
+            return;
+        }
+        resumableUploader = new ResumableSegmentLogUploader(
+            new SegmentUploadCheckpointStore(config.uploadCheckpointDir()), chunkSize, compressionRawFallbackMargin);
+        resumableUploader.expire(uploader, time.milliseconds(), config.uploadCheckpointRetentionMs());
+    }
+
+    private void configureChunkManager(final Map<String, ?> configs, final RemoteStorageManagerConfig config) {
+        final ChunkManagerFactory chunkManagerFactory = new ChunkManagerFactory();
+        chunkManagerFactory.configure(configs);
+        final int fetchDetransformPoolSize = config.fetchDetransformPoolSize();
+        if (fetchDetransformPoolSize > 0) {
+            fetchDetransformExecutor = Executors.newFixedThreadPool(
+                fetchDetransformPoolSize, ThreadUtils.createThreadFactory("rsm-fetch-detransform-%d", true));
+        }
+        // Fetched chunks are de-transformed in heap buffers, as they are copied to heap arrays by the broker anyway.
+        final ChunkBufferPool fetchBufferPool = config.fetchBufferPoolSize() > 0
+            ? new ChunkBufferPool(config.fetchBufferPoolSize(), transformBufferSize(), false)
+            : null;
+        chunkManager = chunkManagerFactory.initChunkManager(fetcher, aesEncryptionProvider, memoryBudget,
+            fetchDetransformExecutor, fetchDetransformPoolSize, fetchBufferPool);
+    }
+
+    private void configureFetch(final RemoteStorageManagerConfig config) {
+        fetchCoalescedMaxBytes = config.fetchCoalescedMaxBytes();
+        if (config.fetchReadAheadChunks() > 0) {
+            fetchReadAhead = new ChunkReadAhead(config.fetchReadAheadChunks(), config.fetchReadAheadConcurrency());
+        }
+    }
+
+    private void configureSegmentPacks(final RemoteStorageManagerConfig config) {
+        segmentPackMaxBytes = config.segmentPackMaxBytes();
+        segmentPackMaxAgeMs = config.segmentPackMaxAgeMs();
+        segmentPackSegmentMaxBytes = config.segmentPackSegmentMaxBytes();
+        // Segments added to packs earlier are deleted from them even if packing is disabled now.
+        segmentPacks = segmentPacks();
+    }
+
     // for testing
     void setStorage(final StorageBackend storage) {
-        fetcher = storage;
+        // Segments added to packs are read from ranges of the packs.
+        fetcher = new PackMemberObjectFetcher(storage);
         uploader = storage;
         deleter = storage;
+        if (segmentPacks != null) {
+            segmentPacks = segmentPacks();
+        }
+    }
+
+    private SegmentPacks segmentPacks() {
+        return new SegmentPacks(
+            fetcher, uploader, deleter, objectKeyFactory, segmentPackMaxBytes, segmentPackMaxAgeMs, time);
     }
 
     // for testing
@@ -222,39 +365,54 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
 
         final long startedMs = time.milliseconds();
 
+        final RemoteLogSegmentId remoteLogSegmentId = remoteLogSegmentMetadata.remoteLogSegmentId();
+        // Objects uploaded already are only looked for when retrying a failed copy.
+        final FailedCopies.Attempt lastAttempt = failedCopies.lastAttempt(remoteLogSegmentId);
+        final FailedCopies.Attempt attempt = new FailedCopies.Attempt();
         try {
-            SegmentEncryptionMetadataV1 encryptionMetadata = null;
-            final boolean requiresCompression = requiresCompression(logSegmentData);
-
-            final ChunkIndex chunkIndex;
-            try (final InputStream logSegmentInputStream = Files.newInputStream(logSegmentData.logSegment())) {
-                TransformChunkEnumeration transformEnum = new BaseTransformChunkEnumeration(
-                    logSegmentInputStream, chunkSize);
-                if (requiresCompression) {
-                    transformEnum = new CompressionChunkEnumeration(transformEnum);
-                }
-                if (encryptionEnabled) {
-                    final DataKeyAndAAD dataKeyAndAAD = aesEncryptionProvider.createDataKeyAndAAD();
-                    transformEnum = new EncryptionChunkEnumeration(
-                        transformEnum,
-                        () -> aesEncryptionProvider.encryptionCipher(dataKeyAndAAD));
-                    encryptionMetadata = new SegmentEncryptionMetadataV1(dataKeyAndAAD.dataKey, dataKeyAndAAD.aad);
-                }
-                final TransformFinisher transformFinisher =
-                    new TransformFinisher(transformEnum, remoteLogSegmentMetadata.segmentSizeInBytes());
-                uploadSegmentLog(remoteLogSegmentMetadata, transformFinisher, customMetadataBuilder);
-                chunkIndex = transformFinisher.chunkIndex();
+            final boolean requiresCompression = requiresCompression(remoteLogSegmentMetadata, logSegmentData);
+            final CompressionDictionary compressionDictionary = requiresCompression
+                ? compressionDictionary(remoteLogSegmentMetadata, logSegmentData)
+                : null;
+            final SegmentCompressionMetadataV1 compressionMetadata = requiresCompression
+                ? compressionMetadata(compressionDictionary)
+                : null;
+            final DataKeyAndAAD dataKeyAndAAD = encryptionEnabled
+                ? aesEncryptionProvider.createDataKeyAndAAD()
+                : null;
+            final SegmentEncryptionMetadataV1 encryptionMetadata = dataKeyAndAAD != null
+                ? new SegmentEncryptionMetadataV1(dataKeyAndAAD.dataKey, dataKeyAndAAD.aad)
+                : null;
+
+            final boolean addToPack = segmentPackMaxBytes > 0
+                && remoteLogSegmentMetadata.segmentSizeInBytes() <= segmentPackSegmentMaxBytes;
+            if (segmentPackedEnabled || addToPack) {
+                uploadPackedSegment(
+                    remoteLogSegmentMetadata,
+                    logSegmentData,
+                    compressionMetadata,
+                    compressionDictionary,
+                    dataKeyAndAAD,
+                    encryptionMetadata,
+                    customMetadataBuilder,
+                    addToPack);
+            } else {
+                uploadSegment(
+                    remoteLogSegmentMetadata,
+                    logSegmentData,
+                    compressionMetadata,
+                    compressionDictionary,
+                    dataKeyAndAAD,
+                    encryptionMetadata,
+                    lastAttempt,
+                    attempt,
+                    customMetadataBuilder);
             }
-
-            final SegmentIndexesV1 segmentIndexes = uploadIndexes(
-                remoteLogSegmentMetadata, logSegmentData, encryptionMetadata, customMetadataBuilder);
-            final SegmentManifest segmentManifest = new SegmentManifestV1(
-                chunkIndex, segmentIndexes, requiresCompression, encryptionMetadata, remoteLogSegmentMetadata);
-            uploadManifest(remoteLogSegmentMetadata, segmentManifest, customMetadataBuilder);
-
         } catch (final Exception e) {
+            failedCopies.failed(remoteLogSegmentId, attempt);
             throw new RemoteStorageException(e);
         }
+        failedCopies.remove(remoteLogSegmentId);
 
         metrics.recordSegmentCopyTime(
             remoteLogSegmentMetadata.remoteLogSegmentId().topicIdPartition().topicPartition(),
@@ -267,73 +425,606 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
         return customMetadata;
     }
 
-    private SegmentIndexesV1 uploadIndexes(
+    /**
+     * Uploads the segment log, indexes and manifest as separate objects.
+     *
+     * @param lastAttempt the last failed attempt of the copy, whose uploaded objects may be reused; or {@code null}.
+     * @param attempt     records what this attempt uploads.
+     */
+    private void uploadSegment(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                               final LogSegmentData logSegmentData,
+                               final SegmentCompressionMetadataV1 compressionMetadata,
+                               final CompressionDictionary compressionDictionary,
+                               final DataKeyAndAAD dataKeyAndAAD,
+                               final SegmentEncryptionMetadataV1 encryptionMetadata,
+                               final FailedCopies.Attempt lastAttempt,
+                               final FailedCopies.Attempt attempt,
+                               final SegmentCustomMetadataBuilder customMetadataBuilder) throws Exception {
+        // The indexes don't depend on the log, so they are transformed and uploaded concurrently with it.
+        final Future<UploadedIndexes> segmentIndexesFuture = uploadExecutor.submit(() -> uploadIndexes(
+            remoteLogSegmentMetadata, logSegmentData, encryptionMetadata, lastAttempt != null,
+            customMetadataBuilder));
+
+        final ChunkIndex chunkIndex;
+        try {
+            chunkIndex = transformAndUploadSegmentLog(
+                remoteLogSegmentMetadata,
+                logSegmentData,
+                compressionMetadata,
+                compressionDictionary,
+                dataKeyAndAAD,
+                lastAttempt,
+                customMetadataBuilder);
+            if (dataKeyAndAAD == null) {
+                attempt.logUploaded(chunkIndex, compressionMetadata);
+            }
+        } catch (final Exception e) {
+            // Don't leave the indexes upload running, so it can't interfere with a retry of this copy.
+            awaitCompletion(segmentIndexesFuture, e);
+            throw e;
+        }
+
+        final UploadedIndexes uploadedIndexes = awaitResult(segmentIndexesFuture);
+        if (uploadedIndexes.bytes != null) {
+            // Recorded in this thread, as sensors can't be created concurrently.
+            metrics.recordObjectUpload(
+                remoteLogSegmentMetadata.remoteLogSegmentId().topicIdPartition().topicPartition(),
+                ObjectKeyFactory.Suffix.INDEXES,
+                uploadedIndexes.bytes
+            );
+        }
+        final SegmentManifest segmentManifest = segmentManifest(chunkIndex, uploadedIndexes.segmentIndexes,
+            compressionMetadata, encryptionMetadata, remoteLogSegmentMetadata);
+        uploadManifest(remoteLogSegmentMetadata, segmentManifest, customMetadataBuilder);
+    }
+
+    private static <T> T awaitResult(final Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (final ExecutionException e) {
+            // Rethrow the original exception as if the task was executed in the current thread.
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void awaitCompletion(final Future<?> future, final Exception primaryException) {
+        try {
+            future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primaryException.addSuppressed(e);
+        } catch (final ExecutionException e) {
+            primaryException.addSuppressed(e.getCause());
+        }
+    }
+
+    private ChunkIndex transformAndUploadSegmentLog(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                                    final LogSegmentData logSegmentData,
+                                                    final SegmentCompressionMetadataV1 compressionMetadata,
+                                                    final CompressionDictionary compressionDictionary,
+                                                    final DataKeyAndAAD dataKeyAndAAD,
+                                                    final FailedCopies.Attempt lastAttempt,
+                                                    final SegmentCustomMetadataBuilder customMetadataBuilder)
+        throws IOException, StorageBackendException {
+        // Encrypted segments differ with each data key, so they can't match the log uploaded already.
+        if (lastAttempt != null && dataKeyAndAAD == null) {
+            final ChunkIndex uploadedChunkIndex = uploadedSegmentLogChunkIndex(
+                remoteLogSegmentMetadata, logSegmentData, lastAttempt.uploadedLog(compressionMetadata),
+                customMetadataBuilder);
+            if (uploadedChunkIndex != null) {
+                return uploadedChunkIndex;
+            }
+        }
+        if (compressionMetadata == null && dataKeyAndAAD == null) {
+            return uploadUntransformedSegmentLog(remoteLogSegmentMetadata, logSegmentData, customMetadataBuilder);
+        }
+
+        final ChunkIndex chunkIndex;
+        final MemoryBudget.Reservation chunksReservation =
+            memoryBudget.reserve(transformMemory(remoteLogSegmentMetadata.segmentSizeInBytes()));
+        try {
+            chunkIndex = transformAndUploadSegmentLogChunks(
+                remoteLogSegmentMetadata, logSegmentData, compressionMetadata, compressionDictionary,
+                dataKeyAndAAD, customMetadataBuilder);
+        } finally {
+            chunksReservation.close();
+        }
+        if (compressionMetadata != null && chunkIndex != null) {
+            recordCompressionRatio(remoteLogSegmentMetadata, chunkIndex);
+        }
+        return chunkIndex;
+    }
+
+    /**
+     * Returns the chunk index of the segment log if the last attempt of the copy uploaded it already,
+     * or {@code null} if it needs to be uploaded.
+     *
+     * <p>The uploaded object must have the size of the recorded chunks, and the segment file the recorded checksums
+     * of its chunks. This is cheaper than transforming the segment again to compare the content.
+     *
+     * @param uploadedChunkIndex the chunk index of the segment log uploaded by the last attempt, if any.
+     */
+    private ChunkIndex uploadedSegmentLogChunkIndex(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                                    final LogSegmentData logSegmentData,
+                                                    final ChunkIndex uploadedChunkIndex,
+                                                    final SegmentCustomMetadataBuilder customMetadataBuilder)
+        throws IOException, StorageBackendException {
+        if (uploadedChunkIndex == null) {
+            return null;
+        }
+        final ObjectKey fileKey = objectKeyFactory.key(remoteLogSegmentMetadata, ObjectKeyFactory.Suffix.LOG);
+        final Optional<ObjectMetadata> uploaded = uploadedObject(fileKey);
+        final List<Chunk> chunks = uploadedChunkIndex.chunks();
+        final Chunk lastChunk = chunks.get(chunks.size() - 1);
+        if (uploaded.isEmpty()
+            || uploaded.get().size() != (long) lastChunk.transformedPosition + lastChunk.transformedSize
+            || !hasChunkChecksums(logSegmentData, remoteLogSegmentMetadata.segmentSizeInBytes(), chunks)) {
+            return null;
+        }
+        skipSegmentLogUpload(remoteLogSegmentMetadata, uploaded.get().size(), customMetadataBuilder);
+        return uploadedChunkIndex;
+    }
+
+    private boolean hasChunkChecksums(final LogSegmentData logSegmentData,
+                                      final int segmentSize,
+                                      final List<Chunk> chunks) throws IOException {
+        final int[] checksums = ChunkChecksumChannel.checksums(logSegmentData.logSegment(), chunkSize, segmentSize);
+        if (checksums == null || checksums.length != chunks.size()) {
+            return false;
+        }
+        for (int i = 0; i < checksums.length; i++) {
+            if (checksums[i] != chunks.get(i).checksum) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ChunkIndex transformAndUploadSegmentLogChunks(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                                          final LogSegmentData logSegmentData,
+                                                          final SegmentCompressionMetadataV1 compressionMetadata,
+                                                          final CompressionDictionary compressionDictionary,
+                                                          final DataKeyAndAAD dataKeyAndAAD,
+                                                          final SegmentCustomMetadataBuilder customMetadataBuilder)
+        throws IOException, StorageBackendException {
+        final ChunkIndex chunkIndex;
+        if (transformBufferPool != null) {
+            chunkIndex = transformAndUploadSegmentLogPooled(
+                remoteLogSegmentMetadata, logSegmentData, compressionMetadata, compressionDictionary, dataKeyAndAAD,
+                customMetadataBuilder);
+        } else {
+            final SegmentUploadCheckpoint checkpoint = resumable(dataKeyAndAAD)
+                ? resumableCheckpoint(remoteLogSegmentMetadata, compressionMetadata)
+                : null;
+            // The transformation is closed even if the upload fails, so no chunks are left being transformed.
+            try (final FileChannel logSegmentChannel = openLogSegment(logSegmentData, checkpoint);
+                 final TransformChunkEnumeration transformEnum = transformSegmentLog(
+                     new BaseTransformChunkEnumeration(Channels.newInputStream(logSegmentChannel), chunkSize),
+                     compressionMetadata,
+                     compressionDictionary,
+                     dataKeyAndAAD)) {
+                final TransformFinisher transformFinisher =
+                    new TransformFinisher(transformEnum, remoteLogSegmentMetadata.segmentSizeInBytes());
+                if (checkpoint != null) {
+                    transformFinisher.resume(checkpoint.chunks());
+                }
+                try (final var sis = transformFinisher.toInputStream()) {
+                    uploadTransformedSegmentLog(remoteLogSegmentMetadata, sis, checkpoint, compressionMetadata,
+                        dataKeyAndAAD, transformFinisher::transformedChunks, customMetadataBuilder);
+                }
+                chunkIndex = transformFinisher.chunkIndex();
+            }
+        }
+        return chunkIndex;
+    }
+
+    /**
+     * Uploads the transformed segment log, resuming the upload from the checkpoint if there is one.
+     */
+    private void uploadTransformedSegmentLog(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                             final InputStream transformedContent,
+                                             final SegmentUploadCheckpoint checkpoint,
+                                             final SegmentCompressionMetadataV1 compressionMetadata,
+                                             final DataKeyAndAAD dataKeyAndAAD,
+                                             final Supplier<List<TransformedChunk>> transformedChunks,
+                                             final SegmentCustomMetadataBuilder customMetadataBuilder)
+        throws IOException, StorageBackendException {
+        if (!resumable(dataKeyAndAAD)) {
+            uploadSegmentLog(remoteLogSegmentMetadata, transformedContent, customMetadataBuilder);
+            return;
+        }
+        if (checkpoint != null) {
+            ResumableSegmentLogUploader.skipUploaded(transformedContent, checkpoint);
+        }
+        uploadSegmentLogResumable(remoteLogSegmentMetadata, transformedContent, checkpoint, compressionMetadata,
+            transformedChunks, customMetadataBuilder);
+    }
+
+    /**
+     * Opens the segment log at the position the upload is resumed from, or at its start without a checkpoint.
+     */
+    private static FileChannel openLogSegment(final LogSegmentData logSegmentData,
+                                              final SegmentUploadCheckpoint checkpoint) throws IOException {
+        final FileChannel logSegmentChannel = FileChannel.open(logSegmentData.logSegment(), StandardOpenOption.READ);
+        if (checkpoint != null) {
+            try {
+                logSegmentChannel.position(checkpoint.originalPosition());
+            } catch (final IOException e) {
+                logSegmentChannel.close();
+                throw e;
+            }
+        }
+        return logSegmentChannel;
+    }
+
+    /**
+     * Transforms the segment chunk by chunk in buffers from the pool, without allocating them per chunk.
+     */
+    private ChunkIndex transformAndUploadSegmentLogPooled(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                                          final LogSegmentData logSegmentData,
+                                                          final SegmentCompressionMetadataV1 compressionMetadata,
+                                                          final CompressionDictionary compressionDictionary,
+                                                          final DataKeyAndAAD dataKeyAndAAD,
+                                                          final SegmentCustomMetadataBuilder customMetadataBuilder)
+        throws IOException, StorageBackendException {
+        final SegmentUploadCheckpoint checkpoint = resumable(dataKeyAndAAD)
+            ? resumableCheckpoint(remoteLogSegmentMetadata, compressionMetadata)
+            : null;
+        try (final FileChannel logSegmentChannel = openLogSegment(logSegmentData, checkpoint)) {
+            final BufferTransformChunkEnumeration transformEnum = transformSegmentLogPooled(
+                logSegmentChannel, compressionMetadata, compressionDictionary, dataKeyAndAAD);
+            final BufferTransformFinisher transformFinisher =
+                new BufferTransformFinisher(transformEnum, remoteLogSegmentMetadata.segmentSizeInBytes());
+            if (checkpoint != null) {
+                transformFinisher.resume(checkpoint.chunks());
+            }
+            try (final var sis = transformFinisher.toInputStream()) {
+                uploadTransformedSegmentLog(remoteLogSegmentMetadata, sis, checkpoint, compressionMetadata,
+                    dataKeyAndAAD, transformFinisher::transformedChunks, customMetadataBuilder);
+            }
+            return transformFinisher.chunkIndex();
+        }
+    }
+
+    private BufferTransformChunkEnumeration transformSegmentLogPooled(
+        final FileChannel logSegmentChannel,
+        final SegmentCompressionMetadataV1 compressionMetadata,
+        final CompressionDictionary compressionDictionary,
+        final DataKeyAndAAD dataKeyAndAAD
+    ) {
+        // Leave room for the IV, so chunks are encrypted in place.
+        final int headroom = dataKeyAndAAD != null ? SegmentEncryptionMetadataV1.IV_SIZE : 0;
+        BufferTransformChunkEnumeration transformEnum = new BaseBufferTransformChunkEnumeration(
+            logSegmentChannel, chunkSize, transformBufferPool, headroom);
+        if (compressionMetadata != null) {
+            transformEnum = new CompressionBufferChunkEnumeration(
+                transformEnum,
+                compressionMetadata.codec(),
+                compressionMetadata.level().orElse(CompressionCodec.ZSTD_DEFAULT_LEVEL),
+                compressionDictionary != null ? compressionDictionary.dictionary : null,
+                compressionRawFallbackMargin,
+                headroom,
+                compressionContextPool);
+        }
+        if (dataKeyAndAAD != null) {
+            transformEnum = new EncryptionBufferChunkEnumeration(
+                transformEnum,
+                () -> aesEncryptionProvider.encryptionCipher(dataKeyAndAAD));
+        }
+        return transformEnum;
+    }
+
+    /**
+     * Returns the memory held in chunks while the segment log is transformed.
+     *
+     * <p>Each chunk being transformed takes its original and transformed copies, both fitting into
+     * the transform buffer size. With parallel transformation, up to {@code transformPoolSize} chunks are in flight
+     * while the previous one is being uploaded.
+     */
+    private long transformMemory(final int segmentSize) {
+        final long segmentChunks = ((long) segmentSize + chunkSize - 1) / chunkSize;
+        final int maxChunksInFlight = transformExecutor != null ? transformPoolSize + 1 : 1;
+        return 2L * Math.max(1, Math.min(segmentChunks, maxChunksInFlight)) * transformBufferSize();
+    }
+
+    /**
+     * Returns the size of pooled buffers that fits any transformed chunk.
+     */
+    private int transformBufferSize() {
+        final int maxCompressedSize = compressionEnabled
+            ? CompressionBufferChunkEnumeration.maxCompressedSize(compressionCodec, chunkSize)
+            : chunkSize;
+        final int encryptionOverhead = encryptionEnabled
+            ? SegmentEncryptionMetadataV1.IV_SIZE + AesEncryptionProvider.GCM_TAG_LENGTH / 8
+            : 0;
+        // Original chunks fit too, as the compression bound is never smaller than the original size.
+        return maxCompressedSize + encryptionOverhead;
+    }
+
+    private void recordCompressionRatio(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                        final ChunkIndex chunkIndex) {
+        final List<Chunk> chunks = chunkIndex.chunks();
+        final Chunk lastChunk = chunks.get(chunks.size() - 1);
+        final long originalSize = lastChunk.originalPosition + lastChunk.originalSize;
+        final long transformedSize = lastChunk.transformedPosition + lastChunk.transformedSize;
+        if (originalSize > 0) {
+            // Includes the encryption overhead if encryption is enabled, which is negligible for normal chunk sizes.
+            metrics.recordSegmentCompressionRatioActual(
+                remoteLogSegmentMetadata.remoteLogSegmentId().topicIdPartition().topicPartition(),
+                (double) transformedSize / originalSize);
+        }
+    }
+
+    /**
+     * Uploads the segment file as is, when no transformation is needed.
+     *
+     * <p>The chunks are not materialized, and the chunk index is calculated from the file size.
+     * The chunk checksums are calculated while the file is uploaded in one go,
+     * resumed and skipped uploads don't have them.
+     */
+    private ChunkIndex uploadUntransformedSegmentLog(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                                     final LogSegmentData logSegmentData,
+                                                     final SegmentCustomMetadataBuilder customMetadataBuilder)
+        throws IOException, StorageBackendException {
+        final int segmentSize = remoteLogSegmentMetadata.segmentSizeInBytes();
+        checkSegmentFileSize(logSegmentData, segmentSize);
+
+        int[] checksums = null;
+        try (final FileChannel logSegmentChannel =
+                 FileChannel.open(logSegmentData.logSegment(), StandardOpenOption.READ)) {
+            if (resumableUploader != null) {
+                final SegmentUploadCheckpoint checkpoint = resumableCheckpoint(remoteLogSegmentMetadata, null);
+                if (checkpoint != null) {
+                    // Untransformed chunks are the file itself, so the upload continues right after the uploaded bytes.
+                    logSegmentChannel.position(checkpoint.upload().uploadedBytes());
+                }
+                uploadSegmentLogResumable(remoteLogSegmentMetadata, Channels.newInputStream(logSegmentChannel),
+                    checkpoint, null, List::of, customMetadataBuilder);
+            } else {
+                // The size is known, so the backend can read the file channel directly.
+                final ObjectKey fileKey = objectKeyFactory.key(remoteLogSegmentMetadata, ObjectKeyFactory.Suffix.LOG);
+                final var checksumChannel = new ChunkChecksumChannel(logSegmentChannel, chunkSize, segmentSize);
+                final var bytes = uploader.upload(checksumChannel, segmentSize, fileKey);
+                recordSegmentLogUpload(remoteLogSegmentMetadata, bytes, customMetadataBuilder);
+                checksums = checksumChannel.checksums();
+            }
+        }
+        return segmentSize > 0 ? FixedSizeChunkIndex.untransformed(chunkSize, segmentSize, checksums) : null;
+    }
+
+    private static void checkSegmentFileSize(final LogSegmentData logSegmentData, final int segmentSize)
+        throws IOException {
+        final long fileSize = Files.size(logSegmentData.logSegment());
+        if (fileSize != segmentSize) {
+            throw new IllegalStateException("Segment file " + logSegmentData.logSegment() + " has size " + fileSize
+                + ", but " + segmentSize + " expected");
+        }
+    }
+
+    /**
+     * Uploads the segment log, the indexes and the manifest as a single object with {@link PackedSegmentUploader},
+     * and adds small segments to the open pack of their partition.
+     *
+     * <p>The indexes are transformed first and kept in memory until the log is uploaded, as they follow it.
+     * The packed object is always uploaded from its start, it's neither resumed nor skipped on retried copies.
+     *
+     * @see io.aiven.kafka.tieredstorage.manifest.PackedSegmentFooter
+     * @see SegmentPacks
+     */
+    private void uploadPackedSegment(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                     final LogSegmentData logSegmentData,
+                                     final SegmentCompressionMetadataV1 compressionMetadata,
+                                     final CompressionDictionary compressionDictionary,
+                                     final DataKeyAndAAD dataKeyAndAAD,
+                                     final SegmentEncryptionMetadataV1 encryptionMetadata,
+                                     final SegmentCustomMetadataBuilder customMetadataBuilder,
+                                     final boolean addToPack)
+        throws IOException, RemoteStorageException, StorageBackendException {
+        final int segmentSize = remoteLogSegmentMetadata.segmentSizeInBytes();
+        final boolean transformed = compressionMetadata != null || dataKeyAndAAD != null;
+        final long memory = indexesMemory(logSegmentData) + (transformed ? transformMemory(segmentSize) : 0);
+        final SegmentIndexesV1Builder segmentIndexesBuilder = new SegmentIndexesV1Builder();
+        final MemoryBudget.Reservation reservation = memoryBudget.reserve(memory);
+        try (final ClosableInputStreamHolder closableInputStreamHolder = new ClosableInputStreamHolder();
+             final FileChannel logSegmentChannel =
+                 FileChannel.open(logSegmentData.logSegment(), StandardOpenOption.READ)) {
+            final List<ByteBuffer> indexes = transformIndexes(
+                logSegmentData, encryptionMetadata, segmentIndexesBuilder, closableInputStreamHolder);
+
+            final InputStream logContent;
+            final Supplier<ChunkIndex> chunkIndex;
+            if (!transformed) {
+                checkSegmentFileSize(logSegmentData, segmentSize);
+                final var checksumChannel = new ChunkChecksumChannel(logSegmentChannel, chunkSize, segmentSize);
+                logContent = Channels.newInputStream(checksumChannel);
+                chunkIndex = () -> segmentSize > 0
+                    ? FixedSizeChunkIndex.untransformed(chunkSize, segmentSize, checksumChannel.checksums())
+                    : null;
+            } else if (transformBufferPool != null && transformExecutor == null) {
+                final BufferTransformFinisher transformFinisher = new BufferTransformFinisher(
+                    transformSegmentLogPooled(
+                        logSegmentChannel, compressionMetadata, compressionDictionary, dataKeyAndAAD),
+                    segmentSize);
+                logContent = transformFinisher.toInputStream();
+                chunkIndex = transformFinisher::chunkIndex;
+            } else {
+                final TransformFinisher transformFinisher = new TransformFinisher(
+                    transformSegmentLog(
+                        new BaseTransformChunkEnumeration(Channels.newInputStream(logSegmentChannel), chunkSize),
+                        compressionMetadata,
+                        compressionDictionary,
+                        dataKeyAndAAD),
+                    segmentSize);
+                logContent = transformFinisher.toInputStream();
+                chunkIndex = transformFinisher::chunkIndex;
+            }
+
+            final long bytes = packedSegmentUploader.upload(uploader, remoteLogSegmentMetadata,
+                logContent, chunkIndex, indexes, segmentIndexesBuilder.build(), compressionMetadata,
+                encryptionMetadata);
+            metrics.recordObjectUpload(
+                remoteLogSegmentMetadata.remoteLogSegmentId().topicIdPartition().topicPartition(),
+                ObjectKeyFactory.Suffix.PACKED,
+                bytes
+            );
+            customMetadataBuilder.addUploadResult(ObjectKeyFactory.Suffix.PACKED, bytes);
+            if (compressionMetadata != null) {
+                recordCompressionRatio(remoteLogSegmentMetadata, chunkIndex.get());
+            }
+            log.debug("Uploaded packed segment for {}, size: {}", remoteLogSegmentMetadata, bytes);
+            if (addToPack) {
+                // Added last, as the pack must not include a segment whose copy failed.
+                final SegmentPackMember member = segmentPacks.add(remoteLogSegmentMetadata, Math.toIntExact(bytes));
+                customMetadataBuilder.setPackMember(member.packId(), member.position(), member.size());
+            }
+        } finally {
+            reservation.close();
+        }
+    }
+
+    private TransformChunkEnumeration transformSegmentLog(final TransformChunkEnumeration source,
+                                                          final SegmentCompressionMetadataV1 compressionMetadata,
+                                                          final CompressionDictionary compressionDictionary,
+                                                          final DataKeyAndAAD dataKeyAndAAD) {
+        final UnaryOperator<TransformChunkEnumeration> transformation = inner -> {
+            TransformChunkEnumeration transformEnum = inner;
+            if (compressionMetadata != null) {
+                transformEnum = new CompressionChunkEnumeration(
+                    transformEnum,
+                    compressionMetadata.codec(),
+                    compressionMetadata.level().orElse(CompressionCodec.ZSTD_DEFAULT_LEVEL),
+                    compressionDictionary != null ? compressionDictionary.dictionary : null,
+                    compressionRawFallbackMargin,
+                    compressionContextPool);
+            }
+            if (dataKeyAndAAD != null) {
+                transformEnum = new EncryptionChunkEnumeration(
+                    transformEnum,
+                    () -> aesEncryptionProvider.encryptionCipher(dataKeyAndAAD));
+            }
+            return transformEnum;
+        };
+        if (transformExecutor != null && (compressionMetadata != null || dataKeyAndAAD != null)) {
+            return new ParallelTransformChunkEnumeration(source, transformation, transformExecutor, transformPoolSize);
+        }
+        return transformation.apply(source);
+    }
+
+    private static final class UploadedIndexes {
+        private final SegmentIndexesV1 segmentIndexes;
+        // null if the indexes were uploaded by an earlier attempt of the copy and skipped.
+        private final Long bytes;
+
+        private UploadedIndexes(final SegmentIndexesV1 segmentIndexes, final Long bytes) {
+            this.segmentIndexes = segmentIndexes;
+            this.bytes = bytes;
+        }
+    }
+
+    private UploadedIndexes uploadIndexes(
         final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
         final LogSegmentData segmentData,
         final SegmentEncryptionMetadataV1 encryptionMeta,
+        final boolean retried,
         final SegmentCustomMetadataBuilder customMetadataBuilder
     ) throws IOException, RemoteStorageException, StorageBackendException {
-        final List<InputStream> indexes = new ArrayList<>(IndexType.values().length);
         final SegmentIndexesV1Builder segmentIndexBuilder = new SegmentIndexesV1Builder();
-
+        final MemoryBudget.Reservation indexesReservation = memoryBudget.reserve(indexesMemory(segmentData));
         try (final ClosableInputStreamHolder closableInputStreamHolder = new ClosableInputStreamHolder()) {
-            final var offsetIndex = transformIndex(
-                IndexType.OFFSET,
-                closableInputStreamHolder.add(Files.newInputStream(segmentData.offsetIndex())),
-                indexSize(segmentData.offsetIndex()),
-                encryptionMeta,
-                segmentIndexBuilder
-            );
-            indexes.add(offsetIndex);
-            final var timeIndex = transformIndex(
-                IndexType.TIMESTAMP,
-                closableInputStreamHolder.add(Files.newInputStream(segmentData.timeIndex())),
-                indexSize(segmentData.timeIndex()),
-                encryptionMeta,
-                segmentIndexBuilder
-            );
-            indexes.add(timeIndex);
-            final var producerSnapshotIndex = transformIndex(
-                IndexType.PRODUCER_SNAPSHOT,
-                closableInputStreamHolder.add(Files.newInputStream(segmentData.producerSnapshotIndex())),
-                indexSize(segmentData.producerSnapshotIndex()),
-                encryptionMeta,
-                segmentIndexBuilder
-            );
-            indexes.add(producerSnapshotIndex);
-            final var leaderEpoch = transformIndex(
-                IndexType.LEADER_EPOCH,
-                closableInputStreamHolder.add(new ByteBufferInputStream(segmentData.leaderEpochIndex())),
-                segmentData.leaderEpochIndex().remaining(),
-                encryptionMeta,
-                segmentIndexBuilder
-            );
-            indexes.add(leaderEpoch);
-            if (segmentData.transactionIndex().isPresent()) {
-                final var transactionIndex = transformIndex(
-                    IndexType.TRANSACTION,
-                    closableInputStreamHolder.add(Files.newInputStream(segmentData.transactionIndex().get())),
-                    indexSize(segmentData.transactionIndex().get()),
-                    encryptionMeta,
-                    segmentIndexBuilder
-                );
-                indexes.add(transactionIndex);
-            }
+            final List<ByteBuffer> indexes =
+                transformIndexes(segmentData, encryptionMeta, segmentIndexBuilder, closableInputStreamHolder);
             final var suffix = ObjectKeyFactory.Suffix.INDEXES;
             final ObjectKey key = objectKeyFactory.key(remoteLogSegmentMetadata, suffix);
-            try (final var in = new SequenceInputStream(Collections.enumeration(indexes))) {
-                final var bytes = uploader.upload(in, key);
-                metrics.recordObjectUpload(
-                    remoteLogSegmentMetadata.remoteLogSegmentId().topicIdPartition().topicPartition(),
-                    suffix,
-                    bytes
-                );
-                customMetadataBuilder.addUploadResult(suffix, bytes);
-
-                log.debug("Uploaded indexes file for {}, size: {}", remoteLogSegmentMetadata, bytes);
+            // Encrypted indexes differ with each data key, so they can't match the ones uploaded already.
+            if (retried && encryptionMeta == null) {
+                final Optional<ObjectMetadata> uploaded = uploadedObject(key);
+                if (uploaded.isPresent() && uploaded.get().matches(new ByteBuffersInputStream(indexes))) {
+                    skipUpload(remoteLogSegmentMetadata, suffix, uploaded.get().size(), customMetadataBuilder);
+                    return new UploadedIndexes(segmentIndexBuilder.build(), null);
+                }
             }
+            final var bytes = uploader.upload(indexes, key);
+            customMetadataBuilder.addUploadResult(suffix, bytes);
+
+            log.debug("Uploaded indexes file for {}, size: {}", remoteLogSegmentMetadata, bytes);
+            return new UploadedIndexes(segmentIndexBuilder.build(), bytes);
+        } finally {
+            indexesReservation.close();
+        }
+    }
+
+    /**
+     * Returns the memory taken by the transformed indexes: each index is read into an array,
+     * and with encryption also encrypted into another one.
+     */
+    private long indexesMemory(final LogSegmentData segmentData) throws RemoteStorageException {
+        long indexesSize = (long) indexSize(segmentData.offsetIndex())
+            + indexSize(segmentData.timeIndex())
+            + indexSize(segmentData.producerSnapshotIndex())
+            + segmentData.leaderEpochIndex().remaining();
+        if (segmentData.transactionIndex().isPresent()) {
+            indexesSize += indexSize(segmentData.transactionIndex().get());
         }
-        return segmentIndexBuilder.build();
+        return encryptionEnabled ? 2 * indexesSize : indexesSize;
+    }
+
+    private List<ByteBuffer> transformIndexes(
+        final LogSegmentData segmentData,
+        final SegmentEncryptionMetadataV1 encryptionMeta,
+        final SegmentIndexesV1Builder segmentIndexBuilder,
+        final ClosableInputStreamHolder closableInputStreamHolder
+    ) throws IOException, RemoteStorageException {
+        final List<ByteBuffer> indexes = new ArrayList<>(IndexType.values().length);
+        final var offsetIndex = transformIndexToBuffer(
+            IndexType.OFFSET,
+            closableInputStreamHolder.add(Files.newInputStream(segmentData.offsetIndex())),
+            indexSize(segmentData.offsetIndex()),
+            encryptionMeta,
+            segmentIndexBuilder
+        );
+        indexes.add(offsetIndex);
+        final var timeIndex = transformIndexToBuffer(
+            IndexType.TIMESTAMP,
+            closableInputStreamHolder.add(Files.newInputStream(segmentData.timeIndex())),
+            indexSize(segmentData.timeIndex()),
+            encryptionMeta,
+            segmentIndexBuilder
+        );
+        indexes.add(timeIndex);
+        final var producerSnapshotIndex = transformIndexToBuffer(
+            IndexType.PRODUCER_SNAPSHOT,
+            closableInputStreamHolder.add(Files.newInputStream(segmentData.producerSnapshotIndex())),
+            indexSize(segmentData.producerSnapshotIndex()),
+            encryptionMeta,
+            segmentIndexBuilder
+        );
+        indexes.add(producerSnapshotIndex);
+        final var leaderEpoch = transformIndexToBuffer(
+            IndexType.LEADER_EPOCH,
+            // The buffer is read through a duplicate, so a retry of the copy with the same data reads it again.
+            closableInputStreamHolder.add(new ByteBufferInputStream(segmentData.leaderEpochIndex().duplicate())),
+            segmentData.leaderEpochIndex().remaining(),
+            encryptionMeta,
+            segmentIndexBuilder
+        );
+        indexes.add(leaderEpoch);
+        if (segmentData.transactionIndex().isPresent()) {
+            final var transactionIndex = transformIndexToBuffer(
+                IndexType.TRANSACTION,
+                closableInputStreamHolder.add(Files.newInputStream(segmentData.transactionIndex().get())),
+                indexSize(segmentData.transactionIndex().get()),
+                encryptionMeta,
+                segmentIndexBuilder
+            );
+            indexes.add(transactionIndex);
+        }
+        return indexes;
     }
 
     static int indexSize(final Path indexPath) throws RemoteStorageException {
@@ -361,14 +1052,62 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
         }
     }
 
-    boolean requiresCompression(final LogSegmentData logSegmentData) {
+    private CompressionDictionary compressionDictionary(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                                        final LogSegmentData logSegmentData)
+        throws IOException, StorageBackendException {
+        if (compressionDictionaries == null) {
+            return null;
+        }
+        return compressionDictionaries.get(
+            remoteLogSegmentMetadata.remoteLogSegmentId().topicIdPartition(),
+            logSegmentData.logSegment(),
+            fetcher,
+            uploader);
+    }
+
+    private SegmentCompressionMetadataV1 compressionMetadata(final CompressionDictionary compressionDictionary) {
+        // The level is recorded only for the codec that uses it.
+        final Integer level = compressionCodec == CompressionCodec.ZSTD ? compressionZstdLevel : null;
+        final String dictionaryKey = compressionDictionary != null ? compressionDictionary.key : null;
+        return new SegmentCompressionMetadataV1(compressionCodec, level, dictionaryKey);
+    }
+
+    /**
+     * Segments compressed with Zstd without a dictionary are read the same way as those uploaded before
+     * the compression metadata existed, so it isn't written in their manifests and older versions can read them.
+     */
+    private static SegmentManifestV1 segmentManifest(final ChunkIndex chunkIndex,
+                                                     final SegmentIndexesV1 segmentIndexes,
+                                                     final SegmentCompressionMetadataV1 compressionMetadata,
+                                                     final SegmentEncryptionMetadataV1 encryptionMetadata,
+                                                     final RemoteLogSegmentMetadata remoteLogSegmentMetadata) {
+        if (compressionMetadata != null
+            && compressionMetadata.codec() == CompressionCodec.ZSTD
+            && compressionMetadata.dictionaryKey().isEmpty()) {
+            return new SegmentManifestV1(chunkIndex, segmentIndexes, true, encryptionMetadata,
+                remoteLogSegmentMetadata);
+        }
+        return new SegmentManifestV1(chunkIndex, segmentIndexes, compressionMetadata, encryptionMetadata,
+            remoteLogSegmentMetadata);
+    }
+
+    boolean requiresCompression(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                final LogSegmentData logSegmentData) {
         boolean requiresCompression = false;
         if (compressionEnabled) {
-            if (compressionHeuristic) {
+            if (compressionChecker != null) {
                 try {
-                    final File segmentFile = logSegmentData.logSegment().toFile();
-                    final boolean alreadyCompressed = SegmentCompressionChecker.check(segmentFile);
-                    requiresCompression = !alreadyCompressed;
+                    final SegmentCompressionChecker.Estimate estimate =
+                        compressionChecker.estimate(logSegmentData.logSegment(), logSegmentData.offsetIndex());
+                    if (estimate.ratio != null) {
+                        metrics.recordSegmentCompressionRatioEstimated(
+                            remoteLogSegmentMetadata.remoteLogSegmentId().topicIdPartition().topicPartition(),
+                            estimate.ratio);
+                    }
+                    log.debug("Compression estimate for {}: sampled {} bytes, {} uncompressed, ratio {}",
+                        logSegmentData.logSegment(), estimate.sampledBytes, estimate.uncompressedBytes,
+                        estimate.ratio);
+                    requiresCompression = estimate.worthCompressing;
                 } catch (final InvalidRecordBatchException e) {
                     // Log and leave value as false to upload uncompressed.
                     log.warn("Failed to check compression on log segment: {}", logSegmentData.logSegment(), e);
@@ -381,21 +1120,92 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
     }
 
     private void uploadSegmentLog(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
-                                  final TransformFinisher transformFinisher,
+                                  final InputStream segmentLogContent,
                                   final SegmentCustomMetadataBuilder customMetadataBuilder)
-        throws IOException, StorageBackendException {
+        throws StorageBackendException {
         final ObjectKey fileKey = objectKeyFactory.key(remoteLogSegmentMetadata, ObjectKeyFactory.Suffix.LOG);
-        try (final var sis = transformFinisher.toInputStream()) {
-            final var bytes = uploader.upload(sis, fileKey);
-            metrics.recordObjectUpload(
-                remoteLogSegmentMetadata.remoteLogSegmentId().topicIdPartition().topicPartition(),
-                ObjectKeyFactory.Suffix.LOG,
-                bytes
-            );
-            customMetadataBuilder.addUploadResult(ObjectKeyFactory.Suffix.LOG, bytes);
+        // The original segment size is a good enough estimate also for the transformed content.
+        final var bytes = uploader.upload(segmentLogContent, fileKey, remoteLogSegmentMetadata.segmentSizeInBytes());
+        recordSegmentLogUpload(remoteLogSegmentMetadata, bytes, customMetadataBuilder);
+    }
+
+    /**
+     * Whether the segment log upload saves checkpoints to be resumed from.
+     *
+     * <p>Encrypted segments are not, as resuming requires transforming a chunk again into the same bytes,
+     * but the data key of the segment and the IVs of its chunks are random.
+     */
+    private boolean resumable(final DataKeyAndAAD dataKeyAndAAD) {
+        return resumableUploader != null && dataKeyAndAAD == null;
+    }
+
+    /**
+     * Returns the checkpoint of an earlier upload of the segment log that can be resumed, if there is one.
+     */
+    private SegmentUploadCheckpoint resumableCheckpoint(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                                        final SegmentCompressionMetadataV1 compressionMetadata)
+        throws StorageBackendException {
+        return resumableUploader.resumableCheckpoint(uploader, remoteLogSegmentMetadata.remoteLogSegmentId(),
+            objectKeyFactory.key(remoteLogSegmentMetadata, ObjectKeyFactory.Suffix.LOG), compressionMetadata);
+    }
+
+    private void uploadSegmentLogResumable(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                           final InputStream segmentLogContent,
+                                           final SegmentUploadCheckpoint checkpoint,
+                                           final SegmentCompressionMetadataV1 compressionMetadata,
+                                           final Supplier<List<TransformedChunk>> transformedChunks,
+                                           final SegmentCustomMetadataBuilder customMetadataBuilder)
+        throws StorageBackendException {
+        final var bytes = resumableUploader.upload(
+            uploader,
+            remoteLogSegmentMetadata.remoteLogSegmentId(),
+            objectKeyFactory.key(remoteLogSegmentMetadata, ObjectKeyFactory.Suffix.LOG),
+            remoteLogSegmentMetadata.segmentSizeInBytes(),
+            segmentLogContent,
+            checkpoint,
+            compressionMetadata,
+            transformedChunks);
+        recordSegmentLogUpload(remoteLogSegmentMetadata, bytes, customMetadataBuilder);
+    }
 
-            log.debug("Uploaded segment log for {}, size: {}", remoteLogSegmentMetadata, bytes);
+    /**
+     * Returns the metadata of an object uploaded by an earlier attempt of the copy, if it exists
+     * and has a checksum to check its content against.
+     */
+    private Optional<ObjectMetadata> uploadedObject(final ObjectKey key) throws StorageBackendException {
+        return fetcher.metadata(key).filter(metadata -> metadata.checksum().isPresent());
+    }
+
+    private void skipSegmentLogUpload(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                      final long bytes,
+                                      final SegmentCustomMetadataBuilder customMetadataBuilder) {
+        if (resumableUploader != null) {
+            // The object is complete, a checkpoint left from another attempt has nothing to resume anymore.
+            resumableUploader.discard(uploader, remoteLogSegmentMetadata.remoteLogSegmentId());
         }
+        skipUpload(remoteLogSegmentMetadata, ObjectKeyFactory.Suffix.LOG, bytes, customMetadataBuilder);
+    }
+
+    private void skipUpload(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                            final ObjectKeyFactory.Suffix suffix,
+                            final long bytes,
+                            final SegmentCustomMetadataBuilder customMetadataBuilder) {
+        customMetadataBuilder.addUploadResult(suffix, bytes);
+        log.info("Skipped uploading {} for {}, it was uploaded with the same content already, size: {}",
+            suffix, remoteLogSegmentMetadata, bytes);
+    }
+
+    private void recordSegmentLogUpload(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                        final long bytes,
+                                        final SegmentCustomMetadataBuilder customMetadataBuilder) {
+        metrics.recordObjectUpload(
+            remoteLogSegmentMetadata.remoteLogSegmentId().topicIdPartition().topicPartition(),
+            ObjectKeyFactory.Suffix.LOG,
+            bytes
+        );
+        customMetadataBuilder.addUploadResult(ObjectKeyFactory.Suffix.LOG, bytes);
+
+        log.debug("Uploaded segment log for {}, size: {}", remoteLogSegmentMetadata, bytes);
     }
 
     InputStream transformIndex(final IndexType indexType,
@@ -403,6 +1213,18 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
                                final int size,
                                final SegmentEncryptionMetadata encryptionMetadata,
                                final SegmentIndexesV1Builder segmentIndexBuilder) {
+        return new ByteBufferInputStream(
+            transformIndexToBuffer(indexType, index, size, encryptionMetadata, segmentIndexBuilder));
+    }
+
+    /**
+     * Transforms the index into a buffer, so the indexes are uploaded with a known size.
+     */
+    private ByteBuffer transformIndexToBuffer(final IndexType indexType,
+                                             final InputStream index,
+                                             final int size,
+                                             final SegmentEncryptionMetadata encryptionMetadata,
+                                             final SegmentIndexesV1Builder segmentIndexBuilder) {
         log.debug("Transforming index {} with size {}", indexType, size);
         if (size > 0) {
             TransformChunkEnumeration transformEnum = new BaseTransformChunkEnumeration(index, size);
@@ -412,22 +1234,16 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
                     transformEnum,
                     () -> aesEncryptionProvider.encryptionCipher(dataKeyAndAAD));
             }
-            final var transformFinisher = new TransformFinisher(transformEnum, size);
-            final var inputStream = transformFinisher.nextElement();
-            segmentIndexBuilder.add(indexType, singleChunk(transformFinisher.chunkIndex()).range().size());
-            return inputStream;
+            final byte[] transformed = transformEnum.nextElement();
+            if (transformEnum.hasMoreElements()) {
+                throw new IllegalStateException("Single chunk expected when transforming indexes");
+            }
+            segmentIndexBuilder.add(indexType, transformed.length);
+            return ByteBuffer.wrap(transformed);
         } else {
             segmentIndexBuilder.add(indexType, 0);
-            return InputStream.nullInputStream();
-        }
-    }
-
-    private Chunk singleChunk(final ChunkIndex chunkIndex) {
-        final var chunks = chunkIndex.chunks();
-        if (chunks.size() != 1) {
-            throw new IllegalStateException("Single chunk expected when transforming indexes");
+            return ByteBuffer.allocate(0);
         }
-        return chunks.get(0);
     }
 
     private void uploadManifest(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
@@ -438,17 +1254,15 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
         final ObjectKey manifestObjectKey =
             objectKeyFactory.key(remoteLogSegmentMetadata, ObjectKeyFactory.Suffix.MANIFEST);
 
-        try (final ByteArrayInputStream manifestContent = new ByteArrayInputStream(manifest.getBytes())) {
-            final var bytes = uploader.upload(manifestContent, manifestObjectKey);
-            metrics.recordObjectUpload(
-                remoteLogSegmentMetadata.remoteLogSegmentId().topicIdPartition().topicPartition(),
-                ObjectKeyFactory.Suffix.MANIFEST,
-                bytes
-            );
-            customMetadataBuilder.addUploadResult(ObjectKeyFactory.Suffix.MANIFEST, bytes);
+        final var bytes = uploader.upload(List.of(ByteBuffer.wrap(manifest.getBytes())), manifestObjectKey);
+        metrics.recordObjectUpload(
+            remoteLogSegmentMetadata.remoteLogSegmentId().topicIdPartition().topicPartition(),
+            ObjectKeyFactory.Suffix.MANIFEST,
+            bytes
+        );
+        customMetadataBuilder.addUploadResult(ObjectKeyFactory.Suffix.MANIFEST, bytes);
 
-            log.debug("Uploaded segment manifest for {}, size: {}", remoteLogSegmentMetadata, bytes);
-        }
+        log.debug("Uploaded segment manifest for {}, size: {}", remoteLogSegmentMetadata, bytes);
     }
 
     @Override
@@ -479,9 +1293,10 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
 
             final var segmentManifest = fetchSegmentManifest(remoteLogSegmentMetadata);
 
-            final var suffix = ObjectKeyFactory.Suffix.LOG;
-            final var segmentKey = objectKey(remoteLogSegmentMetadata, suffix);
-            return new FetchChunkEnumeration(chunkManager, segmentKey, segmentManifest, range)
+            final var segmentKey =
+                segmentObjectKey(remoteLogSegmentMetadata, segmentManifest, ObjectKeyFactory.Suffix.LOG);
+            return new FetchChunkEnumeration(chunkManager, segmentKey, segmentManifest, range,
+                fetchCoalescedMaxBytes, fetchReadAhead)
                 .toInputStream();
         } catch (final KeyNotFoundException | KeyNotFoundRuntimeException e) {
             throw new RemoteResourceNotFoundException(e);
@@ -524,7 +1339,8 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
 
             final var segmentManifest = fetchSegmentManifest(remoteLogSegmentMetadata);
 
-            final var key = objectKey(remoteLogSegmentMetadata, ObjectKeyFactory.Suffix.INDEXES);
+            final var key =
+                segmentObjectKey(remoteLogSegmentMetadata, segmentManifest, ObjectKeyFactory.Suffix.INDEXES);
             final var segmentIndex = segmentManifest.segmentIndexes().segmentIndex(indexType);
             if (segmentIndex == null) {
                 throw new RemoteResourceNotFoundException("Index " + indexType + " not found on " + key);
@@ -589,10 +1405,38 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
         return segmentKey;
     }
 
+    /**
+     * Returns the key of the object holding the log or the indexes of the segment, depending on its layout.
+     */
+    private ObjectKey segmentObjectKey(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                       final SegmentManifest segmentManifest,
+                                       final ObjectKeyFactory.Suffix suffix) {
+        final Optional<PackMemberObjectKey> packMemberKey = packMemberKey(remoteLogSegmentMetadata);
+        if (packMemberKey.isPresent()) {
+            return packMemberKey.get();
+        }
+        return objectKey(remoteLogSegmentMetadata, segmentManifest.packed() ? ObjectKeyFactory.Suffix.PACKED : suffix);
+    }
+
+    private Optional<PackMemberObjectKey> packMemberKey(final RemoteLogSegmentMetadata remoteLogSegmentMetadata) {
+        return segmentPacks.memberKey(remoteLogSegmentMetadata, customMetadataFields(remoteLogSegmentMetadata));
+    }
+
+    private Map<Integer, Object> customMetadataFields(final RemoteLogSegmentMetadata remoteLogSegmentMetadata) {
+        return remoteLogSegmentMetadata.customMetadata()
+            .<Map<Integer, Object>>map(customMetadata -> customMetadataSerde.deserialize(customMetadata.value()))
+            .orElse(Map.of());
+    }
+
     private SegmentManifest fetchSegmentManifest(final RemoteLogSegmentMetadata remoteLogSegmentMetadata)
         throws StorageBackendException, IOException {
+        final Optional<PackMemberObjectKey> packMemberKey = packMemberKey(remoteLogSegmentMetadata);
+        if (packMemberKey.isPresent()) {
+            return segmentManifestProvider.getPacked(packMemberKey.get());
+        }
         final ObjectKey manifestKey = objectKeyFactory.key(remoteLogSegmentMetadata, ObjectKeyFactory.Suffix.MANIFEST);
-        return segmentManifestProvider.get(manifestKey);
+        final ObjectKey packedKey = objectKeyFactory.key(remoteLogSegmentMetadata, ObjectKeyFactory.Suffix.PACKED);
+        return segmentManifestProvider.get(manifestKey, packedKey, segmentPackedEnabled);
     }
 
     @Override
@@ -607,10 +1451,22 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
         final long startedMs = time.milliseconds();
 
         try {
-            final Set<ObjectKey> keys = Arrays.stream(ObjectKeyFactory.Suffix.values())
+            // The segment may have been uploaded in either layout, so the objects of both are deleted.
+            // A segment added to a pack keeps its own object until the pack is sealed.
+            final Set<ObjectKey> keys = Stream.of(
+                    ObjectKeyFactory.Suffix.LOG,
+                    ObjectKeyFactory.Suffix.INDEXES,
+                    ObjectKeyFactory.Suffix.MANIFEST,
+                    ObjectKeyFactory.Suffix.PACKED)
                 .map(s -> objectKeyFactory.key(remoteLogSegmentMetadata, s))
                 .collect(Collectors.toSet());
             deleter.delete(keys);
+            segmentPacks.remove(remoteLogSegmentMetadata, customMetadataFields(remoteLogSegmentMetadata));
+            failedCopies.remove(remoteLogSegmentMetadata.remoteLogSegmentId());
+            if (resumableUploader != null) {
+                // A copy that failed before the segment was deleted may have left an unfinished upload.
+                resumableUploader.discard(uploader, remoteLogSegmentMetadata.remoteLogSegmentId());
+            }
         } catch (final Exception e) {
             metrics.recordSegmentDeleteError(remoteLogSegmentMetadata.remoteLogSegmentId()
                 .topicIdPartition().topicPartition());
@@ -626,6 +1482,24 @@ public class RemoteStorageManager implements org.apache.kafka.server.log.remote.
 
     @Override
     public void close() {
+        if (uploadExecutor != null) {
+            uploadExecutor.shutdownNow();
+        }
+        if (transformExecutor != null) {
+            transformExecutor.shutdownNow();
+        }
+        if (compressionContextPool != null) {
+            compressionContextPool.close();
+        }
+        if (compressionDictionaries != null) {
+            compressionDictionaries.close();
+        }
+        if (fetchReadAhead != null) {
+            fetchReadAhead.close();
+        }
+        if (fetchDetransformExecutor != null) {
+            fetchDetransformExecutor.shutdownNow();
+        }
         metrics.close();
     }
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.kafka.server.log.remote.storage.RemoteLogSegmentId;
+
+import io.aiven.kafka.tieredstorage.manifest.SegmentCompressionMetadataV1;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectUploader;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.transform.TransformedChunk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Uploads segment logs saving their progress in a {@link SegmentUploadCheckpointStore},
+ * so a retry of a failed copy resumes the upload instead of starting over.
+ *
+ * <p>The uploader is passed to each call, as it may be replaced after the plugin is configured.
+ */
+class ResumableSegmentLogUploader {
+    private static final Logger log = LoggerFactory.getLogger(ResumableSegmentLogUploader.class);
+
+    private final SegmentUploadCheckpointStore checkpointStore;
+    private final int chunkSize;
+    private final Double compressionRawFallbackMargin;
+
+    ResumableSegmentLogUploader(final SegmentUploadCheckpointStore checkpointStore,
+                                final int chunkSize,
+                                final Double compressionRawFallbackMargin) {
+        this.checkpointStore = checkpointStore;
+        this.chunkSize = chunkSize;
+        this.compressionRawFallbackMargin = compressionRawFallbackMargin;
+    }
+
+    /**
+     * Discards the checkpoints that saw no progress for longer than the retention, aborting their uploads.
+     */
+    void expire(final ObjectUploader uploader, final long nowMs, final long retentionMs) {
+        checkpointStore.expire(nowMs, retentionMs, checkpoint -> {
+            log.info("Upload checkpoint {} expired, aborting its upload", checkpoint.upload().uploadId());
+            abortUpload(uploader, checkpoint);
+        });
+    }
+
+    /**
+     * Returns the checkpoint of an earlier upload of the segment log that can be resumed, if there is one.
+     *
+     * <p>A checkpoint that can't be resumed is discarded.
+     */
+    SegmentUploadCheckpoint resumableCheckpoint(final ObjectUploader uploader,
+                                                final RemoteLogSegmentId remoteLogSegmentId,
+                                                final ObjectKey fileKey,
+                                                final SegmentCompressionMetadataV1 compressionMetadata)
+        throws StorageBackendException {
+        final SegmentUploadCheckpoint checkpoint = checkpointStore.load(remoteLogSegmentId).orElse(null);
+        if (checkpoint == null) {
+            return null;
+        }
+        if (checkpoint.key().value().equals(fileKey.value())
+            && checkpoint.matches(chunkSize, compressionMetadata, compressionRawFallbackMargin)
+            && uploader.canResumeUpload(fileKey, checkpoint.upload())) {
+            log.info("Resuming upload of segment log {} after {} bytes",
+                remoteLogSegmentId, checkpoint.upload().uploadedBytes());
+            return checkpoint;
+        }
+        log.info("Upload checkpoint of segment log {} can't be resumed, starting over", remoteLogSegmentId);
+        discardCheckpoint(uploader, remoteLogSegmentId, checkpoint);
+        return null;
+    }
+
+    /**
+     * Uploads the segment log, saving a checkpoint after each uploaded part so a retry of the copy can resume it.
+     *
+     * @param segmentLogContent the content after the bytes uploaded according to the checkpoint.
+     * @param checkpoint        the checkpoint to resume the upload from; or {@code null} to start a new upload.
+     * @param transformedChunks the chunks transformed so far, to find the ones covered by the uploaded bytes.
+     * @return the size of the whole uploaded segment log.
+     */
+    long upload(final ObjectUploader uploader,
+                final RemoteLogSegmentId remoteLogSegmentId,
+                final ObjectKey fileKey,
+                final int segmentSize,
+                final InputStream segmentLogContent,
+                final SegmentUploadCheckpoint checkpoint,
+                final SegmentCompressionMetadataV1 compressionMetadata,
+                final Supplier<List<TransformedChunk>> transformedChunks) throws StorageBackendException {
+        final long bytes = uploader.upload(
+            segmentLogContent, fileKey, segmentSize, checkpoint != null ? checkpoint.upload() : null,
+            upload -> checkpointStore.save(remoteLogSegmentId, new SegmentUploadCheckpoint(
+                fileKey, upload, chunkSize, compressionMetadata, compressionRawFallbackMargin,
+                uploadedChunks(transformedChunks.get(), upload.uploadedBytes(), segmentSize))));
+        // The upload is completed, there is nothing to resume anymore.
+        checkpointStore.delete(remoteLogSegmentId);
+        return bytes;
+    }
+
+    /**
+     * Discards the checkpoint of the segment log, if any, aborting its upload.
+     */
+    void discard(final ObjectUploader uploader, final RemoteLogSegmentId remoteLogSegmentId) {
+        checkpointStore.load(remoteLogSegmentId)
+            .ifPresent(checkpoint -> discardCheckpoint(uploader, remoteLogSegmentId, checkpoint));
+    }
+
+    /**
+     * Skips the bytes of the transformed content that were uploaded already according to the checkpoint.
+     */
+    static void skipUploaded(final InputStream transformedContent, final SegmentUploadCheckpoint checkpoint)
+        throws IOException {
+        long remaining = checkpoint.uploadedBytesOfNextChunk();
+        while (remaining > 0) {
+            final long skipped = transformedContent.skip(remaining);
+            if (skipped > 0) {
+                remaining -= skipped;
+            } else if (transformedContent.read() >= 0) {
+                remaining--;
+            } else {
+                throw new EOFException("Content ended " + remaining + " bytes before the resumed position");
+            }
+        }
+    }
+
+    /**
+     * Returns the transformed chunks fully covered by the uploaded bytes.
+     *
+     * <p>The last chunk of the segment is never included, as the transformation finisher must add it itself
+     * to finish the chunk index.
+     */
+    private List<TransformedChunk> uploadedChunks(final List<TransformedChunk> transformedChunks,
+                                                  final long uploadedBytes,
+                                                  final int segmentSize) {
+        final long segmentChunks = ((long) segmentSize + chunkSize - 1) / chunkSize;
+        long chunksSize = 0;
+        int uploadedChunks = 0;
+        for (final TransformedChunk chunk : transformedChunks) {
+            if (uploadedChunks + 1 >= segmentChunks || chunksSize + chunk.size() > uploadedBytes) {
+                break;
+            }
+            chunksSize += chunk.size();
+            uploadedChunks++;
+        }
+        return List.copyOf(transformedChunks.subList(0, uploadedChunks));
+    }
+
+    /**
+     * Deletes the checkpoint and aborts its upload, so the uploaded parts don't stay in the remote storage.
+     */
+    private void discardCheckpoint(final ObjectUploader uploader,
+                                   final RemoteLogSegmentId remoteLogSegmentId,
+                                   final SegmentUploadCheckpoint checkpoint) {
+        abortUpload(uploader, checkpoint);
+        checkpointStore.delete(remoteLogSegmentId);
+    }
+
+    private static void abortUpload(final ObjectUploader uploader, final SegmentUploadCheckpoint checkpoint) {
+        try {
+            uploader.abortUpload(checkpoint.key(), checkpoint.upload().uploadId());
+        } catch (final StorageBackendException e) {
+            // The parts are left to the lifecycle rules of the remote storage, if any.
+            log.warn("Failed to abort upload {}", checkpoint.upload().uploadId(), e);
+        }
+    }
+}
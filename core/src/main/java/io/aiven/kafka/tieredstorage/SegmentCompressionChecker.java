@@ -18,17 +18,72 @@ package io.aiven.kafka.tieredstorage;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import org.apache.kafka.common.KafkaException;
 import org.apache.kafka.common.record.CompressionType;
 import org.apache.kafka.common.record.FileRecords;
 import org.apache.kafka.common.record.RecordBatch;
+import org.apache.kafka.common.utils.Utils;
+
+import io.aiven.kafka.tieredstorage.transform.CompressionCodec;
+
+import com.github.luben.zstd.Zstd;
+import net.jpountz.lz4.LZ4Factory;
 
 /**
  * Checks if segment are compressed or not.
  * To be used when segment files are received on archival.
+ *
+ * <p>Batches are sampled evenly across the segment, as producers may switch compression in the middle of it.
+ * The positions of the sampled batches are taken from the offset index, so only the sampled batches are read.
+ * The segment is worth compressing if most of the sampled bytes are in uncompressed batches.
+ *
+ * <p>If trial compression is enabled, the beginning of the sampled batches is compressed
+ * with the configured codec instead, and the segment is worth compressing
+ * if the estimated saving is not less than the configured minimum.
  */
 public class SegmentCompressionChecker {
+    // Relative offset and position, 4 bytes each.
+    private static final int OFFSET_INDEX_ENTRY_SIZE = 8;
+
+    private final int sampleBatches;
+    private final int trialSize;
+    private final double minSavings;
+    private final CompressionCodec codec;
+    private final int level;
+
+    /**
+     * @param sampleBatches the maximum number of batches to sample.
+     * @param trialSize     the maximum number of sampled bytes to trial-compress; 0 disables trial compression.
+     * @param minSavings    the minimum estimated fraction of the size that compression must save.
+     * @param codec         the codec for trial compression.
+     * @param level         the compression level for trial compression, used only by Zstd.
+     */
+    public SegmentCompressionChecker(final int sampleBatches,
+                                     final int trialSize,
+                                     final double minSavings,
+                                     final CompressionCodec codec,
+                                     final int level) {
+        if (sampleBatches < 1) {
+            throw new IllegalArgumentException("sampleBatches must be positive, " + sampleBatches + " given");
+        }
+        if (trialSize < 0) {
+            throw new IllegalArgumentException("trialSize must be non-negative, " + trialSize + " given");
+        }
+        this.sampleBatches = sampleBatches;
+        this.trialSize = trialSize;
+        this.minSavings = minSavings;
+        this.codec = Objects.requireNonNull(codec, "codec cannot be null");
+        this.level = level;
+    }
 
     /**
      * @param file Kafka log segment file
@@ -43,6 +98,75 @@ public class SegmentCompressionChecker {
         }
     }
 
+    /**
+     * @param logSegment  Kafka log segment file
+     * @param offsetIndex the offset index of the segment; if it doesn't exist, only the first batch is sampled.
+     */
+    public Estimate estimate(final Path logSegment, final Path offsetIndex) throws InvalidRecordBatchException {
+        try (final FileRecords records = FileRecords.open(logSegment.toFile(), false, true, 0, false)) {
+            final int segmentSize = records.sizeInBytes();
+            final ByteBuffer trialSample = ByteBuffer.allocate(trialSize);
+            long sampledBytes = 0;
+            long uncompressedBytes = 0;
+            for (final int position : samplePositions(offsetIndex, segmentSize)) {
+                final RecordBatch batch = fistRecordBatch(records.slice(position, segmentSize - position));
+                sampledBytes += batch.sizeInBytes();
+                if (batch.compressionType() == CompressionType.NONE) {
+                    uncompressedBytes += batch.sizeInBytes();
+                }
+                if (trialSample.hasRemaining()) {
+                    final ByteBuffer batchBytes = trialSample.slice();
+                    batchBytes.limit(Math.min(batch.sizeInBytes(), trialSample.remaining()));
+                    Utils.readFullyOrFail(records.channel(), batchBytes, position, "sampled batch");
+                    trialSample.position(trialSample.position() + batchBytes.position());
+                }
+            }
+
+            if (trialSize == 0) {
+                // Most of the data is uncompressed.
+                return new Estimate(sampledBytes, uncompressedBytes, null, uncompressedBytes * 2 >= sampledBytes);
+            }
+            final double ratio = (double) compressedSize(trialSample) / trialSample.position();
+            return new Estimate(sampledBytes, uncompressedBytes, ratio, 1 - ratio >= minSavings);
+        } catch (final IOException | KafkaException e) {
+            throw new InvalidRecordBatchException("Failed to read and validate sampled batches", e);
+        }
+    }
+
+    private SortedSet<Integer> samplePositions(final Path offsetIndex, final int segmentSize) throws IOException {
+        final SortedSet<Integer> positions = new TreeSet<>();
+        // The first batch is not in the offset index.
+        positions.add(0);
+        if (!Files.exists(offsetIndex)) {
+            return positions;
+        }
+        try (final FileChannel channel = FileChannel.open(offsetIndex, StandardOpenOption.READ)) {
+            final long entries = channel.size() / OFFSET_INDEX_ENTRY_SIZE;
+            final ByteBuffer entry = ByteBuffer.allocate(OFFSET_INDEX_ENTRY_SIZE);
+            for (int i = 1; i < sampleBatches && entries > 0; i++) {
+                // Index entries are roughly evenly spaced in bytes, so are the sampled batches.
+                final long entryI = (entries * i) / sampleBatches;
+                entry.clear();
+                Utils.readFullyOrFail(channel, entry, entryI * OFFSET_INDEX_ENTRY_SIZE, "offset index entry");
+                final int position = entry.getInt(4);
+                // Guard against a mismatching or not trimmed index.
+                if (position > 0 && position < segmentSize) {
+                    positions.add(position);
+                }
+            }
+        }
+        return positions;
+    }
+
+    private int compressedSize(final ByteBuffer trialSample) {
+        final byte[] sample = new byte[trialSample.position()];
+        trialSample.flip().get(sample);
+        if (codec == CompressionCodec.LZ4) {
+            return LZ4Factory.fastestInstance().fastCompressor().compress(sample).length;
+        }
+        return Zstd.compress(sample, level).length;
+    }
+
     private static RecordBatch fistRecordBatch(final FileRecords records) throws InvalidRecordBatchException {
         final RecordBatch batch = records.firstBatch();
         if (batch == null) {
@@ -51,4 +175,25 @@ public class SegmentCompressionChecker {
         batch.ensureValid();
         return batch;
     }
+
+    public static class Estimate {
+        public final long sampledBytes;
+        public final long uncompressedBytes;
+        /**
+         * The ratio of the compressed to the original size of the trial-compressed sample;
+         * or {@code null} if trial compression is disabled.
+         */
+        public final Double ratio;
+        public final boolean worthCompressing;
+
+        Estimate(final long sampledBytes,
+                 final long uncompressedBytes,
+                 final Double ratio,
+                 final boolean worthCompressing) {
+            this.sampledBytes = sampledBytes;
+            this.uncompressedBytes = uncompressedBytes;
+            this.ratio = ratio;
+            this.worthCompressing = worthCompressing;
+        }
+    }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.kafka.common.Uuid;
+
+import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
+import io.aiven.kafka.tieredstorage.storage.ObjectFetcher;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+
+/**
+ * The content of a pack being sealed, streamed from the objects of its segments one at a time.
+ *
+ * <p>The gaps left by removed segments, and the segments whose objects are not found as they were deleted meanwhile,
+ * are filled with zeros, so the other segments stay at the ranges recorded in their custom metadata.
+ */
+class SegmentPackContent extends InputStream {
+    private final ObjectFetcher fetcher;
+    private final Iterator<OpenSegmentPack.Member> members;
+    private final List<Uuid> missingSegments = new ArrayList<>();
+    private int position = 0;
+    private OpenSegmentPack.Member nextMember;
+    private InputStream current = InputStream.nullInputStream();
+    // Where the current segment or gap ends.
+    private int currentEnd = 0;
+
+    SegmentPackContent(final ObjectFetcher fetcher, final List<OpenSegmentPack.Member> members) {
+        this.fetcher = Objects.requireNonNull(fetcher, "fetcher cannot be null");
+        this.members = Objects.requireNonNull(members, "members cannot be null").iterator();
+        this.nextMember = this.members.hasNext() ? this.members.next() : null;
+    }
+
+    /**
+     * Returns the segments whose objects were not found, so they are not in the pack.
+     */
+    List<Uuid> missingSegments() {
+        return List.copyOf(missingSegments);
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] b = new byte[1];
+        final int read = read(b, 0, 1);
+        return read < 0 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (true) {
+            final int read = current.read(b, off, len);
+            if (read >= 0) {
+                position += read;
+                return read;
+            }
+            if (!openNext()) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Opens the gap before the next segment, or the next segment itself.
+     *
+     * @return whether there is anything left to read.
+     */
+    private boolean openNext() throws IOException {
+        current.close();
+        if (position != currentEnd) {
+            throw new IOException("Pack content ended at " + position + ", " + currentEnd + " expected");
+        }
+        if (nextMember == null) {
+            return false;
+        }
+        if (position < nextMember.position) {
+            current = zeros(nextMember.position - position);
+            currentEnd = nextMember.position;
+            return true;
+        }
+        final OpenSegmentPack.Member member = nextMember;
+        nextMember = members.hasNext() ? members.next() : null;
+        currentEnd = member.position + member.size;
+        try {
+            current = fetcher.fetch(member.key);
+        } catch (final KeyNotFoundException e) {
+            missingSegments.add(member.segmentId);
+            current = zeros(member.size);
+        } catch (final StorageBackendException e) {
+            throw new IOException("Failed to fetch segment " + member.key, e);
+        }
+        return true;
+    }
+
+    private static InputStream zeros(final int size) {
+        return new ByteArrayInputStream(new byte[size]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        current.close();
+    }
+}
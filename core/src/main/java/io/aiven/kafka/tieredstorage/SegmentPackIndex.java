@@ -0,0 +1,135 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.kafka.common.Uuid;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The index of a pack of small segments of a partition, uploaded next to the pack.
+ *
+ * <p>It maps the IDs of the segments of the pack which weren't deleted yet to their ranges in the pack,
+ * so it counts the references to the pack: once it has no segments left, the pack is deleted.
+ */
+class SegmentPackIndex {
+    private final List<Entry> segments;
+
+    SegmentPackIndex(final List<Entry> segments) {
+        this.segments = List.copyOf(Objects.requireNonNull(segments, "segments cannot be null"));
+    }
+
+    @JsonCreator
+    static SegmentPackIndex create(@JsonProperty(value = "segments", required = true) final List<Entry> segments) {
+        return new SegmentPackIndex(segments);
+    }
+
+    @JsonProperty("segments")
+    List<Entry> segments() {
+        return segments;
+    }
+
+    boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    Optional<Entry> find(final Uuid segmentId) {
+        final String id = segmentId.toString();
+        return segments.stream().filter(e -> e.segmentId.equals(id)).findFirst();
+    }
+
+    /**
+     * Returns the index without the segments.
+     */
+    SegmentPackIndex without(final Collection<Uuid> segmentIds) {
+        final Set<String> ids = segmentIds.stream().map(Uuid::toString).collect(Collectors.toSet());
+        return new SegmentPackIndex(
+            segments.stream().filter(e -> !ids.contains(e.segmentId)).collect(Collectors.toList()));
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final SegmentPackIndex that = (SegmentPackIndex) o;
+        return Objects.equals(segments, that.segments);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(segments);
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentPackIndex(segments=" + segments + ")";
+    }
+
+    static class Entry {
+        @JsonProperty("segmentId")
+        final String segmentId;
+        @JsonProperty("position")
+        final int position;
+        @JsonProperty("size")
+        final int size;
+
+        @JsonCreator
+        Entry(@JsonProperty(value = "segmentId", required = true) final String segmentId,
+              @JsonProperty(value = "position", required = true) final int position,
+              @JsonProperty(value = "size", required = true) final int size) {
+            this.segmentId = Objects.requireNonNull(segmentId, "segmentId cannot be null");
+            this.position = position;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Entry entry = (Entry) o;
+            return position == entry.position
+                && size == entry.size
+                && Objects.equals(segmentId, entry.segmentId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(segmentId, position, size);
+        }
+
+        @Override
+        public String toString() {
+            return "Entry(segmentId=" + segmentId + ", position=" + position + ", size=" + size + ")";
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Objects;
+
+import org.apache.kafka.common.Uuid;
+
+import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
+import io.aiven.kafka.tieredstorage.storage.ObjectFetcher;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectUploader;
+import io.aiven.kafka.tieredstorage.storage.PreconditionFailedException;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.storage.VersionedContent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates and updates the indexes of segment packs with conditional writes.
+ *
+ * <p>Segments of a pack may be deleted by several brokers at once, so an update based on an outdated index
+ * is done again on the current one.
+ */
+class SegmentPackIndexes {
+    private static final Logger log = LoggerFactory.getLogger(SegmentPackIndexes.class);
+
+    private static final int MAX_UPDATE_ATTEMPTS = 10;
+
+    private final ObjectFetcher fetcher;
+    private final ObjectUploader uploader;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    SegmentPackIndexes(final ObjectFetcher fetcher, final ObjectUploader uploader) {
+        this.fetcher = Objects.requireNonNull(fetcher, "fetcher cannot be null");
+        this.uploader = Objects.requireNonNull(uploader, "uploader cannot be null");
+    }
+
+    /**
+     * Uploads the index of a new pack, failing if the index exists already.
+     */
+    void create(final ObjectKey indexKey, final SegmentPackIndex index) throws StorageBackendException, IOException {
+        uploader.uploadIfVersion(mapper.writeValueAsBytes(index), indexKey, null);
+    }
+
+    /**
+     * Removes the segments from the index.
+     *
+     * @return the remaining index, or {@code null} if there is no index.
+     */
+    SegmentPackIndex remove(final ObjectKey indexKey, final Collection<Uuid> segmentIds)
+        throws StorageBackendException, IOException {
+        for (int attempt = 1; ; attempt++) {
+            final VersionedContent content;
+            try {
+                content = fetcher.fetchVersioned(indexKey);
+            } catch (final KeyNotFoundException e) {
+                return null;
+            }
+            final SegmentPackIndex index = mapper.readValue(content.content(), SegmentPackIndex.class);
+            final SegmentPackIndex updated = index.without(segmentIds);
+            if (updated.equals(index)) {
+                return index;
+            }
+            try {
+                uploader.uploadIfVersion(mapper.writeValueAsBytes(updated), indexKey, content.version());
+                return updated;
+            } catch (final PreconditionFailedException e) {
+                if (attempt == MAX_UPDATE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Index {} has changed, updating it again", indexKey);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import io.aiven.kafka.tieredstorage.storage.BytesRange;
+
+import static io.aiven.kafka.tieredstorage.metadata.SegmentCustomMetadataField.PACK_ID;
+import static io.aiven.kafka.tieredstorage.metadata.SegmentCustomMetadataField.PACK_POSITION;
+import static io.aiven.kafka.tieredstorage.metadata.SegmentCustomMetadataField.PACK_SIZE;
+
+/**
+ * The range of the pack a segment was added to, as recorded in the custom metadata of the segment.
+ */
+class SegmentPackMember {
+    private final String packId;
+    private final int position;
+    private final int size;
+
+    SegmentPackMember(final String packId, final int position, final int size) {
+        this.packId = Objects.requireNonNull(packId, "packId cannot be null");
+        if (position < 0) {
+            throw new IllegalArgumentException("position cannot be negative, " + position + " given");
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive, " + size + " given");
+        }
+        this.position = position;
+        this.size = size;
+    }
+
+    /**
+     * Returns the member recorded in the custom metadata fields, or empty if the segment wasn't added to a pack.
+     */
+    static Optional<SegmentPackMember> fromCustomMetadata(final Map<Integer, Object> fields) {
+        final String packId = (String) fields.get(PACK_ID.index());
+        if (packId == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new SegmentPackMember(
+            packId, (Integer) fields.get(PACK_POSITION.index()), (Integer) fields.get(PACK_SIZE.index())));
+    }
+
+    String packId() {
+        return packId;
+    }
+
+    int position() {
+        return position;
+    }
+
+    int size() {
+        return size;
+    }
+
+    BytesRange range() {
+        return BytesRange.ofFromPositionAndSize(position, size);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final SegmentPackMember that = (SegmentPackMember) o;
+        return position == that.position
+            && size == that.size
+            && Objects.equals(packId, that.packId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(packId, position, size);
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentPackMember("
+            + "packId=" + packId
+            + ", position=" + position
+            + ", size=" + size
+            + ")";
+    }
+}
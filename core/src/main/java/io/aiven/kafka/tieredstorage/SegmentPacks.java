@@ -0,0 +1,220 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.apache.kafka.common.TopicIdPartition;
+import org.apache.kafka.common.Uuid;
+import org.apache.kafka.common.utils.Time;
+import org.apache.kafka.server.log.remote.storage.RemoteLogSegmentMetadata;
+
+import io.aiven.kafka.tieredstorage.storage.ObjectDeleter;
+import io.aiven.kafka.tieredstorage.storage.ObjectFetcher;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectUploader;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Packs small segments of a partition into shared pack objects, and deletes a pack once all of its segments are.
+ *
+ * <p>A pack is a sequence of segments in the packed layout, each ending with its own footer. Object storages
+ * can't append to an object, so each segment is uploaded as its own object first, and only its range in the open
+ * pack of its partition is assigned. Once the open pack reaches the maximum size or age, the next segment seals it:
+ * the pack is uploaded once, streaming the objects of its segments, which are deleted then. Until then, the segments
+ * are read from their own objects, see {@link PackMemberObjectFetcher}.
+ *
+ * <p>The pack index uploaded when the pack is sealed lists the segments not deleted yet, so it counts the references
+ * to the pack. The index is uploaded before the pack, so a pack is never left without an index to delete it by.
+ * Only the leader of a partition copies its segments, so the open pack is only kept in its memory. A pack left open
+ * by a restart or a leadership change is never sealed, and its segments stay in their own objects.
+ * Segments may be deleted by other brokers though, so the indexes are updated with conditional writes,
+ * see {@link SegmentPackIndexes}. An index left without segments marks a pack being deleted.
+ */
+class SegmentPacks {
+    private static final Logger log = LoggerFactory.getLogger(SegmentPacks.class);
+
+    private final ObjectFetcher fetcher;
+    private final ObjectUploader uploader;
+    private final ObjectDeleter deleter;
+    private final ObjectKeyFactory objectKeyFactory;
+    private final int maxPackSize;
+    private final long maxPackAgeMs;
+    private final Time time;
+    private final SegmentPackIndexes indexes;
+
+    private final Map<TopicIdPartition, OpenSegmentPack> openPacks = new ConcurrentHashMap<>();
+    private final Map<TopicIdPartition, Object> partitionLocks = new ConcurrentHashMap<>();
+
+    SegmentPacks(final ObjectFetcher fetcher,
+                 final ObjectUploader uploader,
+                 final ObjectDeleter deleter,
+                 final ObjectKeyFactory objectKeyFactory,
+                 final int maxPackSize,
+                 final long maxPackAgeMs,
+                 final Time time) {
+        this.fetcher = Objects.requireNonNull(fetcher, "fetcher cannot be null");
+        this.uploader = Objects.requireNonNull(uploader, "uploader cannot be null");
+        this.deleter = Objects.requireNonNull(deleter, "deleter cannot be null");
+        this.objectKeyFactory = Objects.requireNonNull(objectKeyFactory, "objectKeyFactory cannot be null");
+        if (maxPackSize < 0) {
+            throw new IllegalArgumentException("maxPackSize cannot be negative, " + maxPackSize + " given");
+        }
+        this.maxPackSize = maxPackSize;
+        if (maxPackAgeMs <= 0) {
+            throw new IllegalArgumentException("maxPackAgeMs must be positive, " + maxPackAgeMs + " given");
+        }
+        this.maxPackAgeMs = maxPackAgeMs;
+        this.time = Objects.requireNonNull(time, "time cannot be null");
+        this.indexes = new SegmentPackIndexes(fetcher, uploader);
+    }
+
+    /**
+     * Adds the segment uploaded as its own object in the packed layout to the open pack of its partition.
+     *
+     * <p>The open pack is sealed first if the segment doesn't fit or the pack is too old, and a new one is started.
+     * A segment larger than the maximum pack size is the only segment of its pack.
+     * Sealing failures are logged, not thrown, as the segments of the pack stay readable from their own objects.
+     *
+     * @param size the size of the object of the segment.
+     * @return the range of the pack the segment will have once the pack is sealed.
+     */
+    SegmentPackMember add(final RemoteLogSegmentMetadata remoteLogSegmentMetadata, final int size) {
+        final TopicIdPartition topicIdPartition = remoteLogSegmentMetadata.remoteLogSegmentId().topicIdPartition();
+        synchronized (lock(topicIdPartition)) {
+            OpenSegmentPack pack = openPacks.get(topicIdPartition);
+            if (pack != null && ((long) pack.size() + size > maxPackSize
+                || time.milliseconds() - pack.startedMs() >= maxPackAgeMs)) {
+                openPacks.remove(topicIdPartition);
+                seal(pack);
+                pack = null;
+            }
+            if (pack == null) {
+                final String packId = ObjectKeyFactory.packId(remoteLogSegmentMetadata);
+                pack = new OpenSegmentPack(
+                    packId,
+                    objectKeyFactory.packKey(Map.of(), remoteLogSegmentMetadata, packId, ObjectKeyFactory.Suffix.PACK),
+                    objectKeyFactory.packKey(
+                        Map.of(), remoteLogSegmentMetadata, packId, ObjectKeyFactory.Suffix.PACK_INDEX),
+                    time.milliseconds());
+                openPacks.put(topicIdPartition, pack);
+            }
+            final SegmentPackMember member = pack.add(
+                remoteLogSegmentMetadata.remoteLogSegmentId().id(),
+                objectKeyFactory.key(remoteLogSegmentMetadata, ObjectKeyFactory.Suffix.PACKED),
+                size);
+            log.debug("Added {} to pack {}", remoteLogSegmentMetadata, member);
+            return member;
+        }
+    }
+
+    /**
+     * Returns the key of the segment in its pack, or empty if the segment wasn't added to a pack.
+     */
+    Optional<PackMemberObjectKey> memberKey(final RemoteLogSegmentMetadata remoteLogSegmentMetadata,
+                                            final Map<Integer, Object> fields) {
+        return SegmentPackMember.fromCustomMetadata(fields)
+            .map(member -> new PackMemberObjectKey(
+                objectKeyFactory.packKey(
+                    fields, remoteLogSegmentMetadata, member.packId(), ObjectKeyFactory.Suffix.PACK),
+                member.range(),
+                objectKeyFactory.key(fields, remoteLogSegmentMetadata, ObjectKeyFactory.Suffix.PACKED)));
+    }
+
+    /**
+     * Removes the segment from its pack, and deletes the pack if it was the last segment in it.
+     * The own object of the segment isn't deleted.
+     *
+     * <p>A segment of the open pack, e.g. of a failed copy without custom metadata, is removed from it,
+     * so it isn't included in the pack once sealed. Other segments are removed from the index of their pack.
+     * The ranges of the segments are recorded in their custom metadata, which can't be changed,
+     * so a pack isn't rewritten to drop the deleted segments while any other segment remains.
+     */
+    void remove(final RemoteLogSegmentMetadata remoteLogSegmentMetadata, final Map<Integer, Object> fields)
+        throws StorageBackendException, IOException {
+        final TopicIdPartition topicIdPartition = remoteLogSegmentMetadata.remoteLogSegmentId().topicIdPartition();
+        final Uuid segmentId = remoteLogSegmentMetadata.remoteLogSegmentId().id();
+        synchronized (lock(topicIdPartition)) {
+            final OpenSegmentPack openPack = openPacks.get(topicIdPartition);
+            if (openPack != null && openPack.remove(segmentId)) {
+                if (openPack.isEmpty()) {
+                    openPacks.remove(topicIdPartition);
+                }
+                log.debug("Removed {} from open pack {}", remoteLogSegmentMetadata, openPack);
+                return;
+            }
+        }
+        final Optional<SegmentPackMember> member = SegmentPackMember.fromCustomMetadata(fields);
+        if (member.isEmpty()) {
+            return;
+        }
+        final ObjectKey packKey = objectKeyFactory.packKey(
+            fields, remoteLogSegmentMetadata, member.get().packId(), ObjectKeyFactory.Suffix.PACK);
+        final ObjectKey indexKey = objectKeyFactory.packKey(
+            fields, remoteLogSegmentMetadata, member.get().packId(), ObjectKeyFactory.Suffix.PACK_INDEX);
+        final SegmentPackIndex remaining = indexes.remove(indexKey, Set.of(segmentId));
+        if (remaining == null) {
+            log.debug("Index of pack {} not found, it's not sealed or deleted already", packKey);
+        } else if (remaining.isEmpty()) {
+            deleter.delete(Set.of(packKey, indexKey));
+            log.debug("Deleted pack {}, its last segment {} is deleted", packKey, remoteLogSegmentMetadata);
+        }
+    }
+
+    /**
+     * Uploads the index and the pack, and deletes the objects of its segments.
+     */
+    private void seal(final OpenSegmentPack pack) {
+        try {
+            indexes.create(pack.indexKey(), pack.index());
+            final long bytes;
+            final Collection<Uuid> missingSegments;
+            try (final SegmentPackContent content = new SegmentPackContent(fetcher, pack.members())) {
+                bytes = uploader.upload(content, pack.packKey(), pack.size());
+                missingSegments = content.missingSegments();
+            }
+            // Segments deleted meanwhile are removed from the index, and the pack is deleted if none is left.
+            final SegmentPackIndex remaining = indexes.remove(pack.indexKey(), missingSegments);
+            if (remaining == null || remaining.isEmpty()) {
+                deleter.delete(Set.of(pack.packKey(), pack.indexKey()));
+                log.debug("Deleted pack {}, all of its segments are deleted", pack);
+                return;
+            }
+            deleter.delete(pack.members().stream()
+                .filter(m -> !missingSegments.contains(m.segmentId))
+                .map(m -> m.key)
+                .collect(Collectors.toSet()));
+            log.debug("Sealed pack {}, size: {}", pack, bytes);
+        } catch (final StorageBackendException | IOException e) {
+            log.warn("Failed to seal pack {}, its segments stay in their own objects", pack, e);
+        }
+    }
+
+    private Object lock(final TopicIdPartition topicIdPartition) {
+        return partitionLocks.computeIfAbsent(topicIdPartition, tp -> new Object());
+    }
+}
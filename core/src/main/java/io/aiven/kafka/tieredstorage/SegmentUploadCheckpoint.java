@@ -0,0 +1,213 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import io.aiven.kafka.tieredstorage.manifest.SegmentCompressionMetadataV1;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.UploadCheckpoint;
+import io.aiven.kafka.tieredstorage.transform.TransformedChunk;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The progress of an interrupted segment log upload.
+ *
+ * <p>Besides the state of the upload, it holds how the segment was transformed and the chunks fully covered by
+ * the uploaded bytes. The upload is resumed with the chunk following them, and the bytes of that chunk
+ * which were already uploaded are skipped. This requires the chunk to be transformed the same way again,
+ * so a checkpoint only matches the same chunk size and compression, and is never taken for encrypted segments.
+ *
+ * <p>It also holds the key of the uploaded object, so the upload can be aborted when the checkpoint is discarded.
+ */
+public class SegmentUploadCheckpoint {
+    private final ObjectKey key;
+    private final UploadCheckpoint upload;
+    private final int chunkSize;
+    private final SegmentCompressionMetadataV1 compression;
+    private final Double compressionRawFallbackMargin;
+    private final List<TransformedChunk> chunks;
+
+    public SegmentUploadCheckpoint(final ObjectKey key,
+                                   final UploadCheckpoint upload,
+                                   final int chunkSize,
+                                   final SegmentCompressionMetadataV1 compression,
+                                   final Double compressionRawFallbackMargin,
+                                   final List<TransformedChunk> chunks) {
+        this.key = Objects.requireNonNull(key, "key cannot be null");
+        this.upload = Objects.requireNonNull(upload, "upload cannot be null");
+        this.chunkSize = chunkSize;
+        this.compression = compression;
+        this.compressionRawFallbackMargin = compressionRawFallbackMargin;
+        this.chunks = List.copyOf(Objects.requireNonNull(chunks, "chunks cannot be null"));
+    }
+
+    @JsonCreator
+    static SegmentUploadCheckpoint create(
+        @JsonProperty(value = "key", required = true) final String key,
+        @JsonProperty(value = "uploadId", required = true) final String uploadId,
+        @JsonProperty(value = "parts", required = true) final List<Part> parts,
+        @JsonProperty(value = "chunkSize", required = true) final int chunkSize,
+        @JsonProperty("compression") final SegmentCompressionMetadataV1 compression,
+        @JsonProperty("compressionRawFallbackMargin") final Double compressionRawFallbackMargin,
+        @JsonProperty(value = "chunks", required = true) final List<TransformedChunk> chunks) {
+        final UploadCheckpoint upload = new UploadCheckpoint(
+            uploadId, parts.stream().map(p -> new UploadCheckpoint.Part(p.number, p.etag, p.size))
+                .collect(Collectors.toList()));
+        return new SegmentUploadCheckpoint(new ObjectKeyFactory.PlainObjectKey("", key),
+            upload, chunkSize, compression, compressionRawFallbackMargin, chunks);
+    }
+
+    @JsonIgnore
+    public ObjectKey key() {
+        return key;
+    }
+
+    @JsonProperty("key")
+    String keyValue() {
+        return key.value();
+    }
+
+    @JsonIgnore
+    public UploadCheckpoint upload() {
+        return upload;
+    }
+
+    @JsonProperty("uploadId")
+    String uploadId() {
+        return upload.uploadId();
+    }
+
+    @JsonProperty("parts")
+    List<Part> parts() {
+        return upload.parts().stream()
+            .map(p -> new Part(p.number(), p.etag(), p.size()))
+            .collect(Collectors.toList());
+    }
+
+    @JsonProperty("chunkSize")
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    @JsonProperty("compression")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public SegmentCompressionMetadataV1 compression() {
+        return compression;
+    }
+
+    @JsonProperty("compressionRawFallbackMargin")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Double compressionRawFallbackMargin() {
+        return compressionRawFallbackMargin;
+    }
+
+    @JsonProperty("chunks")
+    public List<TransformedChunk> chunks() {
+        return chunks;
+    }
+
+    /**
+     * Whether the segment is transformed the same way as when the checkpoint was taken.
+     */
+    public boolean matches(final int chunkSize,
+                           final SegmentCompressionMetadataV1 compression,
+                           final Double compressionRawFallbackMargin) {
+        return this.chunkSize == chunkSize
+            && Objects.equals(this.compression, compression)
+            && (compression == null
+                || Objects.equals(this.compressionRawFallbackMargin, compressionRawFallbackMargin));
+    }
+
+    /**
+     * Returns the position in the original segment the upload is resumed from, the start of the first chunk
+     * not in the checkpoint.
+     */
+    public long originalPosition() {
+        return (long) chunks.size() * chunkSize;
+    }
+
+    /**
+     * Returns the number of bytes of the first chunk not in the checkpoint that were uploaded already,
+     * to be skipped when it's transformed again.
+     */
+    public long uploadedBytesOfNextChunk() {
+        long chunksSize = 0;
+        for (final TransformedChunk chunk : chunks) {
+            chunksSize += chunk.size();
+        }
+        return upload.uploadedBytes() - chunksSize;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final SegmentUploadCheckpoint that = (SegmentUploadCheckpoint) o;
+        return chunkSize == that.chunkSize
+            && Objects.equals(compressionRawFallbackMargin, that.compressionRawFallbackMargin)
+            && key.value().equals(that.key.value())
+            && upload.equals(that.upload)
+            && Objects.equals(compression, that.compression)
+            && chunks.equals(that.chunks);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key.value(), upload, chunkSize, compression, compressionRawFallbackMargin, chunks);
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentUploadCheckpoint("
+            + "key=" + key
+            + ", upload=" + upload
+            + ", chunkSize=" + chunkSize
+            + ", compression=" + compression
+            + ", compressionRawFallbackMargin=" + compressionRawFallbackMargin
+            + ", chunks=" + chunks.size()
+            + ")";
+    }
+
+    static class Part {
+        @JsonProperty("number")
+        final int number;
+        @JsonProperty("eTag")
+        final String etag;
+        @JsonProperty("size")
+        final long size;
+
+        @JsonCreator
+        Part(@JsonProperty(value = "number", required = true) final int number,
+             @JsonProperty(value = "eTag", required = true) final String etag,
+             @JsonProperty(value = "size", required = true) final long size) {
+            this.number = number;
+            this.etag = etag;
+            this.size = size;
+        }
+    }
+}
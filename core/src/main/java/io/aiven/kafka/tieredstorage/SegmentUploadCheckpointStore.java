@@ -0,0 +1,140 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.kafka.server.log.remote.storage.RemoteLogSegmentId;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the checkpoints of segment log uploads on the local disk, one file per remote log segment.
+ *
+ * <p>Checkpoints only save work, so failing to save or load one is logged and the upload starts over.
+ * A checkpoint is replaced atomically, so a crash while saving leaves the previous one.
+ *
+ * <p>Checkpoints of copies that are never retried, e.g. of segments deleted meanwhile, are expired by age.
+ */
+public class SegmentUploadCheckpointStore {
+    private static final Logger log = LoggerFactory.getLogger(SegmentUploadCheckpointStore.class);
+
+    private final Path dir;
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new Jdk8Module());
+
+    public SegmentUploadCheckpointStore(final Path dir) {
+        this.dir = Objects.requireNonNull(dir, "dir cannot be null");
+        try {
+            Files.createDirectories(dir);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to create upload checkpoint directory " + dir, e);
+        }
+    }
+
+    public Optional<SegmentUploadCheckpoint> load(final RemoteLogSegmentId remoteLogSegmentId) {
+        final Path path = path(remoteLogSegmentId);
+        try {
+            return Optional.of(mapper.readValue(path.toFile(), SegmentUploadCheckpoint.class));
+        } catch (final FileNotFoundException | NoSuchFileException e) {
+            return Optional.empty();
+        } catch (final IOException e) {
+            log.warn("Failed to load upload checkpoint {}, discarding it", path, e);
+            delete(remoteLogSegmentId);
+            return Optional.empty();
+        }
+    }
+
+    public void save(final RemoteLogSegmentId remoteLogSegmentId, final SegmentUploadCheckpoint checkpoint) {
+        final Path path = path(remoteLogSegmentId);
+        final Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            mapper.writeValue(tempPath.toFile(), checkpoint);
+            Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException e) {
+            log.warn("Failed to save upload checkpoint {}", path, e);
+        }
+    }
+
+    public void delete(final RemoteLogSegmentId remoteLogSegmentId) {
+        final Path path = path(remoteLogSegmentId);
+        try {
+            Files.deleteIfExists(path);
+        } catch (final IOException e) {
+            log.warn("Failed to delete upload checkpoint {}", path, e);
+        }
+    }
+
+    /**
+     * Deletes the checkpoints not saved for longer than the max age, and the leftovers of interrupted saves.
+     *
+     * @param expiredListener receives each expired checkpoint before it's deleted, to abort its upload.
+     */
+    public void expire(final long nowMs, final long maxAgeMs, final Consumer<SegmentUploadCheckpoint> expiredListener) {
+        final FileTime expiredBefore = FileTime.fromMillis(nowMs - maxAgeMs);
+        final List<Path> paths;
+        try (final Stream<Path> stream = Files.list(dir)) {
+            paths = stream.collect(Collectors.toList());
+        } catch (final IOException e) {
+            log.warn("Failed to list upload checkpoints in {}", dir, e);
+            return;
+        }
+        for (final Path path : paths) {
+            try {
+                if (Files.getLastModifiedTime(path).compareTo(expiredBefore) >= 0) {
+                    continue;
+                }
+                if (path.getFileName().toString().endsWith(".json")) {
+                    readExpired(path).ifPresent(expiredListener);
+                }
+                Files.deleteIfExists(path);
+            } catch (final NoSuchFileException e) {
+                // Deleted meanwhile.
+            } catch (final IOException e) {
+                log.warn("Failed to expire upload checkpoint {}", path, e);
+            }
+        }
+    }
+
+    private Optional<SegmentUploadCheckpoint> readExpired(final Path path) {
+        try {
+            return Optional.of(mapper.readValue(path.toFile(), SegmentUploadCheckpoint.class));
+        } catch (final IOException e) {
+            log.warn("Failed to load expired upload checkpoint {}, deleting it", path, e);
+            return Optional.empty();
+        }
+    }
+
+    private Path path(final RemoteLogSegmentId remoteLogSegmentId) {
+        return dir.resolve(remoteLogSegmentId.id().toString() + ".json");
+    }
+}
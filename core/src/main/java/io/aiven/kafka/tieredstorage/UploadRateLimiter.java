@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.utils.Time;
+
+import io.aiven.kafka.tieredstorage.metrics.Metrics;
+
+/**
+ * A token bucket limiting the rate of uploaded bytes, shared by all uploads of the plugin.
+ *
+ * <p>The bucket holds up to one second worth of bytes, so uploads may burst up to that after being idle.
+ * Bytes are taken from the bucket after they are read, which may leave it in debt;
+ * the caller then waits until the debt is paid off at the configured rate.
+ * Concurrent callers accumulate the debt, so they are delayed in the order they acquire.
+ */
+public class UploadRateLimiter {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long bytesPerSecond;
+    private final Time time;
+    private final Metrics metrics;
+
+    private long availableBytes;
+    private long lastRefillNs;
+
+    public UploadRateLimiter(final long bytesPerSecond, final Time time, final Metrics metrics) {
+        if (bytesPerSecond <= 0) {
+            throw new IllegalArgumentException("bytesPerSecond must be positive, " + bytesPerSecond + " given");
+        }
+        this.bytesPerSecond = bytesPerSecond;
+        this.time = time;
+        this.metrics = metrics;
+        this.availableBytes = bytesPerSecond;
+        this.lastRefillNs = time.nanoseconds();
+    }
+
+    /**
+     * Takes the bytes from the bucket, waiting if the bucket gets into debt.
+     *
+     * @throws InterruptedIOException if the thread is interrupted while waiting.
+     */
+    public void acquire(final long bytes) throws InterruptedIOException {
+        if (bytes <= 0) {
+            return;
+        }
+        final long waitMs;
+        synchronized (this) {
+            refill();
+            availableBytes -= bytes;
+            waitMs = availableBytes < 0
+                ? (long) Math.ceil(-availableBytes * 1000.0 / bytesPerSecond)
+                : 0;
+        }
+        if (waitMs > 0) {
+            time.sleep(waitMs);
+        }
+        metrics.recordUploadRateLimiterAcquire(bytes, waitMs);
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Interrupted while waiting for the upload rate limiter");
+        }
+    }
+
+    private void refill() {
+        final long nowNs = time.nanoseconds();
+        // Doubles avoid overflows with long idle times and high rates.
+        final double refilled = (double) (nowNs - lastRefillNs) * bytesPerSecond / NANOS_PER_SECOND;
+        if (refilled >= bytesPerSecond - availableBytes) {
+            availableBytes = bytesPerSecond;
+            lastRefillNs = nowNs;
+        } else if (refilled >= 1) {
+            final long refilledBytes = (long) refilled;
+            availableBytes += refilledBytes;
+            // Advance only by the time the whole refilled bytes account for, so fractions are not lost.
+            lastRefillNs += (long) ((double) refilledBytes * NANOS_PER_SECOND / bytesPerSecond);
+        }
+    }
+}
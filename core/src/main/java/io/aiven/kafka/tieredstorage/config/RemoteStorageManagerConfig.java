@@ -33,8 +33,10 @@ import org.apache.kafka.common.config.ConfigException;
 import org.apache.kafka.common.metrics.Sensor;
 import org.apache.kafka.common.utils.Utils;
 
+import io.aiven.kafka.tieredstorage.config.validators.Null;
 import io.aiven.kafka.tieredstorage.metadata.SegmentCustomMetadataField;
 import io.aiven.kafka.tieredstorage.storage.StorageBackend;
+import io.aiven.kafka.tieredstorage.transform.CompressionCodec;
 
 import static org.apache.kafka.common.config.ConfigDef.Range.atLeast;
 import static org.apache.kafka.common.config.ConfigDef.ValidString.in;
@@ -76,6 +78,163 @@ public class RemoteStorageManagerConfig extends AbstractConfig {
     private static final String COMPRESSION_HEURISTIC_ENABLED_DOC = "Whether to use compression heuristics "
         + "when compression is enabled";
 
+    private static final String COMPRESSION_HEURISTIC_SAMPLE_BATCHES_CONFIG =
+        "compression.heuristic.sample.batches";
+    private static final String COMPRESSION_HEURISTIC_SAMPLE_BATCHES_DOC = "The number of batches "
+        + "the compression heuristic samples evenly across the segment. The segment is compressed "
+        + "if most of the sampled bytes are in uncompressed batches. 1 means only the first batch is checked";
+
+    private static final String COMPRESSION_HEURISTIC_TRIAL_SIZE_CONFIG = "compression.heuristic.trial.size";
+    private static final String COMPRESSION_HEURISTIC_TRIAL_SIZE_DOC = "The maximum number of bytes "
+        + "of the sampled batches the compression heuristic compresses to estimate the compression ratio. "
+        + "If it's set, the segment is compressed only if the estimated saving is at least "
+        + "compression.heuristic.min.savings. The default is 0, which means no trial compression";
+
+    private static final String COMPRESSION_HEURISTIC_MIN_SAVINGS_CONFIG = "compression.heuristic.min.savings";
+    private static final String COMPRESSION_HEURISTIC_MIN_SAVINGS_DOC = "The minimum fraction of the segment size "
+        + "that compression is estimated to save by trial compression for the segment to be compressed";
+
+    private static final String COMPRESSION_CODEC_CONFIG = "compression.codec";
+    private static final String COMPRESSION_CODEC_DOC = "The compression codec to use when compression is enabled. "
+        + "Zstd gives better compression ratio, LZ4 is faster, especially on decompression. "
+        + "Allowed values: " + Arrays.toString(CompressionCodec.names());
+
+    private static final String COMPRESSION_ZSTD_LEVEL_CONFIG = "compression.zstd.level";
+    private static final String COMPRESSION_ZSTD_LEVEL_DOC = "The Zstd compression level. "
+        + "Higher levels give better compression ratio at the cost of slower compression, "
+        + "decompression speed stays roughly the same";
+
+    private static final String COMPRESSION_ZSTD_DICTIONARY_ENABLED_CONFIG = "compression.zstd.dictionary.enabled";
+    private static final String COMPRESSION_ZSTD_DICTIONARY_ENABLED_DOC = "Whether to compress chunks "
+        + "with a Zstd dictionary trained per topic. The dictionary is trained on slices of the first segment "
+        + "of the topic and uploaded as a separate object, which is reused for the topic afterwards. "
+        + "It improves the compression ratio of small chunks";
+
+    private static final String COMPRESSION_ZSTD_DICTIONARY_SIZE_CONFIG = "compression.zstd.dictionary.size";
+    private static final String COMPRESSION_ZSTD_DICTIONARY_SIZE_DOC = "The maximum size of a Zstd dictionary "
+        + "in bytes. The dictionary is trained on about 100 times more data than this";
+
+    private static final String COMPRESSION_RAW_FALLBACK_MARGIN_CONFIG = "compression.raw.fallback.margin";
+    private static final String COMPRESSION_RAW_FALLBACK_MARGIN_DOC = "The minimum fraction of the chunk size "
+        + "that compression must save for the chunk to be stored compressed. Chunks that are not compressed "
+        + "well enough, e.g. ones from already compressed batches, are stored raw and not decompressed on fetching. "
+        + "With 0, chunks are stored raw only if compression doesn't make them smaller. "
+        + "By default, all chunks are stored compressed. Older versions can't read segments with raw chunks";
+
+    private static final String TRANSFORM_POOL_SIZE_CONFIG = "transform.pool.size";
+    private static final String TRANSFORM_POOL_SIZE_DOC = "The number of threads used to compress and encrypt "
+        + "chunks of log segments in parallel. It also limits how many chunks of a segment are being transformed "
+        + "at once, so the memory used by a segment upload is bounded by this number times the chunk size. "
+        + "The default is 0, which means chunks are transformed one by one in the uploading thread";
+
+    private static final String TRANSFORM_BUFFER_POOL_SIZE_CONFIG = "transform.buffer.pool.size";
+    private static final String TRANSFORM_BUFFER_POOL_SIZE_DOC = "The maximum number of chunk buffers "
+        + "kept for reuse by segment uploads. When positive, chunks of log segments are read, compressed and "
+        + "encrypted in pooled buffers instead of newly allocated arrays, and encrypted in place. "
+        + "Each buffer is slightly larger than the chunk size. It can't be set together with transform.pool.size. "
+        + "Buffers are allocated when none is free, so this doesn't limit the number of buffers in use. "
+        + "The default is 0, which means buffers are not pooled";
+
+    private static final String TRANSFORM_BUFFER_POOL_DIRECT_CONFIG = "transform.buffer.pool.direct";
+    private static final String TRANSFORM_BUFFER_POOL_DIRECT_DOC = "Whether the pooled chunk buffers "
+        + "are allocated off-heap";
+
+    private static final String UPLOAD_INDEXES_POOL_SIZE_CONFIG = "upload.indexes.pool.size";
+    private static final int UPLOAD_INDEXES_POOL_SIZE_DEFAULT = 10;
+    private static final String UPLOAD_INDEXES_POOL_SIZE_DOC = "The number of threads uploading the indexes "
+        + "of segments concurrently with their logs, shared by all segment copies of the broker. "
+        + "When all of them are busy, the indexes of further copies are uploaded once a thread is free. "
+        + "The default matches the default number of threads copying segments in the broker";
+    private static final String UPLOAD_RATE_LIMIT_BYTES_PER_SECOND_CONFIG = "upload.rate.limit.bytes.per.second";
+    private static final String UPLOAD_RATE_LIMIT_BYTES_PER_SECOND_DOC = "The maximum number of bytes per second "
+        + "uploaded to the remote storage by all segment copies of the broker together, including indexes "
+        + "and manifests. Uploads may burst up to one second worth of bytes. "
+        + "The default is 0, which means uploads are not limited";
+
+    private static final String MEMORY_BUDGET_BYTES_CONFIG = "memory.budget.bytes";
+    private static final String MEMORY_BUDGET_BYTES_DOC = "The maximum number of bytes held in chunk and "
+        + "upload part buffers by all segment copies and fetches of the broker together. "
+        + "Buffers are reserved before they are allocated; when the budget is exhausted, "
+        + "copies and fetches wait until other ones release their buffers. "
+        + "The default is 0, which means the memory is not limited, but still accounted in metrics";
+
+    private static final String MEMORY_BUDGET_MAX_WAIT_MS_CONFIG = "memory.budget.max.wait.ms";
+    private static final long MEMORY_BUDGET_MAX_WAIT_MS_DEFAULT = 10_000;  // 10 seconds
+    private static final String MEMORY_BUDGET_MAX_WAIT_MS_DOC = "The maximum time to wait for buffers "
+        + "to fit into memory.budget.bytes. After that, the copy or fetch fails and is retried by the broker. "
+        + "With 0, it fails without waiting";
+
+    private static final String UPLOAD_CHECKPOINT_DIR_CONFIG = "upload.checkpoint.dir";
+    private static final String UPLOAD_CHECKPOINT_DIR_DOC = "The directory to keep the progress of segment log "
+        + "uploads in, so a failed copy of a segment is resumed by its retry instead of starting over. "
+        + "Only supported by storage backends with multipart uploads, and not for encrypted segments. "
+        + "Uploads whose checkpoints are discarded are aborted. "
+        + "The default is null, which means uploads are not resumed";
+
+    private static final String UPLOAD_CHECKPOINT_RETENTION_MS_CONFIG = "upload.checkpoint.retention.ms";
+    private static final String UPLOAD_CHECKPOINT_RETENTION_MS_DOC = "How long the progress of a segment log upload "
+        + "is kept after it last advanced, for copies that are not retried, e.g. of deleted segments. "
+        + "Older checkpoints are discarded and their uploads aborted when the plugin is configured. "
+        + "The default is 1 day";
+    private static final long UPLOAD_CHECKPOINT_RETENTION_MS_DEFAULT = Duration.ofDays(1).toMillis();
+
+    private static final String SEGMENT_PACKED_ENABLED_CONFIG = "segment.packed.enabled";
+    private static final String SEGMENT_PACKED_ENABLED_DOC = "Whether to upload each segment as a single object "
+        + "packing the log, the indexes and the manifest, instead of one object for each of them. "
+        + "Segments uploaded in either layout can be read regardless of this setting. "
+        + "Packed segments are neither resumed with upload.checkpoint.dir nor skipped when already uploaded";
+
+    private static final String SEGMENT_PACK_MAX_BYTES_CONFIG = "segment.pack.max.bytes";
+    private static final String SEGMENT_PACK_MAX_BYTES_DOC = "The maximum size of a pack object that small "
+        + "segments of a partition are added to in the packed layout, instead of staying separate objects. "
+        + "Each segment is uploaded as a separate object first, and the pack is uploaded once it's sealed, "
+        + "streaming its segments from the remote storage. A pack is deleted once all of its segments are. "
+        + "The default is 0, which means segments are not added to packs";
+
+    private static final String SEGMENT_PACK_MAX_AGE_MS_CONFIG = "segment.pack.max.age.ms";
+    private static final String SEGMENT_PACK_MAX_AGE_MS_DOC = "How long segments of a partition are added "
+        + "to the same pack when segment.pack.max.bytes is set. The next segment of a partition whose pack is older "
+        + "seals the pack and starts a new one. The default is 1 hour";
+    private static final long SEGMENT_PACK_MAX_AGE_MS_DEFAULT = Duration.ofHours(1).toMillis();
+
+    private static final String SEGMENT_PACK_SEGMENT_MAX_BYTES_CONFIG = "segment.pack.segment.max.bytes";
+    private static final int SEGMENT_PACK_SEGMENT_MAX_BYTES_DEFAULT = 1024 * 1024;  // 1 MiB
+    private static final String SEGMENT_PACK_SEGMENT_MAX_BYTES_DOC = "The maximum size of a segment "
+        + "to be added to a pack when segment.pack.max.bytes is set. Larger segments are uploaded as usual";
+
+    private static final String FETCH_COALESCED_MAX_BYTES_CONFIG = "fetch.coalesced.max.bytes";
+    private static final String FETCH_COALESCED_MAX_BYTES_DOC = "The maximum size of a single ranged request "
+        + "fetching consecutive chunks of a segment for a read. The content is split into chunks and "
+        + "de-transformed as it is read. With a chunk cache, only runs of chunks not cached yet are fetched this way. "
+        + "The default is 0, which means each chunk is fetched with its own request";
+
+    private static final String FETCH_READ_AHEAD_CHUNKS_CONFIG = "fetch.read.ahead.chunks";
+    private static final String FETCH_READ_AHEAD_CHUNKS_DOC = "The number of chunks read ahead in the background "
+        + "of the one being consumed from a fetched segment, so fetching them overlaps with the consumption. "
+        + "Chunks read ahead are held in memory, and discarded when the fetch is closed. "
+        + "Useful without a chunk cache, which prefetches chunks on its own. "
+        + "The default is 0, which means chunks are fetched only when they are consumed";
+
+    private static final String FETCH_READ_AHEAD_CONCURRENCY_CONFIG = "fetch.read.ahead.concurrency";
+    private static final String FETCH_READ_AHEAD_CONCURRENCY_DOC = "The expected number of segments fetched at "
+        + "once with fetch.read.ahead.chunks, usually the remote.log.reader.threads of the broker. It's the number "
+        + "of threads reading ahead, and together with fetch.read.ahead.chunks it bounds the reads waiting for them. "
+        + "Reads beyond it aren't read ahead, but by the fetching thread";
+
+    private static final String FETCH_DETRANSFORM_POOL_SIZE_CONFIG = "fetch.detransform.pool.size";
+    private static final String FETCH_DETRANSFORM_POOL_SIZE_DOC = "The number of threads used to decrypt and "
+        + "decompress chunks fetched together with fetch.coalesced.max.bytes in parallel. It also limits how many "
+        + "chunks of a request are being de-transformed at once, and so held in memory ahead of the consumption. "
+        + "The default is 0, which means chunks are de-transformed one by one in the fetching thread";
+
+    private static final String FETCH_BUFFER_POOL_SIZE_CONFIG = "fetch.buffer.pool.size";
+    private static final String FETCH_BUFFER_POOL_SIZE_DOC = "The maximum number of chunk buffers "
+        + "kept for reuse by fetches. When positive, fetched chunks are read, decrypted and decompressed "
+        + "in pooled buffers instead of newly allocated arrays, and decrypted in place. A buffer is returned "
+        + "to the pool once the chunk is read to the end or its stream is closed. "
+        + "Each buffer is slightly larger than the chunk size. It's not used for chunks de-transformed in parallel "
+        + "with fetch.detransform.pool.size. The default is 0, which means buffers are not pooled";
+
     private static final String ENCRYPTION_CONFIG = "encryption.enabled";
     private static final String ENCRYPTION_DOC = "Whether to enable encryption";
     // TODO add possibility to pass keys as strings
@@ -168,6 +327,230 @@ public class RemoteStorageManagerConfig extends AbstractConfig {
             ConfigDef.Importance.HIGH,
             COMPRESSION_HEURISTIC_ENABLED_DOC
         );
+        CONFIG.define(
+            COMPRESSION_HEURISTIC_SAMPLE_BATCHES_CONFIG,
+            ConfigDef.Type.INT,
+            16,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            COMPRESSION_HEURISTIC_SAMPLE_BATCHES_DOC
+        );
+        CONFIG.define(
+            COMPRESSION_HEURISTIC_TRIAL_SIZE_CONFIG,
+            ConfigDef.Type.INT,
+            0,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            COMPRESSION_HEURISTIC_TRIAL_SIZE_DOC
+        );
+        CONFIG.define(
+            COMPRESSION_HEURISTIC_MIN_SAVINGS_CONFIG,
+            ConfigDef.Type.DOUBLE,
+            0.1,
+            ConfigDef.Range.between(0.0, 1.0),
+            ConfigDef.Importance.LOW,
+            COMPRESSION_HEURISTIC_MIN_SAVINGS_DOC
+        );
+        CONFIG.define(
+            COMPRESSION_CODEC_CONFIG,
+            ConfigDef.Type.STRING,
+            CompressionCodec.ZSTD.value,
+            in(CompressionCodec.names()),
+            ConfigDef.Importance.MEDIUM,
+            COMPRESSION_CODEC_DOC
+        );
+        CONFIG.define(
+            COMPRESSION_ZSTD_LEVEL_CONFIG,
+            ConfigDef.Type.INT,
+            CompressionCodec.ZSTD_DEFAULT_LEVEL,
+            ConfigDef.Range.between(1, 22),
+            ConfigDef.Importance.LOW,
+            COMPRESSION_ZSTD_LEVEL_DOC
+        );
+        CONFIG.define(
+            COMPRESSION_ZSTD_DICTIONARY_ENABLED_CONFIG,
+            ConfigDef.Type.BOOLEAN,
+            false,
+            ConfigDef.Importance.LOW,
+            COMPRESSION_ZSTD_DICTIONARY_ENABLED_DOC
+        );
+        CONFIG.define(
+            COMPRESSION_ZSTD_DICTIONARY_SIZE_CONFIG,
+            ConfigDef.Type.INT,
+            64 * 1024,
+            // Large dictionaries don't improve compression much, but take a lot of data and time to train.
+            ConfigDef.Range.between(1024, 1024 * 1024),
+            ConfigDef.Importance.LOW,
+            COMPRESSION_ZSTD_DICTIONARY_SIZE_DOC
+        );
+        CONFIG.define(
+            COMPRESSION_RAW_FALLBACK_MARGIN_CONFIG,
+            ConfigDef.Type.DOUBLE,
+            null,
+            Null.or(ConfigDef.Range.between(0.0, 1.0)),
+            ConfigDef.Importance.LOW,
+            COMPRESSION_RAW_FALLBACK_MARGIN_DOC
+        );
+
+        CONFIG.define(
+            TRANSFORM_POOL_SIZE_CONFIG,
+            ConfigDef.Type.INT,
+            0,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.MEDIUM,
+            TRANSFORM_POOL_SIZE_DOC
+        );
+
+        CONFIG.define(
+            TRANSFORM_BUFFER_POOL_SIZE_CONFIG,
+            ConfigDef.Type.INT,
+            0,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.MEDIUM,
+            TRANSFORM_BUFFER_POOL_SIZE_DOC
+        );
+
+        CONFIG.define(
+            TRANSFORM_BUFFER_POOL_DIRECT_CONFIG,
+            ConfigDef.Type.BOOLEAN,
+            false,
+            ConfigDef.Importance.LOW,
+            TRANSFORM_BUFFER_POOL_DIRECT_DOC
+        );
+
+        CONFIG.define(
+            UPLOAD_INDEXES_POOL_SIZE_CONFIG,
+            ConfigDef.Type.INT,
+            UPLOAD_INDEXES_POOL_SIZE_DEFAULT,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            UPLOAD_INDEXES_POOL_SIZE_DOC
+        );
+
+        CONFIG.define(
+            UPLOAD_RATE_LIMIT_BYTES_PER_SECOND_CONFIG,
+            ConfigDef.Type.LONG,
+            0L,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.MEDIUM,
+            UPLOAD_RATE_LIMIT_BYTES_PER_SECOND_DOC
+        );
+
+        CONFIG.define(
+            MEMORY_BUDGET_BYTES_CONFIG,
+            ConfigDef.Type.LONG,
+            0L,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.MEDIUM,
+            MEMORY_BUDGET_BYTES_DOC
+        );
+
+        CONFIG.define(
+            MEMORY_BUDGET_MAX_WAIT_MS_CONFIG,
+            ConfigDef.Type.LONG,
+            MEMORY_BUDGET_MAX_WAIT_MS_DEFAULT,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            MEMORY_BUDGET_MAX_WAIT_MS_DOC
+        );
+
+        CONFIG.define(
+            UPLOAD_CHECKPOINT_DIR_CONFIG,
+            ConfigDef.Type.STRING,
+            null,
+            new ConfigDef.NonEmptyString(),
+            ConfigDef.Importance.LOW,
+            UPLOAD_CHECKPOINT_DIR_DOC
+        );
+
+        CONFIG.define(
+            UPLOAD_CHECKPOINT_RETENTION_MS_CONFIG,
+            ConfigDef.Type.LONG,
+            UPLOAD_CHECKPOINT_RETENTION_MS_DEFAULT,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            UPLOAD_CHECKPOINT_RETENTION_MS_DOC
+        );
+
+        CONFIG.define(
+            SEGMENT_PACKED_ENABLED_CONFIG,
+            ConfigDef.Type.BOOLEAN,
+            false,
+            ConfigDef.Importance.LOW,
+            SEGMENT_PACKED_ENABLED_DOC
+        );
+
+        CONFIG.define(
+            SEGMENT_PACK_MAX_BYTES_CONFIG,
+            ConfigDef.Type.INT,
+            0,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            SEGMENT_PACK_MAX_BYTES_DOC
+        );
+
+        CONFIG.define(
+            SEGMENT_PACK_MAX_AGE_MS_CONFIG,
+            ConfigDef.Type.LONG,
+            SEGMENT_PACK_MAX_AGE_MS_DEFAULT,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            SEGMENT_PACK_MAX_AGE_MS_DOC
+        );
+
+        CONFIG.define(
+            SEGMENT_PACK_SEGMENT_MAX_BYTES_CONFIG,
+            ConfigDef.Type.INT,
+            SEGMENT_PACK_SEGMENT_MAX_BYTES_DEFAULT,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            SEGMENT_PACK_SEGMENT_MAX_BYTES_DOC
+        );
+
+        CONFIG.define(
+            FETCH_COALESCED_MAX_BYTES_CONFIG,
+            ConfigDef.Type.INT,
+            0,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            FETCH_COALESCED_MAX_BYTES_DOC
+        );
+
+        CONFIG.define(
+            FETCH_READ_AHEAD_CHUNKS_CONFIG,
+            ConfigDef.Type.INT,
+            0,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            FETCH_READ_AHEAD_CHUNKS_DOC
+        );
+
+        CONFIG.define(
+            FETCH_READ_AHEAD_CONCURRENCY_CONFIG,
+            ConfigDef.Type.INT,
+            10,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            FETCH_READ_AHEAD_CONCURRENCY_DOC
+        );
+
+        CONFIG.define(
+            FETCH_DETRANSFORM_POOL_SIZE_CONFIG,
+            ConfigDef.Type.INT,
+            0,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            FETCH_DETRANSFORM_POOL_SIZE_DOC
+        );
+
+        CONFIG.define(
+            FETCH_BUFFER_POOL_SIZE_CONFIG,
+            ConfigDef.Type.INT,
+            0,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            FETCH_BUFFER_POOL_SIZE_DOC
+        );
 
         CONFIG.define(
             ENCRYPTION_CONFIG,
@@ -311,6 +694,7 @@ public class RemoteStorageManagerConfig extends AbstractConfig {
 
     private void validate() {
         validateCompression();
+        validateTransform();
     }
 
     private void validateCompression() {
@@ -318,6 +702,20 @@ public class RemoteStorageManagerConfig extends AbstractConfig {
             throw new ConfigException(
                 COMPRESSION_ENABLED_CONFIG + " must be enabled if " + COMPRESSION_HEURISTIC_ENABLED_CONFIG + " is");
         }
+        if (compressionZstdDictionaryEnabled() && compressionCodec() != CompressionCodec.ZSTD) {
+            throw new ConfigException(
+                COMPRESSION_CODEC_CONFIG + " must be " + CompressionCodec.ZSTD.value + " if "
+                    + COMPRESSION_ZSTD_DICTIONARY_ENABLED_CONFIG + " is enabled");
+        }
+    }
+
+    private void validateTransform() {
+        // The parallel transformation works on arrays, so it can't use the pooled buffers.
+        if (transformPoolSize() > 0 && transformBufferPoolSize() > 0) {
+            throw new ConfigException(
+                TRANSFORM_POOL_SIZE_CONFIG + " and " + TRANSFORM_BUFFER_POOL_SIZE_CONFIG
+                    + " can't be both positive");
+        }
     }
 
     public StorageBackend storage() {
@@ -363,6 +761,111 @@ public class RemoteStorageManagerConfig extends AbstractConfig {
         return getBoolean(COMPRESSION_HEURISTIC_ENABLED_CONFIG);
     }
 
+    public int compressionHeuristicSampleBatches() {
+        return getInt(COMPRESSION_HEURISTIC_SAMPLE_BATCHES_CONFIG);
+    }
+
+    public int compressionHeuristicTrialSize() {
+        return getInt(COMPRESSION_HEURISTIC_TRIAL_SIZE_CONFIG);
+    }
+
+    public double compressionHeuristicMinSavings() {
+        return getDouble(COMPRESSION_HEURISTIC_MIN_SAVINGS_CONFIG);
+    }
+
+    public CompressionCodec compressionCodec() {
+        return CompressionCodec.forValue(getString(COMPRESSION_CODEC_CONFIG));
+    }
+
+    public int compressionZstdLevel() {
+        return getInt(COMPRESSION_ZSTD_LEVEL_CONFIG);
+    }
+
+    public boolean compressionZstdDictionaryEnabled() {
+        return getBoolean(COMPRESSION_ZSTD_DICTIONARY_ENABLED_CONFIG);
+    }
+
+    public int compressionZstdDictionarySize() {
+        return getInt(COMPRESSION_ZSTD_DICTIONARY_SIZE_CONFIG);
+    }
+
+    public Optional<Double> compressionRawFallbackMargin() {
+        return Optional.ofNullable(getDouble(COMPRESSION_RAW_FALLBACK_MARGIN_CONFIG));
+    }
+
+    public int transformPoolSize() {
+        return getInt(TRANSFORM_POOL_SIZE_CONFIG);
+    }
+
+    public int transformBufferPoolSize() {
+        return getInt(TRANSFORM_BUFFER_POOL_SIZE_CONFIG);
+    }
+
+    public boolean transformBufferPoolDirect() {
+        return getBoolean(TRANSFORM_BUFFER_POOL_DIRECT_CONFIG);
+    }
+
+    public int uploadIndexesPoolSize() {
+        return getInt(UPLOAD_INDEXES_POOL_SIZE_CONFIG);
+    }
+
+    public long uploadRateLimitBytesPerSecond() {
+        return getLong(UPLOAD_RATE_LIMIT_BYTES_PER_SECOND_CONFIG);
+    }
+
+    public long memoryBudgetBytes() {
+        return getLong(MEMORY_BUDGET_BYTES_CONFIG);
+    }
+
+    public long memoryBudgetMaxWaitMs() {
+        return getLong(MEMORY_BUDGET_MAX_WAIT_MS_CONFIG);
+    }
+
+    public Path uploadCheckpointDir() {
+        final String dir = getString(UPLOAD_CHECKPOINT_DIR_CONFIG);
+        return dir != null ? Path.of(dir) : null;
+    }
+
+    public long uploadCheckpointRetentionMs() {
+        return getLong(UPLOAD_CHECKPOINT_RETENTION_MS_CONFIG);
+    }
+
+    public boolean segmentPackedEnabled() {
+        return getBoolean(SEGMENT_PACKED_ENABLED_CONFIG);
+    }
+
+    public int segmentPackMaxBytes() {
+        return getInt(SEGMENT_PACK_MAX_BYTES_CONFIG);
+    }
+
+    public long segmentPackMaxAgeMs() {
+        return getLong(SEGMENT_PACK_MAX_AGE_MS_CONFIG);
+    }
+
+    public int segmentPackSegmentMaxBytes() {
+        return getInt(SEGMENT_PACK_SEGMENT_MAX_BYTES_CONFIG);
+    }
+
+    public int fetchCoalescedMaxBytes() {
+        return getInt(FETCH_COALESCED_MAX_BYTES_CONFIG);
+    }
+
+    public int fetchReadAheadChunks() {
+        return getInt(FETCH_READ_AHEAD_CHUNKS_CONFIG);
+    }
+
+    public int fetchReadAheadConcurrency() {
+        return getInt(FETCH_READ_AHEAD_CONCURRENCY_CONFIG);
+    }
+
+    public int fetchDetransformPoolSize() {
+        return getInt(FETCH_DETRANSFORM_POOL_SIZE_CONFIG);
+    }
+
+    public int fetchBufferPoolSize() {
+        return getInt(FETCH_BUFFER_POOL_SIZE_CONFIG);
+    }
+
     public boolean encryptionEnabled() {
         return getBoolean(ENCRYPTION_CONFIG);
     }
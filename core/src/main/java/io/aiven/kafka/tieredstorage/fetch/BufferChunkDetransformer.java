@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.fetch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import io.aiven.kafka.tieredstorage.Chunk;
+import io.aiven.kafka.tieredstorage.manifest.SegmentEncryptionMetadata;
+import io.aiven.kafka.tieredstorage.manifest.SegmentManifest;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.transform.BaseBufferDetransformChunkEnumeration;
+import io.aiven.kafka.tieredstorage.transform.BufferDetransformChunkEnumeration;
+import io.aiven.kafka.tieredstorage.transform.BufferDetransformFinisher;
+import io.aiven.kafka.tieredstorage.transform.ChunkBufferPool;
+import io.aiven.kafka.tieredstorage.transform.DecompressionBufferChunkEnumeration;
+import io.aiven.kafka.tieredstorage.transform.DecryptionBufferChunkEnumeration;
+
+/**
+ * De-transforms fetched chunks like {@link ChunkDetransformer}, but in buffers taken from a pool
+ * instead of arrays allocated on every step.
+ */
+class BufferChunkDetransformer {
+    private final ChunkDetransformer detransformer;
+    private final ChunkBufferPool bufferPool;
+
+    /**
+     * @param detransformer the de-transformer to get the ciphers and the compression dictionaries from.
+     */
+    BufferChunkDetransformer(final ChunkDetransformer detransformer, final ChunkBufferPool bufferPool) {
+        this.detransformer = Objects.requireNonNull(detransformer, "detransformer cannot be null");
+        this.bufferPool = Objects.requireNonNull(bufferPool, "bufferPool cannot be null");
+    }
+
+    /**
+     * Returns the de-transformed chunks of the content.
+     *
+     * <p>The buffer of each chunk is returned to the pool when its stream is read to the end or closed.
+     *
+     * @param chunksContent the content of the chunks, one after another.
+     */
+    BufferDetransformFinisher detransform(final InputStream chunksContent,
+                                          final SegmentManifest manifest,
+                                          final List<Chunk> chunks) throws StorageBackendException, IOException {
+        BufferDetransformChunkEnumeration detransformEnum =
+            new BaseBufferDetransformChunkEnumeration(chunksContent, chunks, bufferPool);
+        final Optional<SegmentEncryptionMetadata> encryptionMetadata = manifest.encryption();
+        if (encryptionMetadata.isPresent()) {
+            detransformEnum = new DecryptionBufferChunkEnumeration(
+                detransformEnum,
+                encryptionMetadata.get().ivSize(),
+                detransformer.decryptionCipher(encryptionMetadata.get())
+            );
+        }
+        if (manifest.compression()) {
+            detransformEnum = new DecompressionBufferChunkEnumeration(
+                detransformEnum,
+                ChunkDetransformer.compressionCodec(manifest),
+                detransformer.compressionDictionary(manifest));
+        }
+        return new BufferDetransformFinisher(detransformEnum);
+    }
+
+    /**
+     * Returns the de-transformed chunks of the content as views of the buffers they are de-transformed in.
+     *
+     * <p>The buffer of each chunk is returned to the pool once all views of the chunk are released.
+     *
+     * @param chunksContent the content of the chunks, one after another.
+     */
+    DetransformedChunks detransformChunks(final InputStream chunksContent,
+                                          final SegmentManifest manifest,
+                                          final List<Chunk> chunks) throws StorageBackendException, IOException {
+        final BufferDetransformFinisher detransformFinisher = detransform(chunksContent, manifest, chunks);
+        return onRelease -> {
+            final ByteBuffer chunk = detransformFinisher.nextChunk();
+            return ChunkBuffer.of(chunk, () -> {
+                bufferPool.release(chunk);
+                onRelease.run();
+            });
+        };
+    }
+}
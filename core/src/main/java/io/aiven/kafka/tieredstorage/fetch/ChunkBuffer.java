@@ -0,0 +1,163 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.fetch;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The content of a chunk, plain text (i.e., decrypted and decompressed), as a read-only view of a buffer.
+ *
+ * <p>The memory of the chunk, e.g. a pooled buffer or a memory budget reservation, is shared by the views of it
+ * created with {@link #slice}, and is freed once all of them are released. Each view must be released exactly once;
+ * releasing it again has no effect.
+ */
+public final class ChunkBuffer {
+    private final ByteBuffer content;
+    // The wrapped array, if the view covers it entirely and it's not reused after the chunk is released.
+    private final byte[] array;
+    private final Reference reference;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    private ChunkBuffer(final ByteBuffer content, final byte[] array, final Reference reference) {
+        this.content = content;
+        this.array = array;
+        this.reference = reference;
+    }
+
+    /**
+     * Returns the view of the array, which must not be modified anymore.
+     */
+    public static ChunkBuffer wrap(final byte[] array) {
+        return wrap(array, null);
+    }
+
+    /**
+     * Returns the view of the array, which must not be modified anymore.
+     *
+     * @param onRelease the action to run once all views of the chunk are released, or {@code null} if none.
+     */
+    public static ChunkBuffer wrap(final byte[] array, final Runnable onRelease) {
+        Objects.requireNonNull(array, "array cannot be null");
+        return new ChunkBuffer(ByteBuffer.wrap(array), array, new Reference(onRelease));
+    }
+
+    /**
+     * Returns the view of the buffer content between its position and limit.
+     *
+     * @param onRelease the action to run once all views of the chunk are released, e.g. returning the buffer
+     *                  to its pool, or {@code null} if none.
+     */
+    public static ChunkBuffer of(final ByteBuffer buffer, final Runnable onRelease) {
+        Objects.requireNonNull(buffer, "buffer cannot be null");
+        return new ChunkBuffer(buffer.slice(), null, new Reference(onRelease));
+    }
+
+    public int size() {
+        return content.remaining();
+    }
+
+    /**
+     * Returns the content as a read-only buffer, from the position to the limit.
+     */
+    public ByteBuffer buffer() {
+        checkNotReleased();
+        return content.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the content as a buffer which is not necessarily read-only, so it can be copied from its array.
+     * It must not be modified.
+     */
+    ByteBuffer content() {
+        checkNotReleased();
+        return content.duplicate();
+    }
+
+    /**
+     * Returns another view of a part of the content, sharing the memory of the chunk with this one.
+     * The view must be released on its own.
+     */
+    public ChunkBuffer slice(final int offset, final int length) {
+        Objects.checkFromIndexSize(offset, length, content.remaining());
+        checkNotReleased();
+        reference.retain();
+        final ByteBuffer slice = content.duplicate();
+        slice.position(content.position() + offset);
+        slice.limit(content.position() + offset + length);
+        final boolean whole = offset == 0 && length == content.remaining();
+        return new ChunkBuffer(slice.slice(), whole ? array : null, reference);
+    }
+
+    /**
+     * Returns the content as an array. It may be the wrapped array itself rather than a copy,
+     * so it must not be modified.
+     */
+    public byte[] toByteArray() {
+        checkNotReleased();
+        if (array != null) {
+            return array;
+        }
+        final byte[] bytes = new byte[content.remaining()];
+        content.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Returns the stream of the content, which releases this view when closed.
+     */
+    public InputStream toInputStream() {
+        return new ChunkBufferInputStream(this);
+    }
+
+    public void release() {
+        if (released.compareAndSet(false, true)) {
+            reference.release();
+        }
+    }
+
+    private void checkNotReleased() {
+        if (released.get()) {
+            throw new IllegalStateException("Chunk buffer already released");
+        }
+    }
+
+    /**
+     * The count of unreleased views of a chunk.
+     */
+    private static class Reference {
+        private final AtomicInteger count = new AtomicInteger(1);
+        private final Runnable onRelease;
+
+        private Reference(final Runnable onRelease) {
+            this.onRelease = onRelease;
+        }
+
+        private void retain() {
+            count.incrementAndGet();
+        }
+
+        private void release() {
+            if (count.decrementAndGet() == 0 && onRelease != null) {
+                onRelease.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.fetch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * The stream of a {@link ChunkBuffer}, which releases it when closed.
+ *
+ * <p>Reads copy the content right from the buffer, and {@link #transferTo} writes it to the output stream
+ * from the buffer array, if any, without intermediate copies.
+ */
+public class ChunkBufferInputStream extends InputStream {
+    private static final int TRANSFER_BUFFER_SIZE = 8192;
+
+    private ChunkBuffer chunk;
+    private ByteBuffer content;
+
+    public ChunkBufferInputStream(final ChunkBuffer chunk) {
+        this.chunk = Objects.requireNonNull(chunk, "chunk cannot be null");
+        this.content = chunk.content();
+    }
+
+    @Override
+    public int read() {
+        if (content == null || !content.hasRemaining()) {
+            return -1;
+        }
+        return content.get() & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        if (content == null || !content.hasRemaining()) {
+            return -1;
+        }
+        final int toRead = Math.min(len, content.remaining());
+        content.get(b, off, toRead);
+        return toRead;
+    }
+
+    @Override
+    public long skip(final long n) {
+        if (content == null || n <= 0) {
+            return 0;
+        }
+        final int toSkip = (int) Math.min(n, content.remaining());
+        content.position(content.position() + toSkip);
+        return toSkip;
+    }
+
+    @Override
+    public int available() {
+        return content == null ? 0 : content.remaining();
+    }
+
+    @Override
+    public long transferTo(final OutputStream out) throws IOException {
+        Objects.requireNonNull(out, "out cannot be null");
+        if (content == null) {
+            return 0;
+        }
+        final int transferred = content.remaining();
+        if (content.hasArray()) {
+            out.write(content.array(), content.arrayOffset() + content.position(), transferred);
+            content.position(content.limit());
+        } else {
+            final byte[] buffer = new byte[Math.min(transferred, TRANSFER_BUFFER_SIZE)];
+            while (content.hasRemaining()) {
+                final int length = Math.min(buffer.length, content.remaining());
+                content.get(buffer, 0, length);
+                out.write(buffer, 0, length);
+            }
+        }
+        return transferred;
+    }
+
+    @Override
+    public void close() {
+        if (chunk != null) {
+            chunk.release();
+            chunk = null;
+            content = null;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.fetch;
+
+import javax.crypto.Cipher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import io.aiven.kafka.tieredstorage.Chunk;
+import io.aiven.kafka.tieredstorage.manifest.SegmentCompressionMetadata;
+import io.aiven.kafka.tieredstorage.manifest.SegmentEncryptionMetadata;
+import io.aiven.kafka.tieredstorage.manifest.SegmentManifest;
+import io.aiven.kafka.tieredstorage.security.AesEncryptionProvider;
+import io.aiven.kafka.tieredstorage.storage.ObjectFetcher;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.transform.BaseDetransformChunkEnumeration;
+import io.aiven.kafka.tieredstorage.transform.CompressionCodec;
+import io.aiven.kafka.tieredstorage.transform.DecompressionChunkEnumeration;
+import io.aiven.kafka.tieredstorage.transform.DecompressionDictionary;
+import io.aiven.kafka.tieredstorage.transform.DecryptionChunkEnumeration;
+import io.aiven.kafka.tieredstorage.transform.DetransformChunkEnumeration;
+import io.aiven.kafka.tieredstorage.transform.DetransformFinisher;
+import io.aiven.kafka.tieredstorage.transform.ParallelDetransformChunkEnumeration;
+
+/**
+ * De-transforms fetched chunks as described by the segment manifest, i.e. decrypts and decompresses them.
+ */
+class ChunkDetransformer {
+    private final AesEncryptionProvider aesEncryptionProvider;
+    private final CompressionDictionaryProvider compressionDictionaryProvider;
+
+    ChunkDetransformer(final ObjectFetcher fetcher, final AesEncryptionProvider aesEncryptionProvider) {
+        this.aesEncryptionProvider = aesEncryptionProvider;
+        this.compressionDictionaryProvider = new CompressionDictionaryProvider(fetcher);
+    }
+
+    /**
+     * Returns the de-transformed chunks of the content.
+     *
+     * @param chunksContent the content of the chunks, one after another.
+     */
+    DetransformFinisher detransform(final InputStream chunksContent,
+                                    final SegmentManifest manifest,
+                                    final List<Chunk> chunks) throws StorageBackendException, IOException {
+        return new DetransformFinisher(
+            detransformation(manifest).apply(new BaseDetransformChunkEnumeration(chunksContent, chunks)));
+    }
+
+    /**
+     * Returns the de-transformed chunks of the content as views of the arrays they are de-transformed into.
+     *
+     * @param chunksContent the content of the chunks, one after another.
+     */
+    DetransformedChunks detransformChunks(final InputStream chunksContent,
+                                          final SegmentManifest manifest,
+                                          final List<Chunk> chunks) throws StorageBackendException, IOException {
+        return DetransformedChunks.of(detransform(chunksContent, manifest, chunks));
+    }
+
+    /**
+     * Returns the chunks of the content de-transformed in parallel on the executor.
+     *
+     * <p>Cancelling the returned chunks cancels the de-transformations in progress.
+     *
+     * @param chunksContent     the content of the chunks, one after another.
+     * @param maxInFlightChunks the maximum number of chunks being de-transformed at once.
+     */
+    DetransformedChunks detransformInParallel(final InputStream chunksContent,
+                                              final SegmentManifest manifest,
+                                              final List<Chunk> chunks,
+                                              final ExecutorService executor,
+                                              final int maxInFlightChunks)
+        throws StorageBackendException, IOException {
+        final ParallelDetransformChunkEnumeration detransformEnum = new ParallelDetransformChunkEnumeration(
+            new BaseDetransformChunkEnumeration(chunksContent, chunks),
+            detransformation(manifest), executor, maxInFlightChunks);
+        return DetransformedChunks.of(new DetransformFinisher(detransformEnum), detransformEnum::cancel);
+    }
+
+    /**
+     * Returns the function that wraps an enumeration of chunks into the chain of de-transformations
+     * of the segment.
+     */
+    private UnaryOperator<DetransformChunkEnumeration> detransformation(final SegmentManifest manifest)
+        throws StorageBackendException, IOException {
+        UnaryOperator<DetransformChunkEnumeration> detransformation = UnaryOperator.identity();
+        final Optional<SegmentEncryptionMetadata> encryptionMetadata = manifest.encryption();
+        if (encryptionMetadata.isPresent()) {
+            detransformation = andThen(detransformation, inner -> new DecryptionChunkEnumeration(
+                inner,
+                encryptionMetadata.get().ivSize(),
+                decryptionCipher(encryptionMetadata.get())
+            ));
+        }
+        if (manifest.compression()) {
+            final CompressionCodec codec = compressionCodec(manifest);
+            final DecompressionDictionary dictionary = compressionDictionary(manifest);
+            detransformation = andThen(
+                detransformation, inner -> new DecompressionChunkEnumeration(inner, codec, dictionary));
+        }
+        return detransformation;
+    }
+
+    /**
+     * Returns the function that takes the IV of an encrypted chunk and returns the decryption cipher for it.
+     */
+    Function<byte[], Cipher> decryptionCipher(final SegmentEncryptionMetadata encryptionMetadata) {
+        return iv -> aesEncryptionProvider.decryptionCipher(iv, encryptionMetadata);
+    }
+
+    static CompressionCodec compressionCodec(final SegmentManifest manifest) {
+        // Segments uploaded before the codec became configurable are compressed with Zstd.
+        return manifest.compressionMetadata()
+            .map(SegmentCompressionMetadata::codec)
+            .orElse(CompressionCodec.ZSTD);
+    }
+
+    /**
+     * Returns the Zstd dictionary the chunks of the segment are compressed with, or {@code null} if none.
+     */
+    DecompressionDictionary compressionDictionary(final SegmentManifest manifest)
+        throws StorageBackendException, IOException {
+        final Optional<String> dictionaryKey = manifest.compressionMetadata()
+            .flatMap(SegmentCompressionMetadata::dictionaryKey);
+        return dictionaryKey.isPresent()
+            ? compressionDictionaryProvider.get(dictionaryKey.get())
+            : null;
+    }
+
+    private static UnaryOperator<DetransformChunkEnumeration> andThen(
+        final UnaryOperator<DetransformChunkEnumeration> first,
+        final UnaryOperator<DetransformChunkEnumeration> second) {
+        return inner -> second.apply(first.apply(inner));
+    }
+}
@@ -18,6 +18,7 @@ package io.aiven.kafka.tieredstorage.fetch;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.NoSuchElementException;
 
 import io.aiven.kafka.tieredstorage.manifest.SegmentManifest;
 import io.aiven.kafka.tieredstorage.storage.ObjectKey;
@@ -28,4 +29,41 @@ public interface ChunkManager {
     InputStream getChunk(final ObjectKey objectKey,
                          final SegmentManifest manifest,
                          final int chunkId) throws StorageBackendException, IOException;
+
+    /**
+     * Gets a chunk of a segment as a buffer, which can be sliced and read without copying.
+     *
+     * <p>The buffer must be released once the chunk is consumed. By default, the chunk got with {@link #getChunk}
+     * is read into an array.
+     */
+    default ChunkBuffer getChunkBuffer(final ObjectKey objectKey,
+                                       final SegmentManifest manifest,
+                                       final int chunkId) throws StorageBackendException, IOException {
+        try (final InputStream chunk = getChunk(objectKey, manifest, chunkId)) {
+            return ChunkBuffer.wrap(chunk.readAllBytes());
+        }
+    }
+
+    /**
+     * Gets the chunks of a segment from {@code firstChunkId} to {@code lastChunkId} inclusive.
+     *
+     * <p>Implementations may fetch them with a single ranged request and split its content into chunks
+     * as they are returned. By default, each chunk is got with {@link #getChunkBuffer} when it's requested.
+     */
+    default ChunkSequence getChunks(final ObjectKey objectKey,
+                                    final SegmentManifest manifest,
+                                    final int firstChunkId,
+                                    final int lastChunkId) {
+        return new ChunkSequence() {
+            private int nextChunkId = firstChunkId;
+
+            @Override
+            public ChunkBuffer nextChunk() throws StorageBackendException, IOException {
+                if (nextChunkId > lastChunkId) {
+                    throw new NoSuchElementException();
+                }
+                return getChunkBuffer(objectKey, manifest, nextChunkId++);
+            }
+        };
+    }
 }
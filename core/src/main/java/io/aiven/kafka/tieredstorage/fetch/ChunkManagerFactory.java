@@ -17,12 +17,15 @@
 package io.aiven.kafka.tieredstorage.fetch;
 
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.kafka.common.Configurable;
 
 import io.aiven.kafka.tieredstorage.fetch.cache.ChunkCache;
 import io.aiven.kafka.tieredstorage.security.AesEncryptionProvider;
+import io.aiven.kafka.tieredstorage.storage.MemoryBudget;
 import io.aiven.kafka.tieredstorage.storage.ObjectFetcher;
+import io.aiven.kafka.tieredstorage.transform.ChunkBufferPool;
 
 public class ChunkManagerFactory implements Configurable {
     private ChunkManagerFactoryConfig config;
@@ -34,7 +37,23 @@ public class ChunkManagerFactory implements Configurable {
 
     public ChunkManager initChunkManager(final ObjectFetcher fileFetcher,
                                          final AesEncryptionProvider aesEncryptionProvider) {
-        final DefaultChunkManager defaultChunkManager = new DefaultChunkManager(fileFetcher, aesEncryptionProvider);
+        return initChunkManager(fileFetcher, aesEncryptionProvider, MemoryBudget.unlimited());
+    }
+
+    public ChunkManager initChunkManager(final ObjectFetcher fileFetcher,
+                                         final AesEncryptionProvider aesEncryptionProvider,
+                                         final MemoryBudget memoryBudget) {
+        return initChunkManager(fileFetcher, aesEncryptionProvider, memoryBudget, null, 0, null);
+    }
+
+    public ChunkManager initChunkManager(final ObjectFetcher fileFetcher,
+                                         final AesEncryptionProvider aesEncryptionProvider,
+                                         final MemoryBudget memoryBudget,
+                                         final ExecutorService detransformExecutor,
+                                         final int detransformPoolSize,
+                                         final ChunkBufferPool bufferPool) {
+        final DefaultChunkManager defaultChunkManager = new DefaultChunkManager(
+            fileFetcher, aesEncryptionProvider, memoryBudget, detransformExecutor, detransformPoolSize, bufferPool);
         if (config.cacheClass() != null) {
             try {
                 final ChunkCache<?> chunkCache = config
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.fetch;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.utils.ThreadUtils;
+
+/**
+ * Reads chunks of fetches ahead in the background, on a pool of threads shared by all fetches.
+ *
+ * <p>Each fetch reads ahead with at most one thread at a time and queues at most {@code chunks} reads,
+ * so the pool is bounded by the expected number of fetches at once. Reads beyond these bounds are done
+ * by the thread scheduling them, as if not read ahead.
+ */
+public class ChunkReadAhead implements Closeable {
+    private final int chunks;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param chunks      the maximum number of chunks read ahead of the one being consumed by a fetch.
+     * @param concurrency the expected number of fetches reading ahead at once.
+     */
+    public ChunkReadAhead(final int chunks, final int concurrency) {
+        if (chunks < 1) {
+            throw new IllegalArgumentException("chunks must be positive, " + chunks + " given");
+        }
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be positive, " + concurrency + " given");
+        }
+        this.chunks = chunks;
+        this.executor = new ThreadPoolExecutor(
+            concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(concurrency * chunks),
+            ThreadUtils.createThreadFactory("rsm-fetch-read-ahead-%d", true),
+            (read, executor) -> {
+                // Unlike CallerRunsPolicy, doesn't drop the read silently after shutdown, leaving the fetch waiting.
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("Fetch read-ahead executor is shut down");
+                }
+                read.run();
+            });
+    }
+
+    /**
+     * Returns the sequence reading the chunks of the source sequence ahead.
+     *
+     * @param chunkCount the number of chunks in the source sequence.
+     */
+    ChunkSequence readAhead(final ChunkSequence source, final int chunkCount) {
+        return new ReadAheadChunkSequence(source, chunkCount, executor, chunks);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
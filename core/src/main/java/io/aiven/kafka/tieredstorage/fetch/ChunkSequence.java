@@ -0,0 +1,43 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage.fetch;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+
+/**
+ * Consecutive chunks of a segment, returned one by one in order.
+ *
+ * <p>Closing the sequence releases what's held for the chunks not returned yet, like an open ranged request.
+ */
+public interface ChunkSequence extends Closeable {
+    /**
+     * Returns the next chunk, plain text (i.e., decrypted and decompressed).
+     *
+     * <p>The buffer must be released once the chunk is consumed, see {@link ChunkManager#getChunkBuffer}.
+     *
+     * @throws java.util.NoSuchElementException if all chunks were returned already.
+     */
+    ChunkBuffer nextChunk() throws StorageBackendException, IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.fetch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletionException;
+
+import io.aiven.kafka.tieredstorage.storage.ObjectFetcher;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.transform.DecompressionDictionary;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+/**
+ * Fetches Zstd dictionaries referred to by segment manifests and keeps them loaded.
+ *
+ * <p>There are few dictionaries (one per topic, give or take) and they are used by all segments of a topic,
+ * so they are cached without expiration.
+ * Evicted dictionaries are closed, which frees them once the decompressions using them are done.
+ */
+public class CompressionDictionaryProvider {
+    static final long DEFAULT_MAX_CACHE_SIZE = 1000;
+
+    private final LoadingCache<String, DecompressionDictionary> cache;
+
+    public CompressionDictionaryProvider(final ObjectFetcher fetcher) {
+        this(fetcher, DEFAULT_MAX_CACHE_SIZE);
+    }
+
+    public CompressionDictionaryProvider(final ObjectFetcher fetcher, final long maxCacheSize) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxCacheSize)
+            .removalListener((String key, DecompressionDictionary dictionary, RemovalCause cause) -> {
+                if (dictionary != null) {
+                    dictionary.close();
+                }
+            })
+            .build(key -> {
+                try (final InputStream is = fetcher.fetch(new DictionaryKey(key))) {
+                    return new DecompressionDictionary(is.readAllBytes());
+                }
+            });
+    }
+
+    public DecompressionDictionary get(final String dictionaryKey) throws StorageBackendException, IOException {
+        try {
+            return cache.get(dictionaryKey);
+        } catch (final CompletionException e) {
+            // Unwrap the exceptions thrown by the loader.
+            if (e.getCause() instanceof StorageBackendException) {
+                throw (StorageBackendException) e.getCause();
+            }
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static class DictionaryKey implements ObjectKey {
+        private final String value;
+
+        private DictionaryKey(final String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String value() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
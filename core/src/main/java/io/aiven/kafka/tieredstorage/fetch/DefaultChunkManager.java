@@ -16,56 +16,272 @@
 
 package io.aiven.kafka.tieredstorage.fetch;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
-import java.util.Optional;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
 
 import io.aiven.kafka.tieredstorage.Chunk;
-import io.aiven.kafka.tieredstorage.manifest.SegmentEncryptionMetadata;
 import io.aiven.kafka.tieredstorage.manifest.SegmentManifest;
 import io.aiven.kafka.tieredstorage.security.AesEncryptionProvider;
+import io.aiven.kafka.tieredstorage.storage.BytesRange;
+import io.aiven.kafka.tieredstorage.storage.MemoryBudget;
 import io.aiven.kafka.tieredstorage.storage.ObjectFetcher;
 import io.aiven.kafka.tieredstorage.storage.ObjectKey;
 import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
-import io.aiven.kafka.tieredstorage.transform.BaseDetransformChunkEnumeration;
-import io.aiven.kafka.tieredstorage.transform.DecompressionChunkEnumeration;
-import io.aiven.kafka.tieredstorage.transform.DecryptionChunkEnumeration;
-import io.aiven.kafka.tieredstorage.transform.DetransformChunkEnumeration;
-import io.aiven.kafka.tieredstorage.transform.DetransformFinisher;
+import io.aiven.kafka.tieredstorage.transform.ChunkBufferPool;
 
 public class DefaultChunkManager implements ChunkManager {
     private final ObjectFetcher fetcher;
-    private final AesEncryptionProvider aesEncryptionProvider;
+    private final ChunkDetransformer detransformer;
+    private final MemoryBudget memoryBudget;
+    private final ExecutorService detransformExecutor;
+    private final int detransformPoolSize;
+    private final BufferChunkDetransformer bufferDetransformer;
 
     public DefaultChunkManager(final ObjectFetcher fetcher, final AesEncryptionProvider aesEncryptionProvider) {
+        this(fetcher, aesEncryptionProvider, MemoryBudget.unlimited());
+    }
+
+    public DefaultChunkManager(final ObjectFetcher fetcher,
+                               final AesEncryptionProvider aesEncryptionProvider,
+                               final MemoryBudget memoryBudget) {
+        this(fetcher, aesEncryptionProvider, memoryBudget, null, 0);
+    }
+
+    /**
+     * @param detransformExecutor the executor to de-transform chunks got together on in parallel,
+     *                            or {@code null} to de-transform them one after another in the calling thread.
+     * @param detransformPoolSize the number of threads of the executor,
+     *                            which is also the maximum number of chunks de-transformed at once.
+     */
+    public DefaultChunkManager(final ObjectFetcher fetcher,
+                               final AesEncryptionProvider aesEncryptionProvider,
+                               final MemoryBudget memoryBudget,
+                               final ExecutorService detransformExecutor,
+                               final int detransformPoolSize) {
+        this(fetcher, aesEncryptionProvider, memoryBudget, detransformExecutor, detransformPoolSize, null);
+    }
+
+    /**
+     * @param bufferPool the pool of buffers to read and de-transform chunks in, or {@code null} to use arrays
+     *                   allocated for each chunk. It's not used for chunks de-transformed in parallel.
+     */
+    public DefaultChunkManager(final ObjectFetcher fetcher,
+                               final AesEncryptionProvider aesEncryptionProvider,
+                               final MemoryBudget memoryBudget,
+                               final ExecutorService detransformExecutor,
+                               final int detransformPoolSize,
+                               final ChunkBufferPool bufferPool) {
         this.fetcher = fetcher;
-        this.aesEncryptionProvider = aesEncryptionProvider;
+        this.detransformer = new ChunkDetransformer(fetcher, aesEncryptionProvider);
+        this.memoryBudget = memoryBudget;
+        if (detransformExecutor != null && detransformPoolSize < 1) {
+            throw new IllegalArgumentException(
+                "detransformPoolSize must be positive, " + detransformPoolSize + " given");
+        }
+        this.detransformExecutor = detransformExecutor;
+        this.detransformPoolSize = detransformPoolSize;
+        this.bufferDetransformer = bufferPool != null
+            ? new BufferChunkDetransformer(detransformer, bufferPool)
+            : null;
     }
 
     /**
      * Gets a chunk of a segment.
      *
+     * <p>The memory the chunk is fetched and detransformed in is reserved in the memory budget
+     * until the returned stream is read to the end or closed. So is the pooled buffer of the chunk, if any.
+     *
      * @return an {@link InputStream} of the chunk, plain text (i.e., decrypted and decompressed).
      */
     public InputStream getChunk(final ObjectKey objectKey, final SegmentManifest manifest,
-                                final int chunkId) throws StorageBackendException {
+                                final int chunkId) throws StorageBackendException, IOException {
+        final Chunk chunk = manifest.chunkIndex().chunks().get(chunkId);
+
+        final MemoryBudget.Reservation reservation = reserve(manifest, chunk);
+        try {
+            final InputStream chunkContent = fetcher.fetch(objectKey, chunk.range());
+            final InputStream detransformed = bufferDetransformer != null
+                ? bufferDetransformer.detransform(chunkContent, manifest, List.of(chunk)).toInputStream()
+                : detransformer.detransform(chunkContent, manifest, List.of(chunk)).toInputStream();
+            return new ReservedInputStream(detransformed, reservation);
+        } catch (final StorageBackendException | IOException | RuntimeException e) {
+            reservation.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets a chunk of a segment as a buffer, the array or the pooled buffer it's de-transformed into.
+     *
+     * <p>The memory of the chunk is reserved in the memory budget like with {@link #getChunk},
+     * and the pooled buffer, if any, is held until the buffer and all its slices are released.
+     */
+    @Override
+    public ChunkBuffer getChunkBuffer(final ObjectKey objectKey,
+                                      final SegmentManifest manifest,
+                                      final int chunkId) throws StorageBackendException, IOException {
         final Chunk chunk = manifest.chunkIndex().chunks().get(chunkId);
 
-        final InputStream chunkContent = fetcher.fetch(objectKey, chunk.range());
+        final MemoryBudget.Reservation reservation = reserve(manifest, chunk);
+        try (final InputStream chunkContent = fetcher.fetch(objectKey, chunk.range())) {
+            return detransformChunks(chunkContent, manifest, List.of(chunk)).next(reservation::close);
+        } catch (final StorageBackendException | IOException | RuntimeException e) {
+            reservation.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the chunks of a segment with a single ranged request,
+     * splitting its content into chunks and de-transforming them as they are returned.
+     *
+     * <p>The chunks are returned like with {@link #getChunkBuffer}, and the memory of each chunk is reserved
+     * when the chunk is returned. The request is open until the last chunk is returned or the sequence is closed.
+     *
+     * <p>With the de-transformation executor, the chunks following the one being returned are decrypted
+     * and decompressed in parallel; their memory is reserved as they are read from the request.
+     */
+    @Override
+    public ChunkSequence getChunks(final ObjectKey objectKey,
+                                   final SegmentManifest manifest,
+                                   final int firstChunkId,
+                                   final int lastChunkId) {
+        final List<Chunk> chunks = manifest.chunkIndex().chunks().subList(firstChunkId, lastChunkId + 1);
+        return new CoalescedChunkSequence(objectKey, manifest, chunks);
+    }
+
+    private MemoryBudget.Reservation reserve(final SegmentManifest manifest, final Chunk chunk) throws IOException {
+        final boolean transformed = manifest.encryption().isPresent() || manifest.compression();
+        return memoryBudget.reserve(chunk.transformedSize + (transformed ? chunk.originalSize : 0));
+    }
+
+    private DetransformedChunks detransformChunks(final InputStream chunksContent,
+                                                  final SegmentManifest manifest,
+                                                  final List<Chunk> chunks)
+        throws StorageBackendException, IOException {
+        return bufferDetransformer != null
+            ? bufferDetransformer.detransformChunks(chunksContent, manifest, chunks)
+            : detransformer.detransformChunks(chunksContent, manifest, chunks);
+    }
+
+    private class CoalescedChunkSequence implements ChunkSequence {
+        private final ObjectKey objectKey;
+        private final SegmentManifest manifest;
+        private final List<Chunk> chunks;
+
+        // The number of chunks read from the request and being de-transformed at once.
+        private final int inFlightChunks;
+        // The reservations of the chunks from the next one to be returned, in order.
+        private final Deque<MemoryBudget.Reservation> reservations = new ArrayDeque<>();
+
+        private InputStream chunksContent = null;
+        private DetransformedChunks detransformedChunks = null;
+        private int nextChunk = 0;
+
+        private CoalescedChunkSequence(final ObjectKey objectKey,
+                                       final SegmentManifest manifest,
+                                       final List<Chunk> chunks) {
+            this.objectKey = objectKey;
+            this.manifest = manifest;
+            this.chunks = chunks;
+            final boolean transformed = manifest.encryption().isPresent() || manifest.compression();
+            this.inFlightChunks = detransformExecutor != null && transformed && chunks.size() > 1
+                ? detransformPoolSize
+                : 1;
+        }
+
+        @Override
+        public ChunkBuffer nextChunk() throws StorageBackendException, IOException {
+            if (nextChunk >= chunks.size()) {
+                throw new NoSuchElementException();
+            }
+            // The chunks in flight are read from the request when the next one is returned.
+            final int lastInFlightChunk = Math.min(nextChunk + inFlightChunks, chunks.size()) - 1;
+            while (nextChunk + reservations.size() <= lastInFlightChunk) {
+                reservations.addLast(reserve(manifest, chunks.get(nextChunk + reservations.size())));
+            }
+            final MemoryBudget.Reservation reservation = reservations.pollFirst();
+            try {
+                if (detransformedChunks == null) {
+                    // The request is sent when the first chunk is requested, so an unused sequence costs nothing.
+                    final BytesRange range = BytesRange.of(
+                        chunks.get(0).range().firstPosition(),
+                        chunks.get(chunks.size() - 1).range().lastPosition());
+                    chunksContent = fetcher.fetch(objectKey, range);
+                    detransformedChunks = detransform(chunksContent);
+                }
+                final ChunkBuffer chunk = detransformedChunks.next(reservation::close);
+                nextChunk += 1;
+                return chunk;
+            } catch (final StorageBackendException | IOException | RuntimeException e) {
+                reservation.close();
+                throw e;
+            }
+        }
+
+        private DetransformedChunks detransform(final InputStream chunksContent)
+            throws StorageBackendException, IOException {
+            if (inFlightChunks > 1) {
+                return detransformer.detransformInParallel(
+                    chunksContent, manifest, chunks, detransformExecutor, inFlightChunks);
+            }
+            return detransformChunks(chunksContent, manifest, chunks);
+        }
 
-        DetransformChunkEnumeration detransformEnum = new BaseDetransformChunkEnumeration(chunkContent, List.of(chunk));
-        final Optional<SegmentEncryptionMetadata> encryptionMetadata = manifest.encryption();
-        if (encryptionMetadata.isPresent()) {
-            detransformEnum = new DecryptionChunkEnumeration(
-                detransformEnum,
-                encryptionMetadata.get().ivSize(),
-                encryptedChunk -> aesEncryptionProvider.decryptionCipher(encryptedChunk, encryptionMetadata.get())
-            );
+        @Override
+        public void close() throws IOException {
+            if (detransformedChunks != null) {
+                detransformedChunks.cancel();
+            }
+            MemoryBudget.Reservation reservation;
+            while ((reservation = reservations.pollFirst()) != null) {
+                reservation.close();
+            }
+            if (chunksContent != null) {
+                chunksContent.close();
+                chunksContent = null;
+            }
         }
-        if (manifest.compression()) {
-            detransformEnum = new DecompressionChunkEnumeration(detransformEnum);
+    }
+
+    private static class ReservedInputStream extends FilterInputStream {
+        private final MemoryBudget.Reservation reservation;
+
+        private ReservedInputStream(final InputStream in, final MemoryBudget.Reservation reservation) {
+            super(in);
+            this.reservation = reservation;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return releaseOnEnd(super.read());
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            return releaseOnEnd(super.read(b, off, len));
+        }
+
+        private int releaseOnEnd(final int read) {
+            if (read < 0) {
+                reservation.close();
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                reservation.close();
+            }
         }
-        final DetransformFinisher detransformFinisher = new DetransformFinisher(detransformEnum);
-        return detransformFinisher.toInputStream();
     }
 }
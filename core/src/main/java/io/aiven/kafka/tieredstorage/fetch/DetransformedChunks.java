@@ -0,0 +1,65 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.fetch;
+
+import io.aiven.kafka.tieredstorage.transform.DetransformFinisher;
+
+/**
+ * The de-transformed chunks of fetched content, returned one by one in order as {@link ChunkBuffer}s.
+ */
+interface DetransformedChunks {
+    /**
+     * Returns the next chunk.
+     *
+     * @param onRelease the action to run once all views of the chunk are released, after the memory
+     *                  the chunk is de-transformed in is freed, e.g. closing its memory budget reservation.
+     */
+    ChunkBuffer next(Runnable onRelease);
+
+    /**
+     * Stops de-transforming the chunks not returned yet, if they are de-transformed in the background.
+     */
+    default void cancel() {
+    }
+
+    /**
+     * Returns the chunks of the finisher as views of the arrays they are de-transformed into.
+     */
+    static DetransformedChunks of(final DetransformFinisher detransformFinisher) {
+        return onRelease -> ChunkBuffer.wrap(detransformFinisher.nextChunk(), onRelease);
+    }
+
+    /**
+     * Returns the chunks of the finisher as views of the arrays they are de-transformed into.
+     *
+     * @param onCancel the action stopping the de-transformations in the background.
+     */
+    static DetransformedChunks of(final DetransformFinisher detransformFinisher, final Runnable onCancel) {
+        final DetransformedChunks chunks = of(detransformFinisher);
+        return new DetransformedChunks() {
+            @Override
+            public ChunkBuffer next(final Runnable onRelease) {
+                return chunks.next(onRelease);
+            }
+
+            @Override
+            public void cancel() {
+                onCancel.run();
+            }
+        };
+    }
+}
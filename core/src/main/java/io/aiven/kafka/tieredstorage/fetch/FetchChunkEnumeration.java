@@ -32,19 +32,21 @@ import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
 import io.aiven.kafka.tieredstorage.storage.ObjectKey;
 import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
 
-import org.apache.commons.io.input.BoundedInputStream;
-
 public class FetchChunkEnumeration implements Enumeration<InputStream> {
     private final ChunkManager chunkManager;
     private final ObjectKey objectKey;
     private final SegmentManifest manifest;
     private final BytesRange range;
+    private final int coalescedFetchMaxBytes;
+    private final ChunkReadAhead readAhead;
     final int startChunkId;
     final int lastChunkId;
     private final ChunkIndex chunkIndex;
     int currentChunkId;
     public boolean closed;
 
+    private ChunkSequence chunks = null;
+
     /**
      * @param chunkManager provides chunk input to fetch from
      * @param objectKey    required by chunkManager
@@ -55,12 +57,53 @@ public class FetchChunkEnumeration implements Enumeration<InputStream> {
                                  final ObjectKey objectKey,
                                  final SegmentManifest manifest,
                                  final BytesRange range) {
+        this(chunkManager, objectKey, manifest, range, 0);
+    }
+
+    /**
+     * @param chunkManager           provides chunk input to fetch from
+     * @param objectKey              required by chunkManager
+     * @param manifest               provides to index to build response from
+     * @param range                  original offset range start/end position
+     * @param coalescedFetchMaxBytes the maximum transformed size of consecutive chunks got
+     *                               with a single {@link ChunkManager#getChunks} call; 0 to get them one by one
+     */
+    public FetchChunkEnumeration(final ChunkManager chunkManager,
+                                 final ObjectKey objectKey,
+                                 final SegmentManifest manifest,
+                                 final BytesRange range,
+                                 final int coalescedFetchMaxBytes) {
+        this(chunkManager, objectKey, manifest, range, coalescedFetchMaxBytes, null);
+    }
+
+    /**
+     * @param chunkManager           provides chunk input to fetch from
+     * @param objectKey              required by chunkManager
+     * @param manifest               provides to index to build response from
+     * @param range                  original offset range start/end position
+     * @param coalescedFetchMaxBytes the maximum transformed size of consecutive chunks got
+     *                               with a single {@link ChunkManager#getChunks} call; 0 to get them one by one
+     * @param readAhead              reads the chunks ahead of the one being consumed; or {@code null}
+     *                               not to read ahead
+     */
+    public FetchChunkEnumeration(final ChunkManager chunkManager,
+                                 final ObjectKey objectKey,
+                                 final SegmentManifest manifest,
+                                 final BytesRange range,
+                                 final int coalescedFetchMaxBytes,
+                                 final ChunkReadAhead readAhead) {
         this.chunkManager = Objects.requireNonNull(chunkManager, "chunkManager cannot be null");
         this.objectKey = Objects.requireNonNull(objectKey, "objectKey cannot be null");
         this.manifest = Objects.requireNonNull(manifest, "manifest cannot be null");
         this.range = Objects.requireNonNull(range, "range cannot be null");
 
         this.chunkIndex = manifest.chunkIndex();
+        if (coalescedFetchMaxBytes < 0) {
+            throw new IllegalArgumentException(
+                "coalescedFetchMaxBytes cannot be negative, " + coalescedFetchMaxBytes + " given");
+        }
+        this.coalescedFetchMaxBytes = coalescedFetchMaxBytes;
+        this.readAhead = readAhead;
 
         if (range.isEmpty()) {
             throw new IllegalArgumentException("range cannot be empty");
@@ -101,45 +144,43 @@ public class FetchChunkEnumeration implements Enumeration<InputStream> {
         if (!hasMoreElements()) {
             throw new NoSuchElementException();
         }
-
-        InputStream chunkContent = getChunkContent(currentChunkId);
-
-        final Chunk currentChunk = chunkIndex.chunks().get(currentChunkId);
-        final int chunkStartPosition = currentChunk.originalPosition;
-        final boolean isAtFirstChunk = currentChunkId == startChunkId;
-        final boolean isAtLastChunk = currentChunkId == lastChunkId;
-        final boolean isSingleChunk = isAtFirstChunk && isAtLastChunk;
-        if (isSingleChunk) {
-            final int toSkip = range.firstPosition() - chunkStartPosition;
-            try {
-                chunkContent.skip(toSkip);
-                final int chunkSize = range.size();
-                chunkContent = new BoundedInputStream(chunkContent, chunkSize);
-            } catch (final IOException e) {
-                throw new RuntimeException(e);
-            }
-        } else {
-            if (isAtFirstChunk) {
-                final int toSkip = range.firstPosition() - chunkStartPosition;
-                try {
-                    chunkContent.skip(toSkip);
-                } catch (final IOException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-            if (isAtLastChunk) {
-                final int chunkSize = range.lastPosition() - chunkStartPosition + 1;
-                chunkContent = new BoundedInputStream(chunkContent, chunkSize);
-            }
-        }
-
+        final InputStream chunkContent = withinRange(nextChunk(), currentChunkId).toInputStream();
         currentChunkId += 1;
         return chunkContent;
     }
 
-    private InputStream getChunkContent(final int chunkId) {
+    /**
+     * Returns the part of the chunk within the range, as a view of the chunk rather than a stream of it,
+     * so the part is neither skipped to nor copied. The chunk is released in favor of the part.
+     */
+    private ChunkBuffer withinRange(final ChunkBuffer chunk, final int chunkId) {
+        final int chunkStartPosition = chunkIndex.chunks().get(chunkId).originalPosition;
+        final int from = chunkId == startChunkId
+            ? Math.min(range.firstPosition() - chunkStartPosition, chunk.size())
+            : 0;
+        // The last position may be the largest int, so the end is computed as long not to overflow.
+        final int to = chunkId == lastChunkId
+            ? (int) Math.min((long) range.lastPosition() - chunkStartPosition + 1, chunk.size())
+            : chunk.size();
+        if (from == 0 && to == chunk.size()) {
+            return chunk;
+        }
+        try {
+            return chunk.slice(from, to - from);
+        } finally {
+            chunk.release();
+        }
+    }
+
+    private ChunkBuffer nextChunk() {
         try {
-            return chunkManager.getChunk(objectKey, manifest, chunkId);
+            if (coalescedFetchMaxBytes == 0 && readAhead == null) {
+                return chunkManager.getChunkBuffer(objectKey, manifest, currentChunkId);
+            }
+            if (chunks == null) {
+                chunks = chunkSequence();
+            }
+            return chunks.nextChunk();
         } catch (final KeyNotFoundException e) {
             throw new KeyNotFoundRuntimeException(e);
         } catch (final StorageBackendException | IOException e) {
@@ -147,12 +188,82 @@ public class FetchChunkEnumeration implements Enumeration<InputStream> {
         }
     }
 
+    /**
+     * Returns the sequence of all chunks of the range, requested in order.
+     */
+    private ChunkSequence chunkSequence() {
+        final ChunkSequence sequence = coalescedFetchMaxBytes > 0
+            ? new CoalescedChunkSequence()
+            : chunkManager.getChunks(objectKey, manifest, startChunkId, lastChunkId);
+        if (readAhead != null) {
+            return readAhead.readAhead(sequence, lastChunkId - startChunkId + 1);
+        }
+        return sequence;
+    }
+
     public InputStream toInputStream() {
         return new LazySequenceInputStream(this);
     }
 
     public void close() {
         closed = true;
+        if (chunks != null) {
+            try {
+                chunks.close();
+            } catch (final IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * The sequence of the chunks of the range, got in groups of consecutive chunks
+     * whose transformed size fits in the coalesced fetch size.
+     */
+    private class CoalescedChunkSequence implements ChunkSequence {
+        private int nextChunkId = startChunkId;
+        private ChunkSequence group = null;
+        private int groupLastChunkId;
+
+        @Override
+        public ChunkBuffer nextChunk() throws StorageBackendException, IOException {
+            if (nextChunkId > lastChunkId) {
+                throw new NoSuchElementException();
+            }
+            final int chunkId = nextChunkId++;
+            if (group == null) {
+                groupLastChunkId = groupLastChunkId(chunkId);
+                group = chunkManager.getChunks(objectKey, manifest, chunkId, groupLastChunkId);
+            }
+            final ChunkBuffer chunk = group.nextChunk();
+            if (chunkId == groupLastChunkId) {
+                close();
+            }
+            return chunk;
+        }
+
+        /**
+         * Returns the last chunk to get along with the given one, so that their transformed size fits in
+         * the coalesced fetch size. It's at least the given chunk, and at most the last chunk of the range.
+         */
+        private int groupLastChunkId(final int chunkId) {
+            final List<Chunk> chunks = chunkIndex.chunks();
+            long size = chunks.get(chunkId).transformedSize;
+            int last = chunkId;
+            while (last < lastChunkId && size + chunks.get(last + 1).transformedSize <= coalescedFetchMaxBytes) {
+                last += 1;
+                size += chunks.get(last).transformedSize;
+            }
+            return last;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (group != null) {
+                group.close();
+                group = null;
+            }
+        }
     }
 
     /**
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage.fetch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The chunk sequence that reads chunks of the source sequence ahead on the provided executor,
+ * so fetching the next chunks overlaps with consuming the current one.
+ *
+ * <p>Chunks are read from the source one at a time and in order, as the source may be a single ranged request.
+ * At most {@code readAheadChunks} chunks are read ahead of the one being consumed.
+ *
+ * <p>Closing the sequence stops reading ahead: the chunks read ahead are released, so is their memory,
+ * and the source is closed once the chunk being read from it, if any, is read.
+ */
+class ReadAheadChunkSequence implements ChunkSequence {
+    private static final Logger log = LoggerFactory.getLogger(ReadAheadChunkSequence.class);
+
+    private final ChunkSequence source;
+    private final int chunkCount;
+    private final Executor executor;
+    private final int readAheadChunks;
+
+    private final Deque<CompletableFuture<ChunkBuffer>> readAhead = new ArrayDeque<>();
+    private CompletableFuture<?> lastRead = CompletableFuture.completedFuture(null);
+    private int scheduledChunks = 0;
+    private volatile boolean closed = false;
+
+    /**
+     * @param source          the sequence to read chunks from.
+     * @param chunkCount      the number of chunks in the source sequence, not to read beyond it.
+     * @param executor        the executor to read chunks on.
+     * @param readAheadChunks the maximum number of chunks read ahead of the one being consumed.
+     */
+    ReadAheadChunkSequence(final ChunkSequence source,
+                           final int chunkCount,
+                           final Executor executor,
+                           final int readAheadChunks) {
+        this.source = Objects.requireNonNull(source, "source cannot be null");
+        if (chunkCount < 0) {
+            throw new IllegalArgumentException("chunkCount cannot be negative, " + chunkCount + " given");
+        }
+        this.chunkCount = chunkCount;
+        this.executor = Objects.requireNonNull(executor, "executor cannot be null");
+        if (readAheadChunks < 1) {
+            throw new IllegalArgumentException("readAheadChunks must be positive, " + readAheadChunks + " given");
+        }
+        this.readAheadChunks = readAheadChunks;
+    }
+
+    @Override
+    public ChunkBuffer nextChunk() throws StorageBackendException, IOException {
+        if (closed) {
+            throw new IllegalStateException("Chunk sequence is closed");
+        }
+        scheduleReads();
+        final CompletableFuture<ChunkBuffer> next = readAhead.pollFirst();
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        try {
+            return next.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new RuntimeException(e);
+        } catch (final ExecutionException e) {
+            close();
+            final Throwable cause = e.getCause();
+            if (cause instanceof StorageBackendException) {
+                throw (StorageBackendException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Schedules reading the chunks up to the one to be consumed and {@code readAheadChunks} after it.
+     * Each read starts after the previous one completes.
+     */
+    private void scheduleReads() {
+        while (readAhead.size() <= readAheadChunks && scheduledChunks < chunkCount) {
+            final CompletableFuture<ChunkBuffer> read = lastRead.thenApplyAsync(ignored -> readNext(), executor);
+            readAhead.addLast(read);
+            lastRead = read;
+            scheduledChunks += 1;
+        }
+    }
+
+    private ChunkBuffer readNext() {
+        if (closed) {
+            throw new CancellationException("Chunk sequence is closed");
+        }
+        try {
+            return source.nextChunk();
+        } catch (final StorageBackendException | IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        CompletableFuture<ChunkBuffer> future;
+        while ((future = readAhead.pollFirst()) != null) {
+            // Chunks that are still being read are released once they are.
+            future.thenAccept(ChunkBuffer::release);
+        }
+        lastRead.whenComplete((ignored, e) -> closeQuietly(source));
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (final IOException e) {
+            log.warn("Failed to close {}", closeable, e);
+        }
+    }
+}
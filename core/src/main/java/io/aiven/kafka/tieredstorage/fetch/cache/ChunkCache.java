@@ -18,6 +18,7 @@ package io.aiven.kafka.tieredstorage.fetch.cache;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.NoSuchElementException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
@@ -29,8 +30,11 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.kafka.common.Configurable;
 
+import io.aiven.kafka.tieredstorage.Chunk;
+import io.aiven.kafka.tieredstorage.fetch.ChunkBuffer;
 import io.aiven.kafka.tieredstorage.fetch.ChunkKey;
 import io.aiven.kafka.tieredstorage.fetch.ChunkManager;
+import io.aiven.kafka.tieredstorage.fetch.ChunkSequence;
 import io.aiven.kafka.tieredstorage.manifest.SegmentManifest;
 import io.aiven.kafka.tieredstorage.metrics.CaffeineStatsCounter;
 import io.aiven.kafka.tieredstorage.storage.BytesRange;
@@ -72,33 +76,48 @@ public abstract class ChunkCache<T> implements ChunkManager, Configurable {
     public InputStream getChunk(final ObjectKey objectKey,
                                 final SegmentManifest manifest,
                                 final int chunkId) throws StorageBackendException, IOException {
+        return get(objectKey, manifest, chunkId, this::cachedChunkToInputStream);
+    }
+
+    /**
+     * Gets a chunk like {@link #getChunk}, as a view of the cached chunk where possible.
+     */
+    @Override
+    public ChunkBuffer getChunkBuffer(final ObjectKey objectKey,
+                                      final SegmentManifest manifest,
+                                      final int chunkId) throws StorageBackendException, IOException {
+        return get(objectKey, manifest, chunkId, this::cachedChunkToBuffer);
+    }
+
+    private <R> R get(final ObjectKey objectKey,
+                      final SegmentManifest manifest,
+                      final int chunkId,
+                      final CachedChunkReader<T, R> reader) throws StorageBackendException, IOException {
         final var currentChunk = manifest.chunkIndex().chunks().get(chunkId);
         startPrefetching(objectKey, manifest, currentChunk.originalPosition + currentChunk.originalSize);
         final ChunkKey chunkKey = new ChunkKey(objectKey.value(), chunkId);
-        final AtomicReference<InputStream> result = new AtomicReference<>();
+        final AtomicReference<R> result = new AtomicReference<>();
         try {
             return cache.asMap()
                 .compute(chunkKey, (key, val) -> CompletableFuture.supplyAsync(() -> {
-                    if (val == null) {
-                        statsCounter.recordMiss();
-                        try {
-                            final InputStream chunk =
-                                chunkManager.getChunk(objectKey, manifest, chunkId);
-                            final T t = this.cacheChunk(chunkKey, chunk);
-                            result.getAndSet(cachedChunkToInputStream(t));
-                            return t;
-                        } catch (final StorageBackendException | IOException e) {
-                            throw new CompletionException(e);
-                        }
-                    } else {
-                        statsCounter.recordHit();
-                        try {
+                    try {
+                        if (val != null) {
                             final T cachedChunk = val.get();
-                            result.getAndSet(cachedChunkToInputStream(cachedChunk));
-                            return cachedChunk;
-                        } catch (final InterruptedException | ExecutionException e) {
-                            throw new CompletionException(e);
+                            if (isCachedChunkIntact(cachedChunk, currentChunk)) {
+                                statsCounter.recordHit();
+                                result.getAndSet(reader.read(cachedChunk));
+                                return cachedChunk;
+                            }
                         }
+                        statsCounter.recordMiss();
+                        final InputStream chunk =
+                            chunkManager.getChunk(objectKey, manifest, chunkId);
+                        final T t = this.cacheChunk(chunkKey, currentChunk, chunk);
+                        result.getAndSet(reader.read(t));
+                        return t;
+                    } catch (final StorageBackendException | IOException
+                                   | InterruptedException | ExecutionException e) {
+                        throw new CompletionException(e);
                     }
                 }, executor))
                 .thenApplyAsync(t -> result.get())
@@ -124,10 +143,110 @@ public abstract class ChunkCache<T> implements ChunkManager, Configurable {
         }
     }
 
+    /**
+     * Gets the chunks of a segment, the cached ones from the cache,
+     * and each run of consecutive chunks not cached yet with a single {@link ChunkManager#getChunks} call
+     * to the underlying chunk manager, caching them as they are returned.
+     */
+    @Override
+    public ChunkSequence getChunks(final ObjectKey objectKey,
+                                   final SegmentManifest manifest,
+                                   final int firstChunkId,
+                                   final int lastChunkId) {
+        return new ChunkSequence() {
+            private int nextChunkId = firstChunkId;
+            private ChunkSequence uncachedChunks = null;
+            private int uncachedLastChunkId;
+
+            @Override
+            public ChunkBuffer nextChunk() throws StorageBackendException, IOException {
+                if (nextChunkId > lastChunkId) {
+                    throw new NoSuchElementException();
+                }
+                final int chunkId = nextChunkId++;
+                if (uncachedChunks == null) {
+                    int runLastChunkId = chunkId;
+                    while (runLastChunkId <= lastChunkId && !isCached(objectKey, runLastChunkId)) {
+                        runLastChunkId += 1;
+                    }
+                    runLastChunkId -= 1;
+                    if (runLastChunkId <= chunkId) {
+                        // A cached chunk, or a single one not cached between cached ones.
+                        return getChunkBuffer(objectKey, manifest, chunkId);
+                    }
+                    final var lastChunk = manifest.chunkIndex().chunks().get(runLastChunkId);
+                    startPrefetching(objectKey, manifest, lastChunk.originalPosition + lastChunk.originalSize);
+                    uncachedChunks = chunkManager.getChunks(objectKey, manifest, chunkId, runLastChunkId);
+                    uncachedLastChunkId = runLastChunkId;
+                }
+                final ChunkBuffer chunk = uncachedChunks.nextChunk();
+                if (chunkId == uncachedLastChunkId) {
+                    close();
+                }
+                statsCounter.recordMiss();
+                final ChunkKey chunkKey = new ChunkKey(objectKey.value(), chunkId);
+                final T cachedChunk = cacheChunkBuffer(chunkKey, manifest.chunkIndex().chunks().get(chunkId), chunk);
+                cache.put(chunkKey, CompletableFuture.completedFuture(cachedChunk));
+                return cachedChunkToBuffer(cachedChunk);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (uncachedChunks != null) {
+                    uncachedChunks.close();
+                    uncachedChunks = null;
+                }
+            }
+        };
+    }
+
+    private boolean isCached(final ObjectKey objectKey, final int chunkId) {
+        return cache.getIfPresent(new ChunkKey(objectKey.value(), chunkId)) != null;
+    }
+
     public abstract InputStream cachedChunkToInputStream(final T cachedChunk);
 
+    /**
+     * Returns the cached chunk as a buffer. By default, it's read from {@link #cachedChunkToInputStream}.
+     */
+    public ChunkBuffer cachedChunkToBuffer(final T cachedChunk) throws IOException {
+        try (final InputStream chunk = cachedChunkToInputStream(cachedChunk)) {
+            return ChunkBuffer.wrap(chunk.readAllBytes());
+        }
+    }
+
+    /**
+     * Checks the cached chunk is still intact before serving it. It's done on every hit, so it must be cheap.
+     *
+     * <p>A cached chunk that isn't intact is fetched and cached again.
+     * Caches whose content can't get corrupted, like in memory ones, don't need to check.
+     */
+    protected boolean isCachedChunkIntact(final T cachedChunk, final Chunk chunk) throws IOException {
+        return true;
+    }
+
     public abstract T cacheChunk(final ChunkKey chunkKey, final InputStream chunk) throws IOException;
 
+    /**
+     * Caches the chunk described by the chunk index entry.
+     * Caches whose content can get corrupted may verify it against the checksum recorded in the entry, if any,
+     * once while caching it. By default, it's cached with {@link #cacheChunk(ChunkKey, InputStream)}.
+     */
+    protected T cacheChunk(final ChunkKey chunkKey, final Chunk chunk, final InputStream content) throws IOException {
+        return cacheChunk(chunkKey, content);
+    }
+
+    /**
+     * Caches the chunk got as a buffer and releases the buffer.
+     * By default, it's cached from its stream with {@link #cacheChunk(ChunkKey, Chunk, InputStream)}.
+     */
+    protected T cacheChunkBuffer(final ChunkKey chunkKey, final Chunk chunk, final ChunkBuffer content)
+        throws IOException {
+        try (final InputStream contentStream = content.toInputStream()) {
+            return cacheChunk(chunkKey, chunk, contentStream);
+        }
+    }
+
     public abstract RemovalListener<ChunkKey, T> removalListener();
 
     public abstract Weigher<ChunkKey, T> weigher();
@@ -164,7 +283,7 @@ public abstract class ChunkCache<T> implements ChunkManager, Configurable {
                         try {
                             final InputStream chunkStream =
                                 chunkManager.getChunk(segmentKey, segmentManifest, chunk.id);
-                            return this.cacheChunk(chunkKey, chunkStream);
+                            return this.cacheChunk(chunkKey, chunk, chunkStream);
                         } catch (final StorageBackendException | IOException e) {
                             throw new CompletionException(e);
                         }
@@ -172,4 +291,9 @@ public abstract class ChunkCache<T> implements ChunkManager, Configurable {
             });
         }
     }
+
+    @FunctionalInterface
+    private interface CachedChunkReader<T, R> {
+        R read(T cachedChunk) throws IOException;
+    }
 }
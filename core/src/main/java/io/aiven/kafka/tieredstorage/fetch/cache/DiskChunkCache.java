@@ -19,11 +19,15 @@ package io.aiven.kafka.tieredstorage.fetch.cache;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
 
 import org.apache.kafka.common.utils.Time;
 
+import io.aiven.kafka.tieredstorage.Chunk;
 import io.aiven.kafka.tieredstorage.fetch.ChunkKey;
 import io.aiven.kafka.tieredstorage.fetch.ChunkManager;
 
@@ -59,17 +63,53 @@ public class DiskChunkCache extends ChunkCache<Path> {
         }
     }
 
+    /**
+     * Checks the cached chunk file still has the size of the original chunk.
+     *
+     * <p>The content was verified against its checksum once when it was written, see {@link #writeToDisk},
+     * so a hit doesn't read the whole file again. A missing or truncated file is deleted, so the chunk is cached again.
+     */
+    @Override
+    protected boolean isCachedChunkIntact(final Path cachedChunk, final Chunk chunk) throws IOException {
+        final long fileSize;
+        try {
+            fileSize = Files.size(cachedChunk);
+        } catch (final NoSuchFileException e) {
+            log.warn("Cached chunk file {} doesn't exist anymore", cachedChunk);
+            return false;
+        }
+        if (fileSize == chunk.originalSize) {
+            return true;
+        }
+        log.warn("Cached chunk file {} has size {} instead of {}, deleting it", cachedChunk, fileSize,
+            chunk.originalSize);
+        Files.delete(cachedChunk);
+        metrics.chunkDeleted(fileSize);
+        return false;
+    }
+
+    @Override
+    public Path cacheChunk(final ChunkKey chunkKey, final InputStream chunk) throws IOException {
+        return cacheChunk(chunkKey, chunk, null);
+    }
+
+    @Override
+    protected Path cacheChunk(final ChunkKey chunkKey, final Chunk chunk, final InputStream content)
+        throws IOException {
+        return cacheChunk(chunkKey, content, chunk.checksum);
+    }
+
     /**
      * Writes the chunk to specified directory on disk.
      * To be able to understand if the files are fully written to disk during a potential recovery process,
      * this implementation initially writes them to temporary directory and then atomically moves them
      * to the actual caching directory.
      */
-    @Override
-    public Path cacheChunk(final ChunkKey chunkKey, final InputStream chunk) throws IOException {
+    private Path cacheChunk(final ChunkKey chunkKey, final InputStream chunk, final Integer checksum)
+        throws IOException {
         final var chunkKeyPath = chunkKey.path();
         final Path tempChunkPath = config.tempCachePath().resolve(chunkKeyPath);
-        final Path tempCached = writeToDisk(chunk, tempChunkPath);
+        final Path tempCached = writeToDisk(chunk, tempChunkPath, checksum);
         log.trace("Chunk file has been stored to temporary caching directory {}", tempCached);
         final Path cachedChunkPath = config.cachePath().resolve(chunkKeyPath);
         try {
@@ -85,10 +125,23 @@ public class DiskChunkCache extends ChunkCache<Path> {
         }
     }
 
-    private Path writeToDisk(final InputStream chunk, final Path tempChunkPath) throws IOException {
+    /**
+     * Writes the chunk to the file, verifying the CRC32C checksum of the written content as it goes, if known.
+     */
+    private Path writeToDisk(final InputStream chunk, final Path tempChunkPath, final Integer checksum)
+        throws IOException {
+        final CRC32C crc = new CRC32C();
+        final InputStream in = checksum == null ? chunk : new CheckedInputStream(chunk, crc);
         try (chunk; final var out = Files.newOutputStream(tempChunkPath)) {
-            final long bytesTransferred = chunk.transferTo(out);
+            final long bytesTransferred = in.transferTo(out);
+            if (checksum != null && (int) crc.getValue() != checksum) {
+                throw new IOException("Chunk written to " + tempChunkPath + " doesn't match its checksum");
+            }
             metrics.chunkWritten(bytesTransferred);
+        } catch (final IOException | RuntimeException e) {
+            // E.g. the chunk failed the checksum verification, a partially written file must not be left behind.
+            Files.deleteIfExists(tempChunkPath);
+            throw e;
         }
         return tempChunkPath;
     }
@@ -23,6 +23,8 @@ import java.util.Map;
 
 import org.apache.kafka.common.config.ConfigDef;
 
+import io.aiven.kafka.tieredstorage.Chunk;
+import io.aiven.kafka.tieredstorage.fetch.ChunkBuffer;
 import io.aiven.kafka.tieredstorage.fetch.ChunkKey;
 import io.aiven.kafka.tieredstorage.fetch.ChunkManager;
 
@@ -50,6 +52,21 @@ public class MemoryChunkCache extends ChunkCache<byte[]> {
         }
     }
 
+    @Override
+    public ChunkBuffer cachedChunkToBuffer(final byte[] cachedChunk) {
+        return ChunkBuffer.wrap(cachedChunk);
+    }
+
+    @Override
+    protected byte[] cacheChunkBuffer(final ChunkKey chunkKey, final Chunk chunk, final ChunkBuffer content) {
+        try {
+            // The array a chunk is de-transformed into is taken over without copying.
+            return content.toByteArray();
+        } finally {
+            content.release();
+        }
+    }
+
     @Override
     public RemovalListener<ChunkKey, byte[]> removalListener() {
         return (key, content, cause) -> log.debug("Deleted cached value for key {} from cache."
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.manifest;
+
+import java.nio.ByteBuffer;
+
+import io.aiven.kafka.tieredstorage.storage.BytesRange;
+
+/**
+ * The footer of a segment packed into a single object.
+ *
+ * <p>The packed object holds the transformed segment log, followed by the indexes, the manifest and this footer:
+ *
+ * <pre>
+ * [log][indexes][manifest][footer]
+ * </pre>
+ *
+ * <p>The log starts the object, so its chunks are where the chunk index puts them.
+ * The footer has a fixed size, so the footer and the manifest are fetched together from the end of the object
+ * without knowing its size. All numbers are big-endian:
+ *
+ * <pre>
+ * magic (4 bytes) | version (4 bytes) | indexes position (8 bytes) | manifest position (8 bytes)
+ *     | manifest size (4 bytes)
+ * </pre>
+ */
+public class PackedSegmentFooter {
+    public static final int SIZE = 28;
+
+    // "RSMP"
+    static final int MAGIC = 0x52534D50;
+    static final int VERSION = 1;
+
+    private final long indexesPosition;
+    private final long manifestPosition;
+    private final int manifestSize;
+
+    public PackedSegmentFooter(final long indexesPosition, final long manifestPosition, final int manifestSize) {
+        if (indexesPosition < 0) {
+            throw new IllegalArgumentException("indexesPosition must be non-negative, " + indexesPosition + " given");
+        }
+        if (manifestPosition < indexesPosition) {
+            throw new IllegalArgumentException("manifestPosition cannot be less than indexesPosition, "
+                + "indexesPosition=" + indexesPosition + ", manifestPosition=" + manifestPosition + " given");
+        }
+        if (manifestSize <= 0) {
+            throw new IllegalArgumentException("manifestSize must be positive, " + manifestSize + " given");
+        }
+        this.indexesPosition = indexesPosition;
+        this.manifestPosition = manifestPosition;
+        this.manifestSize = manifestSize;
+    }
+
+    /**
+     * The position of the indexes, which is also the size of the transformed log.
+     */
+    public long indexesPosition() {
+        return indexesPosition;
+    }
+
+    public long manifestPosition() {
+        return manifestPosition;
+    }
+
+    public int manifestSize() {
+        return manifestSize;
+    }
+
+    public BytesRange manifestRange() {
+        return BytesRange.ofFromPositionAndSize(Math.toIntExact(manifestPosition), manifestSize);
+    }
+
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.allocate(SIZE)
+            .putInt(MAGIC)
+            .putInt(VERSION)
+            .putLong(indexesPosition)
+            .putLong(manifestPosition)
+            .putInt(manifestSize)
+            .flip();
+    }
+
+    /**
+     * Reads the footer from the next {@link #SIZE} bytes of the buffer.
+     */
+    public static PackedSegmentFooter fromByteBuffer(final ByteBuffer buffer) {
+        if (buffer.remaining() < SIZE) {
+            throw new IllegalArgumentException(
+                "Packed segment footer needs " + SIZE + " bytes, " + buffer.remaining() + " given");
+        }
+        final int magic = buffer.getInt();
+        if (magic != MAGIC) {
+            throw new IllegalArgumentException("Not a packed segment footer, magic " + Integer.toHexString(magic));
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported packed segment footer version " + version);
+        }
+        return new PackedSegmentFooter(buffer.getLong(), buffer.getLong(), buffer.getInt());
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final PackedSegmentFooter that = (PackedSegmentFooter) o;
+        return indexesPosition == that.indexesPosition
+            && manifestPosition == that.manifestPosition
+            && manifestSize == that.manifestSize;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(indexesPosition);
+        result = 31 * result + Long.hashCode(manifestPosition);
+        result = 31 * result + manifestSize;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PackedSegmentFooter{"
+            + "indexesPosition=" + indexesPosition
+            + ", manifestPosition=" + manifestPosition
+            + ", manifestSize=" + manifestSize
+            + '}';
+    }
+}
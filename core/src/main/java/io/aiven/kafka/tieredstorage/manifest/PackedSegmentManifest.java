@@ -0,0 +1,96 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.manifest;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.kafka.server.log.remote.storage.RemoteLogSegmentMetadata;
+
+import io.aiven.kafka.tieredstorage.manifest.index.ChunkIndex;
+
+/**
+ * The manifest of a segment packed into a single object, as read from the end of that object.
+ *
+ * <p>The manifest itself is the same as the one of a segment uploaded as separate objects,
+ * only the object holding the log and the indexes is different.
+ *
+ * @see PackedSegmentFooter
+ */
+public class PackedSegmentManifest implements SegmentManifest {
+    private final SegmentManifest inner;
+
+    public PackedSegmentManifest(final SegmentManifest inner) {
+        this.inner = Objects.requireNonNull(inner, "inner cannot be null");
+    }
+
+    @Override
+    public ChunkIndex chunkIndex() {
+        return inner.chunkIndex();
+    }
+
+    @Override
+    public SegmentIndexes segmentIndexes() {
+        return inner.segmentIndexes();
+    }
+
+    @Override
+    public boolean compression() {
+        return inner.compression();
+    }
+
+    @Override
+    public Optional<SegmentCompressionMetadata> compressionMetadata() {
+        return inner.compressionMetadata();
+    }
+
+    @Override
+    public Optional<SegmentEncryptionMetadata> encryption() {
+        return inner.encryption();
+    }
+
+    @Override
+    public RemoteLogSegmentMetadata remoteLogSegmentMetadata() {
+        return inner.remoteLogSegmentMetadata();
+    }
+
+    @Override
+    public boolean packed() {
+        return true;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return inner.equals(((PackedSegmentManifest) o).inner);
+    }
+
+    @Override
+    public int hashCode() {
+        return inner.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "PackedSegmentManifest(" + inner + ")";
+    }
+}
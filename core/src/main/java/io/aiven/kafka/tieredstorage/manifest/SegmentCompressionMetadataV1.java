@@ -0,0 +1,102 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.manifest;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import io.aiven.kafka.tieredstorage.transform.CompressionCodec;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class SegmentCompressionMetadataV1 implements SegmentCompressionMetadata {
+    private final CompressionCodec codec;
+    private final Integer level;
+    private final String dictionaryKey;
+
+    public SegmentCompressionMetadataV1(final CompressionCodec codec, final Integer level) {
+        this(codec, level, null);
+    }
+
+    @JsonCreator
+    public SegmentCompressionMetadataV1(@JsonProperty(value = "codec", required = true) final CompressionCodec codec,
+                                        @JsonProperty("level") final Integer level,
+                                        @JsonProperty("dictionaryKey") final String dictionaryKey) {
+        this.codec = Objects.requireNonNull(codec, "codec cannot be null");
+        this.level = level;
+        this.dictionaryKey = dictionaryKey;
+    }
+
+    @Override
+    @JsonProperty("codec")
+    public CompressionCodec codec() {
+        return codec;
+    }
+
+    @Override
+    @JsonProperty("level")
+    @JsonInclude(JsonInclude.Include.NON_ABSENT)
+    public Optional<Integer> level() {
+        return Optional.ofNullable(level);
+    }
+
+    @Override
+    @JsonProperty("dictionaryKey")
+    @JsonInclude(JsonInclude.Include.NON_ABSENT)
+    public Optional<String> dictionaryKey() {
+        return Optional.ofNullable(dictionaryKey);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final SegmentCompressionMetadataV1 that = (SegmentCompressionMetadataV1) o;
+
+        if (codec != that.codec) {
+            return false;
+        }
+        if (!Objects.equals(level, that.level)) {
+            return false;
+        }
+        return Objects.equals(dictionaryKey, that.dictionaryKey);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = codec.hashCode();
+        result = 31 * result + (level != null ? level.hashCode() : 0);
+        result = 31 * result + (dictionaryKey != null ? dictionaryKey.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentCompressionMetadataV1("
+            + "codec=" + codec
+            + ", level=" + level
+            + ", dictionaryKey=" + dictionaryKey
+            + ")";
+    }
+}
@@ -51,6 +51,13 @@ public class SegmentIndexV1 implements SegmentIndex {
         return BytesRange.ofFromPositionAndSize(position, size);
     }
 
+    /**
+     * Returns the index moved by the given number of bytes.
+     */
+    public SegmentIndexV1 movedBy(final int bytes) {
+        return new SegmentIndexV1(Math.addExact(position, bytes), size);
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
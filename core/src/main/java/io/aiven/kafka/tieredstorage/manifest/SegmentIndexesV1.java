@@ -98,6 +98,20 @@ public class SegmentIndexesV1 implements SegmentIndexes {
         }
     }
 
+    /**
+     * Returns the indexes moved by the given number of bytes, for indexes stored after other content
+     * in the same object.
+     */
+    public SegmentIndexesV1 movedBy(final int bytes) {
+        return new SegmentIndexesV1(
+            offset.movedBy(bytes),
+            timestamp.movedBy(bytes),
+            producerSnapshot.movedBy(bytes),
+            leaderEpoch.movedBy(bytes),
+            transaction != null ? transaction.movedBy(bytes) : null
+        );
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
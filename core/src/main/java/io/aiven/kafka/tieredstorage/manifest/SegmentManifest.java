@@ -41,7 +41,26 @@ public interface SegmentManifest {
 
     boolean compression();
 
+    /**
+     * The details of the compression.
+     *
+     * <p>May be absent even if {@link #compression()} is {@code true} for segments uploaded
+     * before the codec became configurable, in which case it's Zstd.
+     */
+    Optional<SegmentCompressionMetadata> compressionMetadata();
+
     Optional<SegmentEncryptionMetadata> encryption();
 
     RemoteLogSegmentMetadata remoteLogSegmentMetadata();
+
+    /**
+     * Whether the segment is packed into a single object with its indexes and manifest.
+     *
+     * <p>It's known from where the manifest is read, so it's not serialized.
+     *
+     * @see PackedSegmentFooter
+     */
+    default boolean packed() {
+        return false;
+    }
 }
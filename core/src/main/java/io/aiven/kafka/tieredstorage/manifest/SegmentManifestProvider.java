@@ -18,14 +18,18 @@ package io.aiven.kafka.tieredstorage.manifest;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import io.aiven.kafka.tieredstorage.metrics.CaffeineStatsCounter;
+import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
 import io.aiven.kafka.tieredstorage.storage.ObjectFetcher;
 import io.aiven.kafka.tieredstorage.storage.ObjectKey;
 import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
@@ -37,7 +41,11 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 public class SegmentManifestProvider {
     private static final String SEGMENT_MANIFEST_METRIC_GROUP_NAME = "segment-manifest-cache-metrics";
     private static final long GET_TIMEOUT_SEC = 10;
+    // Fits the footer and the manifest of most packed segments, so they are fetched in a single request.
+    static final int PACKED_TAIL_FETCH_SIZE = 16 * 1024;
 
+    private final ObjectFetcher fileFetcher;
+    private final ObjectMapper mapper;
     private final AsyncLoadingCache<ObjectKey, SegmentManifest> cache;
 
     /**
@@ -55,18 +63,105 @@ public class SegmentManifestProvider {
             .executor(executor);
         maxCacheSize.ifPresent(cacheBuilder::maximumSize);
         cacheRetention.ifPresent(cacheBuilder::expireAfterWrite);
-        this.cache = cacheBuilder.buildAsync(key -> {
-            try (final InputStream is = fileFetcher.fetch(key)) {
-                return mapper.readValue(is, SegmentManifest.class);
-            }
-        });
+        this.fileFetcher = fileFetcher;
+        this.mapper = mapper;
+        this.cache = cacheBuilder.buildAsync(this::loadManifest);
         statsCounter.registerSizeMetric(cache.synchronous()::estimatedSize);
     }
 
     public SegmentManifest get(final ObjectKey manifestKey)
+        throws StorageBackendException, IOException {
+        return await(cache.get(manifestKey));
+    }
+
+    /**
+     * Returns the manifest of a segment uploaded either as separate objects or packed into a single one.
+     *
+     * <p>The manifest is cached by the key of the separate manifest object either way.
+     *
+     * @param manifestKey the key of the manifest object of the segment uploaded as separate objects.
+     * @param packedKey   the key of the object the segment is packed into.
+     * @param packedFirst whether to look for the packed object first, as new segments are packed.
+     */
+    public SegmentManifest get(final ObjectKey manifestKey, final ObjectKey packedKey, final boolean packedFirst)
+        throws StorageBackendException, IOException {
+        return await(cache.get(manifestKey, key -> {
+            try {
+                return load(manifestKey, packedKey, packedFirst);
+            } catch (final StorageBackendException | IOException e) {
+                throw new CompletionException(e);
+            }
+        }));
+    }
+
+    /**
+     * Returns the manifest of a segment packed into a single object, e.g. a member of a multi-segment pack.
+     *
+     * @param packedKey the key of the object the segment is packed into, cached by it.
+     */
+    public SegmentManifest getPacked(final ObjectKey packedKey)
+        throws StorageBackendException, IOException {
+        return await(cache.get(packedKey, key -> {
+            try {
+                return loadPacked(key);
+            } catch (final StorageBackendException | IOException e) {
+                throw new CompletionException(e);
+            }
+        }));
+    }
+
+    private SegmentManifest load(final ObjectKey manifestKey,
+                                 final ObjectKey packedKey,
+                                 final boolean packedFirst) throws StorageBackendException, IOException {
+        try {
+            return packedFirst ? loadPacked(packedKey) : loadManifest(manifestKey);
+        } catch (final KeyNotFoundException e) {
+            // Segments uploaded before the layout was changed are in the other one.
+            try {
+                return packedFirst ? loadManifest(manifestKey) : loadPacked(packedKey);
+            } catch (final KeyNotFoundException otherLayoutNotFound) {
+                throw e;
+            }
+        }
+    }
+
+    private SegmentManifest loadManifest(final ObjectKey manifestKey) throws StorageBackendException, IOException {
+        try (final InputStream is = fileFetcher.fetch(manifestKey)) {
+            return mapper.readValue(is, SegmentManifest.class);
+        }
+    }
+
+    /**
+     * Reads the manifest from the end of the packed object, usually along with the footer in a single request.
+     */
+    private SegmentManifest loadPacked(final ObjectKey packedKey) throws StorageBackendException, IOException {
+        final byte[] tail;
+        try (final InputStream is = fileFetcher.fetchSuffix(packedKey, PACKED_TAIL_FETCH_SIZE)) {
+            tail = is.readAllBytes();
+        }
+        if (tail.length < PackedSegmentFooter.SIZE) {
+            throw new IOException("Packed segment " + packedKey + " is too short for its footer: " + tail.length);
+        }
+        final int manifestEnd = tail.length - PackedSegmentFooter.SIZE;
+        final PackedSegmentFooter footer =
+            PackedSegmentFooter.fromByteBuffer(ByteBuffer.wrap(tail, manifestEnd, PackedSegmentFooter.SIZE));
+        final SegmentManifest manifest;
+        if (footer.manifestSize() <= manifestEnd) {
+            manifest = mapper.readValue(
+                tail, manifestEnd - footer.manifestSize(), footer.manifestSize(), SegmentManifest.class);
+        } else {
+            // The manifest doesn't fit into the fetched tail, so it's fetched on its own.
+            try (final InputStream is = fileFetcher.fetch(packedKey, footer.manifestRange())) {
+                manifest = mapper.readValue(is, SegmentManifest.class);
+            }
+        }
+        return new PackedSegmentManifest(manifest);
+    }
+
+    private SegmentManifest await(final CompletableFuture<SegmentManifest> manifest)
         throws StorageBackendException, IOException {
         try {
-            return cache.get(manifestKey).get(GET_TIMEOUT_SEC, TimeUnit.SECONDS);
+            return manifest.get(GET_TIMEOUT_SEC, TimeUnit.SECONDS);
         } catch (final ExecutionException e) {
             // Unwrap previously wrapped exceptions if possible.
             final Throwable cause = e.getCause();
@@ -31,16 +31,14 @@ public class SegmentManifestV1 implements SegmentManifest {
     private final ChunkIndex chunkIndex;
     private final SegmentIndexesV1 segmentIndexes;
     private final boolean compression;
+    private final SegmentCompressionMetadataV1 compressionMetadata;
     private final SegmentEncryptionMetadataV1 encryption;
     private final RemoteLogSegmentMetadata remoteLogSegmentMetadata;
 
-    @JsonCreator
-    public SegmentManifestV1(
-        @JsonProperty(value = "chunkIndex", required = true) final ChunkIndex chunkIndex,
-        @JsonProperty(value = "segmentIndexes", required = true) final SegmentIndexesV1 segmentIndexes,
-        @JsonProperty(value = "compression", required = true) final boolean compression,
-        @JsonProperty("encryption") final SegmentEncryptionMetadataV1 encryption
-    ) {
+    public SegmentManifestV1(final ChunkIndex chunkIndex,
+                             final SegmentIndexesV1 segmentIndexes,
+                             final boolean compression,
+                             final SegmentEncryptionMetadataV1 encryption) {
         this(chunkIndex, segmentIndexes, compression, encryption, null);
     }
 
@@ -49,15 +47,49 @@ public class SegmentManifestV1 implements SegmentManifest {
                              final boolean compression,
                              final SegmentEncryptionMetadataV1 encryption,
                              final RemoteLogSegmentMetadata remoteLogSegmentMetadata) {
+        this(chunkIndex, segmentIndexes, compression, null, encryption, remoteLogSegmentMetadata);
+    }
+
+    /**
+     * @param compressionMetadata the compression details, {@code null} if the segment is not compressed.
+     */
+    public SegmentManifestV1(final ChunkIndex chunkIndex,
+                             final SegmentIndexesV1 segmentIndexes,
+                             final SegmentCompressionMetadataV1 compressionMetadata,
+                             final SegmentEncryptionMetadataV1 encryption,
+                             final RemoteLogSegmentMetadata remoteLogSegmentMetadata) {
+        this(chunkIndex, segmentIndexes, compressionMetadata != null, compressionMetadata, encryption,
+            remoteLogSegmentMetadata);
+    }
+
+    private SegmentManifestV1(final ChunkIndex chunkIndex,
+                              final SegmentIndexesV1 segmentIndexes,
+                              final boolean compression,
+                              final SegmentCompressionMetadataV1 compressionMetadata,
+                              final SegmentEncryptionMetadataV1 encryption,
+                              final RemoteLogSegmentMetadata remoteLogSegmentMetadata) {
         this.chunkIndex = Objects.requireNonNull(chunkIndex, "chunkIndex cannot be null");
         this.segmentIndexes = Objects.requireNonNull(segmentIndexes, "segmentIndexes cannot be null");
 
         this.compression = compression;
+        this.compressionMetadata = compressionMetadata;
         this.encryption = encryption;
 
         this.remoteLogSegmentMetadata = remoteLogSegmentMetadata;
     }
 
+    // The compression flag is kept along with the compression metadata, so older readers still understand it.
+    @JsonCreator
+    static SegmentManifestV1 create(
+        @JsonProperty(value = "chunkIndex", required = true) final ChunkIndex chunkIndex,
+        @JsonProperty(value = "segmentIndexes", required = true) final SegmentIndexesV1 segmentIndexes,
+        @JsonProperty(value = "compression", required = true) final boolean compression,
+        @JsonProperty("compressionMetadata") final SegmentCompressionMetadataV1 compressionMetadata,
+        @JsonProperty("encryption") final SegmentEncryptionMetadataV1 encryption
+    ) {
+        return new SegmentManifestV1(chunkIndex, segmentIndexes, compression, compressionMetadata, encryption, null);
+    }
+
     @Override
     @JsonProperty("chunkIndex")
     public ChunkIndex chunkIndex() {
@@ -76,6 +108,13 @@ public class SegmentManifestV1 implements SegmentManifest {
         return compression;
     }
 
+    @Override
+    @JsonProperty("compressionMetadata")
+    @JsonInclude(JsonInclude.Include.NON_ABSENT)
+    public Optional<SegmentCompressionMetadata> compressionMetadata() {
+        return Optional.ofNullable(compressionMetadata);
+    }
+
     @Override
     @JsonProperty("encryption")
     @JsonInclude(JsonInclude.Include.NON_ABSENT)
@@ -107,6 +146,9 @@ public class SegmentManifestV1 implements SegmentManifest {
         if (!chunkIndex.equals(that.chunkIndex)) {
             return false;
         }
+        if (!Objects.equals(compressionMetadata, that.compressionMetadata)) {
+            return false;
+        }
         // We don't want remoteLogSegmentMetadata to participate in hash code and equality checks.
         return Objects.equals(encryption, that.encryption);
     }
@@ -115,6 +157,7 @@ public class SegmentManifestV1 implements SegmentManifest {
     public int hashCode() {
         int result = chunkIndex.hashCode();
         result = 31 * result + (compression ? 1 : 0);
+        result = 31 * result + (compressionMetadata != null ? compressionMetadata.hashCode() : 0);
         result = 31 * result + (encryption != null ? encryption.hashCode() : 0);
         // We don't want remoteLogSegmentMetadata to participate in hash code and equality checks.
         return result;
@@ -126,6 +169,7 @@ public class SegmentManifestV1 implements SegmentManifest {
             + "chunkIndex=" + chunkIndex
             + ", segmentIndexes=" + segmentIndexes
             + ", compression=" + compression
+            + ", compressionMetadata=" + compressionMetadata
             + ", encryption=" + encryption
             + ")";
     }
@@ -16,12 +16,14 @@
 
 package io.aiven.kafka.tieredstorage.manifest.index;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
 import io.aiven.kafka.tieredstorage.Chunk;
 import io.aiven.kafka.tieredstorage.storage.BytesRange;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public abstract class AbstractChunkIndex implements ChunkIndex {
@@ -31,11 +33,21 @@ public abstract class AbstractChunkIndex implements ChunkIndex {
     protected final int originalFileSize;
     protected final int finalTransformedChunkSize;
     protected final int chunkCount;
+    // The CRC32C checksums of the original chunks, or null if they weren't recorded.
+    protected final int[] checksums;
 
     protected AbstractChunkIndex(final int originalChunkSize,
                                  final int originalFileSize,
                                  final int finalTransformedChunkSize,
                                  final int chunkCount) {
+        this(originalChunkSize, originalFileSize, finalTransformedChunkSize, chunkCount, null);
+    }
+
+    protected AbstractChunkIndex(final int originalChunkSize,
+                                 final int originalFileSize,
+                                 final int finalTransformedChunkSize,
+                                 final int chunkCount,
+                                 final int[] checksums) {
         checkSizePositive(originalChunkSize, "Original chunk size");
         this.originalChunkSize = originalChunkSize;
 
@@ -46,6 +58,12 @@ public abstract class AbstractChunkIndex implements ChunkIndex {
         this.finalTransformedChunkSize = finalTransformedChunkSize;
 
         this.chunkCount = chunkCount;
+
+        if (checksums != null && checksums.length != chunkCount) {
+            throw new IllegalArgumentException(
+                "There must be a checksum for each of " + chunkCount + " chunks, " + checksums.length + " given");
+        }
+        this.checksums = checksums == null ? null : checksums.clone();
     }
 
     // Override with care, this method is indirectly called from a constructor.
@@ -62,7 +80,9 @@ public abstract class AbstractChunkIndex implements ChunkIndex {
                 chunks.add(new Chunk(
                     chunkI,
                     originalPosition, originalSize,
-                    transformedPosition, transformedSize
+                    transformedPosition, transformedSize,
+                    isChunkRaw(chunkI),
+                    chunkChecksum(chunkI)
                 ));
                 originalPosition += originalSize;
                 transformedPosition += transformedSize;
@@ -105,7 +125,9 @@ public abstract class AbstractChunkIndex implements ChunkIndex {
             curOriginalChunkPosition,
             originalChunkSize(chunkI),
             curTransformedChunkPosition,
-            transformedChunkSize(chunkI)
+            transformedChunkSize(chunkI),
+            isChunkRaw(chunkI),
+            chunkChecksum(chunkI)
         );
     }
 
@@ -129,6 +151,42 @@ public abstract class AbstractChunkIndex implements ChunkIndex {
 
     protected abstract int transformedChunkSize(final int chunkI);
 
+    // Override with care, this method is indirectly called from a constructor.
+    protected boolean isChunkRaw(final int chunkI) {
+        return false;
+    }
+
+    private Integer chunkChecksum(final int chunkI) {
+        return checksums == null ? null : checksums[chunkI];
+    }
+
+    /**
+     * The checksums are stored as concatenated 4-byte big-endian values, which are Base64 encoded in JSON.
+     */
+    @JsonProperty("checksums")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private byte[] checksumsEncoded() {
+        if (checksums == null) {
+            return null;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(checksums.length * Integer.BYTES);
+        buffer.asIntBuffer().put(checksums);
+        return buffer.array();
+    }
+
+    protected static int[] decodeChecksums(final byte[] encoded) {
+        if (encoded == null) {
+            return null;
+        }
+        if (encoded.length % Integer.BYTES != 0) {
+            throw new IllegalArgumentException(
+                "Encoded checksums must be a multiple of " + Integer.BYTES + " bytes, " + encoded.length + " given");
+        }
+        final int[] checksums = new int[encoded.length / Integer.BYTES];
+        ByteBuffer.wrap(encoded).asIntBuffer().get(checksums);
+        return checksums;
+    }
+
     protected static void checkSizeNonNegative(final int size, final String name) {
         if (size < 0) {
             throw new IllegalArgumentException(
@@ -23,12 +23,19 @@ public abstract class AbstractChunkIndexBuilder {
     private int chunksAdded = 0;
     private boolean finished = false;
 
+    // The checksums are kept only if all chunks have them.
+    private int[] checksums;
+
     protected AbstractChunkIndexBuilder(final int originalChunkSize, final int originalFileSize) {
         checkSize(originalChunkSize, "Original chunk size");
         this.originalChunkSize = originalChunkSize;
 
         checkSize(originalFileSize, "Original file size");
         this.originalFileSize = originalFileSize;
+
+        this.checksums = originalChunkSize == 0
+            ? null
+            : new int[originalFileSize / originalChunkSize + (originalFileSize % originalChunkSize == 0 ? 0 : 1)];
     }
 
     /**
@@ -37,6 +44,27 @@ public abstract class AbstractChunkIndexBuilder {
      * @param transformedChunkSize the size of the corresponding transformed chunk.
      */
     public final void addChunk(final int transformedChunkSize) {
+        addChunk(transformedChunkSize, false);
+    }
+
+    /**
+     * Add a non-final chunk to the index.
+     *
+     * @param transformedChunkSize the size of the corresponding transformed chunk.
+     * @param raw whether the chunk is stored raw, i.e. uncompressed.
+     */
+    public final void addChunk(final int transformedChunkSize, final boolean raw) {
+        addChunk(transformedChunkSize, raw, null);
+    }
+
+    /**
+     * Add a non-final chunk to the index.
+     *
+     * @param transformedChunkSize the size of the corresponding transformed chunk.
+     * @param raw whether the chunk is stored raw, i.e. uncompressed.
+     * @param checksum the CRC32C checksum of the original chunk, or {@code null} if unknown.
+     */
+    public final void addChunk(final int transformedChunkSize, final boolean raw, final Integer checksum) {
         if (finished) {
             throw new IllegalStateException("Cannot add chunk to already finished index");
         }
@@ -48,12 +76,13 @@ public abstract class AbstractChunkIndexBuilder {
             throw new IllegalStateException("This must be final chunk. Call `finish` instead.");
         }
 
-        addChunk0(transformedChunkSize);
+        addChunk0(transformedChunkSize, raw);
+        addChecksum(checksum);
 
         this.chunksAdded += 1;
     }
 
-    protected abstract void addChunk0(int transformedChunkSize);
+    protected abstract void addChunk0(int transformedChunkSize, boolean raw);
 
     /**
      * Add the final chunk to the index.
@@ -61,6 +90,27 @@ public abstract class AbstractChunkIndexBuilder {
      * @param finalTransformedChunkSize the size of the corresponding transformed chunk.
      */
     public final ChunkIndex finish(final int finalTransformedChunkSize) {
+        return finish(finalTransformedChunkSize, false);
+    }
+
+    /**
+     * Add the final chunk to the index.
+     *
+     * @param finalTransformedChunkSize the size of the corresponding transformed chunk.
+     * @param raw whether the chunk is stored raw, i.e. uncompressed.
+     */
+    public final ChunkIndex finish(final int finalTransformedChunkSize, final boolean raw) {
+        return finish(finalTransformedChunkSize, raw, null);
+    }
+
+    /**
+     * Add the final chunk to the index.
+     *
+     * @param finalTransformedChunkSize the size of the corresponding transformed chunk.
+     * @param raw whether the chunk is stored raw, i.e. uncompressed.
+     * @param checksum the CRC32C checksum of the original chunk, or {@code null} if unknown.
+     */
+    public final ChunkIndex finish(final int finalTransformedChunkSize, final boolean raw, final Integer checksum) {
         if (finished) {
             throw new IllegalStateException("Cannot finish already finished index");
         }
@@ -74,7 +124,8 @@ public abstract class AbstractChunkIndexBuilder {
                     + "Call `addChunk` instead.");
         }
 
-        final ChunkIndex result = finish0(finalTransformedChunkSize);
+        addChecksum(checksum);
+        final ChunkIndex result = finish0(finalTransformedChunkSize, raw);
 
         this.chunksAdded += 1;  // technically not needed, but for consistency
         this.finished = true;
@@ -82,7 +133,27 @@ public abstract class AbstractChunkIndexBuilder {
         return result;
     }
 
-    protected abstract ChunkIndex finish0(final int finalTransformedChunkSize);
+    protected abstract ChunkIndex finish0(final int finalTransformedChunkSize, final boolean raw);
+
+    private void addChecksum(final Integer checksum) {
+        if (checksums == null) {
+            return;
+        }
+        if (checksum == null || chunksAdded >= checksums.length) {
+            checksums = null;
+        } else {
+            checksums[chunksAdded] = checksum;
+        }
+    }
+
+    /**
+     * Returns the checksums of all chunks, or {@code null} if some chunk doesn't have one.
+     *
+     * <p>Only valid in {@link #finish0}, when all chunks are added.
+     */
+    protected final int[] checksums() {
+        return checksums;
+    }
 
     protected final void checkSize(final int size, final String name) {
         if (size < 0) {
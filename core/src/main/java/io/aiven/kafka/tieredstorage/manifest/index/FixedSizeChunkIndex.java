@@ -16,6 +16,7 @@
 
 package io.aiven.kafka.tieredstorage.manifest.index;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -55,20 +56,61 @@ public class FixedSizeChunkIndex extends AbstractChunkIndex {
     // it should not be persisted.
     private final List<Chunk> chunks;
 
+    public FixedSizeChunkIndex(final int originalChunkSize,
+                               final int originalFileSize,
+                               final int transformedChunkSize,
+                               final int finalTransformedChunkSize) {
+        this(originalChunkSize, originalFileSize, transformedChunkSize, finalTransformedChunkSize, null);
+    }
+
+    /**
+     * @param checksums the CRC32C checksums of the original chunks, or {@code null} if they weren't recorded.
+     */
+    public FixedSizeChunkIndex(final int originalChunkSize,
+                               final int originalFileSize,
+                               final int transformedChunkSize,
+                               final int finalTransformedChunkSize,
+                               final int[] checksums) {
+        super(originalChunkSize, originalFileSize, finalTransformedChunkSize,
+            chunkCount(originalChunkSize, originalFileSize), checksums);
+
+        checkSizeNonNegative(transformedChunkSize, "Transformed chunk size");
+        this.transformedChunkSize = transformedChunkSize;
+
+        chunks = materializeChunks();
+    }
+
     @JsonCreator
-    public FixedSizeChunkIndex(
+    static FixedSizeChunkIndex create(
         @JsonProperty(value = "originalChunkSize", required = true) final int originalChunkSize,
         @JsonProperty(value = "originalFileSize", required = true) final int originalFileSize,
         @JsonProperty(value = "transformedChunkSize", required = true) final int transformedChunkSize,
-        @JsonProperty(value = "finalTransformedChunkSize", required = true) final int finalTransformedChunkSize
+        @JsonProperty(value = "finalTransformedChunkSize", required = true) final int finalTransformedChunkSize,
+        @JsonProperty(value = "checksums") final byte[] checksums
     ) {
-        super(originalChunkSize, originalFileSize, finalTransformedChunkSize,
-            chunkCount(originalChunkSize, originalFileSize));
+        return new FixedSizeChunkIndex(originalChunkSize, originalFileSize,
+            transformedChunkSize, finalTransformedChunkSize, decodeChecksums(checksums));
+    }
 
-        checkSizeNonNegative(transformedChunkSize, "Transformed chunk size");
-        this.transformedChunkSize = transformedChunkSize;
+    /**
+     * Creates the index for a file whose chunks are stored as is, i.e. without any transformation.
+     *
+     * <p>The result is the same as building the index from chunks with {@link FixedSizeChunkIndexBuilder},
+     * but it's calculated without going through the chunks.
+     */
+    public static FixedSizeChunkIndex untransformed(final int chunkSize, final int fileSize) {
+        return untransformed(chunkSize, fileSize, null);
+    }
 
-        chunks = materializeChunks();
+    /**
+     * Creates the index for a file whose chunks are stored as is, with the given checksums of the chunks.
+     *
+     * @param checksums the CRC32C checksums of the chunks, or {@code null} if unknown.
+     */
+    public static FixedSizeChunkIndex untransformed(final int chunkSize, final int fileSize, final int[] checksums) {
+        final int chunkCount = chunkCount(chunkSize, fileSize);
+        final int finalChunkSize = chunkCount == 0 ? 0 : fileSize - (chunkCount - 1) * chunkSize;
+        return new FixedSizeChunkIndex(chunkSize, fileSize, chunkSize, finalChunkSize, checksums);
     }
 
     private static int chunkCount(final int originalChunkSize, final int originalFileSize) {
@@ -102,12 +144,14 @@ public class FixedSizeChunkIndex extends AbstractChunkIndex {
         return originalChunkSize == that.originalChunkSize
             && originalFileSize == that.originalFileSize
             && transformedChunkSize == that.transformedChunkSize
-            && finalTransformedChunkSize == that.finalTransformedChunkSize;
+            && finalTransformedChunkSize == that.finalTransformedChunkSize
+            && Arrays.equals(checksums, that.checksums);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(originalChunkSize, originalFileSize, transformedChunkSize, finalTransformedChunkSize);
+        return 31 * Objects.hash(originalChunkSize, originalFileSize, transformedChunkSize, finalTransformedChunkSize)
+            + Arrays.hashCode(checksums);
     }
 
     @Override
@@ -117,6 +161,7 @@ public class FixedSizeChunkIndex extends AbstractChunkIndex {
             + ", originalFileSize=" + originalFileSize
             + ", transformedChunkSize=" + transformedChunkSize
             + ", finalTransformedChunkSize=" + finalTransformedChunkSize
+            + ", checksums=" + Arrays.toString(checksums)
             + ")";
     }
 }
@@ -29,7 +29,8 @@ public class FixedSizeChunkIndexBuilder extends AbstractChunkIndexBuilder {
     }
 
     @Override
-    protected void addChunk0(final int transformedChunkSize) {
+    protected void addChunk0(final int transformedChunkSize, final boolean raw) {
+        checkNotRaw(raw);
         // Sanity check.
         if (transformedChunkSize != this.transformedChunkSize) {
             throw new IllegalArgumentException("Non-final chunk must be of size " + this.transformedChunkSize
@@ -38,8 +39,16 @@ public class FixedSizeChunkIndexBuilder extends AbstractChunkIndexBuilder {
     }
 
     @Override
-    protected ChunkIndex finish0(final int finalTransformedChunkSize) {
+    protected ChunkIndex finish0(final int finalTransformedChunkSize, final boolean raw) {
+        checkNotRaw(raw);
         return new FixedSizeChunkIndex(
-            originalChunkSize, originalFileSize, transformedChunkSize, finalTransformedChunkSize);
+            originalChunkSize, originalFileSize, transformedChunkSize, finalTransformedChunkSize, checksums());
+    }
+
+    private void checkNotRaw(final boolean raw) {
+        // Raw chunks appear only with compression, which always produces chunks of variable size.
+        if (raw) {
+            throw new IllegalArgumentException("Raw chunks are not supported by fixed size chunk index");
+        }
     }
 }
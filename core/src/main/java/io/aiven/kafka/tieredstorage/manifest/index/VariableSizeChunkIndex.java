@@ -16,6 +16,8 @@
 
 package io.aiven.kafka.tieredstorage.manifest.index;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
 
@@ -24,6 +26,7 @@ import io.aiven.kafka.tieredstorage.manifest.index.serde.TransformedChunksDeseri
 import io.aiven.kafka.tieredstorage.manifest.index.serde.TransformedChunksSerializer;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
@@ -44,6 +47,9 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
  * [200-250) - size 50   |  [50-60) - size 10
  * </pre>
  *
+ * <p>Chunks which compression didn't make smaller are stored raw, i.e. uncompressed.
+ * Their IDs are stored as a bit set, which is omitted when no chunk is raw.
+ *
  * <p>Once constructed, the object remains immutable.
  */
 public class VariableSizeChunkIndex extends AbstractChunkIndex {
@@ -51,31 +57,71 @@ public class VariableSizeChunkIndex extends AbstractChunkIndex {
     @JsonSerialize(using = TransformedChunksSerializer.class)
     private final List<Integer> transformedChunks;
 
+    private final BitSet rawChunkIds;
+
     // This only a materialization for convenience and performance,
     // it should not be persisted.
     private final List<Chunk> chunks;
 
+    public VariableSizeChunkIndex(final int originalChunkSize,
+                                  final int originalFileSize,
+                                  final List<Integer> transformedChunks) {
+        this(originalChunkSize, originalFileSize, transformedChunks, new BitSet());
+    }
+
+    public VariableSizeChunkIndex(final int originalChunkSize,
+                                  final int originalFileSize,
+                                  final List<Integer> transformedChunks,
+                                  final BitSet rawChunkIds) {
+        this(originalChunkSize, originalFileSize, transformedChunks, rawChunkIds, null);
+    }
+
     // TODO consider storing and caching chunks encoded when they are fetched from remote storage
     // This will have smaller memory footprint than boxed integers.
-    @JsonCreator
-    public VariableSizeChunkIndex(
-        @JsonProperty(value = "originalChunkSize", required = true) final int originalChunkSize,
-        @JsonProperty(value = "originalFileSize", required = true) final int originalFileSize,
-        @JsonProperty(value = "transformedChunks", required = true)
-        @JsonDeserialize(using = TransformedChunksDeserializer.class) final List<Integer> transformedChunks
-    ) {
+    /**
+     * @param checksums the CRC32C checksums of the original chunks, or {@code null} if they weren't recorded.
+     */
+    public VariableSizeChunkIndex(final int originalChunkSize,
+                                  final int originalFileSize,
+                                  final List<Integer> transformedChunks,
+                                  final BitSet rawChunkIds,
+                                  final int[] checksums) {
         super(originalChunkSize, originalFileSize,
             finalTransformedChunkSize(Objects.requireNonNull(transformedChunks, "transformedChunks cannot be null")),
-            transformedChunks.size());
+            transformedChunks.size(), checksums);
         this.transformedChunks = transformedChunks;
+        this.rawChunkIds = (BitSet) Objects.requireNonNull(rawChunkIds, "rawChunkIds cannot be null").clone();
+        if (rawChunkIds.length() > transformedChunks.size()) {
+            throw new IllegalArgumentException("Raw chunk ID " + (rawChunkIds.length() - 1)
+                + " is out of range, there are only " + transformedChunks.size() + " chunks");
+        }
 
         chunks = materializeChunks();
     }
 
+    @JsonCreator
+    static VariableSizeChunkIndex create(
+        @JsonProperty(value = "originalChunkSize", required = true) final int originalChunkSize,
+        @JsonProperty(value = "originalFileSize", required = true) final int originalFileSize,
+        @JsonProperty(value = "transformedChunks", required = true)
+        @JsonDeserialize(using = TransformedChunksDeserializer.class) final List<Integer> transformedChunks,
+        @JsonProperty(value = "rawChunks") final byte[] rawChunks,
+        @JsonProperty(value = "checksums") final byte[] checksums
+    ) {
+        return new VariableSizeChunkIndex(originalChunkSize, originalFileSize, transformedChunks,
+            rawChunks == null ? new BitSet() : BitSet.valueOf(rawChunks), decodeChecksums(checksums));
+    }
+
     private static int finalTransformedChunkSize(final List<Integer> transformedChunks) {
         return transformedChunks.get(transformedChunks.size() - 1);
     }
 
+    @JsonProperty("rawChunks")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private byte[] rawChunksEncoded() {
+        return rawChunkIds.isEmpty() ? null : rawChunkIds.toByteArray();
+    }
+
     public List<Chunk> chunks() {
         return chunks;
     }
@@ -86,6 +132,12 @@ public class VariableSizeChunkIndex extends AbstractChunkIndex {
         return transformedChunks.get(chunkI);
     }
 
+    @Override
+    // Override with care, this method is indirectly called from a constructor.
+    protected final boolean isChunkRaw(final int chunkI) {
+        return rawChunkIds.get(chunkI);
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
@@ -97,12 +149,15 @@ public class VariableSizeChunkIndex extends AbstractChunkIndex {
         final VariableSizeChunkIndex that = (VariableSizeChunkIndex) o;
         return originalChunkSize == that.originalChunkSize
             && originalFileSize == that.originalFileSize
-            && Objects.equals(transformedChunks, that.transformedChunks);
+            && Objects.equals(transformedChunks, that.transformedChunks)
+            && Objects.equals(rawChunkIds, that.rawChunkIds)
+            && Arrays.equals(checksums, that.checksums);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(originalChunkSize, originalFileSize, transformedChunks);
+        return 31 * Objects.hash(originalChunkSize, originalFileSize, transformedChunks, rawChunkIds)
+            + Arrays.hashCode(checksums);
     }
 
     @Override
@@ -111,6 +166,8 @@ public class VariableSizeChunkIndex extends AbstractChunkIndex {
             + "originalChunkSize=" + originalChunkSize
             + ", originalFileSize=" + originalFileSize
             + ", transformedChunks=" + transformedChunks
+            + ", rawChunkIds=" + rawChunkIds
+            + ", checksums=" + Arrays.toString(checksums)
             + ")";
     }
 }
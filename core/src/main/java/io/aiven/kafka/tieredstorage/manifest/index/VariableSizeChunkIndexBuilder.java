@@ -17,9 +17,11 @@
 package io.aiven.kafka.tieredstorage.manifest.index;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 
 public class VariableSizeChunkIndexBuilder extends AbstractChunkIndexBuilder {
     private final ArrayList<Integer> transformedChunks = new ArrayList<>();
+    private final BitSet rawChunkIds = new BitSet();
 
     public VariableSizeChunkIndexBuilder(final int originalChunkSize,
                                          final int originalFileSize) {
@@ -27,17 +29,20 @@ public class VariableSizeChunkIndexBuilder extends AbstractChunkIndexBuilder {
     }
 
     @Override
-    protected void addChunk0(final int transformedChunkSize) {
+    protected void addChunk0(final int transformedChunkSize, final boolean raw) {
+        rawChunkIds.set(transformedChunks.size(), raw);
         transformedChunks.add(transformedChunkSize);
     }
 
     @Override
-    protected ChunkIndex finish0(final int finalTransformedChunkSize) {
-        transformedChunks.add(finalTransformedChunkSize);
+    protected ChunkIndex finish0(final int finalTransformedChunkSize, final boolean raw) {
+        addChunk0(finalTransformedChunkSize, raw);
         return new VariableSizeChunkIndex(
             this.originalChunkSize,
             this.originalFileSize,
-            this.transformedChunks
+            this.transformedChunks,
+            this.rawChunkIds,
+            checksums()
         );
     }
 
@@ -17,6 +17,7 @@
 package io.aiven.kafka.tieredstorage.metadata;
 
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
@@ -32,6 +33,10 @@ public class SegmentCustomMetadataBuilder {
 
     final Set<SegmentCustomMetadataField> fields;
 
+    String packId;
+    int packPosition;
+    int packSize;
+
     public SegmentCustomMetadataBuilder(final Set<SegmentCustomMetadataField> fields,
                                         final ObjectKeyFactory objectKeyFactory,
                                         final RemoteLogSegmentMetadata segmentMetadata) {
@@ -41,8 +46,8 @@ public class SegmentCustomMetadataBuilder {
         this.uploadResults = new EnumMap<>(ObjectKeyFactory.Suffix.class);
     }
 
-    public SegmentCustomMetadataBuilder addUploadResult(final ObjectKeyFactory.Suffix suffix,
-                                                        final long bytes) {
+    public synchronized SegmentCustomMetadataBuilder addUploadResult(final ObjectKeyFactory.Suffix suffix,
+                                                                     final long bytes) {
         if (uploadResults.containsKey(suffix)) {
             throw new IllegalArgumentException("Upload results for suffix " + suffix + " already added");
         }
@@ -50,7 +55,19 @@ public class SegmentCustomMetadataBuilder {
         return this;
     }
 
-    public long totalSize() {
+    /**
+     * Records the range of the pack the segment was added to.
+     */
+    public synchronized SegmentCustomMetadataBuilder setPackMember(final String packId,
+                                                                   final int position,
+                                                                   final int size) {
+        this.packId = packId;
+        this.packPosition = position;
+        this.packSize = size;
+        return this;
+    }
+
+    public synchronized long totalSize() {
         return uploadResults.values().stream().mapToLong(value -> value).sum();
     }
 
@@ -58,9 +75,20 @@ public class SegmentCustomMetadataBuilder {
      * {@code NavigableMap} is required by {@link org.apache.kafka.common.protocol.types.TaggedFields},
      * therefore is enforced on this API.
      */
-    public NavigableMap<Integer, Object> build() {
+    public synchronized NavigableMap<Integer, Object> build() {
         final TreeMap<Integer, Object> taggedFields = new TreeMap<>();
-        fields.forEach(field -> taggedFields.put(field.index(), field.valueProvider.apply(this)));
+        final Set<SegmentCustomMetadataField> included = EnumSet.noneOf(SegmentCustomMetadataField.class);
+        included.addAll(fields);
+        if (packId != null) {
+            included.addAll(SegmentCustomMetadataField.PACK_FIELDS);
+        }
+        included.forEach(field -> {
+            final Object value = field.valueProvider.apply(this);
+            // The pack fields have no value unless the segment was added to a pack.
+            if (value != null) {
+                taggedFields.put(field.index(), value);
+            }
+        });
         return taggedFields;
     }
 }
@@ -17,6 +17,8 @@
 package io.aiven.kafka.tieredstorage.metadata;
 
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.function.Function;
 
 import org.apache.kafka.common.protocol.types.Field;
@@ -30,12 +32,21 @@ import io.aiven.kafka.tieredstorage.ObjectKeyFactory;
 public enum SegmentCustomMetadataField {
     REMOTE_SIZE(0, new Field("remote_size", Type.VARLONG), SegmentCustomMetadataBuilder::totalSize),
     OBJECT_PREFIX(1, new Field("object_prefix", Type.COMPACT_STRING), b -> b.objectKeyFactory.prefix()),
-    OBJECT_KEY(2, new Field("object_key", Type.COMPACT_STRING), b -> ObjectKeyFactory.mainPath(b.segmentMetadata));
+    OBJECT_KEY(2, new Field("object_key", Type.COMPACT_STRING), b -> ObjectKeyFactory.mainPath(b.segmentMetadata)),
+    // The pack fields are always included for segments added to a pack, as they are needed to find them.
+    PACK_ID(3, new Field("pack_id", Type.COMPACT_STRING), b -> b.packId),
+    PACK_POSITION(4, new Field("pack_position", Type.VARINT), b -> b.packId != null ? b.packPosition : null),
+    PACK_SIZE(5, new Field("pack_size", Type.VARINT), b -> b.packId != null ? b.packSize : null);
+
+    static final Set<SegmentCustomMetadataField> PACK_FIELDS = EnumSet.of(PACK_ID, PACK_POSITION, PACK_SIZE);
 
     static final TaggedFieldsSection FIELDS_SECTION = TaggedFieldsSection.of(
         REMOTE_SIZE.index, REMOTE_SIZE.field,
         OBJECT_PREFIX.index, OBJECT_PREFIX.field,
-        OBJECT_KEY.index, OBJECT_KEY.field
+        OBJECT_KEY.index, OBJECT_KEY.field,
+        PACK_ID.index, PACK_ID.field,
+        PACK_POSITION.index, PACK_POSITION.field,
+        PACK_SIZE.index, PACK_SIZE.field
     );
     public static final Schema CUSTOM_METADATA_SCHEMA = new Schema(FIELDS_SECTION);
     public static final String TAGGED_FIELD_NAME = FIELDS_SECTION.name;
@@ -52,8 +63,13 @@ public enum SegmentCustomMetadataField {
         this.valueProvider = valueProvider;
     }
 
+    /**
+     * @return the names of the fields that can be included in the custom metadata, excluding the pack fields,
+     *     which are included whenever they are set.
+     */
     public static String[] names() {
         return Arrays.stream(SegmentCustomMetadataField.values())
+            .filter(field -> !PACK_FIELDS.contains(field))
             .map(SegmentCustomMetadataField::name)
             .toArray(String[]::new);
     }
@@ -17,10 +17,13 @@
 package io.aiven.kafka.tieredstorage.metrics;
 
 import java.util.List;
+import java.util.function.Supplier;
 
+import org.apache.kafka.common.MetricNameTemplate;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.metrics.JmxReporter;
 import org.apache.kafka.common.metrics.KafkaMetricsContext;
+import org.apache.kafka.common.metrics.Measurable;
 import org.apache.kafka.common.metrics.MetricConfig;
 import org.apache.kafka.common.metrics.Sensor;
 import org.apache.kafka.common.metrics.stats.Avg;
@@ -31,18 +34,24 @@ import org.apache.kafka.common.metrics.stats.Rate;
 import org.apache.kafka.common.utils.Time;
 
 import io.aiven.kafka.tieredstorage.ObjectKeyFactory;
+import io.aiven.kafka.tieredstorage.storage.MemoryBudget;
+import io.aiven.kafka.tieredstorage.transform.ChunkBufferPool;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static io.aiven.kafka.tieredstorage.metrics.MetricsRegistry.OBJECT_UPLOAD;
 import static io.aiven.kafka.tieredstorage.metrics.MetricsRegistry.OBJECT_UPLOAD_BYTES;
+import static io.aiven.kafka.tieredstorage.metrics.MetricsRegistry.SEGMENT_COMPRESSION_RATIO_ACTUAL;
+import static io.aiven.kafka.tieredstorage.metrics.MetricsRegistry.SEGMENT_COMPRESSION_RATIO_ESTIMATED;
 import static io.aiven.kafka.tieredstorage.metrics.MetricsRegistry.SEGMENT_COPY_TIME;
 import static io.aiven.kafka.tieredstorage.metrics.MetricsRegistry.SEGMENT_DELETE;
 import static io.aiven.kafka.tieredstorage.metrics.MetricsRegistry.SEGMENT_DELETE_BYTES;
 import static io.aiven.kafka.tieredstorage.metrics.MetricsRegistry.SEGMENT_DELETE_ERRORS;
 import static io.aiven.kafka.tieredstorage.metrics.MetricsRegistry.SEGMENT_DELETE_TIME;
 import static io.aiven.kafka.tieredstorage.metrics.MetricsRegistry.SEGMENT_FETCH_REQUESTED_BYTES;
+import static io.aiven.kafka.tieredstorage.metrics.MetricsRegistry.UPLOAD_RATE_LIMITER_BYTES;
+import static io.aiven.kafka.tieredstorage.metrics.MetricsRegistry.UPLOAD_RATE_LIMITER_THROTTLE_TIME;
 import static io.aiven.kafka.tieredstorage.metrics.MetricsRegistry.objectTypeTags;
 import static io.aiven.kafka.tieredstorage.metrics.MetricsRegistry.sensorName;
 import static io.aiven.kafka.tieredstorage.metrics.MetricsRegistry.sensorNameByObjectType;
@@ -96,6 +105,36 @@ public class Metrics {
             .record(time);
     }
 
+    /**
+     * @param ratio the ratio of the compressed to the original size estimated by trial compression.
+     */
+    public void recordSegmentCompressionRatioEstimated(final TopicPartition topicPartition, final double ratio) {
+        new SensorProvider(metrics, sensorName(SEGMENT_COMPRESSION_RATIO_ESTIMATED))
+            .with(metricsRegistry.segmentCompressionRatioEstimatedAvg, new Avg())
+            .get()
+            .record(ratio);
+        new SensorProvider(metrics, sensorNameByTopic(topicPartition, SEGMENT_COMPRESSION_RATIO_ESTIMATED),
+            () -> topicTags(topicPartition))
+            .with(metricsRegistry.segmentCompressionRatioEstimatedAvgByTopic, new Avg())
+            .get()
+            .record(ratio);
+    }
+
+    /**
+     * @param ratio the ratio of the uploaded compressed segment log size to the original size.
+     */
+    public void recordSegmentCompressionRatioActual(final TopicPartition topicPartition, final double ratio) {
+        new SensorProvider(metrics, sensorName(SEGMENT_COMPRESSION_RATIO_ACTUAL))
+            .with(metricsRegistry.segmentCompressionRatioActualAvg, new Avg())
+            .get()
+            .record(ratio);
+        new SensorProvider(metrics, sensorNameByTopic(topicPartition, SEGMENT_COMPRESSION_RATIO_ACTUAL),
+            () -> topicTags(topicPartition))
+            .with(metricsRegistry.segmentCompressionRatioActualAvgByTopic, new Avg())
+            .get()
+            .record(ratio);
+    }
+
     public void recordSegmentDelete(final TopicPartition topicPartition, final long bytes) {
         recordSegmentDeleteRequests(topicPartition);
         recordSegmentDeleteBytes(topicPartition, bytes);
@@ -297,6 +336,49 @@ public class Metrics {
             .record();
     }
 
+    /**
+     * Reports the state of the pool of buffers segments are transformed in, read when the metrics are collected.
+     */
+    public void registerTransformBufferPool(final ChunkBufferPool bufferPool) {
+        addGauge(metricsRegistry.transformBufferPoolFreeBuffers, bufferPool::pooledBuffers);
+        addGauge(metricsRegistry.transformBufferPoolMissesTotal, bufferPool::missesTotal);
+    }
+
+    private void addGauge(final MetricNameTemplate template, final Supplier<Number> value) {
+        metrics.addMetric(metrics.metricInstance(template), (Measurable) (config, now) -> value.get().doubleValue());
+    }
+
+    /**
+     * @param bytes          the number of bytes that passed the upload rate limiter.
+     * @param throttleTimeMs the time the upload was delayed for these bytes.
+     */
+    public void recordUploadRateLimiterAcquire(final long bytes, final long throttleTimeMs) {
+        new SensorProvider(metrics, sensorName(UPLOAD_RATE_LIMITER_BYTES))
+            .with(metricsRegistry.uploadRateLimiterBytesRate, new Rate())
+            .with(metricsRegistry.uploadRateLimiterBytesTotal, new CumulativeSum())
+            .get()
+            .record(bytes);
+        new SensorProvider(metrics, sensorName(UPLOAD_RATE_LIMITER_THROTTLE_TIME))
+            .with(metricsRegistry.uploadRateLimiterThrottleTimeAvg, new Avg())
+            .with(metricsRegistry.uploadRateLimiterThrottleTimeMax, new Max())
+            .with(metricsRegistry.uploadRateLimiterThrottleTimeTotal, new CumulativeSum())
+            .get()
+            .record(throttleTimeMs);
+    }
+
+    /**
+     * Reports the state of the memory budget, read when the metrics are collected.
+     */
+    public void registerMemoryBudget(final MemoryBudget memoryBudget) {
+        addGauge(metricsRegistry.memoryBudgetLimitBytes, memoryBudget::limitBytes);
+        addGauge(metricsRegistry.memoryBudgetReservedBytes, memoryBudget::reservedBytes);
+        addGauge(metricsRegistry.memoryBudgetUtilization,
+            () -> (double) memoryBudget.reservedBytes() / memoryBudget.limitBytes());
+        addGauge(metricsRegistry.memoryBudgetWaitingReservations, memoryBudget::waitingReservations);
+        addGauge(metricsRegistry.memoryBudgetWaitTimeTotal, memoryBudget::waitTimeMsTotal);
+        addGauge(metricsRegistry.memoryBudgetExhaustedTotal, memoryBudget::exhaustedTotal);
+    }
+
     public void close() {
         try {
             metrics.close();
@@ -52,6 +52,21 @@ public class MetricsRegistry {
     final MetricNameTemplate segmentCopyTimeMaxByTopicPartition =
         new MetricNameTemplate(SEGMENT_COPY_TIME_MAX, METRIC_GROUP, "", TOPIC_PARTITION_TAG_NAMES);
 
+    // Segment compression metric names
+    static final String SEGMENT_COMPRESSION = "segment-compression";
+    static final String SEGMENT_COMPRESSION_RATIO_ESTIMATED = SEGMENT_COMPRESSION + "-ratio-estimated";
+    static final String SEGMENT_COMPRESSION_RATIO_ESTIMATED_AVG = SEGMENT_COMPRESSION_RATIO_ESTIMATED + "-avg";
+    final MetricNameTemplate segmentCompressionRatioEstimatedAvg =
+        new MetricNameTemplate(SEGMENT_COMPRESSION_RATIO_ESTIMATED_AVG, METRIC_GROUP, "");
+    final MetricNameTemplate segmentCompressionRatioEstimatedAvgByTopic =
+        new MetricNameTemplate(SEGMENT_COMPRESSION_RATIO_ESTIMATED_AVG, METRIC_GROUP, "", TOPIC_TAG_NAMES);
+    static final String SEGMENT_COMPRESSION_RATIO_ACTUAL = SEGMENT_COMPRESSION + "-ratio-actual";
+    static final String SEGMENT_COMPRESSION_RATIO_ACTUAL_AVG = SEGMENT_COMPRESSION_RATIO_ACTUAL + "-avg";
+    final MetricNameTemplate segmentCompressionRatioActualAvg =
+        new MetricNameTemplate(SEGMENT_COMPRESSION_RATIO_ACTUAL_AVG, METRIC_GROUP, "");
+    final MetricNameTemplate segmentCompressionRatioActualAvgByTopic =
+        new MetricNameTemplate(SEGMENT_COMPRESSION_RATIO_ACTUAL_AVG, METRIC_GROUP, "", TOPIC_TAG_NAMES);
+
     // Segment delete metric names
     static final String SEGMENT_DELETE = "segment-delete";
     static final String SEGMENT_DELETE_RATE = SEGMENT_DELETE + "-rate";
@@ -186,6 +201,56 @@ public class MetricsRegistry {
     final MetricNameTemplate objectUploadBytesTotalByTopicPartitionAndObjectType =
         new MetricNameTemplate(OBJECT_UPLOAD_BYTES_TOTAL, METRIC_GROUP, "", TOPIC_PARTITION_AND_OBJECT_TYPE_TAG_NAMES);
 
+    // Transform buffer pool metrics
+    static final String TRANSFORM_BUFFER_POOL = "transform-buffer-pool";
+    static final String TRANSFORM_BUFFER_POOL_FREE_BUFFERS = TRANSFORM_BUFFER_POOL + "-free-buffers";
+    final MetricNameTemplate transformBufferPoolFreeBuffers =
+        new MetricNameTemplate(TRANSFORM_BUFFER_POOL_FREE_BUFFERS, METRIC_GROUP, "");
+    static final String TRANSFORM_BUFFER_POOL_MISSES_TOTAL = TRANSFORM_BUFFER_POOL + "-misses-total";
+    final MetricNameTemplate transformBufferPoolMissesTotal =
+        new MetricNameTemplate(TRANSFORM_BUFFER_POOL_MISSES_TOTAL, METRIC_GROUP, "");
+
+    // Upload rate limiter metrics
+    static final String UPLOAD_RATE_LIMITER = "upload-rate-limiter";
+    static final String UPLOAD_RATE_LIMITER_BYTES = UPLOAD_RATE_LIMITER + "-bytes";
+    static final String UPLOAD_RATE_LIMITER_BYTES_RATE = UPLOAD_RATE_LIMITER_BYTES + "-rate";
+    final MetricNameTemplate uploadRateLimiterBytesRate =
+        new MetricNameTemplate(UPLOAD_RATE_LIMITER_BYTES_RATE, METRIC_GROUP, "");
+    static final String UPLOAD_RATE_LIMITER_BYTES_TOTAL = UPLOAD_RATE_LIMITER_BYTES + "-total";
+    final MetricNameTemplate uploadRateLimiterBytesTotal =
+        new MetricNameTemplate(UPLOAD_RATE_LIMITER_BYTES_TOTAL, METRIC_GROUP, "");
+    static final String UPLOAD_RATE_LIMITER_THROTTLE_TIME = UPLOAD_RATE_LIMITER + "-throttle-time";
+    static final String UPLOAD_RATE_LIMITER_THROTTLE_TIME_AVG = UPLOAD_RATE_LIMITER_THROTTLE_TIME + "-avg";
+    final MetricNameTemplate uploadRateLimiterThrottleTimeAvg =
+        new MetricNameTemplate(UPLOAD_RATE_LIMITER_THROTTLE_TIME_AVG, METRIC_GROUP, "");
+    static final String UPLOAD_RATE_LIMITER_THROTTLE_TIME_MAX = UPLOAD_RATE_LIMITER_THROTTLE_TIME + "-max";
+    final MetricNameTemplate uploadRateLimiterThrottleTimeMax =
+        new MetricNameTemplate(UPLOAD_RATE_LIMITER_THROTTLE_TIME_MAX, METRIC_GROUP, "");
+    static final String UPLOAD_RATE_LIMITER_THROTTLE_TIME_TOTAL = UPLOAD_RATE_LIMITER_THROTTLE_TIME + "-total";
+    final MetricNameTemplate uploadRateLimiterThrottleTimeTotal =
+        new MetricNameTemplate(UPLOAD_RATE_LIMITER_THROTTLE_TIME_TOTAL, METRIC_GROUP, "");
+
+    // Memory budget metrics
+    static final String MEMORY_BUDGET = "memory-budget";
+    static final String MEMORY_BUDGET_LIMIT_BYTES = MEMORY_BUDGET + "-limit-bytes";
+    final MetricNameTemplate memoryBudgetLimitBytes =
+        new MetricNameTemplate(MEMORY_BUDGET_LIMIT_BYTES, METRIC_GROUP, "");
+    static final String MEMORY_BUDGET_RESERVED_BYTES = MEMORY_BUDGET + "-reserved-bytes";
+    final MetricNameTemplate memoryBudgetReservedBytes =
+        new MetricNameTemplate(MEMORY_BUDGET_RESERVED_BYTES, METRIC_GROUP, "");
+    static final String MEMORY_BUDGET_UTILIZATION = MEMORY_BUDGET + "-utilization";
+    final MetricNameTemplate memoryBudgetUtilization =
+        new MetricNameTemplate(MEMORY_BUDGET_UTILIZATION, METRIC_GROUP, "");
+    static final String MEMORY_BUDGET_WAITING_RESERVATIONS = MEMORY_BUDGET + "-waiting-reservations";
+    final MetricNameTemplate memoryBudgetWaitingReservations =
+        new MetricNameTemplate(MEMORY_BUDGET_WAITING_RESERVATIONS, METRIC_GROUP, "");
+    static final String MEMORY_BUDGET_WAIT_TIME_TOTAL = MEMORY_BUDGET + "-wait-time-total";
+    final MetricNameTemplate memoryBudgetWaitTimeTotal =
+        new MetricNameTemplate(MEMORY_BUDGET_WAIT_TIME_TOTAL, METRIC_GROUP, "");
+    static final String MEMORY_BUDGET_EXHAUSTED_TOTAL = MEMORY_BUDGET + "-exhausted-total";
+    final MetricNameTemplate memoryBudgetExhaustedTotal =
+        new MetricNameTemplate(MEMORY_BUDGET_EXHAUSTED_TOTAL, METRIC_GROUP, "");
+
     public static String sensorName(final String name) {
         return name;
     }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.OptionalInt;
+
+import io.aiven.kafka.tieredstorage.Chunk;
+
+/**
+ * The base of the buffer-passing de-transformation chain.
+ *
+ * <p>It's the buffer-passing counterpart of {@link BaseDetransformChunkEnumeration}:
+ * it reads the transformed chunks from the input stream into pooled buffers, relying on the known chunk sizes,
+ * and closes the input stream after the last chunk.
+ */
+public class BaseBufferDetransformChunkEnumeration implements BufferDetransformChunkEnumeration {
+    private final InputStream inputStream;
+    private final Iterator<Chunk> chunksIter;
+    private final ChunkBufferPool bufferPool;
+    private ReadableByteChannel channel = null;
+    private boolean inputStreamClosed = false;
+
+    private boolean lastChunkRaw = false;
+    private OptionalInt lastChunkChecksum = OptionalInt.empty();
+    private int lastChunkId = -1;
+
+    public BaseBufferDetransformChunkEnumeration(final InputStream inputStream,
+                                                 final List<Chunk> chunks,
+                                                 final ChunkBufferPool bufferPool) {
+        this.inputStream = Objects.requireNonNull(inputStream, "inputStream cannot be null");
+        this.chunksIter = Objects.requireNonNull(chunks, "chunks cannot be null").iterator();
+        this.bufferPool = Objects.requireNonNull(bufferPool, "bufferPool cannot be null");
+    }
+
+    @Override
+    public ChunkBufferPool bufferPool() {
+        return bufferPool;
+    }
+
+    @Override
+    public boolean lastChunkRaw() {
+        return lastChunkRaw;
+    }
+
+    @Override
+    public OptionalInt lastChunkChecksum() {
+        return lastChunkChecksum;
+    }
+
+    @Override
+    public int lastChunkId() {
+        return lastChunkId;
+    }
+
+    @Override
+    public boolean hasMoreElements() {
+        if (!chunksIter.hasNext()) {
+            closeInputStream();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public ByteBuffer nextElement() {
+        if (!hasMoreElements()) {
+            throw new NoSuchElementException();
+        }
+        final Chunk chunk = chunksIter.next();
+        final ByteBuffer buffer = bufferPool.acquire(chunk.transformedSize);
+        buffer.limit(chunk.transformedSize);
+        try {
+            read(buffer);
+        } catch (final IOException e) {
+            bufferPool.release(buffer);
+            throw new RuntimeException(e);
+        } catch (final RuntimeException e) {
+            bufferPool.release(buffer);
+            throw e;
+        }
+        buffer.flip();
+        lastChunkRaw = chunk.raw;
+        lastChunkChecksum = chunk.checksum == null ? OptionalInt.empty() : OptionalInt.of(chunk.checksum);
+        lastChunkId = chunk.id;
+        return buffer;
+    }
+
+    private void read(final ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            // Read right into the array, the channel would copy through its own one.
+            final int read = inputStream.readNBytes(
+                buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.position() + read);
+        } else {
+            if (channel == null) {
+                channel = Channels.newChannel(inputStream);
+            }
+            int read = 0;
+            while (buffer.hasRemaining() && read >= 0) {
+                read = channel.read(buffer);
+            }
+        }
+        if (buffer.hasRemaining()) {
+            throw new RuntimeException("Stream has fewer bytes than expected");
+        }
+    }
+
+    private void closeInputStream() {
+        if (!inputStreamClosed) {
+            try {
+                inputStream.close();
+                inputStreamClosed = true;
+            } catch (final IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
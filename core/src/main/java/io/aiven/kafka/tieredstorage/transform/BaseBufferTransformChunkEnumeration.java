@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.zip.CRC32C;
+
+/**
+ * The base of the buffer-passing transformation chain.
+ *
+ * <p>It reads chunks of {@code originalChunkSize} bytes from the channel into pooled buffers.
+ * The data is placed after {@code headroom} bytes, so the following transformations can prepend to it in place.
+ * The CRC32C checksum of each chunk is calculated here, before the following transformations change the buffer.
+ */
+public class BaseBufferTransformChunkEnumeration implements BufferTransformChunkEnumeration {
+    private final ReadableByteChannel channel;
+    private final int originalChunkSize;
+    private final ChunkBufferPool bufferPool;
+    private final int headroom;
+
+    private ByteBuffer chunk = null;
+    private boolean endOfStreamReached = false;
+    private OptionalInt lastChunkChecksum = OptionalInt.empty();
+
+    public BaseBufferTransformChunkEnumeration(final ReadableByteChannel channel,
+                                               final int originalChunkSize,
+                                               final ChunkBufferPool bufferPool,
+                                               final int headroom) {
+        this.channel = Objects.requireNonNull(channel, "channel cannot be null");
+        this.bufferPool = Objects.requireNonNull(bufferPool, "bufferPool cannot be null");
+
+        if (originalChunkSize <= 0) {
+            throw new IllegalArgumentException(
+                "originalChunkSize must be positive, " + originalChunkSize + " given");
+        }
+        if (headroom < 0) {
+            throw new IllegalArgumentException("headroom must be non-negative, " + headroom + " given");
+        }
+        this.originalChunkSize = originalChunkSize;
+        this.headroom = headroom;
+    }
+
+    @Override
+    public int originalChunkSize() {
+        return originalChunkSize;
+    }
+
+    @Override
+    public Integer transformedChunkSize() {
+        // No real transformation done, no size changes.
+        return originalChunkSize;
+    }
+
+    @Override
+    public ChunkBufferPool bufferPool() {
+        return bufferPool;
+    }
+
+    @Override
+    public boolean hasMoreElements() {
+        fillChunkIfNeeded();
+        return !endOfStreamReached;
+    }
+
+    @Override
+    public ByteBuffer nextElement() {
+        fillChunkIfNeeded();
+        if (endOfStreamReached) {
+            throw new NoSuchElementException();
+        }
+
+        final var result = chunk;
+        chunk = null;
+        final CRC32C crc = new CRC32C();
+        crc.update(result.duplicate());
+        lastChunkChecksum = OptionalInt.of((int) crc.getValue());
+        return result;
+    }
+
+    @Override
+    public OptionalInt lastChunkChecksum() {
+        return lastChunkChecksum;
+    }
+
+    private void fillChunkIfNeeded() {
+        if (chunk != null || endOfStreamReached) {
+            return;
+        }
+
+        final ByteBuffer buffer = bufferPool.acquire(headroom + originalChunkSize);
+        buffer.position(headroom);
+        buffer.limit(headroom + originalChunkSize);
+        try {
+            int read = 0;
+            while (buffer.hasRemaining() && read >= 0) {
+                read = channel.read(buffer);
+            }
+        } catch (final IOException e) {
+            bufferPool.release(buffer);
+            throw new RuntimeException(e);
+        }
+
+        if (buffer.position() == headroom) {
+            bufferPool.release(buffer);
+            endOfStreamReached = true;
+        } else {
+            buffer.limit(buffer.position());
+            buffer.position(headroom);
+            chunk = buffer;
+        }
+    }
+}
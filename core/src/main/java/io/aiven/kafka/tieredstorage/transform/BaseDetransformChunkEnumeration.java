@@ -23,6 +23,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.OptionalInt;
 
 import io.aiven.kafka.tieredstorage.Chunk;
 
@@ -42,6 +43,12 @@ public class BaseDetransformChunkEnumeration implements DetransformChunkEnumerat
     private final boolean isEmpty;
 
     private byte[] chunk = null;
+    private boolean chunkRaw = false;
+    private boolean lastChunkRaw = false;
+    private OptionalInt chunkChecksum = OptionalInt.empty();
+    private OptionalInt lastChunkChecksum = OptionalInt.empty();
+    private int chunkId = -1;
+    private int lastChunkId = -1;
 
     public BaseDetransformChunkEnumeration(final InputStream inputStream) {
         this.inputStream = Objects.requireNonNull(inputStream, "inputStream cannot be null");
@@ -70,10 +77,28 @@ public class BaseDetransformChunkEnumeration implements DetransformChunkEnumerat
         }
 
         final var result = chunk;
+        lastChunkRaw = chunkRaw;
+        lastChunkChecksum = chunkChecksum;
+        lastChunkId = chunkId;
         chunk = null;
         return result;
     }
 
+    @Override
+    public boolean lastChunkRaw() {
+        return lastChunkRaw;
+    }
+
+    @Override
+    public OptionalInt lastChunkChecksum() {
+        return lastChunkChecksum;
+    }
+
+    @Override
+    public int lastChunkId() {
+        return lastChunkId;
+    }
+
     private void fillChunkIfNeeded() {
         if (chunk != null) {
             return;
@@ -100,7 +125,11 @@ public class BaseDetransformChunkEnumeration implements DetransformChunkEnumerat
 
         try {
             if (!isEmpty) {
-                final int expectedTransformedSize = chunksIter.next().transformedSize;
+                final Chunk nextChunk = chunksIter.next();
+                final int expectedTransformedSize = nextChunk.transformedSize;
+                chunkRaw = nextChunk.raw;
+                chunkChecksum = checksum(nextChunk);
+                chunkId = nextChunk.id;
                 chunk = inputStream.readNBytes(expectedTransformedSize);
                 if (chunk.length < expectedTransformedSize) {
                     throw new RuntimeException("Stream has fewer bytes than expected");
@@ -113,6 +142,10 @@ public class BaseDetransformChunkEnumeration implements DetransformChunkEnumerat
         }
     }
 
+    private static OptionalInt checksum(final Chunk chunk) {
+        return chunk.checksum == null ? OptionalInt.empty() : OptionalInt.of(chunk.checksum);
+    }
+
     private boolean endOfStreamReached() {
         return chunk.length == 0;
     }
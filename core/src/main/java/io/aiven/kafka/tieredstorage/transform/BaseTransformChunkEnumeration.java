@@ -20,17 +20,21 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.zip.CRC32C;
 
 /**
  * The base chunk transformation that does the initial chunking of the input stream of bytes.
  *
  * <p>If size is zero, then no chunking is applied.
+ * The CRC32C checksum of each chunk is calculated here, while the chunk is still hot in CPU caches.
  */
 public class BaseTransformChunkEnumeration implements TransformChunkEnumeration {
     private final InputStream inputStream;
     private final int originalChunkSize;
 
     private byte[] chunk = null;
+    private OptionalInt lastChunkChecksum = OptionalInt.empty();
 
     public BaseTransformChunkEnumeration(final InputStream inputStream) {
         this.inputStream = Objects.requireNonNull(inputStream, "inputStream cannot be null");
@@ -75,9 +79,17 @@ public class BaseTransformChunkEnumeration implements TransformChunkEnumeration
 
         final var result = chunk;
         chunk = null;
+        final CRC32C crc = new CRC32C();
+        crc.update(result);
+        lastChunkChecksum = OptionalInt.of((int) crc.getValue());
         return result;
     }
 
+    @Override
+    public OptionalInt lastChunkChecksum() {
+        return lastChunkChecksum;
+    }
+
     private void fillChunkIfNeeded() {
         if (chunk != null) {
             return;
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.util.Enumeration;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.zip.CRC32C;
+
+/**
+ * The buffer-passing counterpart of {@link DetransformFinisher}.
+ *
+ * <p>Each chunk buffer is released to the pool once its {@link InputStream} is closed,
+ * which {@link SequenceInputStream} does as soon as the stream is read to the end.
+ */
+public class BufferDetransformFinisher implements Enumeration<InputStream> {
+    private final BufferDetransformChunkEnumeration inner;
+
+    public BufferDetransformFinisher(final BufferDetransformChunkEnumeration inner) {
+        this.inner = Objects.requireNonNull(inner, "inner cannot be null");
+    }
+
+    @Override
+    public boolean hasMoreElements() {
+        return inner.hasMoreElements();
+    }
+
+    @Override
+    public InputStream nextElement() {
+        return new PooledChunkInputStream(nextChunk(), inner.bufferPool());
+    }
+
+    /**
+     * Returns the next de-transformed chunk, checked against its checksum if it was recorded in the chunk index.
+     *
+     * <p>The caller owns the returned buffer and must release it to the pool once the chunk is consumed.
+     */
+    public ByteBuffer nextChunk() {
+        final ByteBuffer chunk = inner.nextElement();
+        final OptionalInt expectedChecksum = inner.lastChunkChecksum();
+        if (expectedChecksum.isPresent()) {
+            final CRC32C crc = new CRC32C();
+            crc.update(chunk.duplicate());
+            final int checksum = (int) crc.getValue();
+            if (checksum != expectedChecksum.getAsInt()) {
+                inner.bufferPool().release(chunk);
+                throw new ChunkChecksumMismatchException(inner.lastChunkId(), expectedChecksum.getAsInt(), checksum);
+            }
+        }
+        return chunk;
+    }
+
+    public InputStream toInputStream() {
+        return new SequenceInputStream(this);
+    }
+}
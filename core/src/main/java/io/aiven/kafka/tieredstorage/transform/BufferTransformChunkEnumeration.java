@@ -0,0 +1,69 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.nio.ByteBuffer;
+import java.util.Enumeration;
+import java.util.OptionalInt;
+
+/**
+ * The enumeration of chunks being transformed, which are passed in buffers from {@link ChunkBufferPool}.
+ *
+ * <p>It's the buffer-passing counterpart of {@link TransformChunkEnumeration}.
+ * The data of a returned chunk is between the position and the limit of the buffer.
+ * The position may be above zero to leave room in front of the data for the following transformations,
+ * e.g. for the IV prepended by encryption.
+ * The caller owns the returned buffer and must release it to the pool once the chunk is consumed.
+ */
+public interface BufferTransformChunkEnumeration extends Enumeration<ByteBuffer> {
+    /**
+     * Returns the original (i.e. before all the transformations) chunk size.
+     */
+    int originalChunkSize();
+
+    /**
+     * Returns a transformed chunk size if it's known.
+     *
+     * @return a transformed chunk size; or {@code null} if unknown.
+     */
+    Integer transformedChunkSize();
+
+    /**
+     * Returns whether the chunk returned by the last {@link #nextElement()} call is stored raw.
+     *
+     * @see TransformChunkEnumeration#lastChunkRaw()
+     */
+    default boolean lastChunkRaw() {
+        return false;
+    }
+
+    /**
+     * Returns the CRC32C checksum of the original content of the chunk returned by the last {@link #nextElement()}
+     * call, if it's known.
+     *
+     * @see TransformChunkEnumeration#lastChunkChecksum()
+     */
+    default OptionalInt lastChunkChecksum() {
+        return OptionalInt.empty();
+    }
+
+    /**
+     * Returns the pool the chunk buffers are taken from and must be released to.
+     */
+    ChunkBufferPool bufferPool();
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalInt;
+
+import io.aiven.kafka.tieredstorage.manifest.index.AbstractChunkIndexBuilder;
+import io.aiven.kafka.tieredstorage.manifest.index.ChunkIndex;
+import io.aiven.kafka.tieredstorage.manifest.index.FixedSizeChunkIndexBuilder;
+import io.aiven.kafka.tieredstorage.manifest.index.VariableSizeChunkIndexBuilder;
+
+/**
+ * The buffer-passing counterpart of {@link TransformFinisher}.
+ *
+ * <p>Each chunk buffer is released to the pool once its {@link InputStream} is closed,
+ * which {@link SequenceInputStream} does as soon as the stream is read to the end.
+ */
+public class BufferTransformFinisher implements Enumeration<InputStream> {
+    private final BufferTransformChunkEnumeration inner;
+    private final AbstractChunkIndexBuilder chunkIndexBuilder;
+    private final int originalFileSize;
+    private final List<TransformedChunk> transformedChunks = new ArrayList<>();
+    private ChunkIndex chunkIndex = null;
+
+    public BufferTransformFinisher(final BufferTransformChunkEnumeration inner, final int originalFileSize) {
+        this.inner = Objects.requireNonNull(inner, "inner cannot be null");
+        this.originalFileSize = originalFileSize;
+
+        if (originalFileSize < 0) {
+            throw new IllegalArgumentException(
+                "originalFileSize must be non-negative, " + originalFileSize + " given");
+        }
+
+        final Integer transformedChunkSize = inner.transformedChunkSize();
+        if (originalFileSize == 0) {
+            this.chunkIndexBuilder = null;
+        } else if (transformedChunkSize == null) {
+            this.chunkIndexBuilder = new VariableSizeChunkIndexBuilder(inner.originalChunkSize(), originalFileSize);
+        } else {
+            this.chunkIndexBuilder = new FixedSizeChunkIndexBuilder(
+                inner.originalChunkSize(), originalFileSize, transformedChunkSize);
+        }
+    }
+
+    @Override
+    public boolean hasMoreElements() {
+        return inner.hasMoreElements();
+    }
+
+    @Override
+    public InputStream nextElement() {
+        final ByteBuffer chunk = inner.nextElement();
+        final boolean raw = inner.lastChunkRaw();
+        final OptionalInt checksum = inner.lastChunkChecksum();
+        final InputStream chunkStream = new PooledChunkInputStream(chunk, inner.bufferPool());
+        addChunk(new TransformedChunk(chunk.remaining(), raw, checksum.isPresent() ? checksum.getAsInt() : null));
+        return chunkStream;
+    }
+
+    /**
+     * Adds the chunks transformed by an interrupted transformation of the same file to the index,
+     * so the inner enumeration continues with the chunk following them.
+     *
+     * <p>Must be called before the chunks are enumerated, which {@link #toInputStream()} starts right away.
+     * The last chunk of the file can't be among them.
+     */
+    public void resume(final List<TransformedChunk> chunks) {
+        if (!transformedChunks.isEmpty()) {
+            throw new IllegalStateException("Cannot resume after chunks were transformed");
+        }
+        for (final TransformedChunk chunk : chunks) {
+            chunkIndexBuilder.addChunk(chunk.size(), chunk.raw(), chunk.checksum());
+            transformedChunks.add(chunk);
+        }
+    }
+
+    /**
+     * Returns the chunks added to the index so far, in order.
+     */
+    public List<TransformedChunk> transformedChunks() {
+        return Collections.unmodifiableList(transformedChunks);
+    }
+
+    private void addChunk(final TransformedChunk chunk) {
+        transformedChunks.add(chunk);
+        if (chunkIndexBuilder != null) {
+            if (hasMoreElements()) {
+                this.chunkIndexBuilder.addChunk(chunk.size(), chunk.raw(), chunk.checksum());
+            } else {
+                this.chunkIndex = this.chunkIndexBuilder.finish(chunk.size(), chunk.raw(), chunk.checksum());
+            }
+        }
+    }
+
+    public ChunkIndex chunkIndex() {
+        if (chunkIndex == null && originalFileSize > 0) {
+            throw new IllegalStateException("Chunk index was not built, was finisher used?");
+        }
+        return this.chunkIndex;
+    }
+
+    public InputStream toInputStream() {
+        return new SequenceInputStream(this);
+    }
+}
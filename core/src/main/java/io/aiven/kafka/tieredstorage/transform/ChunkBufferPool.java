@@ -0,0 +1,116 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The pool of chunk buffers reused between chunks and segment uploads.
+ *
+ * <p>All pooled buffers have the same capacity, which is supposed to fit a chunk after all the transformations.
+ * Buffers are allocated on demand and never block the caller; at most {@code maxPooledBuffers} of them
+ * are retained when released. Requests for larger buffers are served with non-pooled buffers,
+ * which are just dropped when released.
+ *
+ * <p>The pool doesn't limit the number of buffers in use, which is up to its users. Acquisitions served
+ * with a newly allocated buffer are counted as misses; many of them mean that the pool is too small.
+ *
+ * <p>Buffers must not be used after they are released. The pool is thread-safe.
+ */
+public class ChunkBufferPool {
+    private final int bufferSize;
+    private final boolean direct;
+    private final BlockingQueue<ByteBuffer> freeBuffers;
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxPooledBuffers the maximum number of retained free buffers.
+     * @param bufferSize       the capacity of pooled buffers.
+     * @param direct           whether to allocate direct buffers instead of heap ones.
+     */
+    public ChunkBufferPool(final int maxPooledBuffers, final int bufferSize, final boolean direct) {
+        if (maxPooledBuffers < 1) {
+            throw new IllegalArgumentException(
+                "maxPooledBuffers must be positive, " + maxPooledBuffers + " given");
+        }
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be positive, " + bufferSize + " given");
+        }
+        this.bufferSize = bufferSize;
+        this.direct = direct;
+        this.freeBuffers = new ArrayBlockingQueue<>(maxPooledBuffers);
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    public boolean direct() {
+        return direct;
+    }
+
+    /**
+     * Returns a buffer of at least the requested capacity, with the position 0 and the limit at the capacity.
+     */
+    public ByteBuffer acquire(final int minCapacity) {
+        if (minCapacity > bufferSize) {
+            misses.increment();
+            return allocate(minCapacity);
+        }
+        final ByteBuffer buffer = freeBuffers.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        misses.increment();
+        return allocate(bufferSize);
+    }
+
+    /**
+     * Returns the buffer to the pool.
+     *
+     * <p>It may be a duplicate of the acquired buffer, but not a slice of it.
+     */
+    public void release(final ByteBuffer buffer) {
+        if (buffer.capacity() != bufferSize || buffer.isDirect() != direct || buffer.isReadOnly()) {
+            return;
+        }
+        buffer.clear();
+        freeBuffers.offer(buffer);
+    }
+
+    /**
+     * Returns the number of free buffers retained for reuse.
+     */
+    public int pooledBuffers() {
+        return freeBuffers.size();
+    }
+
+    /**
+     * Returns the number of acquisitions that allocated a buffer, as no free one was retained or fit.
+     */
+    public long missesTotal() {
+        return misses.sum();
+    }
+
+    private ByteBuffer allocate(final int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+}
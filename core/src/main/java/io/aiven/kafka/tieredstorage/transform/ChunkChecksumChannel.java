@@ -0,0 +1,123 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+/**
+ * The channel that calculates the CRC32C checksums of the chunks of a file while it's read,
+ * for files uploaded as is, i.e. without going through the chunk transformations.
+ */
+public class ChunkChecksumChannel implements ReadableByteChannel {
+    // The buffer files are read through by {@link #checksums(Path, int, int)}.
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel inner;
+    private final int chunkSize;
+    private final long fileSize;
+    private final int[] checksums;
+    private final CRC32C crc = new CRC32C();
+
+    private long position = 0;
+    private int chunksCompleted = 0;
+
+    /**
+     * @param inner     the channel to read the file from, positioned at the start of the file.
+     * @param chunkSize the size of all chunks but the last one.
+     * @param fileSize  the size of the file.
+     */
+    public ChunkChecksumChannel(final ReadableByteChannel inner, final int chunkSize, final int fileSize) {
+        this.inner = Objects.requireNonNull(inner, "inner cannot be null");
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive, " + chunkSize + " given");
+        }
+        if (fileSize < 0) {
+            throw new IllegalArgumentException("fileSize must be non-negative, " + fileSize + " given");
+        }
+        this.chunkSize = chunkSize;
+        this.fileSize = fileSize;
+        this.checksums = new int[fileSize / chunkSize + (fileSize % chunkSize == 0 ? 0 : 1)];
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        final int start = dst.position();
+        final int read = inner.read(dst);
+        if (read > 0) {
+            final ByteBuffer data = dst.duplicate();
+            data.position(start).limit(start + read);
+            update(data);
+        }
+        return read;
+    }
+
+    private void update(final ByteBuffer data) {
+        while (data.hasRemaining()) {
+            final int chunkRemaining = chunkSize - (int) (position % chunkSize);
+            final ByteBuffer chunkPart = data.duplicate();
+            chunkPart.limit(chunkPart.position() + Math.min(chunkRemaining, data.remaining()));
+            final int length = chunkPart.remaining();
+            crc.update(chunkPart);
+            data.position(data.position() + length);
+            position += length;
+            if ((position % chunkSize == 0 || position == fileSize) && chunksCompleted < checksums.length) {
+                checksums[chunksCompleted++] = (int) crc.getValue();
+                crc.reset();
+            }
+        }
+    }
+
+    /**
+     * Returns the checksums of all chunks, or {@code null} if the file wasn't read exactly to its end.
+     */
+    public int[] checksums() {
+        return position == fileSize && chunksCompleted == checksums.length ? checksums.clone() : null;
+    }
+
+    /**
+     * Reads the file to calculate the checksums of its chunks.
+     *
+     * @return the checksums of all chunks, or {@code null} if the file doesn't have the given size.
+     */
+    public static int[] checksums(final Path file, final int chunkSize, final int fileSize) throws IOException {
+        try (final var channel = new ChunkChecksumChannel(
+            FileChannel.open(file, StandardOpenOption.READ), chunkSize, fileSize)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.clear();
+            }
+            return channel.checksums();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return inner.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        inner.close();
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2023 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+/**
+ * Thrown when a de-transformed chunk doesn't match the CRC32C checksum recorded for it in the chunk index.
+ */
+public class ChunkChecksumMismatchException extends RuntimeException {
+    private final int chunkId;
+
+    public ChunkChecksumMismatchException(final int chunkId, final int expectedChecksum, final int checksum) {
+        super("Chunk " + chunkId + " checksum mismatch: expected " + Integer.toHexString(expectedChecksum)
+            + ", got " + Integer.toHexString(checksum));
+        this.chunkId = chunkId;
+    }
+
+    public int chunkId() {
+        return chunkId;
+    }
+}
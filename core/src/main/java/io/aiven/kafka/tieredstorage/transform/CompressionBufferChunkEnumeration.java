@@ -0,0 +1,177 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.OptionalInt;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdDictCompress;
+
+import static io.aiven.kafka.tieredstorage.transform.CompressionChunkEnumeration.LZ4_COMPRESSOR;
+import static io.aiven.kafka.tieredstorage.transform.CompressionChunkEnumeration.LZ4_ORIGINAL_SIZE_LENGTH;
+
+/**
+ * The buffer-passing counterpart of {@link CompressionChunkEnumeration}, producing the same compressed chunks.
+ *
+ * <p>Each chunk is compressed into a buffer from the pool, after {@code headroom} bytes.
+ * The buffer of the original chunk is released, unless the chunk is stored raw.
+ */
+public class CompressionBufferChunkEnumeration implements BufferTransformChunkEnumeration {
+    private final BufferTransformChunkEnumeration inner;
+    private final CompressionCodec codec;
+    private final int level;
+    private final ZstdDictCompress dictionary;
+    private final Double rawFallbackMargin;
+    private final int headroom;
+    private final ContextPool<CompressionContext> contextPool;
+
+    private boolean lastChunkRaw = false;
+
+    /**
+     * @param headroom the number of bytes to leave free in front of each compressed chunk.
+     * @see CompressionChunkEnumeration#CompressionChunkEnumeration(TransformChunkEnumeration, CompressionCodec,
+     *     int, ZstdDictCompress, Double, ContextPool)
+     */
+    public CompressionBufferChunkEnumeration(final BufferTransformChunkEnumeration inner,
+                                             final CompressionCodec codec,
+                                             final int level,
+                                             final ZstdDictCompress dictionary,
+                                             final Double rawFallbackMargin,
+                                             final int headroom,
+                                             final ContextPool<CompressionContext> contextPool) {
+        this.inner = Objects.requireNonNull(inner, "inner cannot be null");
+        this.codec = Objects.requireNonNull(codec, "codec cannot be null");
+        if (dictionary != null && codec != CompressionCodec.ZSTD) {
+            throw new IllegalArgumentException("Dictionary is supported only by Zstd, " + codec.value + " given");
+        }
+        if (rawFallbackMargin != null && (rawFallbackMargin < 0 || rawFallbackMargin > 1)) {
+            throw new IllegalArgumentException(
+                "rawFallbackMargin must be between 0 and 1, " + rawFallbackMargin + " given");
+        }
+        if (headroom < 0) {
+            throw new IllegalArgumentException("headroom must be non-negative, " + headroom + " given");
+        }
+        this.level = level;
+        this.dictionary = dictionary;
+        this.rawFallbackMargin = rawFallbackMargin;
+        this.headroom = headroom;
+        this.contextPool = Objects.requireNonNull(contextPool, "contextPool cannot be null");
+    }
+
+    @Override
+    public int originalChunkSize() {
+        return inner.originalChunkSize();
+    }
+
+    @Override
+    public Integer transformedChunkSize() {
+        // Variable transformed chunk size.
+        return null;
+    }
+
+    @Override
+    public ChunkBufferPool bufferPool() {
+        return inner.bufferPool();
+    }
+
+    @Override
+    public boolean lastChunkRaw() {
+        return lastChunkRaw;
+    }
+
+    @Override
+    public OptionalInt lastChunkChecksum() {
+        return inner.lastChunkChecksum();
+    }
+
+    @Override
+    public boolean hasMoreElements() {
+        return inner.hasMoreElements();
+    }
+
+    @Override
+    public ByteBuffer nextElement() {
+        final ByteBuffer chunk = inner.nextElement();
+        final ChunkBufferPool bufferPool = bufferPool();
+        final int originalSize = chunk.remaining();
+        final ByteBuffer output = bufferPool.acquire(headroom + maxCompressedSize(codec, originalSize));
+        final int compressedSize;
+        try {
+            compressedSize = codec == CompressionCodec.LZ4
+                ? compressLz4(chunk, output)
+                : compressZstd(chunk, output);
+        } catch (final RuntimeException e) {
+            bufferPool.release(chunk);
+            bufferPool.release(output);
+            throw e;
+        }
+
+        lastChunkRaw = CompressionChunkEnumeration.isCompressionIneffective(
+            rawFallbackMargin, originalSize, compressedSize);
+        if (lastChunkRaw) {
+            bufferPool.release(output);
+            return chunk;
+        }
+        bufferPool.release(chunk);
+        output.position(headroom);
+        output.limit(headroom + compressedSize);
+        return output;
+    }
+
+    /**
+     * Returns the maximum size of a chunk compressed with the codec.
+     */
+    public static int maxCompressedSize(final CompressionCodec codec, final int originalSize) {
+        return codec == CompressionCodec.LZ4
+            ? LZ4_ORIGINAL_SIZE_LENGTH + LZ4_COMPRESSOR.maxCompressedLength(originalSize)
+            : (int) Zstd.compressBound(originalSize);
+    }
+
+    private int compressZstd(final ByteBuffer chunk, final ByteBuffer output) {
+        final boolean direct = chunk.isDirect() && output.isDirect();
+        if (!direct && !(chunk.hasArray() && output.hasArray())) {
+            throw new IllegalArgumentException("Chunk and output buffers must be both direct or both heap ones");
+        }
+        final int outputSize = output.capacity() - headroom;
+        final CompressionContext context = contextPool.acquire();
+        try {
+            final ZstdCompressCtx compressCtx = context.zstdCompressCtx(level, dictionary);
+            if (direct) {
+                return compressCtx.compressDirectByteBuffer(
+                    output, headroom, outputSize, chunk, chunk.position(), chunk.remaining());
+            }
+            return compressCtx.compressByteArray(
+                output.array(), output.arrayOffset() + headroom, outputSize,
+                chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+        } finally {
+            contextPool.release(context);
+        }
+    }
+
+    private int compressLz4(final ByteBuffer chunk, final ByteBuffer output) {
+        // The original size is needed to allocate the buffer for decompression.
+        output.putInt(headroom, chunk.remaining());
+        final int dataOffset = headroom + LZ4_ORIGINAL_SIZE_LENGTH;
+        final int compressedSize = LZ4_COMPRESSOR.compress(
+            chunk, chunk.position(), chunk.remaining(), output, dataOffset, output.capacity() - dataOffset);
+        return LZ4_ORIGINAL_SIZE_LENGTH + compressedSize;
+    }
+}
@@ -16,18 +16,95 @@
 
 package io.aiven.kafka.tieredstorage.transform;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.OptionalInt;
 
-import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
 
 /**
- * The chunk transformation that does Zstd compression.
+ * The chunk transformation that does compression with the chosen {@link CompressionCodec}.
+ *
+ * <p>Zstd chunks are regular Zstd frames with the content size in the header,
+ * optionally compressed with a dictionary, which is then needed for decompression.
+ * LZ4 chunks are LZ4 blocks prefixed with the 4-byte big-endian original size.
+ *
+ * <p>If a raw fallback margin is set, chunks that compression doesn't shrink by at least this fraction
+ * of their size are returned raw, i.e. uncompressed, and reported so by {@link #lastChunkRaw()}.
+ * This is typical for chunks of already compressed batches.
+ *
+ * <p>The native compression context and the output buffer are expensive to set up for every chunk,
+ * so they are taken from a {@link ContextPool} for each chunk. The output buffer fits any compressed chunk,
+ * so the compressed chunk is copied from it to an array of its size, which is returned to the caller.
  */
 public class CompressionChunkEnumeration implements TransformChunkEnumeration {
+    static final LZ4Compressor LZ4_COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    static final int LZ4_ORIGINAL_SIZE_LENGTH = 4;
+
     private final TransformChunkEnumeration inner;
+    private final CompressionCodec codec;
+    private final int level;
+    private final ZstdDictCompress dictionary;
+    private final Double rawFallbackMargin;
+    private final ContextPool<CompressionContext> contextPool;
+
+    private boolean lastChunkRaw = false;
 
     public CompressionChunkEnumeration(final TransformChunkEnumeration inner) {
+        this(inner, CompressionCodec.ZSTD, CompressionCodec.ZSTD_DEFAULT_LEVEL);
+    }
+
+    public CompressionChunkEnumeration(final TransformChunkEnumeration inner,
+                                       final CompressionCodec codec,
+                                       final int level) {
+        this(inner, codec, level, null, null);
+    }
+
+    /**
+     * @param inner the enumeration of chunks to compress.
+     * @param codec the compression codec.
+     * @param level the compression level, used only by Zstd.
+     * @param dictionary the Zstd dictionary or {@code null} to compress without a dictionary.
+     *                   If present, the compression level of the dictionary is used.
+     * @param rawFallbackMargin the minimum fraction of the chunk size that compression must save
+     *                          for the chunk to be stored compressed;
+     *                          or {@code null} to store all chunks compressed.
+     */
+    public CompressionChunkEnumeration(final TransformChunkEnumeration inner,
+                                       final CompressionCodec codec,
+                                       final int level,
+                                       final ZstdDictCompress dictionary,
+                                       final Double rawFallbackMargin) {
+        this(inner, codec, level, dictionary, rawFallbackMargin, CompressionContext.pool(0));
+    }
+
+    /**
+     * @param contextPool the pool of compression contexts, which are not retained between chunks without it.
+     * @see #CompressionChunkEnumeration(TransformChunkEnumeration, CompressionCodec, int, ZstdDictCompress, Double)
+     */
+    public CompressionChunkEnumeration(final TransformChunkEnumeration inner,
+                                       final CompressionCodec codec,
+                                       final int level,
+                                       final ZstdDictCompress dictionary,
+                                       final Double rawFallbackMargin,
+                                       final ContextPool<CompressionContext> contextPool) {
         this.inner = Objects.requireNonNull(inner, "inner cannot be null");
+        this.codec = Objects.requireNonNull(codec, "codec cannot be null");
+        if (dictionary != null && codec != CompressionCodec.ZSTD) {
+            throw new IllegalArgumentException("Dictionary is supported only by Zstd, " + codec.value + " given");
+        }
+        if (rawFallbackMargin != null && (rawFallbackMargin < 0 || rawFallbackMargin > 1)) {
+            throw new IllegalArgumentException(
+                "rawFallbackMargin must be between 0 and 1, " + rawFallbackMargin + " given");
+        }
+        this.level = level;
+        this.dictionary = dictionary;
+        this.rawFallbackMargin = rawFallbackMargin;
+        this.contextPool = Objects.requireNonNull(contextPool, "contextPool cannot be null");
     }
 
     @Override
@@ -46,19 +123,64 @@ public class CompressionChunkEnumeration implements TransformChunkEnumeration {
         return inner.hasMoreElements();
     }
 
+    @Override
+    public boolean lastChunkRaw() {
+        return lastChunkRaw;
+    }
+
+    @Override
+    public OptionalInt lastChunkChecksum() {
+        return inner.lastChunkChecksum();
+    }
+
     @Override
     public byte[] nextElement() {
         final var chunk = inner.nextElement();
-        try (final ZstdCompressCtx compressCtx = new ZstdCompressCtx()) {
-            try {
-                compressCtx.setPledgedSrcSize(chunk.length);
-            } catch (final NoSuchMethodError e) {
-                // This may happen if the Zstd library is old enough.
-                // It's OK if we just skip here, because the operation is advisory.
+        final CompressionContext context = contextPool.acquire();
+        try {
+            final int compressedSize = codec == CompressionCodec.LZ4
+                ? compressLz4(chunk, context)
+                : compressZstd(chunk, context);
+            lastChunkRaw = isCompressionIneffective(rawFallbackMargin, chunk.length, compressedSize);
+            if (lastChunkRaw) {
+                return chunk;
             }
-            // Allow the de-transformation to know the content size and allocate buffers accordingly.
-            compressCtx.setContentSize(true);
-            return compressCtx.compress(chunk);
+            return Arrays.copyOf(context.outputBuffer(compressedSize), compressedSize);
+        } finally {
+            contextPool.release(context);
         }
     }
+
+    static boolean isCompressionIneffective(final Double rawFallbackMargin,
+                                            final int originalSize,
+                                            final int compressedSize) {
+        // Empty chunks can't be stored raw, as an empty transformed chunk marks the end of the stream.
+        return rawFallbackMargin != null
+            && originalSize > 0
+            && compressedSize >= originalSize * (1 - rawFallbackMargin);
+    }
+
+    /**
+     * @return the compressed size; the compressed chunk is in the output buffer.
+     */
+    private int compressZstd(final byte[] chunk, final CompressionContext context) {
+        final byte[] output = context.outputBuffer((int) Zstd.compressBound(chunk.length));
+        // The frame is compressed in one go, so the content size is known and written to the frame header
+        // without setting the pledged source size.
+        return context.zstdCompressCtx(level, dictionary)
+            .compressByteArray(output, 0, output.length, chunk, 0, chunk.length);
+    }
+
+    /**
+     * @return the compressed size; the compressed chunk is in the output buffer.
+     */
+    private static int compressLz4(final byte[] chunk, final CompressionContext context) {
+        final byte[] output = context.outputBuffer(
+            LZ4_ORIGINAL_SIZE_LENGTH + LZ4_COMPRESSOR.maxCompressedLength(chunk.length));
+        // The original size is needed to allocate the buffer for decompression.
+        ByteBuffer.wrap(output).putInt(chunk.length);
+        final int compressedSize = LZ4_COMPRESSOR.compress(
+            chunk, 0, chunk.length, output, LZ4_ORIGINAL_SIZE_LENGTH, output.length - LZ4_ORIGINAL_SIZE_LENGTH);
+        return LZ4_ORIGINAL_SIZE_LENGTH + compressedSize;
+    }
 }
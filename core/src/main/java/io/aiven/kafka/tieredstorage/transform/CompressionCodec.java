@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.util.Arrays;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * The compression codecs that can be used for chunks of log segments.
+ */
+public enum CompressionCodec {
+    ZSTD("zstd"),
+    LZ4("lz4");
+
+    public static final int ZSTD_DEFAULT_LEVEL = 3;
+
+    @JsonValue
+    public final String value;
+
+    CompressionCodec(final String value) {
+        this.value = value;
+    }
+
+    @JsonCreator
+    public static CompressionCodec forValue(final String value) {
+        for (final CompressionCodec codec : values()) {
+            if (codec.value.equals(value)) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown compression codec " + value);
+    }
+
+    public static String[] names() {
+        return Arrays.stream(values())
+            .map(codec -> codec.value)
+            .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdDictCompress;
+
+/**
+ * The native Zstd compression context and the output buffer chunks are compressed into,
+ * reused between chunks through a {@link ContextPool}.
+ *
+ * <p>It must be used by one thread at a time.
+ */
+public final class CompressionContext {
+    private ZstdCompressCtx zstdCompressCtx = null;
+    private byte[] outputBuffer = new byte[0];
+
+    /**
+     * Returns a new pool of compression contexts.
+     *
+     * @param maxPooledContexts the maximum number of retained free contexts; 0 not to retain any.
+     */
+    public static ContextPool<CompressionContext> pool(final int maxPooledContexts) {
+        return new ContextPool<>(maxPooledContexts, CompressionContext::new, CompressionContext::close);
+    }
+
+    /**
+     * Returns the Zstd compression context set up with the parameters.
+     */
+    ZstdCompressCtx zstdCompressCtx(final int level, final ZstdDictCompress dictionary) {
+        if (zstdCompressCtx == null) {
+            zstdCompressCtx = new ZstdCompressCtx();
+        }
+        // The context is shared with other enumerations that may use different parameters and dictionary.
+        // Resetting them is cheap, the internal buffers are kept.
+        zstdCompressCtx.reset();
+        // Allow the de-transformation to know the content size and allocate buffers accordingly.
+        zstdCompressCtx.setContentSize(true);
+        zstdCompressCtx.setLevel(level);
+        if (dictionary != null) {
+            zstdCompressCtx.loadDict(dictionary);
+        }
+        return zstdCompressCtx;
+    }
+
+    /**
+     * Returns the output buffer of at least the required size. Its content is undefined.
+     */
+    byte[] outputBuffer(final int requiredSize) {
+        if (outputBuffer.length < requiredSize) {
+            outputBuffer = new byte[requiredSize];
+        }
+        return outputBuffer;
+    }
+
+    void close() {
+        if (zstdCompressCtx != null) {
+            zstdCompressCtx.close();
+            zstdCompressCtx = null;
+        }
+        outputBuffer = new byte[0];
+    }
+}
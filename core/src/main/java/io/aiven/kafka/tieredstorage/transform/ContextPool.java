@@ -0,0 +1,93 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The pool of contexts holding native memory, e.g. compression contexts, reused between chunks and segments
+ * as they are expensive to create.
+ *
+ * <p>Contexts are created on demand and never block the caller; at most {@code maxPooledContexts} of them
+ * are retained when released, the others are closed right away. Closing the pool closes the retained contexts,
+ * and the ones released afterwards. Contexts are not closed otherwise, so they must be released.
+ *
+ * <p>The pool is thread-safe.
+ */
+public class ContextPool<T> implements AutoCloseable {
+    private final int maxPooledContexts;
+    private final Supplier<T> factory;
+    private final Consumer<T> closer;
+    private final Deque<T> freeContexts = new ArrayDeque<>();
+    private boolean closed = false;
+
+    /**
+     * @param maxPooledContexts the maximum number of retained free contexts; 0 not to retain any.
+     * @param factory           creates a context.
+     * @param closer            frees the native memory of a context.
+     */
+    public ContextPool(final int maxPooledContexts, final Supplier<T> factory, final Consumer<T> closer) {
+        if (maxPooledContexts < 0) {
+            throw new IllegalArgumentException(
+                "maxPooledContexts must be non-negative, " + maxPooledContexts + " given");
+        }
+        this.maxPooledContexts = maxPooledContexts;
+        this.factory = Objects.requireNonNull(factory, "factory cannot be null");
+        this.closer = Objects.requireNonNull(closer, "closer cannot be null");
+    }
+
+    public T acquire() {
+        final T context;
+        synchronized (this) {
+            context = freeContexts.pollFirst();
+        }
+        return context != null ? context : factory.get();
+    }
+
+    public void release(final T context) {
+        synchronized (this) {
+            if (!closed && freeContexts.size() < maxPooledContexts) {
+                freeContexts.addFirst(context);
+                return;
+            }
+        }
+        closer.accept(context);
+    }
+
+    synchronized int pooledContexts() {
+        return freeContexts.size();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        T context;
+        while ((context = pollFree()) != null) {
+            closer.accept(context);
+        }
+    }
+
+    private synchronized T pollFree() {
+        return freeContexts.pollFirst();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.OptionalInt;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdDictDecompress;
+
+import static io.aiven.kafka.tieredstorage.transform.CompressionChunkEnumeration.LZ4_ORIGINAL_SIZE_LENGTH;
+import static io.aiven.kafka.tieredstorage.transform.DecompressionChunkEnumeration.LZ4_DECOMPRESSOR;
+
+/**
+ * The buffer-passing counterpart of {@link DecompressionChunkEnumeration}.
+ *
+ * <p>Each chunk is decompressed into a buffer from the pool and the buffer of the compressed chunk is released.
+ * Chunks reported as raw by the inner enumeration are returned as is.
+ */
+public class DecompressionBufferChunkEnumeration implements BufferDetransformChunkEnumeration {
+    private final BufferDetransformChunkEnumeration inner;
+    private final CompressionCodec codec;
+    private final DecompressionDictionary dictionary;
+
+    /**
+     * @see DecompressionChunkEnumeration#DecompressionChunkEnumeration(DetransformChunkEnumeration,
+     *     CompressionCodec, DecompressionDictionary)
+     */
+    public DecompressionBufferChunkEnumeration(final BufferDetransformChunkEnumeration inner,
+                                               final CompressionCodec codec,
+                                               final DecompressionDictionary dictionary) {
+        this.inner = Objects.requireNonNull(inner, "inner cannot be null");
+        this.codec = Objects.requireNonNull(codec, "codec cannot be null");
+        if (dictionary != null && codec != CompressionCodec.ZSTD) {
+            throw new IllegalArgumentException("Dictionary is supported only by Zstd, " + codec.value + " given");
+        }
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public ChunkBufferPool bufferPool() {
+        return inner.bufferPool();
+    }
+
+    @Override
+    public OptionalInt lastChunkChecksum() {
+        return inner.lastChunkChecksum();
+    }
+
+    @Override
+    public int lastChunkId() {
+        return inner.lastChunkId();
+    }
+
+    @Override
+    public boolean hasMoreElements() {
+        return inner.hasMoreElements();
+    }
+
+    @Override
+    public ByteBuffer nextElement() {
+        final ByteBuffer chunk = inner.nextElement();
+        if (inner.lastChunkRaw()) {
+            return chunk;
+        }
+        final ChunkBufferPool bufferPool = bufferPool();
+        ByteBuffer output = null;
+        try {
+            final int decompressedSize = decompressedSize(chunk);
+            output = bufferPool.acquire(decompressedSize);
+            final int actualSize = codec == CompressionCodec.LZ4
+                ? decompressLz4(chunk, output, decompressedSize)
+                : decompressZstd(chunk, output, decompressedSize);
+            if (actualSize != decompressedSize) {
+                throw new RuntimeException(
+                    "Invalid decompressed size: " + actualSize + ", expected " + decompressedSize);
+            }
+            output.limit(decompressedSize);
+            return output;
+        } catch (final RuntimeException e) {
+            if (output != null) {
+                bufferPool.release(output);
+            }
+            throw e;
+        } finally {
+            bufferPool.release(chunk);
+        }
+    }
+
+    private int decompressedSize(final ByteBuffer chunk) {
+        final long decompressedSize;
+        if (codec == CompressionCodec.LZ4) {
+            if (chunk.remaining() < LZ4_ORIGINAL_SIZE_LENGTH) {
+                throw new RuntimeException("Invalid LZ4 chunk size: " + chunk.remaining());
+            }
+            decompressedSize = chunk.getInt(chunk.position());
+        } else if (chunk.isDirect()) {
+            decompressedSize = Zstd.decompressedDirectByteBufferSize(chunk, chunk.position(), chunk.remaining());
+        } else {
+            decompressedSize = Zstd.decompressedSize(
+                chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+        }
+        if (decompressedSize < 0 || decompressedSize > Integer.MAX_VALUE) {
+            throw new RuntimeException("Invalid decompressed size: " + decompressedSize);
+        }
+        return (int) decompressedSize;
+    }
+
+    private int decompressZstd(final ByteBuffer chunk, final ByteBuffer output, final int decompressedSize) {
+        final boolean direct = chunk.isDirect() && output.isDirect();
+        if (!direct && !(chunk.hasArray() && output.hasArray())) {
+            throw new IllegalArgumentException("Chunk and output buffers must be both direct or both heap ones");
+        }
+        final ZstdDictDecompress zstdDictionary = dictionary != null ? dictionary.acquire() : null;
+        final ZstdDecompressCtx decompressCtx = DecompressionChunkEnumeration.DECOMPRESS_CTX_POOL.acquire();
+        try {
+            DecompressionChunkEnumeration.setUp(decompressCtx, zstdDictionary);
+            if (direct) {
+                return decompressCtx.decompressDirectByteBuffer(
+                    output, 0, decompressedSize, chunk, chunk.position(), chunk.remaining());
+            }
+            return decompressCtx.decompressByteArray(
+                output.array(), output.arrayOffset(), decompressedSize,
+                chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+        } finally {
+            DecompressionChunkEnumeration.DECOMPRESS_CTX_POOL.release(decompressCtx);
+            if (dictionary != null) {
+                dictionary.release();
+            }
+        }
+    }
+
+    private static int decompressLz4(final ByteBuffer chunk, final ByteBuffer output, final int decompressedSize) {
+        final int dataOffset = chunk.position() + LZ4_ORIGINAL_SIZE_LENGTH;
+        return LZ4_DECOMPRESSOR.decompress(
+            chunk, dataOffset, chunk.limit() - dataOffset, output, 0, decompressedSize);
+    }
+}
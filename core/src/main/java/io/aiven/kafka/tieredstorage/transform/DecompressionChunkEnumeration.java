@@ -16,18 +16,55 @@
 
 package io.aiven.kafka.tieredstorage.transform;
 
+import java.nio.ByteBuffer;
 import java.util.Objects;
+import java.util.OptionalInt;
 
 import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdDictDecompress;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
 
 /**
- * The chunk de-transformation that does Zstd decompression.
+ * The chunk de-transformation that does decompression with the chosen {@link CompressionCodec}.
+ *
+ * <p>Chunks reported as raw by the inner enumeration are returned as is.
+ *
+ * @see CompressionChunkEnumeration
  */
 public class DecompressionChunkEnumeration implements DetransformChunkEnumeration {
+    // Shared by all fetches rather than kept per thread, so contexts of idle threads aren't retained.
+    // Decompression is CPU-bound, so more contexts than processors are rarely used at once.
+    static final ContextPool<ZstdDecompressCtx> DECOMPRESS_CTX_POOL = new ContextPool<>(
+        Runtime.getRuntime().availableProcessors(), ZstdDecompressCtx::new, ZstdDecompressCtx::close);
+
+    static final LZ4SafeDecompressor LZ4_DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
     private final DetransformChunkEnumeration inner;
+    private final CompressionCodec codec;
+    private final DecompressionDictionary dictionary;
 
     public DecompressionChunkEnumeration(final DetransformChunkEnumeration inner) {
+        this(inner, CompressionCodec.ZSTD);
+    }
+
+    public DecompressionChunkEnumeration(final DetransformChunkEnumeration inner, final CompressionCodec codec) {
+        this(inner, codec, null);
+    }
+
+    /**
+     * @param dictionary the Zstd dictionary the chunks were compressed with or {@code null} if none.
+     */
+    public DecompressionChunkEnumeration(final DetransformChunkEnumeration inner,
+                                         final CompressionCodec codec,
+                                         final DecompressionDictionary dictionary) {
         this.inner = Objects.requireNonNull(inner, "inner cannot be null");
+        this.codec = Objects.requireNonNull(codec, "codec cannot be null");
+        if (dictionary != null && codec != CompressionCodec.ZSTD) {
+            throw new IllegalArgumentException("Dictionary is supported only by Zstd, " + codec.value + " given");
+        }
+        this.dictionary = dictionary;
     }
 
     @Override
@@ -38,10 +75,81 @@ public class DecompressionChunkEnumeration implements DetransformChunkEnumeratio
     @Override
     public byte[] nextElement() {
         final byte[] chunk = inner.nextElement();
+        if (inner.lastChunkRaw()) {
+            return chunk;
+        }
+        if (codec == CompressionCodec.LZ4) {
+            return decompressLz4(chunk);
+        }
+        return decompressZstd(chunk);
+    }
+
+    @Override
+    public OptionalInt lastChunkChecksum() {
+        return inner.lastChunkChecksum();
+    }
+
+    @Override
+    public int lastChunkId() {
+        return inner.lastChunkId();
+    }
+
+    private byte[] decompressZstd(final byte[] chunk) {
         final long decompressedSize = Zstd.decompressedSize(chunk);
         if (decompressedSize < 0) {
             throw new RuntimeException("Invalid decompressed size: " + decompressedSize);
         }
-        return Zstd.decompress(chunk, (int) decompressedSize);
+        final byte[] result = new byte[(int) decompressedSize];
+        // The dictionary is held while it's used, so it's not freed if it's evicted meanwhile.
+        final ZstdDictDecompress zstdDictionary = dictionary != null ? dictionary.acquire() : null;
+        final ZstdDecompressCtx decompressCtx = DECOMPRESS_CTX_POOL.acquire();
+        final int actualSize;
+        try {
+            actualSize = setUp(decompressCtx, zstdDictionary)
+                .decompressByteArray(result, 0, result.length, chunk, 0, chunk.length);
+        } finally {
+            DECOMPRESS_CTX_POOL.release(decompressCtx);
+            if (dictionary != null) {
+                dictionary.release();
+            }
+        }
+        if (actualSize != decompressedSize) {
+            throw new RuntimeException(
+                "Invalid decompressed size: " + actualSize + ", expected " + decompressedSize);
+        }
+        return result;
+    }
+
+    /**
+     * Sets up the decompression context acquired from {@link #DECOMPRESS_CTX_POOL} with the dictionary.
+     */
+    static ZstdDecompressCtx setUp(final ZstdDecompressCtx decompressCtx, final ZstdDictDecompress dictionary) {
+        // The context is shared with other enumerations that may use a different dictionary.
+        // Resetting it is cheap, the internal buffers are kept.
+        decompressCtx.reset();
+        if (dictionary != null) {
+            decompressCtx.loadDict(dictionary);
+        }
+        return decompressCtx;
+    }
+
+    private static byte[] decompressLz4(final byte[] chunk) {
+        if (chunk.length < CompressionChunkEnumeration.LZ4_ORIGINAL_SIZE_LENGTH) {
+            throw new RuntimeException("Invalid LZ4 chunk size: " + chunk.length);
+        }
+        final int decompressedSize = ByteBuffer.wrap(chunk).getInt();
+        if (decompressedSize < 0) {
+            throw new RuntimeException("Invalid decompressed size: " + decompressedSize);
+        }
+        final byte[] result = new byte[decompressedSize];
+        final int actualSize = LZ4_DECOMPRESSOR.decompress(
+            chunk, CompressionChunkEnumeration.LZ4_ORIGINAL_SIZE_LENGTH,
+            chunk.length - CompressionChunkEnumeration.LZ4_ORIGINAL_SIZE_LENGTH,
+            result, 0);
+        if (actualSize != decompressedSize) {
+            throw new RuntimeException(
+                "Invalid decompressed size: " + actualSize + ", expected " + decompressedSize);
+        }
+        return result;
     }
 }
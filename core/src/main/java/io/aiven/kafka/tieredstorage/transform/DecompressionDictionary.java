@@ -0,0 +1,76 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.util.Objects;
+
+import com.github.luben.zstd.ZstdDictDecompress;
+
+/**
+ * A Zstd decompression dictionary shared by concurrent decompressions.
+ *
+ * <p>Decompression contexts refer to the native dictionary while decompressing with it,
+ * so it's freed only when it's closed and no decompression uses it.
+ * A closed dictionary can still be used: it's loaded again from its content and freed after the use.
+ */
+public final class DecompressionDictionary implements AutoCloseable {
+    private final byte[] content;
+
+    private ZstdDictDecompress dictionary = null;
+    private int users = 0;
+    private boolean closed = false;
+
+    public DecompressionDictionary(final byte[] content) {
+        this.content = Objects.requireNonNull(content, "content cannot be null");
+    }
+
+    /**
+     * Returns the native dictionary, which stays loaded until {@link #release()} is called.
+     */
+    synchronized ZstdDictDecompress acquire() {
+        if (dictionary == null) {
+            dictionary = new ZstdDictDecompress(content);
+        }
+        users += 1;
+        return dictionary;
+    }
+
+    synchronized void release() {
+        if (users <= 0) {
+            throw new IllegalStateException("Dictionary is not acquired");
+        }
+        users -= 1;
+        freeIfUnused();
+    }
+
+    synchronized boolean loaded() {
+        return dictionary != null;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        freeIfUnused();
+    }
+
+    private void freeIfUnused() {
+        if (closed && users == 0 && dictionary != null) {
+            dictionary.close();
+            dictionary = null;
+        }
+    }
+}
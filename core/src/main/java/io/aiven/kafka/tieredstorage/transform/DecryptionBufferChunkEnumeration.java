@@ -0,0 +1,123 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.ShortBufferException;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.function.Function;
+
+/**
+ * The buffer-passing counterpart of {@link DecryptionChunkEnumeration}.
+ *
+ * <p>The chunk is decrypted in place, over the encrypted data, which the cipher is required to support.
+ * If the cipher reports a larger output size than fits into the chunk buffer,
+ * it's decrypted into another buffer from the pool.
+ */
+public class DecryptionBufferChunkEnumeration implements BufferDetransformChunkEnumeration {
+    private final BufferDetransformChunkEnumeration inner;
+    private final int ivSize;
+    private final Function<byte[], Cipher> cipherSupplier;
+
+    /**
+     * @param cipherSupplier a function that takes the IV of an encrypted chunk, i.e. its first {@code ivSize} bytes,
+     *                       and returns the decryption cypher for it
+     */
+    public DecryptionBufferChunkEnumeration(final BufferDetransformChunkEnumeration inner,
+                                            final int ivSize,
+                                            final Function<byte[], Cipher> cipherSupplier) {
+        this.inner = Objects.requireNonNull(inner, "inner cannot be null");
+        if (ivSize <= 0) {
+            throw new IllegalArgumentException("ivSize must be positive");
+        }
+        this.ivSize = ivSize;
+        this.cipherSupplier = Objects.requireNonNull(cipherSupplier, "cipherSupplier cannot be null");
+    }
+
+    @Override
+    public ChunkBufferPool bufferPool() {
+        return inner.bufferPool();
+    }
+
+    @Override
+    public boolean lastChunkRaw() {
+        return inner.lastChunkRaw();
+    }
+
+    @Override
+    public OptionalInt lastChunkChecksum() {
+        return inner.lastChunkChecksum();
+    }
+
+    @Override
+    public int lastChunkId() {
+        return inner.lastChunkId();
+    }
+
+    @Override
+    public boolean hasMoreElements() {
+        return inner.hasMoreElements();
+    }
+
+    @Override
+    public ByteBuffer nextElement() {
+        final ByteBuffer chunk = inner.nextElement();
+        final ChunkBufferPool bufferPool = bufferPool();
+        if (chunk.remaining() < ivSize) {
+            bufferPool.release(chunk);
+            throw new RuntimeException("Invalid encrypted chunk size: " + chunk.remaining());
+        }
+        final byte[] iv = new byte[ivSize];
+        chunk.get(iv);
+        final Cipher cipher = cipherSupplier.apply(iv);
+        final int decryptedSize = cipher.getOutputSize(chunk.remaining());
+
+        final int dataPosition = chunk.position();
+        final boolean inPlace = !chunk.isReadOnly() && chunk.capacity() - dataPosition >= decryptedSize;
+        final ByteBuffer output;
+        if (inPlace) {
+            // Cipher requires distinct buffer objects even for the same memory.
+            output = chunk.duplicate();
+            output.limit(dataPosition + decryptedSize);
+        } else {
+            output = bufferPool.acquire(decryptedSize);
+            output.limit(decryptedSize);
+        }
+        final int outputPosition = output.position();
+
+        try {
+            cipher.doFinal(chunk, output);
+        } catch (final ShortBufferException | IllegalBlockSizeException | BadPaddingException e) {
+            bufferPool.release(chunk);
+            if (!inPlace) {
+                bufferPool.release(output);
+            }
+            throw new RuntimeException(e);
+        }
+        if (!inPlace) {
+            bufferPool.release(chunk);
+        }
+        output.flip();
+        output.position(outputPosition);
+        return output;
+    }
+}
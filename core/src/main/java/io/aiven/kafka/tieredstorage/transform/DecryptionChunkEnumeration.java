@@ -21,6 +21,7 @@ import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 
 import java.util.Objects;
+import java.util.OptionalInt;
 import java.util.function.Function;
 
 /**
@@ -60,4 +61,19 @@ public class DecryptionChunkEnumeration implements DetransformChunkEnumeration {
             throw new RuntimeException(e);
         }
     }
+
+    @Override
+    public boolean lastChunkRaw() {
+        return inner.lastChunkRaw();
+    }
+
+    @Override
+    public OptionalInt lastChunkChecksum() {
+        return inner.lastChunkChecksum();
+    }
+
+    @Override
+    public int lastChunkId() {
+        return inner.lastChunkId();
+    }
 }
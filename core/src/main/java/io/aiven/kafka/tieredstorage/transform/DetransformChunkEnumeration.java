@@ -17,6 +17,7 @@
 package io.aiven.kafka.tieredstorage.transform;
 
 import java.util.Enumeration;
+import java.util.OptionalInt;
 
 /**
  * The enumeration of chunks being de-transformed.
@@ -26,4 +27,34 @@ import java.util.Enumeration;
  * These implementations are supposed to be composable.
  */
 public interface DetransformChunkEnumeration extends Enumeration<byte[]> {
+    /**
+     * Returns whether the chunk returned by the last {@link #nextElement()} call is stored raw,
+     * i.e. it must not be decompressed.
+     *
+     * <p>Normally it should be propagated through the chain of de-transformations.
+     */
+    default boolean lastChunkRaw() {
+        return false;
+    }
+
+    /**
+     * Returns the expected CRC32C checksum of the original content of the chunk returned
+     * by the last {@link #nextElement()} call, if it was recorded in the chunk index.
+     *
+     * <p>Normally it should be propagated through the chain of de-transformations.
+     */
+    default OptionalInt lastChunkChecksum() {
+        return OptionalInt.empty();
+    }
+
+    /**
+     * Returns the id of the chunk returned by the last {@link #nextElement()} call, if it's known.
+     *
+     * <p>Normally it should be propagated through the chain of de-transformations.
+     *
+     * @return the chunk id; or {@code -1} if unknown.
+     */
+    default int lastChunkId() {
+        return -1;
+    }
 }
@@ -20,12 +20,16 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
 import java.util.Enumeration;
+import java.util.OptionalInt;
+import java.util.zip.CRC32C;
 
 /**
  * The detransformation finisher.
  *
  * <p>It converts enumeration of {@code byte[]} into enumeration of {@link InputStream},
  * so that it could be used in {@link SequenceInputStream}.
+ *
+ * <p>It verifies the de-transformed chunks against the CRC32C checksums recorded in the chunk index, if any.
  */
 public class DetransformFinisher implements Enumeration<InputStream> {
     private final DetransformChunkEnumeration inner;
@@ -41,8 +45,24 @@ public class DetransformFinisher implements Enumeration<InputStream> {
 
     @Override
     public InputStream nextElement() {
+        return new ByteArrayInputStream(nextChunk());
+    }
+
+    /**
+     * Returns the next de-transformed chunk, checked against its checksum if it was recorded in the chunk index.
+     */
+    public byte[] nextChunk() {
         final var chunk = inner.nextElement();
-        return new ByteArrayInputStream(chunk);
+        final OptionalInt expectedChecksum = inner.lastChunkChecksum();
+        if (expectedChecksum.isPresent()) {
+            final CRC32C crc = new CRC32C();
+            crc.update(chunk);
+            final int checksum = (int) crc.getValue();
+            if (checksum != expectedChecksum.getAsInt()) {
+                throw new ChunkChecksumMismatchException(inner.lastChunkId(), expectedChecksum.getAsInt(), checksum);
+            }
+        }
+        return chunk;
     }
 
     public InputStream toInputStream() {
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.ShortBufferException;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.function.Supplier;
+
+/**
+ * The buffer-passing counterpart of {@link EncryptionChunkEnumeration}, producing the same encrypted chunks.
+ *
+ * <p>If the chunk buffer has enough room in front of the data for the IV and after it for the cipher overhead
+ * (e.g. the GCM tag), the chunk is encrypted in place, which the cipher is required to support.
+ * Otherwise, it's encrypted into another buffer from the pool.
+ */
+public class EncryptionBufferChunkEnumeration implements BufferTransformChunkEnumeration {
+    private final BufferTransformChunkEnumeration inner;
+    private final Supplier<Cipher> cipherSupplier;
+
+    private final Integer transformedChunkSize;
+
+    public EncryptionBufferChunkEnumeration(final BufferTransformChunkEnumeration inner,
+                                            final Supplier<Cipher> cipherSupplier) {
+        this.inner = Objects.requireNonNull(inner, "inner cannot be null");
+        this.cipherSupplier = Objects.requireNonNull(cipherSupplier, "cipherSupplier cannot be null");
+
+        final Integer innerTransformedChunkSize = inner.transformedChunkSize();
+        if (innerTransformedChunkSize == null) {
+            transformedChunkSize = null;
+        } else {
+            final Cipher cipher = cipherSupplier.get();
+            transformedChunkSize = cipher.getIV().length + cipher.getOutputSize(innerTransformedChunkSize);
+        }
+    }
+
+    @Override
+    public int originalChunkSize() {
+        return inner.originalChunkSize();
+    }
+
+    @Override
+    public Integer transformedChunkSize() {
+        return this.transformedChunkSize;
+    }
+
+    @Override
+    public ChunkBufferPool bufferPool() {
+        return inner.bufferPool();
+    }
+
+    @Override
+    public boolean lastChunkRaw() {
+        return inner.lastChunkRaw();
+    }
+
+    @Override
+    public OptionalInt lastChunkChecksum() {
+        return inner.lastChunkChecksum();
+    }
+
+    @Override
+    public boolean hasMoreElements() {
+        return inner.hasMoreElements();
+    }
+
+    @Override
+    public ByteBuffer nextElement() {
+        final var cipher = cipherSupplier.get();
+        final ByteBuffer chunk = inner.nextElement();
+        final ChunkBufferPool bufferPool = bufferPool();
+        final byte[] iv = cipher.getIV();
+        final int encryptedSize = cipher.getOutputSize(chunk.remaining());
+
+        final int dataPosition = chunk.position();
+        final boolean inPlace = !chunk.isReadOnly()
+            && dataPosition >= iv.length
+            && chunk.capacity() - dataPosition >= encryptedSize;
+        final ByteBuffer output;
+        if (inPlace) {
+            // Cipher requires distinct buffer objects even for the same memory.
+            output = chunk.duplicate();
+            output.limit(dataPosition + encryptedSize);
+            output.position(dataPosition - iv.length);
+        } else {
+            output = bufferPool.acquire(iv.length + encryptedSize);
+            output.limit(iv.length + encryptedSize);
+        }
+        final int outputPosition = output.position();
+
+        // Prepend the IV and then write the encrypted data.
+        output.put(iv);
+        try {
+            cipher.doFinal(chunk, output);
+        } catch (final ShortBufferException | IllegalBlockSizeException | BadPaddingException e) {
+            bufferPool.release(chunk);
+            if (!inPlace) {
+                bufferPool.release(output);
+            }
+            throw new RuntimeException(e);
+        }
+        if (!inPlace) {
+            bufferPool.release(chunk);
+        }
+        output.flip();
+        output.position(outputPosition);
+        return output;
+    }
+}
@@ -22,6 +22,7 @@ import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.ShortBufferException;
 
 import java.util.Objects;
+import java.util.OptionalInt;
 import java.util.function.Supplier;
 
 /**
@@ -57,6 +58,16 @@ public class EncryptionChunkEnumeration implements TransformChunkEnumeration {
         return this.transformedChunkSize;
     }
 
+    @Override
+    public boolean lastChunkRaw() {
+        return inner.lastChunkRaw();
+    }
+
+    @Override
+    public OptionalInt lastChunkChecksum() {
+        return inner.lastChunkChecksum();
+    }
+
     @Override
     public boolean hasMoreElements() {
         return inner.hasMoreElements();
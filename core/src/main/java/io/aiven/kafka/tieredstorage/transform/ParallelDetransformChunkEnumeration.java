@@ -0,0 +1,188 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+
+/**
+ * The chunk de-transformation that runs the wrapped de-transformations of several chunks concurrently.
+ *
+ * <p>Chunks are read from the source enumeration in the calling thread, then each chunk is de-transformed
+ * with its own instance of the de-transformation chain on the provided executor.
+ * At most {@code maxInFlightChunks} chunks are read ahead and being de-transformed at any given moment.
+ * The de-transformed chunks are returned in the original order.
+ *
+ * <p>The de-transformations are supposed to be stateless between chunks, which holds for decompression
+ * and decryption.
+ *
+ * @see ParallelTransformChunkEnumeration
+ */
+public class ParallelDetransformChunkEnumeration implements DetransformChunkEnumeration {
+    private final DetransformChunkEnumeration source;
+    private final UnaryOperator<DetransformChunkEnumeration> detransformation;
+    private final ExecutorService executor;
+    private final int maxInFlightChunks;
+
+    private final Deque<Future<DetransformedChunk>> inFlightChunks = new ArrayDeque<>();
+    private boolean lastChunkRaw = false;
+    private OptionalInt lastChunkChecksum = OptionalInt.empty();
+
+    /**
+     * @param source            the enumeration of chunks to be de-transformed, normally
+     *                          {@link BaseDetransformChunkEnumeration}.
+     * @param detransformation  the function that wraps an enumeration into the chain of de-transformations.
+     * @param executor          the executor to run de-transformations on.
+     * @param maxInFlightChunks the maximum number of chunks read ahead from the source.
+     */
+    public ParallelDetransformChunkEnumeration(final DetransformChunkEnumeration source,
+                                               final UnaryOperator<DetransformChunkEnumeration> detransformation,
+                                               final ExecutorService executor,
+                                               final int maxInFlightChunks) {
+        this.source = Objects.requireNonNull(source, "source cannot be null");
+        this.detransformation = Objects.requireNonNull(detransformation, "detransformation cannot be null");
+        this.executor = Objects.requireNonNull(executor, "executor cannot be null");
+        if (maxInFlightChunks < 1) {
+            throw new IllegalArgumentException(
+                "maxInFlightChunks must be positive, " + maxInFlightChunks + " given");
+        }
+        this.maxInFlightChunks = maxInFlightChunks;
+    }
+
+    @Override
+    public boolean lastChunkRaw() {
+        return lastChunkRaw;
+    }
+
+    @Override
+    public OptionalInt lastChunkChecksum() {
+        return lastChunkChecksum;
+    }
+
+    @Override
+    public boolean hasMoreElements() {
+        fillInFlightChunks();
+        return !inFlightChunks.isEmpty();
+    }
+
+    @Override
+    public byte[] nextElement() {
+        fillInFlightChunks();
+        final Future<DetransformedChunk> next = inFlightChunks.pollFirst();
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        try {
+            final DetransformedChunk detransformedChunk = next.get();
+            lastChunkRaw = detransformedChunk.raw;
+            lastChunkChecksum = detransformedChunk.checksum;
+            return detransformedChunk.data;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw new RuntimeException(e);
+        } catch (final ExecutionException e) {
+            cancel();
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Cancels the de-transformation of the chunks read ahead, e.g. when the rest of the chunks isn't needed.
+     */
+    public void cancel() {
+        Future<DetransformedChunk> future;
+        while ((future = inFlightChunks.pollFirst()) != null) {
+            future.cancel(true);
+        }
+    }
+
+    private void fillInFlightChunks() {
+        while (inFlightChunks.size() < maxInFlightChunks && source.hasMoreElements()) {
+            final byte[] data = source.nextElement();
+            final SingleChunkEnumeration chunk =
+                new SingleChunkEnumeration(data, source.lastChunkRaw(), source.lastChunkChecksum());
+            inFlightChunks.addLast(executor.submit(() -> {
+                final DetransformChunkEnumeration chain = detransformation.apply(chunk);
+                final byte[] detransformed = chain.nextElement();
+                return new DetransformedChunk(detransformed, chain.lastChunkRaw(), chain.lastChunkChecksum());
+            }));
+        }
+    }
+
+    private static class DetransformedChunk {
+        private final byte[] data;
+        private final boolean raw;
+        private final OptionalInt checksum;
+
+        private DetransformedChunk(final byte[] data, final boolean raw, final OptionalInt checksum) {
+            this.data = data;
+            this.raw = raw;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * The enumeration of exactly one already read chunk, which is the input for the de-transformation of this chunk.
+     */
+    private static class SingleChunkEnumeration implements DetransformChunkEnumeration {
+        private final boolean raw;
+        private final OptionalInt checksum;
+        private byte[] chunk;
+
+        private SingleChunkEnumeration(final byte[] chunk, final boolean raw, final OptionalInt checksum) {
+            this.chunk = chunk;
+            this.raw = raw;
+            this.checksum = checksum;
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            return chunk != null;
+        }
+
+        @Override
+        public byte[] nextElement() {
+            if (chunk == null) {
+                throw new NoSuchElementException();
+            }
+            final byte[] result = chunk;
+            chunk = null;
+            return result;
+        }
+
+        @Override
+        public boolean lastChunkRaw() {
+            return raw;
+        }
+
+        @Override
+        public OptionalInt lastChunkChecksum() {
+            return checksum;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+
+/**
+ * The chunk transformation that runs the wrapped transformations of several chunks concurrently.
+ *
+ * <p>Chunks are read from the source enumeration in the calling thread, then each chunk is transformed
+ * with its own instance of the transformation chain on the provided executor.
+ * At most {@code maxInFlightChunks} chunks are read ahead and being transformed at any given moment.
+ * The transformed chunks are returned in the original order,
+ * so the chunk index built by {@link TransformFinisher} is the same as without parallelism.
+ *
+ * <p>The transformations are supposed to be stateless between chunks, which holds for compression and encryption.
+ *
+ * <p>The enumeration must be closed if it's abandoned, e.g. because the upload of the chunks fails,
+ * so the chunks still being transformed don't keep occupying the executor.
+ */
+public class ParallelTransformChunkEnumeration implements TransformChunkEnumeration {
+    private final TransformChunkEnumeration source;
+    private final UnaryOperator<TransformChunkEnumeration> transformation;
+    private final ExecutorService executor;
+    private final int maxInFlightChunks;
+
+    private final int originalChunkSize;
+    private final Integer transformedChunkSize;
+
+    private final Deque<Future<TransformResult>> inFlightChunks = new ArrayDeque<>();
+    private boolean lastChunkRaw = false;
+    private OptionalInt lastChunkChecksum = OptionalInt.empty();
+
+    /**
+     * @param source             the enumeration of chunks to be transformed, normally
+     *                           {@link BaseTransformChunkEnumeration}.
+     * @param transformation     the function that wraps an enumeration into the chain of transformations.
+     * @param executor           the executor to run transformations on.
+     * @param maxInFlightChunks  the maximum number of chunks read ahead from the source.
+     */
+    public ParallelTransformChunkEnumeration(final TransformChunkEnumeration source,
+                                             final UnaryOperator<TransformChunkEnumeration> transformation,
+                                             final ExecutorService executor,
+                                             final int maxInFlightChunks) {
+        this.source = Objects.requireNonNull(source, "source cannot be null");
+        this.transformation = Objects.requireNonNull(transformation, "transformation cannot be null");
+        this.executor = Objects.requireNonNull(executor, "executor cannot be null");
+        if (maxInFlightChunks < 1) {
+            throw new IllegalArgumentException(
+                "maxInFlightChunks must be positive, " + maxInFlightChunks + " given");
+        }
+        this.maxInFlightChunks = maxInFlightChunks;
+
+        // Apply the transformation to the source only to get the resulting chunk sizes, no chunks are read here.
+        final TransformChunkEnumeration wholeChain = transformation.apply(source);
+        this.originalChunkSize = wholeChain.originalChunkSize();
+        this.transformedChunkSize = wholeChain.transformedChunkSize();
+    }
+
+    @Override
+    public int originalChunkSize() {
+        return originalChunkSize;
+    }
+
+    @Override
+    public Integer transformedChunkSize() {
+        return transformedChunkSize;
+    }
+
+    @Override
+    public boolean lastChunkRaw() {
+        return lastChunkRaw;
+    }
+
+    @Override
+    public OptionalInt lastChunkChecksum() {
+        return lastChunkChecksum;
+    }
+
+    @Override
+    public boolean hasMoreElements() {
+        fillInFlightChunks();
+        return !inFlightChunks.isEmpty();
+    }
+
+    @Override
+    public byte[] nextElement() {
+        fillInFlightChunks();
+        final Future<TransformResult> next = inFlightChunks.pollFirst();
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        try {
+            final TransformResult result = next.get();
+            lastChunkRaw = result.raw;
+            lastChunkChecksum = result.checksum;
+            return result.data;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelInFlightChunks();
+            throw new RuntimeException(e);
+        } catch (final ExecutionException e) {
+            cancelInFlightChunks();
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void fillInFlightChunks() {
+        while (inFlightChunks.size() < maxInFlightChunks && source.hasMoreElements()) {
+            final SingleChunkEnumeration chunk = new SingleChunkEnumeration(source.nextElement(), originalChunkSize);
+            // The checksum of the original chunk is known to the source only.
+            final OptionalInt checksum = source.lastChunkChecksum();
+            inFlightChunks.addLast(executor.submit(() -> {
+                final TransformChunkEnumeration chain = transformation.apply(chunk);
+                final byte[] data = chain.nextElement();
+                return new TransformResult(data, chain.lastChunkRaw(), checksum);
+            }));
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelInFlightChunks();
+    }
+
+    private void cancelInFlightChunks() {
+        Future<TransformResult> future;
+        while ((future = inFlightChunks.pollFirst()) != null) {
+            future.cancel(true);
+        }
+    }
+
+    private static class TransformResult {
+        private final byte[] data;
+        private final boolean raw;
+        private final OptionalInt checksum;
+
+        private TransformResult(final byte[] data, final boolean raw, final OptionalInt checksum) {
+            this.data = data;
+            this.raw = raw;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * The enumeration of exactly one already read chunk, which is the input for the transformation of this chunk.
+     *
+     * <p>The transformed chunk size is reported as unknown, so the transformations don't spend time
+     * on calculating it for each chunk.
+     */
+    private static class SingleChunkEnumeration implements TransformChunkEnumeration {
+        private final int originalChunkSize;
+        private byte[] chunk;
+
+        private SingleChunkEnumeration(final byte[] chunk, final int originalChunkSize) {
+            this.chunk = chunk;
+            this.originalChunkSize = originalChunkSize;
+        }
+
+        @Override
+        public int originalChunkSize() {
+            return originalChunkSize;
+        }
+
+        @Override
+        public Integer transformedChunkSize() {
+            return null;
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            return chunk != null;
+        }
+
+        @Override
+        public byte[] nextElement() {
+            if (chunk == null) {
+                throw new NoSuchElementException();
+            }
+            final byte[] result = chunk;
+            chunk = null;
+            return result;
+        }
+    }
+}
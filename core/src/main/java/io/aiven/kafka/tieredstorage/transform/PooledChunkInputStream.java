@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * The stream of a chunk in a buffer from {@link ChunkBufferPool}, which releases the buffer to the pool when closed.
+ *
+ * <p>{@link java.io.SequenceInputStream} closes it as soon as it's read to the end.
+ */
+class PooledChunkInputStream extends InputStream {
+    private final ChunkBufferPool bufferPool;
+    private ByteBuffer chunk;
+
+    PooledChunkInputStream(final ByteBuffer chunk, final ChunkBufferPool bufferPool) {
+        this.chunk = chunk;
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public int read() {
+        if (chunk == null || !chunk.hasRemaining()) {
+            return -1;
+        }
+        return chunk.get() & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        if (chunk == null || !chunk.hasRemaining()) {
+            return -1;
+        }
+        final int toRead = Math.min(len, chunk.remaining());
+        chunk.get(b, off, toRead);
+        return toRead;
+    }
+
+    @Override
+    public int available() {
+        return chunk == null ? 0 : chunk.remaining();
+    }
+
+    @Override
+    public void close() {
+        if (chunk != null) {
+            bufferPool.release(chunk);
+            chunk = null;
+        }
+    }
+}
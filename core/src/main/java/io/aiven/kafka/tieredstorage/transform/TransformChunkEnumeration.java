@@ -17,6 +17,7 @@
 package io.aiven.kafka.tieredstorage.transform;
 
 import java.util.Enumeration;
+import java.util.OptionalInt;
 
 /**
  * The enumeration of chunks being transformed.
@@ -25,7 +26,7 @@ import java.util.Enumeration;
  * (like compression and encryption).
  * These implementations are supposed to be composable.
  */
-public interface TransformChunkEnumeration extends Enumeration<byte[]> {
+public interface TransformChunkEnumeration extends Enumeration<byte[]>, AutoCloseable {
     /**
      * Returns the original (i.e. before all the transformations) chunk size.
      *
@@ -39,4 +40,32 @@ public interface TransformChunkEnumeration extends Enumeration<byte[]> {
      * @return a transformed chunk size; or {@code null} if unknown.
      */
     Integer transformedChunkSize();
+
+    /**
+     * Returns whether the chunk returned by the last {@link #nextElement()} call is stored raw,
+     * i.e. compression was skipped for it because it didn't make the chunk smaller.
+     *
+     * <p>Normally it should be propagated through the chain of transformations.
+     */
+    default boolean lastChunkRaw() {
+        return false;
+    }
+
+    /**
+     * Returns the CRC32C checksum of the original content of the chunk returned by the last {@link #nextElement()}
+     * call, if it's known.
+     *
+     * <p>Normally it should be propagated through the chain of transformations.
+     */
+    default OptionalInt lastChunkChecksum() {
+        return OptionalInt.empty();
+    }
+
+    /**
+     * Stops the transformation, e.g. the chunks being transformed in the background, if it's abandoned
+     * before all chunks are consumed. It doesn't close the source of the chunks.
+     */
+    @Override
+    default void close() {
+    }
 }
@@ -19,8 +19,12 @@ package io.aiven.kafka.tieredstorage.transform;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Objects;
+import java.util.OptionalInt;
 
 import io.aiven.kafka.tieredstorage.manifest.index.AbstractChunkIndexBuilder;
 import io.aiven.kafka.tieredstorage.manifest.index.ChunkIndex;
@@ -41,6 +45,7 @@ public class TransformFinisher implements Enumeration<InputStream> {
     private final TransformChunkEnumeration inner;
     private final AbstractChunkIndexBuilder chunkIndexBuilder;
     private final int originalFileSize;
+    private final List<TransformedChunk> transformedChunks = new ArrayList<>();
     private ChunkIndex chunkIndex = null;
 
     public TransformFinisher(final TransformChunkEnumeration inner) {
@@ -75,15 +80,46 @@ public class TransformFinisher implements Enumeration<InputStream> {
     @Override
     public InputStream nextElement() {
         final var chunk = inner.nextElement();
+        final OptionalInt checksum = inner.lastChunkChecksum();
+        addChunk(new TransformedChunk(chunk.length, inner.lastChunkRaw(),
+            checksum.isPresent() ? checksum.getAsInt() : null));
+
+        return new ByteArrayInputStream(chunk);
+    }
+
+    /**
+     * Adds the chunks transformed by an interrupted transformation of the same file to the index,
+     * so the inner enumeration continues with the chunk following them.
+     *
+     * <p>Must be called before the chunks are enumerated, which {@link #toInputStream()} starts right away.
+     * The last chunk of the file can't be among them.
+     */
+    public void resume(final List<TransformedChunk> chunks) {
+        if (!transformedChunks.isEmpty()) {
+            throw new IllegalStateException("Cannot resume after chunks were transformed");
+        }
+        for (final TransformedChunk chunk : chunks) {
+            chunkIndexBuilder.addChunk(chunk.size(), chunk.raw(), chunk.checksum());
+            transformedChunks.add(chunk);
+        }
+    }
+
+    /**
+     * Returns the chunks added to the index so far, in order.
+     */
+    public List<TransformedChunk> transformedChunks() {
+        return Collections.unmodifiableList(transformedChunks);
+    }
+
+    private void addChunk(final TransformedChunk chunk) {
+        transformedChunks.add(chunk);
         if (chunkIndexBuilder != null) {
             if (hasMoreElements()) {
-                this.chunkIndexBuilder.addChunk(chunk.length);
+                this.chunkIndexBuilder.addChunk(chunk.size(), chunk.raw(), chunk.checksum());
             } else {
-                this.chunkIndex = this.chunkIndexBuilder.finish(chunk.length);
+                this.chunkIndex = this.chunkIndexBuilder.finish(chunk.size(), chunk.raw(), chunk.checksum());
             }
         }
-
-        return new ByteArrayInputStream(chunk);
     }
 
     public ChunkIndex chunkIndex() {
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A chunk as the transformation finishers add it to the chunk index: its transformed size,
+ * whether it's stored raw and the checksum of its original content.
+ */
+public class TransformedChunk {
+    private final int size;
+    private final boolean raw;
+    private final Integer checksum;
+
+    public TransformedChunk(final int size, final boolean raw) {
+        this(size, raw, null);
+    }
+
+    /**
+     * @param checksum the CRC32C checksum of the original chunk, or {@code null} if unknown.
+     */
+    @JsonCreator
+    public TransformedChunk(@JsonProperty(value = "size", required = true) final int size,
+                            @JsonProperty("raw") final boolean raw,
+                            @JsonProperty("checksum") final Integer checksum) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size cannot be negative, " + size + " given");
+        }
+        this.size = size;
+        this.raw = raw;
+        this.checksum = checksum;
+    }
+
+    @JsonProperty("size")
+    public int size() {
+        return size;
+    }
+
+    @JsonProperty("raw")
+    public boolean raw() {
+        return raw;
+    }
+
+    @JsonProperty("checksum")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer checksum() {
+        return checksum;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final TransformedChunk that = (TransformedChunk) o;
+        return size == that.size && raw == that.raw && Objects.equals(checksum, that.checksum);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * size + (raw ? 1 : 0)) + Objects.hashCode(checksum);
+    }
+
+    @Override
+    public String toString() {
+        return "TransformedChunk("
+            + "size=" + size
+            + ", raw=" + raw
+            + ", checksum=" + checksum
+            + ")";
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.kafka.common.TopicIdPartition;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.Uuid;
+
+import io.aiven.kafka.tieredstorage.CompressionDictionaries.CompressionDictionary;
+import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
+import io.aiven.kafka.tieredstorage.storage.ObjectFetcher;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectUploader;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictTrainer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CompressionDictionariesTest {
+    static final Uuid TOPIC_ID = Uuid.METADATA_TOPIC_ID;  // string representation: AAAAAAAAAAAAAAAAAAAAAQ
+    static final TopicIdPartition PARTITION_0 = new TopicIdPartition(TOPIC_ID, new TopicPartition("topic", 0));
+    static final TopicIdPartition PARTITION_1 = new TopicIdPartition(TOPIC_ID, new TopicPartition("topic", 1));
+    static final int CHUNK_SIZE = 1024;
+    static final int DICTIONARY_SIZE = 4 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    ObjectFetcher fetcher;
+    @Mock
+    ObjectUploader uploader;
+
+    final ObjectKeyFactory objectKeyFactory = new ObjectKeyFactory("prefix/", false);
+    final ObjectKey currentKey = objectKeyFactory.currentDictionaryKey(PARTITION_0);
+    final CompressionDictionaries dictionaries = new CompressionDictionaries(
+        objectKeyFactory, CHUNK_SIZE, DICTIONARY_SIZE, 3);
+
+    @Test
+    void trainedAndUploadedOncePerTopic() throws IOException, StorageBackendException {
+        when(fetcher.fetch(currentKey)).thenThrow(new KeyNotFoundException(null, currentKey));
+        final Path segment = recordsFile("segment1.log", 512 * 1024);
+
+        final CompressionDictionary dictionary = dictionaries.get(PARTITION_0, segment, fetcher, uploader);
+        assertThat(dictionary).isNotNull();
+        assertThat(dictionary.key).startsWith("prefix/topic-AAAAAAAAAAAAAAAAAAAAAQ/dictionaries/");
+
+        // The dictionary is uploaded and then made current.
+        final ArgumentCaptor<List<ByteBuffer>> contentCaptor = ArgumentCaptor.forClass(List.class);
+        final ArgumentCaptor<ObjectKey> keyCaptor = ArgumentCaptor.forClass(ObjectKey.class);
+        verify(uploader, times(2)).upload(contentCaptor.capture(), keyCaptor.capture());
+        assertThat(keyCaptor.getAllValues().get(0).value()).isEqualTo(dictionary.key);
+        assertThat(keyCaptor.getAllValues().get(1)).isEqualTo(currentKey);
+        final String dictionaryId = StandardCharsets.UTF_8.decode(contentCaptor.getAllValues().get(1).get(0))
+            .toString();
+        assertThat(objectKeyFactory.dictionaryKey(PARTITION_0, dictionaryId).value()).isEqualTo(dictionary.key);
+
+        // Other partitions of the same topic reuse the dictionary.
+        assertThat(dictionaries.get(PARTITION_1, segment, fetcher, uploader)).isSameAs(dictionary);
+        verify(uploader, times(2)).upload(anyList(), any());
+        verify(fetcher, times(1)).fetch(any());
+    }
+
+    @Test
+    void currentDictionaryReused() throws IOException, StorageBackendException {
+        final ObjectKey dictionaryKey = objectKeyFactory.dictionaryKey(PARTITION_0, "dict1");
+        when(fetcher.fetch(currentKey))
+            .thenReturn(new ByteArrayInputStream("dict1".getBytes(StandardCharsets.UTF_8)));
+        when(fetcher.fetch(dictionaryKey)).thenReturn(new ByteArrayInputStream(trainedDictionary()));
+        final Path segment = recordsFile("segment1.log", 512 * 1024);
+
+        final CompressionDictionary dictionary = dictionaries.get(PARTITION_0, segment, fetcher, uploader);
+        assertThat(dictionary.key).isEqualTo(dictionaryKey.value());
+        verifyNoInteractions(uploader);
+    }
+
+    @Test
+    void trainedWhenCurrentDictionaryMissing() throws IOException, StorageBackendException {
+        final ObjectKey dictionaryKey = objectKeyFactory.dictionaryKey(PARTITION_0, "dict1");
+        when(fetcher.fetch(currentKey))
+            .thenReturn(new ByteArrayInputStream("dict1".getBytes(StandardCharsets.UTF_8)));
+        when(fetcher.fetch(dictionaryKey)).thenThrow(new KeyNotFoundException(null, dictionaryKey));
+        final Path segment = recordsFile("segment1.log", 512 * 1024);
+
+        final CompressionDictionary dictionary = dictionaries.get(PARTITION_0, segment, fetcher, uploader);
+        assertThat(dictionary.key).isNotEqualTo(dictionaryKey.value());
+        verify(uploader).upload(anyList(), eq(currentKey));
+    }
+
+    @Test
+    void trainedDictionaryCompressesChunks() throws IOException, StorageBackendException {
+        when(fetcher.fetch(currentKey)).thenThrow(new KeyNotFoundException(null, currentKey));
+        final Path segment = recordsFile("segment1.log", 512 * 1024);
+        final CompressionDictionary dictionary = dictionaries.get(PARTITION_0, segment, fetcher, uploader);
+
+        final byte[] chunk = new byte[CHUNK_SIZE];
+        System.arraycopy(Files.readAllBytes(segment), 0, chunk, 0, CHUNK_SIZE);
+        final byte[] withDictionary = Zstd.compress(chunk, dictionary.dictionary);
+        assertThat(withDictionary.length).isLessThan(Zstd.compress(chunk, 3).length);
+    }
+
+    @Test
+    void retriedAfterFailedTraining() throws IOException, StorageBackendException {
+        when(fetcher.fetch(currentKey)).thenThrow(new KeyNotFoundException(null, currentKey));
+        final Path smallSegment = recordsFile("segment1.log", 10);
+        assertThat(dictionaries.get(PARTITION_0, smallSegment, fetcher, uploader)).isNull();
+        verifyNoInteractions(uploader);
+
+        final Path segment = recordsFile("segment2.log", 512 * 1024);
+        assertThat(dictionaries.get(PARTITION_0, segment, fetcher, uploader)).isNotNull();
+        verify(uploader).upload(anyList(), eq(currentKey));
+    }
+
+    private byte[] trainedDictionary() throws IOException {
+        final byte[] records = Files.readAllBytes(recordsFile("samples.log", 512 * 1024));
+        final ZstdDictTrainer trainer = new ZstdDictTrainer(records.length, DICTIONARY_SIZE);
+        for (int position = 0; position + CHUNK_SIZE <= records.length; position += CHUNK_SIZE) {
+            trainer.addSample(Arrays.copyOfRange(records, position, position + CHUNK_SIZE));
+        }
+        return trainer.trainSamples();
+    }
+
+    private Path recordsFile(final String name, final int size) throws IOException {
+        // Similar small records, like JSON messages of a topic.
+        final Random random = new Random(0);
+        final StringBuilder sb = new StringBuilder(size);
+        while (sb.length() < size) {
+            sb.append("{\"id\":").append(random.nextInt(100000))
+                .append(",\"status\":\"").append(random.nextBoolean() ? "active" : "inactive")
+                .append("\",\"country\":\"").append(random.nextBoolean() ? "FI" : "DE")
+                .append("\"}");
+        }
+        final Path path = dir.resolve(name);
+        Files.write(path, sb.substring(0, size).getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+}
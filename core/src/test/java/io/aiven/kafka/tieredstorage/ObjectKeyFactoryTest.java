@@ -54,6 +54,35 @@ class ObjectKeyFactoryTest {
             .isEqualTo(
                 "prefix/topic-AAAAAAAAAAAAAAAAAAAAAQ/7/"
                     + "00000000000000001234-AAAAAAAAAAAAAAAAAAAAAA.rsm-manifest");
+        assertThat(objectKeyFactory.key(REMOTE_LOG_SEGMENT_METADATA, ObjectKeyFactory.Suffix.PACKED).value())
+            .isEqualTo(
+                "prefix/topic-AAAAAAAAAAAAAAAAAAAAAQ/7/"
+                    + "00000000000000001234-AAAAAAAAAAAAAAAAAAAAAA.rsm-packed");
+    }
+
+    @Test
+    void packKey() {
+        final ObjectKeyFactory objectKeyFactory = new ObjectKeyFactory("prefix/", false);
+        final String packId = ObjectKeyFactory.packId(REMOTE_LOG_SEGMENT_METADATA);
+        assertThat(packId).isEqualTo("00000000000000001234-AAAAAAAAAAAAAAAAAAAAAA");
+        assertThat(objectKeyFactory.packKey(Map.of(), REMOTE_LOG_SEGMENT_METADATA, packId,
+            ObjectKeyFactory.Suffix.PACK).value())
+            .isEqualTo(
+                "prefix/topic-AAAAAAAAAAAAAAAAAAAAAQ/7/"
+                    + "00000000000000001234-AAAAAAAAAAAAAAAAAAAAAA.rsm-pack");
+        final var fields = Map.<Integer, Object>of(SegmentCustomMetadataField.OBJECT_PREFIX.index(), "other/");
+        assertThat(objectKeyFactory.packKey(fields, REMOTE_LOG_SEGMENT_METADATA, "pack-id",
+            ObjectKeyFactory.Suffix.PACK_INDEX).value())
+            .isEqualTo("other/topic-AAAAAAAAAAAAAAAAAAAAAQ/7/pack-id.rsm-pack-index");
+    }
+
+    @Test
+    void dictionaryKey() {
+        final ObjectKeyFactory objectKeyFactory = new ObjectKeyFactory("prefix/", false);
+        assertThat(objectKeyFactory.dictionaryKey(TOPIC_ID_PARTITION, "dict1").value())
+            .isEqualTo("prefix/topic-AAAAAAAAAAAAAAAAAAAAAQ/dictionaries/dict1.zstd-dict");
+        assertThat(objectKeyFactory.currentDictionaryKey(TOPIC_ID_PARTITION).value())
+            .isEqualTo("prefix/topic-AAAAAAAAAAAAAAAAAAAAAQ/dictionaries/current");
     }
 
     @Test
@@ -147,6 +176,13 @@ class ObjectKeyFactoryTest {
             "<prefix>/topic-AAAAAAAAAAAAAAAAAAAAAQ/7/00000000000000001234-AAAAAAAAAAAAAAAAAAAAAA.log");
     }
 
+    @Test
+    void prefixMaskingDictionaryKey() {
+        final ObjectKeyFactory objectKeyFactory = new ObjectKeyFactory("prefix/", true);
+        assertThat(objectKeyFactory.dictionaryKey(TOPIC_ID_PARTITION, "dict1"))
+            .hasToString("<prefix>/topic-AAAAAAAAAAAAAAAAAAAAAQ/dictionaries/dict1.zstd-dict");
+    }
+
     @Test
     void prefixMaskingWithCustomFieldsEmpty() {
         final ObjectKeyFactory objectKeyFactory = new ObjectKeyFactory("real-prefix/", true);
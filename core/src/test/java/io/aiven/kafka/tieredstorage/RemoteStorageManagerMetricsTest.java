@@ -21,11 +21,13 @@ import javax.management.MBeanServer;
 import javax.management.ObjectName;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.management.ManagementFactory;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -55,6 +57,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.InstanceOfAssertFactories.DOUBLE;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doThrow;
@@ -119,11 +122,8 @@ class RemoteStorageManagerMetricsTest {
         rsm.configure(configs);
 
         rsm.copyLogSegmentData(REMOTE_LOG_SEGMENT_METADATA, logSegmentData);
-        logSegmentData.leaderEpochIndex().flip(); // so leader epoch can be consumed again
         rsm.copyLogSegmentData(REMOTE_LOG_SEGMENT_METADATA, logSegmentData);
-        logSegmentData.leaderEpochIndex().flip();
         rsm.copyLogSegmentData(REMOTE_LOG_SEGMENT_METADATA, logSegmentData);
-        logSegmentData.leaderEpochIndex().flip();
 
         final var objectName = "aiven.kafka.server.tieredstorage:type=remote-storage-manager-metrics" + tags;
         final ObjectName metricName = ObjectName.getInstance(objectName);
@@ -140,11 +140,13 @@ class RemoteStorageManagerMetricsTest {
             .isEqualTo(9.0 / METRIC_TIME_WINDOW_SEC);
 
         assertThat(MBEAN_SERVER.getAttribute(metricName, "object-upload-bytes-total"))
-            .isEqualTo(2160.0);
+            .isEqualTo(2229.0);
         assertThat(MBEAN_SERVER.getAttribute(metricName, "object-upload-bytes-rate"))
-            .isEqualTo(2160.0 / METRIC_TIME_WINDOW_SEC);
+            .isEqualTo(2229.0 / METRIC_TIME_WINDOW_SEC);
 
-        for (final var suffix : ObjectKeyFactory.Suffix.values()) {
+        // Segments aren't packed by default.
+        for (final var suffix : List.of(
+            ObjectKeyFactory.Suffix.LOG, ObjectKeyFactory.Suffix.INDEXES, ObjectKeyFactory.Suffix.MANIFEST)) {
             final ObjectName storageMetricsName = ObjectName.getInstance(objectName + ",object-type=" + suffix.value);
             assertThat(MBEAN_SERVER.getAttribute(storageMetricsName, "object-upload-rate"))
                 .isEqualTo(3.0 / METRIC_TIME_WINDOW_SEC);
@@ -225,7 +227,8 @@ class RemoteStorageManagerMetricsTest {
         try (@SuppressWarnings("unused") final var storage = mockConstruction(
             FileSystemStorage.class,
             (mock, context) -> {
-                doThrow(testException).when(mock).upload(any(), any());
+                doThrow(testException).when(mock).upload(any(InputStream.class), any());
+                doThrow(testException).when(mock).upload(any(InputStream.class), any(), anyLong());
                 doThrow(testException).when(mock).delete(anySet());
             }
         )) {
@@ -16,37 +16,75 @@
 
 package io.aiven.kafka.tieredstorage;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.apache.kafka.common.TopicIdPartition;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.Uuid;
+import org.apache.kafka.server.log.remote.storage.LogSegmentData;
 import org.apache.kafka.server.log.remote.storage.RemoteLogSegmentId;
 import org.apache.kafka.server.log.remote.storage.RemoteLogSegmentMetadata;
+import org.apache.kafka.server.log.remote.storage.RemoteLogSegmentState;
 import org.apache.kafka.server.log.remote.storage.RemoteStorageException;
+import org.apache.kafka.server.log.remote.storage.RemoteStorageManager.IndexType;
 
 import io.aiven.kafka.tieredstorage.fetch.ChunkManager;
 import io.aiven.kafka.tieredstorage.manifest.SegmentManifestProvider;
+import io.aiven.kafka.tieredstorage.storage.ObjectChecksum;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectMetadata;
+import io.aiven.kafka.tieredstorage.storage.ObjectUploader;
+import io.aiven.kafka.tieredstorage.storage.StorageBackend;
 import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.storage.UploadCheckpoint;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class RemoteStorageManagerTest {
@@ -80,7 +118,7 @@ class RemoteStorageManagerTest {
     void fetchSegmentInterruptionWhenGettingManifest(final Class<Exception> outerExceptionClass,
                                                      final Class<Exception> exceptionClass) throws Exception {
         final SegmentManifestProvider segmentManifestProvider = mock(SegmentManifestProvider.class);
-        when(segmentManifestProvider.get(any())).thenAnswer(invocation -> {
+        when(segmentManifestProvider.get(any(), any(), anyBoolean())).thenAnswer(invocation -> {
             final Exception innerException = exceptionClass.getDeclaredConstructor().newInstance();
             if (outerExceptionClass != null) {
                 throw outerExceptionClass.getDeclaredConstructor(String.class, Throwable.class)
@@ -111,7 +149,7 @@ class RemoteStorageManagerTest {
         writeManifest(objectKeyFactory);
 
         final ChunkManager chunkManager = mock(ChunkManager.class);
-        when(chunkManager.getChunk(any(), any(), anyInt())).thenAnswer(invocation -> {
+        when(chunkManager.getChunkBuffer(any(), any(), anyInt())).thenAnswer(invocation -> {
             final Exception innerException = exceptionClass.getDeclaredConstructor().newInstance();
             if (outerExceptionClass != null) {
                 throw outerExceptionClass.getDeclaredConstructor(String.class, Throwable.class)
@@ -152,7 +190,7 @@ class RemoteStorageManagerTest {
         final Class<Exception> exceptionClass
     ) throws Exception {
         final SegmentManifestProvider segmentManifestProvider = mock(SegmentManifestProvider.class);
-        when(segmentManifestProvider.get(any())).thenAnswer(invocation -> {
+        when(segmentManifestProvider.get(any(), any(), anyBoolean())).thenAnswer(invocation -> {
             Exception innerException;
             try {
                 innerException = exceptionClass.getDeclaredConstructor().newInstance();
@@ -192,7 +230,7 @@ class RemoteStorageManagerTest {
         writeManifest(objectKeyFactory);
 
         final ChunkManager chunkManager = mock(ChunkManager.class);
-        when(chunkManager.getChunk(any(), any(), anyInt())).thenAnswer(invocation -> {
+        when(chunkManager.getChunkBuffer(any(), any(), anyInt())).thenAnswer(invocation -> {
             Exception innerException;
             try {
                 innerException = exceptionClass.getDeclaredConstructor().newInstance();
@@ -221,6 +259,465 @@ class RemoteStorageManagerTest {
             .hasRootCauseInstanceOf(exceptionClass);
     }
 
+    @Test
+    void copyWaitsForIndexesUploadWhenLogUploadFails() throws Exception {
+        final AtomicBoolean indexesUploaded = new AtomicBoolean(false);
+        final StorageBackend storage = mock(StorageBackend.class);
+        final Set<String> uploadedKeys = ConcurrentHashMap.newKeySet();
+        stubUploads(storage, invocation -> {
+            final ObjectKey key = uploadedKey(invocation);
+            if (key.value().endsWith("." + ObjectKeyFactory.Suffix.LOG.value)) {
+                throw new StorageBackendException("Log upload failed");
+            }
+            // Make the indexes upload finish after the log upload failure.
+            Thread.sleep(100);
+            final long size = uploadedSize(invocation);
+            uploadedKeys.add(key.value());
+            indexesUploaded.set(true);
+            return size;
+        });
+        rsm.configure(Map.of(
+            "chunk.size", "1048576",
+            "storage.backend.class", "io.aiven.kafka.tieredstorage.storage.filesystem.FileSystemStorage",
+            "storage.root", targetDir.toString()
+        ));
+        rsm.setStorage(storage);
+
+        assertThatThrownBy(() -> rsm.copyLogSegmentData(REMOTE_LOG_METADATA, logSegmentData()))
+            .isInstanceOf(RemoteStorageException.class)
+            .hasRootCauseInstanceOf(StorageBackendException.class)
+            .hasRootCauseMessage("Log upload failed");
+        assertThat(indexesUploaded).isTrue();
+        assertThat(uploadedKeys).noneMatch(key -> key.endsWith("." + ObjectKeyFactory.Suffix.MANIFEST.value));
+    }
+
+    @Test
+    void copyFailsWhenIndexesUploadFails() throws Exception {
+        final StorageBackend storage = mock(StorageBackend.class);
+        final Set<String> uploadedKeys = ConcurrentHashMap.newKeySet();
+        stubUploads(storage, invocation -> {
+            final ObjectKey key = uploadedKey(invocation);
+            if (key.value().endsWith("." + ObjectKeyFactory.Suffix.INDEXES.value)) {
+                throw new StorageBackendException("Indexes upload failed");
+            }
+            uploadedKeys.add(key.value());
+            return uploadedSize(invocation);
+        });
+        rsm.configure(Map.of(
+            "chunk.size", "1048576",
+            "storage.backend.class", "io.aiven.kafka.tieredstorage.storage.filesystem.FileSystemStorage",
+            "storage.root", targetDir.toString()
+        ));
+        rsm.setStorage(storage);
+
+        assertThatThrownBy(() -> rsm.copyLogSegmentData(REMOTE_LOG_METADATA, logSegmentData()))
+            .isInstanceOf(RemoteStorageException.class)
+            .hasRootCauseInstanceOf(StorageBackendException.class)
+            .hasRootCauseMessage("Indexes upload failed");
+        assertThat(uploadedKeys).noneMatch(key -> key.endsWith("." + ObjectKeyFactory.Suffix.MANIFEST.value));
+    }
+
+    @Test
+    void copyResumesSegmentLogUploadFromCheckpoint() throws Exception {
+        final StorageBackend storage = mock(StorageBackend.class);
+        final Map<String, byte[]> uploads = new ConcurrentHashMap<>();
+        stubUploads(storage, invocation -> {
+            final byte[] content = uploadedBytes(invocation);
+            uploads.put(uploadedKey(invocation).value(), content);
+            return (long) content.length;
+        });
+        final AtomicReference<UploadCheckpoint> reportedCheckpoint = new AtomicReference<>();
+        final ByteArrayOutputStream uploadedLog = new ByteArrayOutputStream();
+        when(storage.upload(any(InputStream.class), any(ObjectKey.class), anyLong(), any(), any()))
+            .thenAnswer(invocation -> {
+                final byte[] content = ((InputStream) invocation.getArgument(0)).readAllBytes();
+                final UploadCheckpoint checkpoint = invocation.getArgument(3);
+                if (checkpoint == null) {
+                    uploadedLog.reset();
+                }
+                if (checkpoint == null && reportedCheckpoint.get() == null) {
+                    // The first upload fails after uploading a part ending in the middle of a chunk.
+                    final int partSize = content.length / 2 + 1;
+                    uploadedLog.write(content, 0, partSize);
+                    final UploadCheckpoint uploaded =
+                        new UploadCheckpoint("upload-id", List.of(new UploadCheckpoint.Part(1, "etag", partSize)));
+                    final Consumer<UploadCheckpoint> checkpointListener = invocation.getArgument(4);
+                    checkpointListener.accept(uploaded);
+                    reportedCheckpoint.set(uploaded);
+                    throw new StorageBackendException("Log upload failed");
+                }
+                uploadedLog.write(content);
+                uploads.put(uploadedKey(invocation).value(), uploadedLog.toByteArray());
+                return (long) uploadedLog.size();
+            });
+        when(storage.canResumeUpload(any(ObjectKey.class), any(UploadCheckpoint.class))).thenReturn(true);
+        rsm.configure(Map.of(
+            "chunk.size", "1048576",
+            "compression.enabled", "true",
+            "upload.checkpoint.dir", tmpDir.resolve("checkpoints").toString(),
+            "storage.backend.class", "io.aiven.kafka.tieredstorage.storage.filesystem.FileSystemStorage",
+            "storage.root", targetDir.toString()
+        ));
+        rsm.setStorage(storage);
+        final LogSegmentData logSegmentData = logSegmentData();
+        // Compressible content that differs between chunks, so resuming from a wrong chunk is noticed.
+        final byte[] segment = new byte[SEGMENT_SIZE];
+        for (int i = 0; i < segment.length; i++) {
+            segment[i] = (byte) (i % 251);
+        }
+        Files.write(logSegmentData.logSegment(), segment);
+
+        assertThatThrownBy(() -> rsm.copyLogSegmentData(REMOTE_LOG_METADATA, logSegmentData))
+            .isInstanceOf(RemoteStorageException.class)
+            .hasRootCauseMessage("Log upload failed");
+        rsm.copyLogSegmentData(REMOTE_LOG_METADATA, logSegmentData);
+
+        verify(storage).upload(
+            any(InputStream.class), any(ObjectKey.class), anyLong(), eq(reportedCheckpoint.get()), any());
+        final byte[] resumedLog = uploadedObject(uploads, ObjectKeyFactory.Suffix.LOG);
+        final byte[] resumedManifest = uploadedObject(uploads, ObjectKeyFactory.Suffix.MANIFEST);
+
+        // The checkpoint is deleted once the upload completes, so this copy starts over.
+        rsm.copyLogSegmentData(REMOTE_LOG_METADATA, logSegmentData);
+
+        assertThat(resumedLog).isEqualTo(uploadedObject(uploads, ObjectKeyFactory.Suffix.LOG));
+        assertThat(resumedManifest).isEqualTo(uploadedObject(uploads, ObjectKeyFactory.Suffix.MANIFEST));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void abortsUploadOfDiscardedCheckpoint(final boolean deleteSegment) throws Exception {
+        final StorageBackend storage = mock(StorageBackend.class);
+        stubUploads(storage, invocation -> (long) uploadedBytes(invocation).length);
+        final AtomicBoolean failLogUpload = new AtomicBoolean(true);
+        when(storage.upload(any(InputStream.class), any(ObjectKey.class), anyLong(), any(), any()))
+            .thenAnswer(invocation -> {
+                final byte[] content = ((InputStream) invocation.getArgument(0)).readAllBytes();
+                if (failLogUpload.getAndSet(false)) {
+                    final Consumer<UploadCheckpoint> checkpointListener = invocation.getArgument(4);
+                    checkpointListener.accept(
+                        new UploadCheckpoint("upload-id", List.of(new UploadCheckpoint.Part(1, "etag", 10))));
+                    throw new StorageBackendException("Log upload failed");
+                }
+                return (long) content.length;
+            });
+        // The upload expired in the remote storage, or the segment is deleted before the copy is retried.
+        when(storage.canResumeUpload(any(ObjectKey.class), any(UploadCheckpoint.class))).thenReturn(false);
+        rsm.configure(Map.of(
+            "chunk.size", "1048576",
+            "upload.checkpoint.dir", tmpDir.resolve("checkpoints").toString(),
+            "storage.backend.class", "io.aiven.kafka.tieredstorage.storage.filesystem.FileSystemStorage",
+            "storage.root", targetDir.toString()
+        ));
+        rsm.setStorage(storage);
+        final LogSegmentData logSegmentData = logSegmentData();
+        assertThatThrownBy(() -> rsm.copyLogSegmentData(REMOTE_LOG_METADATA, logSegmentData))
+            .isInstanceOf(RemoteStorageException.class)
+            .hasRootCauseMessage("Log upload failed");
+
+        if (deleteSegment) {
+            rsm.deleteLogSegmentData(REMOTE_LOG_METADATA);
+        } else {
+            rsm.copyLogSegmentData(REMOTE_LOG_METADATA, logSegmentData);
+        }
+
+        final ObjectKey fileKey = new ObjectKeyFactory("", false).key(REMOTE_LOG_METADATA, ObjectKeyFactory.Suffix.LOG);
+        verify(storage).abortUpload(argThat(key -> key.value().equals(fileKey.value())), eq("upload-id"));
+        assertThat(tmpDir.resolve("checkpoints")).isEmptyDirectory();
+    }
+
+    @Test
+    void expiresCheckpointsOnConfigure() throws Exception {
+        final SegmentUploadCheckpointStore store = new SegmentUploadCheckpointStore(tmpDir.resolve("checkpoints"));
+        store.save(REMOTE_LOG_METADATA.remoteLogSegmentId(), SegmentUploadCheckpointStoreTest.CHECKPOINT);
+        final Path checkpoint = tmpDir.resolve("checkpoints").resolve(
+            REMOTE_LOG_METADATA.remoteLogSegmentId().id() + ".json");
+        Files.setLastModifiedTime(checkpoint, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+
+        rsm.configure(Map.of(
+            "chunk.size", "1048576",
+            "upload.checkpoint.dir", tmpDir.resolve("checkpoints").toString(),
+            "storage.backend.class", "io.aiven.kafka.tieredstorage.storage.filesystem.FileSystemStorage",
+            "storage.root", targetDir.toString()
+        ));
+
+        assertThat(checkpoint).doesNotExist();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void copySkipsObjectsUploadedAlready(final boolean compression) throws Exception {
+        final StorageBackend storage = mock(StorageBackend.class);
+        final Map<String, byte[]> uploads = new ConcurrentHashMap<>();
+        final List<String> uploadedKeys = new CopyOnWriteArrayList<>();
+        final AtomicBoolean failManifestUpload = new AtomicBoolean(true);
+        stubUploads(storage, invocation -> {
+            final ObjectKey key = uploadedKey(invocation);
+            final byte[] content = uploadedBytes(invocation);
+            if (key.value().endsWith("." + ObjectKeyFactory.Suffix.MANIFEST.value) && failManifestUpload.get()) {
+                throw new StorageBackendException("Manifest upload failed");
+            }
+            uploads.put(key.value(), content);
+            uploadedKeys.add(key.value());
+            return (long) content.length;
+        });
+        when(storage.metadata(any(ObjectKey.class))).thenAnswer(invocation -> {
+            final byte[] content = uploads.get(((ObjectKey) invocation.getArgument(0)).value());
+            if (content == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new ObjectMetadata(content.length, ObjectChecksum.md5(md5(content))));
+        });
+        rsm.configure(Map.of(
+            "chunk.size", "1048576",
+            "compression.enabled", Boolean.toString(compression),
+            "storage.backend.class", "io.aiven.kafka.tieredstorage.storage.filesystem.FileSystemStorage",
+            "storage.root", targetDir.toString()
+        ));
+        rsm.setStorage(storage);
+        final LogSegmentData logSegmentData = logSegmentData();
+
+        assertThatThrownBy(() -> rsm.copyLogSegmentData(REMOTE_LOG_METADATA, logSegmentData))
+            .isInstanceOf(RemoteStorageException.class)
+            .hasRootCauseMessage("Manifest upload failed");
+        // A first copy can't find objects uploaded already, so it doesn't look for them.
+        verify(storage, never()).metadata(any(ObjectKey.class));
+        failManifestUpload.set(false);
+        rsm.copyLogSegmentData(REMOTE_LOG_METADATA, logSegmentData);
+
+        // Only the manifest is uploaded by the retry.
+        assertThat(uploadedKeys).hasSize(3);
+        assertThat(uploadedKeys.get(2)).endsWith("." + ObjectKeyFactory.Suffix.MANIFEST.value);
+        final byte[] manifest = uploadedObject(uploads, ObjectKeyFactory.Suffix.MANIFEST);
+
+        // The manifest is the same as of a copy uploading everything.
+        uploads.clear();
+        rsm.copyLogSegmentData(REMOTE_LOG_METADATA, logSegmentData);
+        assertThat(uploadedKeys).hasSize(6);
+        assertThat(uploadedObject(uploads, ObjectKeyFactory.Suffix.MANIFEST)).isEqualTo(manifest);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void copyUploadsSegmentLogChangedSinceFailedCopy(final boolean compression) throws Exception {
+        final StorageBackend storage = mock(StorageBackend.class);
+        final Map<String, byte[]> uploads = new ConcurrentHashMap<>();
+        final List<String> uploadedKeys = new CopyOnWriteArrayList<>();
+        final AtomicBoolean failManifestUpload = new AtomicBoolean(true);
+        stubUploads(storage, invocation -> {
+            final ObjectKey key = uploadedKey(invocation);
+            final byte[] content = uploadedBytes(invocation);
+            if (key.value().endsWith("." + ObjectKeyFactory.Suffix.MANIFEST.value) && failManifestUpload.get()) {
+                throw new StorageBackendException("Manifest upload failed");
+            }
+            uploads.put(key.value(), content);
+            uploadedKeys.add(key.value());
+            return (long) content.length;
+        });
+        when(storage.metadata(any(ObjectKey.class))).thenAnswer(invocation -> {
+            final byte[] content = uploads.get(((ObjectKey) invocation.getArgument(0)).value());
+            return Optional.of(new ObjectMetadata(content.length, ObjectChecksum.md5(md5(content))));
+        });
+        rsm.configure(Map.of(
+            "chunk.size", "1048576",
+            "compression.enabled", Boolean.toString(compression),
+            "storage.backend.class", "io.aiven.kafka.tieredstorage.storage.filesystem.FileSystemStorage",
+            "storage.root", targetDir.toString()
+        ));
+        rsm.setStorage(storage);
+        final LogSegmentData logSegmentData = logSegmentData();
+        assertThatThrownBy(() -> rsm.copyLogSegmentData(REMOTE_LOG_METADATA, logSegmentData))
+            .isInstanceOf(RemoteStorageException.class)
+            .hasRootCauseMessage("Manifest upload failed");
+
+        // Same size, but different content of the last chunk.
+        final byte[] segment = new byte[SEGMENT_SIZE];
+        segment[SEGMENT_SIZE - 1] = 1;
+        Files.write(logSegmentData.logSegment(), segment);
+        failManifestUpload.set(false);
+        rsm.copyLogSegmentData(REMOTE_LOG_METADATA, logSegmentData);
+
+        assertThat(uploadedKeys).hasSize(4);
+        assertThat(uploadedKeys.get(2)).endsWith("." + ObjectKeyFactory.Suffix.LOG.value);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void packedSegmentRoundTrip(final boolean compression) throws Exception {
+        rsm.configure(Map.of(
+            "chunk.size", "1048576",
+            "compression.enabled", Boolean.toString(compression),
+            "segment.packed.enabled", "true",
+            "storage.backend.class", "io.aiven.kafka.tieredstorage.storage.filesystem.FileSystemStorage",
+            "storage.root", targetDir.toString()
+        ));
+        final LogSegmentData logSegmentData = logSegmentData();
+        final byte[] segment = new byte[SEGMENT_SIZE];
+        for (int i = 0; i < segment.length; i++) {
+            segment[i] = (byte) (i % 251);
+        }
+        Files.write(logSegmentData.logSegment(), segment);
+        final byte[] offsetIndex = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        Files.write(logSegmentData.offsetIndex(), offsetIndex);
+
+        rsm.copyLogSegmentData(REMOTE_LOG_METADATA, logSegmentData);
+
+        final ObjectKeyFactory objectKeyFactory = new ObjectKeyFactory("", false);
+        for (final var suffix : ObjectKeyFactory.Suffix.values()) {
+            final Path object = targetDir.resolve(objectKeyFactory.key(REMOTE_LOG_METADATA, suffix).value());
+            if (suffix == ObjectKeyFactory.Suffix.PACKED) {
+                assertThat(object).exists();
+            } else {
+                assertThat(object).doesNotExist();
+            }
+        }
+        try (final InputStream log = rsm.fetchLogSegment(REMOTE_LOG_METADATA, 0)) {
+            assertThat(log.readAllBytes()).isEqualTo(segment);
+        }
+        try (final InputStream index = rsm.fetchIndex(REMOTE_LOG_METADATA, IndexType.OFFSET)) {
+            assertThat(index.readAllBytes()).isEqualTo(offsetIndex);
+        }
+
+        rsm.deleteLogSegmentData(REMOTE_LOG_METADATA);
+        assertThat(targetDir.resolve(objectKeyFactory.key(REMOTE_LOG_METADATA, ObjectKeyFactory.Suffix.PACKED).value()))
+            .doesNotExist();
+    }
+
+    @Test
+    void segmentPackRoundTrip() throws Exception {
+        rsm.configure(Map.of(
+            "chunk.size", "1048576",
+            "segment.pack.max.bytes", "4000",
+            "segment.pack.segment.max.bytes", "1024",
+            "storage.backend.class", "io.aiven.kafka.tieredstorage.storage.filesystem.FileSystemStorage",
+            "storage.root", targetDir.toString()
+        ));
+        final LogSegmentData logSegmentData = logSegmentData();
+        final byte[] offsetIndex = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        Files.write(logSegmentData.offsetIndex(), offsetIndex);
+
+        final ObjectKeyFactory objectKeyFactory = new ObjectKeyFactory("", false);
+        final List<RemoteLogSegmentMetadata> segments = new ArrayList<>();
+        final List<byte[]> contents = new ArrayList<>();
+        Path pack = null;
+        for (int i = 0; i < 3; i++) {
+            final byte[] segment = new byte[1000];
+            Arrays.fill(segment, (byte) (i + 1));
+            Files.write(logSegmentData.logSegment(), segment);
+            final var metadata = new RemoteLogSegmentMetadata(
+                new RemoteLogSegmentId(TOPIC_ID_PARTITION, Uuid.randomUuid()), i * 100L, i * 100L + 99,
+                0, 0, 0, segment.length, Map.of(0, 0L));
+            final Optional<RemoteLogSegmentMetadata.CustomMetadata> customMetadata =
+                rsm.copyLogSegmentData(metadata, logSegmentData);
+            segments.add(new RemoteLogSegmentMetadata(
+                metadata.remoteLogSegmentId(), metadata.startOffset(), metadata.endOffset(),
+                0, 0, 0, segment.length, customMetadata, RemoteLogSegmentState.COPY_SEGMENT_FINISHED,
+                Map.of(0, 0L)));
+            contents.add(segment);
+            if (i == 0) {
+                final String packId = ObjectKeyFactory.packId(segments.get(0));
+                pack = targetDir.resolve(
+                    objectKeyFactory.packKey(Map.of(), segments.get(0), packId, ObjectKeyFactory.Suffix.PACK).value());
+            }
+            if (i < 2) {
+                // Until the pack is sealed, the segments are stored in their own objects.
+                assertThat(pack).doesNotExist();
+            }
+        }
+
+        // The third segment doesn't fit, so the pack of the first two is sealed.
+        assertThat(pack).exists();
+        for (int i = 0; i < 2; i++) {
+            assertThat(targetDir.resolve(
+                objectKeyFactory.key(segments.get(i), ObjectKeyFactory.Suffix.PACKED).value())).doesNotExist();
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            try (final InputStream log = rsm.fetchLogSegment(segments.get(i), 0)) {
+                assertThat(log.readAllBytes()).isEqualTo(contents.get(i));
+            }
+            try (final InputStream index = rsm.fetchIndex(segments.get(i), IndexType.OFFSET)) {
+                assertThat(index.readAllBytes()).isEqualTo(offsetIndex);
+            }
+        }
+
+        rsm.deleteLogSegmentData(segments.get(0));
+        assertThat(pack).exists();
+        try (final InputStream log = rsm.fetchLogSegment(segments.get(1), 0)) {
+            assertThat(log.readAllBytes()).isEqualTo(contents.get(1));
+        }
+        rsm.deleteLogSegmentData(segments.get(1));
+        assertThat(pack).doesNotExist();
+
+        rsm.deleteLogSegmentData(segments.get(2));
+        assertThat(targetDir.resolve(
+            objectKeyFactory.key(segments.get(2), ObjectKeyFactory.Suffix.PACKED).value())).doesNotExist();
+    }
+
+    private static byte[] md5(final byte[] content) throws Exception {
+        return MessageDigest.getInstance("MD5").digest(content);
+    }
+
+    private static byte[] uploadedObject(final Map<String, byte[]> uploads, final ObjectKeyFactory.Suffix suffix) {
+        return uploads.entrySet().stream()
+            .filter(e -> e.getKey().endsWith("." + suffix.value))
+            .map(Map.Entry::getValue)
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static void stubUploads(final StorageBackend storage, final Answer<Long> upload)
+        throws StorageBackendException {
+        when(storage.upload(any(InputStream.class), any(ObjectKey.class))).thenAnswer(upload);
+        when(storage.upload(any(InputStream.class), any(ObjectKey.class), anyLong())).thenAnswer(upload);
+        when(storage.upload(any(ReadableByteChannel.class), anyLong(), any(ObjectKey.class))).thenAnswer(upload);
+        when(storage.upload(anyList(), any(ObjectKey.class))).thenAnswer(upload);
+    }
+
+    private static ObjectKey uploadedKey(final InvocationOnMock invocation) {
+        return (ObjectKey) Arrays.stream(invocation.getArguments())
+            .filter(ObjectKey.class::isInstance)
+            .findFirst()
+            .orElseThrow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long uploadedSize(final InvocationOnMock invocation) throws IOException {
+        final Object content = invocation.getArgument(0);
+        if (content instanceof InputStream) {
+            return ((InputStream) content).readAllBytes().length;
+        } else if (content instanceof ReadableByteChannel) {
+            return Channels.newInputStream((ReadableByteChannel) content).readAllBytes().length;
+        } else {
+            return ObjectUploader.remaining((List<ByteBuffer>) content);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static byte[] uploadedBytes(final InvocationOnMock invocation) throws IOException {
+        final Object content = invocation.getArgument(0);
+        if (content instanceof InputStream) {
+            return ((InputStream) content).readAllBytes();
+        } else if (content instanceof ReadableByteChannel) {
+            return Channels.newInputStream((ReadableByteChannel) content).readAllBytes();
+        } else {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            for (final ByteBuffer buffer : (List<ByteBuffer>) content) {
+                final ByteBuffer duplicate = buffer.duplicate();
+                final byte[] array = new byte[duplicate.remaining()];
+                duplicate.get(array);
+                bytes.write(array);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    private LogSegmentData logSegmentData() throws IOException {
+        final Path sourceDir = Files.createDirectories(tmpDir.resolve("source"));
+        final Path segment = Files.write(sourceDir.resolve("segment.log"), new byte[SEGMENT_SIZE]);
+        final Path index = Files.write(sourceDir.resolve("segment.index"), new byte[10]);
+        return new LogSegmentData(segment, index, index, Optional.empty(), index, ByteBuffer.wrap(new byte[10]));
+    }
+
     static Stream<Arguments> provideNonInterruptionExceptions() {
         return Stream.of(
             arguments(null, Exception.class),
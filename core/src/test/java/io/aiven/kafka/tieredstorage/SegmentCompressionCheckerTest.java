@@ -20,6 +20,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.kafka.common.record.CompressionType;
 import org.apache.kafka.common.record.FileRecords;
@@ -27,6 +29,8 @@ import org.apache.kafka.common.record.MemoryRecords;
 import org.apache.kafka.common.record.MemoryRecordsBuilder;
 import org.apache.kafka.common.record.TimestampType;
 
+import io.aiven.kafka.tieredstorage.transform.CompressionCodec;
+
 import org.assertj.core.util.Files;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -125,4 +129,89 @@ class SegmentCompressionCheckerTest {
         final boolean requires = SegmentCompressionChecker.check(file);
         assertThat(requires).isEqualTo(result);
     }
+
+    @Test
+    void invalidSamplingParameters() {
+        assertThatThrownBy(() -> new SegmentCompressionChecker(0, 0, 0.1, CompressionCodec.ZSTD, 3))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("sampleBatches must be positive, 0 given");
+        assertThatThrownBy(() -> new SegmentCompressionChecker(1, -1, 0.1, CompressionCodec.ZSTD, 3))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("trialSize must be non-negative, -1 given");
+    }
+
+    @Test
+    void shouldSampleBatchesAcrossSegment() throws InvalidRecordBatchException, IOException {
+        // Only the first batch is compressed.
+        final Path segment = dir.resolve("segment.log");
+        final Path offsetIndex = dir.resolve("segment.index");
+        writeSegment(segment, offsetIndex, List.of(
+            CompressionType.ZSTD, CompressionType.NONE, CompressionType.NONE, CompressionType.NONE));
+
+        final var estimate = new SegmentCompressionChecker(16, 0, 0.1, CompressionCodec.ZSTD, 3)
+            .estimate(segment, offsetIndex);
+        assertThat(estimate.uncompressedBytes).isPositive();
+        assertThat(estimate.sampledBytes).isGreaterThan(estimate.uncompressedBytes);
+        assertThat(estimate.ratio).isNull();
+        assertThat(estimate.worthCompressing).isTrue();
+
+        // Like the first batch check.
+        final var firstBatchEstimate = new SegmentCompressionChecker(1, 0, 0.1, CompressionCodec.ZSTD, 3)
+            .estimate(segment, offsetIndex);
+        assertThat(firstBatchEstimate.uncompressedBytes).isZero();
+        assertThat(firstBatchEstimate.worthCompressing).isFalse();
+    }
+
+    @Test
+    void shouldSampleFirstBatchWithoutOffsetIndex() throws InvalidRecordBatchException, IOException {
+        final Path segment = dir.resolve("segment.log");
+        final Path offsetIndex = dir.resolve("segment.index");
+        writeSegment(segment, offsetIndex, List.of(CompressionType.NONE, CompressionType.ZSTD));
+        java.nio.file.Files.delete(offsetIndex);
+
+        final var estimate = new SegmentCompressionChecker(16, 0, 0.1, CompressionCodec.ZSTD, 3)
+            .estimate(segment, offsetIndex);
+        assertThat(estimate.sampledBytes).isEqualTo(estimate.uncompressedBytes);
+        assertThat(estimate.worthCompressing).isTrue();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"ZSTD,0.1,true", "LZ4,0.1,true", "ZSTD,1.0,false"})
+    void shouldEstimateRatioWithTrialCompression(final CompressionCodec codec,
+                                                 final double minSavings,
+                                                 final boolean worthCompressing)
+        throws InvalidRecordBatchException, IOException {
+        final Path segment = dir.resolve("segment.log");
+        final Path offsetIndex = dir.resolve("segment.index");
+        writeSegment(segment, offsetIndex, List.of(CompressionType.NONE, CompressionType.NONE));
+
+        final var estimate = new SegmentCompressionChecker(16, 10_000, minSavings, codec, 3)
+            .estimate(segment, offsetIndex);
+        assertThat(estimate.ratio).isBetween(0.0, 0.9);
+        assertThat(estimate.worthCompressing).isEqualTo(worthCompressing);
+    }
+
+    private void writeSegment(final Path segment,
+                              final Path offsetIndex,
+                              final List<CompressionType> batchCompressionTypes) throws IOException {
+        final ByteBuffer index = ByteBuffer.allocate(batchCompressionTypes.size() * 8);
+        try (final FileRecords records = FileRecords.open(segment.toFile(), false, 100000, true)) {
+            int offset = 0;
+            for (final CompressionType compressionType : batchCompressionTypes) {
+                // Kafka doesn't index the first batch.
+                if (offset > 0) {
+                    index.putInt(offset);
+                    index.putInt(records.sizeInBytes());
+                }
+                try (final MemoryRecordsBuilder builder = MemoryRecords.builder(
+                    ByteBuffer.allocate(1024), compressionType, TimestampType.CREATE_TIME, offset)) {
+                    for (int i = 0; i < 10; i++, offset++) {
+                        builder.append(0L, ("key-" + offset).getBytes(), "value-aaaaaaaaaaaaaaaaaa".getBytes());
+                    }
+                    records.append(builder.build());
+                }
+            }
+        }
+        java.nio.file.Files.write(offsetIndex, Arrays.copyOf(index.array(), index.position()));
+    }
 }
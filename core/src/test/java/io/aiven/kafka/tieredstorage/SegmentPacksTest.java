@@ -0,0 +1,211 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.kafka.common.TopicIdPartition;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.Uuid;
+import org.apache.kafka.common.utils.Time;
+import org.apache.kafka.server.log.remote.storage.RemoteLogSegmentId;
+import org.apache.kafka.server.log.remote.storage.RemoteLogSegmentMetadata;
+
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.storage.filesystem.FileSystemStorage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static io.aiven.kafka.tieredstorage.metadata.SegmentCustomMetadataField.PACK_ID;
+import static io.aiven.kafka.tieredstorage.metadata.SegmentCustomMetadataField.PACK_POSITION;
+import static io.aiven.kafka.tieredstorage.metadata.SegmentCustomMetadataField.PACK_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SegmentPacksTest {
+    static final TopicIdPartition TOPIC_ID_PARTITION =
+        new TopicIdPartition(Uuid.METADATA_TOPIC_ID, new TopicPartition("topic", 7));
+    static final long MAX_PACK_AGE_MS = 1000;
+
+    @TempDir
+    Path root;
+
+    FileSystemStorage storage;
+    ObjectKeyFactory objectKeyFactory;
+    Time time;
+    SegmentPacks segmentPacks;
+
+    @BeforeEach
+    void init() {
+        storage = new FileSystemStorage();
+        storage.configure(Map.of("root", root.toString()));
+        objectKeyFactory = new ObjectKeyFactory("", false);
+        time = mock(Time.class);
+        segmentPacks = new SegmentPacks(
+            new PackMemberObjectFetcher(storage), storage, storage, objectKeyFactory, 25, MAX_PACK_AGE_MS, time);
+    }
+
+    @Test
+    void addsToOpenPackUntilFull() throws StorageBackendException, IOException {
+        final var first = segment(0);
+        final var second = segment(10);
+        final var third = segment(20);
+
+        final SegmentPackMember firstMember = add(first, bytes(10, 1));
+        final SegmentPackMember secondMember = add(second, bytes(10, 2));
+        assertThat(root.resolve(packKey(first, ObjectKeyFactory.Suffix.PACK))).doesNotExist();
+        // Segments of the open pack are read from their own objects.
+        assertThat(fetch(first, firstMember)).isEqualTo(bytes(10, 1));
+        assertThat(fetch(second, secondMember)).isEqualTo(bytes(10, 2));
+
+        final SegmentPackMember thirdMember = add(third, bytes(10, 3));
+
+        final String firstPackId = ObjectKeyFactory.packId(first);
+        assertThat(firstMember).isEqualTo(new SegmentPackMember(firstPackId, 0, 10));
+        assertThat(secondMember).isEqualTo(new SegmentPackMember(firstPackId, 10, 10));
+        assertThat(thirdMember).isEqualTo(new SegmentPackMember(ObjectKeyFactory.packId(third), 0, 10));
+
+        // The first pack is sealed, and its segments are read from it.
+        assertThat(root.resolve(packKey(first, ObjectKeyFactory.Suffix.PACK))).exists();
+        assertThat(root.resolve(objectKeyFactory.key(first, ObjectKeyFactory.Suffix.PACKED).value()))
+            .doesNotExist();
+        assertThat(root.resolve(objectKeyFactory.key(second, ObjectKeyFactory.Suffix.PACKED).value()))
+            .doesNotExist();
+        assertThat(fetch(second, secondMember)).isEqualTo(bytes(10, 2));
+        assertThat(fetch(first, firstMember)).isEqualTo(bytes(10, 1));
+        assertThat(fetch(third, thirdMember)).isEqualTo(bytes(10, 3));
+    }
+
+    @Test
+    void sealsOpenPackOnceTooOld() throws StorageBackendException, IOException {
+        final var first = segment(0);
+        final var second = segment(10);
+
+        final SegmentPackMember firstMember = add(first, bytes(10, 1));
+        when(time.milliseconds()).thenReturn(MAX_PACK_AGE_MS);
+        final SegmentPackMember secondMember = add(second, bytes(10, 2));
+
+        assertThat(secondMember).isEqualTo(new SegmentPackMember(ObjectKeyFactory.packId(second), 0, 10));
+        assertThat(root.resolve(packKey(first, ObjectKeyFactory.Suffix.PACK))).exists();
+        assertThat(fetch(first, firstMember)).isEqualTo(bytes(10, 1));
+    }
+
+    @Test
+    void removesSegmentsFromOpenPack() throws StorageBackendException, IOException {
+        final var first = segment(0);
+        final var failed = segment(10);
+        final var second = segment(20);
+        add(first, bytes(10, 1));
+        add(failed, bytes(5, 2));
+        // A failed copy has no custom metadata.
+        segmentPacks.remove(failed, Map.of());
+        final SegmentPackMember secondMember = add(second, bytes(10, 3));
+        assertThat(secondMember).isEqualTo(new SegmentPackMember(ObjectKeyFactory.packId(first), 10, 10));
+
+        add(segment(30), bytes(10, 4));
+
+        assertThat(root.resolve(packKey(first, ObjectKeyFactory.Suffix.PACK))).hasSize(20);
+        assertThat(fetch(second, secondMember)).isEqualTo(bytes(10, 3));
+    }
+
+    @Test
+    void deletesPackWithLastSegment() throws StorageBackendException, IOException {
+        final var first = segment(0);
+        final var second = segment(10);
+        final SegmentPackMember firstMember = add(first, bytes(10, 1));
+        final SegmentPackMember secondMember = add(second, bytes(10, 2));
+        add(segment(20), bytes(10, 3));
+        final Path pack = root.resolve(packKey(first, ObjectKeyFactory.Suffix.PACK));
+        final Path index = root.resolve(packKey(first, ObjectKeyFactory.Suffix.PACK_INDEX));
+
+        segmentPacks.remove(first, fields(firstMember));
+        assertThat(pack).exists();
+        assertThat(index).exists();
+        assertThat(fetch(second, secondMember)).isEqualTo(bytes(10, 2));
+
+        // Deleting again is a no-op.
+        segmentPacks.remove(first, fields(firstMember));
+        assertThat(pack).exists();
+
+        segmentPacks.remove(second, fields(secondMember));
+        assertThat(pack).doesNotExist();
+        assertThat(index).doesNotExist();
+    }
+
+    @Test
+    void excludesSegmentsDeletedBeforeSealing() throws StorageBackendException, IOException {
+        final var first = segment(0);
+        final var second = segment(10);
+        add(first, bytes(10, 1));
+        final SegmentPackMember secondMember = add(second, bytes(10, 2));
+        // Deleted by another broker, which doesn't know about the open pack.
+        storage.delete(objectKeyFactory.key(first, ObjectKeyFactory.Suffix.PACKED));
+        add(segment(20), bytes(10, 3));
+
+        assertThat(fetch(second, secondMember)).isEqualTo(bytes(10, 2));
+        segmentPacks.remove(second, fields(secondMember));
+        assertThat(root.resolve(packKey(first, ObjectKeyFactory.Suffix.PACK))).doesNotExist();
+        assertThat(root.resolve(packKey(first, ObjectKeyFactory.Suffix.PACK_INDEX))).doesNotExist();
+    }
+
+    private SegmentPackMember add(final RemoteLogSegmentMetadata segment, final byte[] content)
+        throws StorageBackendException {
+        storage.upload(
+            new ByteArrayInputStream(content), objectKeyFactory.key(segment, ObjectKeyFactory.Suffix.PACKED));
+        return segmentPacks.add(segment, content.length);
+    }
+
+    private byte[] fetch(final RemoteLogSegmentMetadata segment, final SegmentPackMember member)
+        throws StorageBackendException, IOException {
+        final var key = segmentPacks.memberKey(segment, fields(member)).orElseThrow();
+        try (final InputStream is = new PackMemberObjectFetcher(storage).fetch(key)) {
+            return is.readAllBytes();
+        }
+    }
+
+    private String packKey(final RemoteLogSegmentMetadata packStart, final ObjectKeyFactory.Suffix suffix) {
+        return objectKeyFactory.packKey(Map.of(), packStart, ObjectKeyFactory.packId(packStart), suffix).value();
+    }
+
+    private static Map<Integer, Object> fields(final SegmentPackMember member) {
+        return Map.of(
+            PACK_ID.index(), member.packId(),
+            PACK_POSITION.index(), member.position(),
+            PACK_SIZE.index(), member.size());
+    }
+
+    private static RemoteLogSegmentMetadata segment(final long startOffset) {
+        return new RemoteLogSegmentMetadata(
+            new RemoteLogSegmentId(TOPIC_ID_PARTITION, Uuid.randomUuid()), startOffset, startOffset + 9,
+            0, 0, 0, 10, Map.of(0, 0L));
+    }
+
+    private static byte[] bytes(final int size, final int value) {
+        final byte[] bytes = new byte[size];
+        Arrays.fill(bytes, (byte) value);
+        return bytes;
+    }
+}
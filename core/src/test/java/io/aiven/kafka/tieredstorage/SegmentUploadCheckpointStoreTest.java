@@ -0,0 +1,148 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.common.TopicIdPartition;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.Uuid;
+import org.apache.kafka.server.log.remote.storage.RemoteLogSegmentId;
+
+import io.aiven.kafka.tieredstorage.manifest.SegmentCompressionMetadataV1;
+import io.aiven.kafka.tieredstorage.storage.TestObjectKey;
+import io.aiven.kafka.tieredstorage.storage.UploadCheckpoint;
+import io.aiven.kafka.tieredstorage.transform.CompressionCodec;
+import io.aiven.kafka.tieredstorage.transform.TransformedChunk;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentUploadCheckpointStoreTest {
+    static final RemoteLogSegmentId REMOTE_SEGMENT_ID = new RemoteLogSegmentId(
+        new TopicIdPartition(Uuid.METADATA_TOPIC_ID, new TopicPartition("topic", 7)), Uuid.ZERO_UUID);
+    static final SegmentUploadCheckpoint CHECKPOINT = new SegmentUploadCheckpoint(
+        new TestObjectKey("topic/segment.log"),
+        new UploadCheckpoint("upload-id", List.of(
+            new UploadCheckpoint.Part(1, "etag-1", 100),
+            new UploadCheckpoint.Part(2, "etag-2", 100))),
+        50,
+        new SegmentCompressionMetadataV1(CompressionCodec.ZSTD, 3, "dictionary-key"),
+        0.05,
+        List.of(new TransformedChunk(60, false), new TransformedChunk(50, true), new TransformedChunk(70, false)));
+
+    @TempDir
+    Path dir;
+
+    SegmentUploadCheckpointStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new SegmentUploadCheckpointStore(dir.resolve("checkpoints"));
+    }
+
+    @Test
+    void savesAndLoads() {
+        store.save(REMOTE_SEGMENT_ID, CHECKPOINT);
+
+        assertThat(store.load(REMOTE_SEGMENT_ID)).hasValue(CHECKPOINT);
+        assertThat(dir.resolve("checkpoints")).isDirectoryContaining("glob:**/AAAAAAAAAAAAAAAAAAAAAA.json");
+    }
+
+    @Test
+    void replacesCheckpoint() {
+        store.save(REMOTE_SEGMENT_ID, CHECKPOINT);
+        final SegmentUploadCheckpoint newCheckpoint = new SegmentUploadCheckpoint(
+            new TestObjectKey("topic/segment.log"),
+            new UploadCheckpoint("upload-id", List.of(new UploadCheckpoint.Part(1, "etag-1", 100))),
+            50, null, 0.05, List.of());
+        store.save(REMOTE_SEGMENT_ID, newCheckpoint);
+
+        assertThat(store.load(REMOTE_SEGMENT_ID)).hasValue(newCheckpoint);
+        assertThat(dir.resolve("checkpoints")).isDirectoryNotContaining("glob:**/*.tmp");
+    }
+
+    @Test
+    void loadsNothingWithoutCheckpoint() {
+        assertThat(store.load(REMOTE_SEGMENT_ID)).isEmpty();
+    }
+
+    @Test
+    void discardsUnreadableCheckpoint() throws IOException {
+        final Path path = dir.resolve("checkpoints").resolve("AAAAAAAAAAAAAAAAAAAAAA.json");
+        Files.writeString(path, "{\"uploadId\":");
+
+        assertThat(store.load(REMOTE_SEGMENT_ID)).isEmpty();
+        assertThat(path).doesNotExist();
+    }
+
+    @Test
+    void deletes() {
+        store.save(REMOTE_SEGMENT_ID, CHECKPOINT);
+        store.delete(REMOTE_SEGMENT_ID);
+
+        assertThat(store.load(REMOTE_SEGMENT_ID)).isEmpty();
+    }
+
+    @Test
+    void expiresOldCheckpoints() throws IOException {
+        final RemoteLogSegmentId recentSegmentId = new RemoteLogSegmentId(
+            REMOTE_SEGMENT_ID.topicIdPartition(), new Uuid(0, 1));
+        store.save(REMOTE_SEGMENT_ID, CHECKPOINT);
+        store.save(recentSegmentId, CHECKPOINT);
+        final Path checkpoints = dir.resolve("checkpoints");
+        final Path expiredPath = checkpoints.resolve("AAAAAAAAAAAAAAAAAAAAAA.json");
+        final Path leftoverPath = checkpoints.resolve("AAAAAAAAAAAAAAAAAAAAAA.json.tmp");
+        Files.writeString(leftoverPath, "{");
+        Files.setLastModifiedTime(expiredPath, FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(leftoverPath, FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(checkpoints.resolve("AAAAAAAAAAAAAAAAAAAAAQ.json"), FileTime.fromMillis(2000));
+
+        final List<SegmentUploadCheckpoint> expired = new ArrayList<>();
+        store.expire(2500, 1000, expired::add);
+
+        assertThat(expired).containsExactly(CHECKPOINT);
+        assertThat(expiredPath).doesNotExist();
+        assertThat(leftoverPath).doesNotExist();
+        assertThat(store.load(recentSegmentId)).hasValue(CHECKPOINT);
+    }
+
+    @Test
+    void resumedPositions() {
+        assertThat(CHECKPOINT.originalPosition()).isEqualTo(150);
+        assertThat(CHECKPOINT.uploadedBytesOfNextChunk()).isEqualTo(20);
+    }
+
+    @Test
+    void matchesSameTransformation() {
+        final var compression = new SegmentCompressionMetadataV1(CompressionCodec.ZSTD, 3, "dictionary-key");
+        assertThat(CHECKPOINT.matches(50, compression, 0.05)).isTrue();
+        assertThat(CHECKPOINT.matches(100, compression, 0.05)).isFalse();
+        assertThat(CHECKPOINT.matches(50, null, 0.05)).isFalse();
+        assertThat(CHECKPOINT.matches(50, new SegmentCompressionMetadataV1(CompressionCodec.ZSTD, 3), 0.05))
+            .isFalse();
+        assertThat(CHECKPOINT.matches(50, compression, 0.1)).isFalse();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.utils.Time;
+
+import io.aiven.kafka.tieredstorage.metrics.Metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UploadRateLimiterTest {
+    static final long RATE = 1000;
+
+    @Mock
+    Time time;
+    @Mock
+    Metrics metrics;
+
+    @Test
+    void burstsUpToOneSecondOfBytes() throws InterruptedIOException {
+        final UploadRateLimiter limiter = new UploadRateLimiter(RATE, time, metrics);
+
+        limiter.acquire(RATE);
+
+        verify(time, never()).sleep(anyLong());
+        verify(metrics).recordUploadRateLimiterAcquire(RATE, 0);
+    }
+
+    @Test
+    void waitsUntilDebtIsPaidOff() throws InterruptedIOException {
+        final UploadRateLimiter limiter = new UploadRateLimiter(RATE, time, metrics);
+
+        limiter.acquire(RATE);
+        limiter.acquire(500);
+        verify(time).sleep(500);
+        verify(metrics).recordUploadRateLimiterAcquire(500, 500);
+
+        // The clock did not move, so the next caller waits for the accumulated debt.
+        limiter.acquire(250);
+        verify(time).sleep(750);
+        verify(metrics).recordUploadRateLimiterAcquire(250, 750);
+    }
+
+    @Test
+    void refillsWithTime() throws InterruptedIOException {
+        when(time.nanoseconds()).thenReturn(0L, 0L, TimeUnit.MILLISECONDS.toNanos(250));
+        final UploadRateLimiter limiter = new UploadRateLimiter(RATE, time, metrics);
+
+        limiter.acquire(RATE);
+        limiter.acquire(250);
+
+        verify(time, never()).sleep(anyLong());
+    }
+
+    @Test
+    void doesNotRefillAboveOneSecondOfBytes() throws InterruptedIOException {
+        when(time.nanoseconds()).thenReturn(0L, TimeUnit.HOURS.toNanos(1));
+        final UploadRateLimiter limiter = new UploadRateLimiter(RATE, time, metrics);
+
+        limiter.acquire(1500);
+
+        verify(time).sleep(500);
+    }
+
+    @Test
+    void failsWhenInterrupted() {
+        final UploadRateLimiter limiter = new UploadRateLimiter(RATE, time, metrics);
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> limiter.acquire(2 * RATE))
+                .isInstanceOf(InterruptedIOException.class)
+                .hasMessage("Interrupted while waiting for the upload rate limiter");
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void invalidRate() {
+        assertThatThrownBy(() -> new UploadRateLimiter(0, time, metrics))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("bytesPerSecond must be positive, 0 given");
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.kafka.common.config.ConfigException;
 
 import io.aiven.kafka.tieredstorage.metadata.SegmentCustomMetadataField;
 import io.aiven.kafka.tieredstorage.storage.StorageBackend;
+import io.aiven.kafka.tieredstorage.transform.CompressionCodec;
 
 import org.junit.jupiter.api.Test;
 
@@ -47,6 +48,31 @@ class RemoteStorageManagerConfigTest {
         assertThat(config.chunkSize()).isEqualTo(123);
         assertThat(config.compressionEnabled()).isFalse();
         assertThat(config.compressionHeuristicEnabled()).isFalse();
+        assertThat(config.compressionHeuristicSampleBatches()).isEqualTo(16);
+        assertThat(config.compressionHeuristicTrialSize()).isZero();
+        assertThat(config.compressionHeuristicMinSavings()).isEqualTo(0.1);
+        assertThat(config.compressionCodec()).isEqualTo(CompressionCodec.ZSTD);
+        assertThat(config.compressionZstdLevel()).isEqualTo(3);
+        assertThat(config.compressionZstdDictionaryEnabled()).isFalse();
+        assertThat(config.compressionZstdDictionarySize()).isEqualTo(64 * 1024);
+        assertThat(config.compressionRawFallbackMargin()).isEmpty();
+        assertThat(config.transformPoolSize()).isZero();
+        assertThat(config.uploadIndexesPoolSize()).isEqualTo(10);
+        assertThat(config.transformBufferPoolSize()).isZero();
+        assertThat(config.transformBufferPoolDirect()).isFalse();
+        assertThat(config.uploadRateLimitBytesPerSecond()).isZero();
+        assertThat(config.memoryBudgetBytes()).isZero();
+        assertThat(config.memoryBudgetMaxWaitMs()).isEqualTo(10_000);
+        assertThat(config.uploadCheckpointDir()).isNull();
+        assertThat(config.segmentPackedEnabled()).isFalse();
+        assertThat(config.segmentPackMaxBytes()).isZero();
+        assertThat(config.segmentPackSegmentMaxBytes()).isEqualTo(1024 * 1024);
+        assertThat(config.segmentPackMaxAgeMs()).isEqualTo(60 * 60 * 1000);
+        assertThat(config.fetchCoalescedMaxBytes()).isZero();
+        assertThat(config.fetchReadAheadChunks()).isZero();
+        assertThat(config.fetchReadAheadConcurrency()).isEqualTo(10);
+        assertThat(config.fetchDetransformPoolSize()).isZero();
+        assertThat(config.fetchBufferPoolSize()).isZero();
         assertThat(config.encryptionEnabled()).isFalse();
         assertThat(config.encryptionKeyPairId()).isNull();
         assertThat(config.encryptionKeyRing()).isNull();
@@ -117,6 +143,381 @@ class RemoteStorageManagerConfigTest {
         assertThat(config.compressionHeuristicEnabled()).isTrue();
     }
 
+    @Test
+    void compressionCodec() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "compression.enabled", "true",
+                "compression.codec", "lz4",
+                "compression.zstd.level", "19"
+            )
+        );
+        assertThat(config.compressionCodec()).isEqualTo(CompressionCodec.LZ4);
+        assertThat(config.compressionZstdLevel()).isEqualTo(19);
+    }
+
+    @Test
+    void invalidCompressionCodec() {
+        assertThatThrownBy(() -> new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "compression.codec", "snappy"
+            )
+        )).isInstanceOf(ConfigException.class)
+            .hasMessage("Invalid value snappy for configuration compression.codec: String must be one of: zstd, lz4");
+    }
+
+    @Test
+    void invalidCompressionZstdLevel() {
+        assertThatThrownBy(() -> new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "compression.zstd.level", "23"
+            )
+        )).isInstanceOf(ConfigException.class)
+            .hasMessage("Invalid value 23 for configuration compression.zstd.level: Value must be no more than 22");
+    }
+
+    @Test
+    void compressionZstdDictionary() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "compression.enabled", "true",
+                "compression.zstd.dictionary.enabled", "true",
+                "compression.zstd.dictionary.size", "16384"
+            )
+        );
+        assertThat(config.compressionZstdDictionaryEnabled()).isTrue();
+        assertThat(config.compressionZstdDictionarySize()).isEqualTo(16384);
+    }
+
+    @Test
+    void compressionZstdDictionaryWithLz4() {
+        assertThatThrownBy(() -> new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "compression.enabled", "true",
+                "compression.codec", "lz4",
+                "compression.zstd.dictionary.enabled", "true"
+            )
+        )).isInstanceOf(ConfigException.class)
+            .hasMessage("compression.codec must be zstd if compression.zstd.dictionary.enabled is enabled");
+    }
+
+    @Test
+    void compressionHeuristicSampling() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "compression.enabled", "true",
+                "compression.heuristic.enabled", "true",
+                "compression.heuristic.sample.batches", "4",
+                "compression.heuristic.trial.size", "65536",
+                "compression.heuristic.min.savings", "0.2"
+            )
+        );
+        assertThat(config.compressionHeuristicSampleBatches()).isEqualTo(4);
+        assertThat(config.compressionHeuristicTrialSize()).isEqualTo(65536);
+        assertThat(config.compressionHeuristicMinSavings()).isEqualTo(0.2);
+    }
+
+    @Test
+    void invalidCompressionHeuristicSampleBatches() {
+        assertThatThrownBy(() -> new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "compression.heuristic.sample.batches", "0"
+            )
+        )).isInstanceOf(ConfigException.class)
+            .hasMessage("Invalid value 0 for configuration compression.heuristic.sample.batches: "
+                + "Value must be at least 1");
+    }
+
+    @Test
+    void compressionRawFallbackMargin() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "compression.enabled", "true",
+                "compression.raw.fallback.margin", "0.1"
+            )
+        );
+        assertThat(config.compressionRawFallbackMargin()).hasValue(0.1);
+    }
+
+    @Test
+    void invalidCompressionRawFallbackMargin() {
+        assertThatThrownBy(() -> new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "compression.raw.fallback.margin", "1.5"
+            )
+        )).isInstanceOf(ConfigException.class)
+            .hasMessage("Invalid value 1.5 for configuration compression.raw.fallback.margin: "
+                + "Value must be no more than 1.0");
+    }
+
+    @Test
+    void transformPoolSize() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "transform.pool.size", "4"
+            )
+        );
+        assertThat(config.transformPoolSize()).isEqualTo(4);
+    }
+
+    @Test
+    void invalidTransformPoolSize() {
+        assertThatThrownBy(() -> new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "transform.pool.size", "-1"
+            )
+        )).isInstanceOf(ConfigException.class)
+            .hasMessage("Invalid value -1 for configuration transform.pool.size: Value must be at least 0");
+    }
+
+    @Test
+    void transformBufferPool() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "transform.buffer.pool.size", "16",
+                "transform.buffer.pool.direct", "true"
+            )
+        );
+        assertThat(config.transformBufferPoolSize()).isEqualTo(16);
+        assertThat(config.transformBufferPoolDirect()).isTrue();
+    }
+
+    @Test
+    void invalidTransformBufferPoolSize() {
+        assertThatThrownBy(() -> new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "transform.buffer.pool.size", "-1"
+            )
+        )).isInstanceOf(ConfigException.class)
+            .hasMessage("Invalid value -1 for configuration transform.buffer.pool.size: Value must be at least 0");
+    }
+
+    @Test
+    void transformBufferPoolWithTransformPool() {
+        assertThatThrownBy(() -> new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "transform.pool.size", "4",
+                "transform.buffer.pool.size", "16"
+            )
+        )).isInstanceOf(ConfigException.class)
+            .hasMessage("transform.pool.size and transform.buffer.pool.size can't be both positive");
+    }
+
+    @Test
+    void uploadIndexesPoolSize() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "upload.indexes.pool.size", "4"
+            )
+        );
+        assertThat(config.uploadIndexesPoolSize()).isEqualTo(4);
+    }
+
+    @Test
+    void invalidUploadIndexesPoolSize() {
+        assertThatThrownBy(() -> new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "upload.indexes.pool.size", "0"
+            )
+        )).isInstanceOf(ConfigException.class)
+            .hasMessage("Invalid value 0 for configuration upload.indexes.pool.size: Value must be at least 1");
+    }
+
+    @Test
+    void uploadRateLimit() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "upload.rate.limit.bytes.per.second", "104857600"
+            )
+        );
+        assertThat(config.uploadRateLimitBytesPerSecond()).isEqualTo(100 * 1024 * 1024);
+    }
+
+    @Test
+    void invalidUploadRateLimit() {
+        assertThatThrownBy(() -> new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "upload.rate.limit.bytes.per.second", "-1"
+            )
+        )).isInstanceOf(ConfigException.class)
+            .hasMessage("Invalid value -1 for configuration upload.rate.limit.bytes.per.second: "
+                + "Value must be at least 0");
+    }
+
+    @Test
+    void memoryBudget() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "memory.budget.bytes", "536870912",
+                "memory.budget.max.wait.ms", "0"
+            )
+        );
+        assertThat(config.memoryBudgetBytes()).isEqualTo(512 * 1024 * 1024);
+        assertThat(config.memoryBudgetMaxWaitMs()).isZero();
+    }
+
+    @Test
+    void invalidMemoryBudget() {
+        assertThatThrownBy(() -> new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "memory.budget.bytes", "-1"
+            )
+        )).isInstanceOf(ConfigException.class)
+            .hasMessage("Invalid value -1 for configuration memory.budget.bytes: Value must be at least 0");
+    }
+
+    @Test
+    void uploadCheckpointDir() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "upload.checkpoint.dir", "/var/lib/kafka/upload-checkpoints"
+            )
+        );
+        assertThat(config.uploadCheckpointDir()).isEqualTo(Path.of("/var/lib/kafka/upload-checkpoints"));
+    }
+
+    @Test
+    void emptyUploadCheckpointDir() {
+        assertThatThrownBy(() -> new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "upload.checkpoint.dir", ""
+            )
+        )).isInstanceOf(ConfigException.class)
+            .hasMessage("Invalid value  for configuration upload.checkpoint.dir: String must be non-empty");
+    }
+
+    @Test
+    void segmentPacked() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "segment.packed.enabled", "true"
+            )
+        );
+        assertThat(config.segmentPackedEnabled()).isTrue();
+    }
+
+    @Test
+    void segmentPack() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "segment.pack.max.bytes", "8388608",
+                "segment.pack.segment.max.bytes", "65536",
+                "segment.pack.max.age.ms", "60000"
+            )
+        );
+        assertThat(config.segmentPackMaxBytes()).isEqualTo(8 * 1024 * 1024);
+        assertThat(config.segmentPackSegmentMaxBytes()).isEqualTo(64 * 1024);
+        assertThat(config.segmentPackMaxAgeMs()).isEqualTo(60000);
+    }
+
+    @Test
+    void fetchCoalescedMaxBytes() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "fetch.coalesced.max.bytes", "67108864"
+            )
+        );
+        assertThat(config.fetchCoalescedMaxBytes()).isEqualTo(64 * 1024 * 1024);
+    }
+
+    @Test
+    void fetchReadAheadChunks() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "fetch.read.ahead.chunks", "4"
+            )
+        );
+        assertThat(config.fetchReadAheadChunks()).isEqualTo(4);
+    }
+
+    @Test
+    void fetchReadAheadConcurrency() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "fetch.read.ahead.concurrency", "32"
+            )
+        );
+        assertThat(config.fetchReadAheadConcurrency()).isEqualTo(32);
+    }
+
+    @Test
+    void fetchDetransformPoolSize() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "fetch.detransform.pool.size", "3"
+            )
+        );
+        assertThat(config.fetchDetransformPoolSize()).isEqualTo(3);
+    }
+
+    @Test
+    void fetchBufferPoolSize() {
+        final var config = new RemoteStorageManagerConfig(
+            Map.of(
+                "storage.backend.class", NoopStorageBackend.class.getCanonicalName(),
+                "chunk.size", "123",
+                "fetch.buffer.pool.size", "8"
+            )
+        );
+        assertThat(config.fetchBufferPoolSize()).isEqualTo(8);
+    }
+
     @Test
     void encryption() {
         final var config = new RemoteStorageManagerConfig(
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.fetch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkBufferInputStreamTest {
+    static final byte[] CONTENT = "0123456789".getBytes();
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void readsContent(final boolean direct) throws IOException {
+        try (final var is = new ChunkBufferInputStream(chunk(direct, null))) {
+            assertThat(is.available()).isEqualTo(10);
+            assertThat(is.read()).isEqualTo('0');
+            assertThat(is.skip(2)).isEqualTo(2);
+            final byte[] bytes = new byte[4];
+            assertThat(is.read(bytes, 1, 3)).isEqualTo(3);
+            assertThat(bytes).isEqualTo(new byte[] {0, '3', '4', '5'});
+            assertThat(is.skip(100)).isEqualTo(4);
+            assertThat(is.read()).isEqualTo(-1);
+            assertThat(is.read(bytes, 0, 4)).isEqualTo(-1);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void transfersRemainingContent(final boolean direct) throws IOException {
+        try (final var is = new ChunkBufferInputStream(chunk(direct, null).slice(1, 8))) {
+            assertThat(is.read()).isEqualTo('1');
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertThat(is.transferTo(out)).isEqualTo(7);
+            assertThat(out.toByteArray()).isEqualTo("2345678".getBytes());
+            assertThat(is.available()).isZero();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void releasesChunkWhenClosed(final boolean direct) throws IOException {
+        final AtomicInteger released = new AtomicInteger();
+        final var is = new ChunkBufferInputStream(chunk(direct, released::incrementAndGet));
+        assertThat(released).hasValue(0);
+        is.close();
+        is.close();
+        assertThat(released).hasValue(1);
+        assertThat(is.read()).isEqualTo(-1);
+    }
+
+    private static ChunkBuffer chunk(final boolean direct, final Runnable onRelease) {
+        if (!direct) {
+            return ChunkBuffer.wrap(CONTENT, onRelease);
+        }
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(CONTENT.length);
+        buffer.put(CONTENT).flip();
+        return ChunkBuffer.of(buffer, onRelease);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.fetch;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChunkBufferTest {
+    static final byte[] CONTENT = "0123456789".getBytes();
+
+    @Test
+    void releasesChunkOnceAllViewsAreReleased() {
+        final AtomicInteger released = new AtomicInteger();
+        final ChunkBuffer chunk = ChunkBuffer.wrap(CONTENT, released::incrementAndGet);
+        final ChunkBuffer slice = chunk.slice(2, 3);
+        final ChunkBuffer sliceOfSlice = slice.slice(1, 1);
+
+        chunk.release();
+        slice.release();
+        assertThat(released).hasValue(0);
+        assertThat(sliceOfSlice.buffer()).isEqualTo(ByteBuffer.wrap("3".getBytes()));
+        sliceOfSlice.release();
+        assertThat(released).hasValue(1);
+
+        // Releasing a view again has no effect.
+        chunk.release();
+        assertThat(released).hasValue(1);
+    }
+
+    @Test
+    void slicesWithoutCopying() {
+        final ChunkBuffer chunk = ChunkBuffer.wrap(CONTENT);
+        final ChunkBuffer slice = chunk.slice(2, 3);
+
+        assertThat(slice.size()).isEqualTo(3);
+        assertThat(slice.buffer().isReadOnly()).isTrue();
+        assertThat(slice.buffer()).isEqualTo(ByteBuffer.wrap("234".getBytes()));
+        assertThat(slice.toByteArray()).isEqualTo("234".getBytes());
+        assertThat(chunk.toByteArray()).isSameAs(CONTENT);
+        assertThat(chunk.slice(0, CONTENT.length).toByteArray()).isSameAs(CONTENT);
+    }
+
+    @Test
+    void viewsOfBufferContent() {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+        buffer.put(CONTENT).flip();
+        final AtomicInteger released = new AtomicInteger();
+        final ChunkBuffer chunk = ChunkBuffer.of(buffer, released::incrementAndGet);
+
+        assertThat(chunk.size()).isEqualTo(CONTENT.length);
+        assertThat(chunk.toByteArray()).isEqualTo(CONTENT);
+        assertThat(chunk.slice(5, 5).toByteArray()).isEqualTo("56789".getBytes());
+    }
+
+    @Test
+    void invalidSlice() {
+        final ChunkBuffer chunk = ChunkBuffer.wrap(CONTENT);
+        assertThatThrownBy(() -> chunk.slice(8, 3))
+            .isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> chunk.slice(-1, 3))
+            .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void releasedViewCannotBeRead() {
+        final ChunkBuffer chunk = ChunkBuffer.wrap(CONTENT);
+        chunk.release();
+        assertThatThrownBy(chunk::buffer)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Chunk buffer already released");
+        assertThatThrownBy(() -> chunk.slice(0, 1))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Chunk buffer already released");
+    }
+}
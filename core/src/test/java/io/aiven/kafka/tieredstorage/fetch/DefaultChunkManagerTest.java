@@ -19,28 +19,57 @@ package io.aiven.kafka.tieredstorage.fetch;
 import javax.crypto.Cipher;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.kafka.server.log.remote.storage.RemoteStorageManager.IndexType;
 
 import io.aiven.kafka.tieredstorage.AesKeyAwareTest;
+import io.aiven.kafka.tieredstorage.Chunk;
+import io.aiven.kafka.tieredstorage.manifest.SegmentCompressionMetadataV1;
 import io.aiven.kafka.tieredstorage.manifest.SegmentEncryptionMetadataV1;
 import io.aiven.kafka.tieredstorage.manifest.SegmentIndexesV1;
 import io.aiven.kafka.tieredstorage.manifest.SegmentManifest;
 import io.aiven.kafka.tieredstorage.manifest.SegmentManifestV1;
+import io.aiven.kafka.tieredstorage.manifest.index.ChunkIndex;
 import io.aiven.kafka.tieredstorage.manifest.index.FixedSizeChunkIndex;
+import io.aiven.kafka.tieredstorage.manifest.index.VariableSizeChunkIndex;
 import io.aiven.kafka.tieredstorage.security.AesEncryptionProvider;
 import io.aiven.kafka.tieredstorage.security.DataKeyAndAAD;
+import io.aiven.kafka.tieredstorage.storage.BytesRange;
+import io.aiven.kafka.tieredstorage.storage.MemoryBudget;
+import io.aiven.kafka.tieredstorage.storage.MemoryBudgetExhaustedException;
 import io.aiven.kafka.tieredstorage.storage.ObjectKey;
 import io.aiven.kafka.tieredstorage.storage.StorageBackend;
+import io.aiven.kafka.tieredstorage.transform.BaseTransformChunkEnumeration;
+import io.aiven.kafka.tieredstorage.transform.ChunkBufferPool;
+import io.aiven.kafka.tieredstorage.transform.CompressionChunkEnumeration;
+import io.aiven.kafka.tieredstorage.transform.CompressionCodec;
+import io.aiven.kafka.tieredstorage.transform.TransformFinisher;
 
 import com.github.luben.zstd.ZstdCompressCtx;
+import net.jpountz.lz4.LZ4Factory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -114,4 +143,234 @@ class DefaultChunkManagerTest extends AesKeyAwareTest {
         assertThat(chunkManager.getChunk(OBJECT_KEY, manifest, 0)).hasBinaryContent(TEST_CHUNK_CONTENT);
         verify(storage).fetch(OBJECT_KEY, chunkIndex.chunks().get(0).range());
     }
+
+    @Test
+    void testGetChunkWithCompressionInPooledBuffers() throws Exception {
+        final byte[] compressed;
+        try (final ZstdCompressCtx compressCtx = new ZstdCompressCtx()) {
+            compressCtx.setContentSize(true);
+            compressed = compressCtx.compress(TEST_CHUNK_CONTENT);
+        }
+        final FixedSizeChunkIndex chunkIndex = new FixedSizeChunkIndex(10, 10, compressed.length, compressed.length);
+
+        when(storage.fetch(OBJECT_KEY, chunkIndex.chunks().get(0).range()))
+            .thenReturn(new ByteArrayInputStream(compressed));
+
+        final var manifest = new SegmentManifestV1(chunkIndex, SEGMENT_INDEXES, true, null, null);
+        final ChunkBufferPool bufferPool = spy(new ChunkBufferPool(2, 100, false));
+        final ChunkManager chunkManager =
+            new DefaultChunkManager(storage, null, MemoryBudget.unlimited(), null, 0, bufferPool);
+
+        assertThat(chunkManager.getChunk(OBJECT_KEY, manifest, 0)).hasBinaryContent(TEST_CHUNK_CONTENT);
+        // Both the compressed and the decompressed chunk buffers are returned to the pool.
+        verify(bufferPool, times(2)).acquire(anyInt());
+        verify(bufferPool, times(2)).release(any());
+    }
+
+    @Test
+    void testGetRawChunkWithCompression() throws Exception {
+        final BitSet rawChunkIds = new BitSet();
+        rawChunkIds.set(0);
+        final var chunkIndex = new VariableSizeChunkIndex(10, 10, List.of(10), rawChunkIds);
+
+        when(storage.fetch(OBJECT_KEY, chunkIndex.chunks().get(0).range()))
+            .thenReturn(new ByteArrayInputStream(TEST_CHUNK_CONTENT));
+
+        final var manifest = new SegmentManifestV1(chunkIndex, SEGMENT_INDEXES, true, null, null);
+        final ChunkManager chunkManager = new DefaultChunkManager(storage, null);
+
+        assertThat(chunkManager.getChunk(OBJECT_KEY, manifest, 0)).hasBinaryContent(TEST_CHUNK_CONTENT);
+    }
+
+    @Test
+    void testGetChunkWithLz4Compression() throws Exception {
+        final byte[] block = LZ4Factory.fastestInstance().fastCompressor().compress(TEST_CHUNK_CONTENT);
+        final byte[] compressed = ByteBuffer.allocate(4 + block.length)
+            .putInt(TEST_CHUNK_CONTENT.length)
+            .put(block)
+            .array();
+        final FixedSizeChunkIndex chunkIndex = new FixedSizeChunkIndex(10, 10, compressed.length, compressed.length);
+
+        when(storage.fetch(OBJECT_KEY, chunkIndex.chunks().get(0).range()))
+            .thenReturn(new ByteArrayInputStream(compressed));
+
+        final var manifest = new SegmentManifestV1(chunkIndex, SEGMENT_INDEXES,
+            new SegmentCompressionMetadataV1(CompressionCodec.LZ4, null), null, null);
+        final ChunkManager chunkManager = new DefaultChunkManager(storage, null);
+
+        assertThat(chunkManager.getChunk(OBJECT_KEY, manifest, 0)).hasBinaryContent(TEST_CHUNK_CONTENT);
+    }
+
+    @Test
+    void testGetChunkWithCompressionDictionary() throws Exception {
+        final byte[] dictionary = "0123456789abcdef".getBytes();
+        final byte[] compressed;
+        try (final ZstdCompressCtx compressCtx = new ZstdCompressCtx()) {
+            compressCtx.setContentSize(true);
+            compressCtx.loadDict(dictionary);
+            compressed = compressCtx.compress(TEST_CHUNK_CONTENT);
+        }
+        final FixedSizeChunkIndex chunkIndex = new FixedSizeChunkIndex(10, 10, compressed.length, compressed.length);
+
+        when(storage.fetch(OBJECT_KEY, chunkIndex.chunks().get(0).range()))
+            .thenReturn(new ByteArrayInputStream(compressed));
+        final String dictionaryKey = "topic/dictionaries/dict.zstd-dict";
+        when(storage.fetch(argThat(key -> key.value().equals(dictionaryKey))))
+            .thenReturn(new ByteArrayInputStream(dictionary));
+
+        final var manifest = new SegmentManifestV1(chunkIndex, SEGMENT_INDEXES,
+            new SegmentCompressionMetadataV1(CompressionCodec.ZSTD, 3, dictionaryKey), null, null);
+        final ChunkManager chunkManager = new DefaultChunkManager(storage, null);
+
+        assertThat(chunkManager.getChunk(OBJECT_KEY, manifest, 0)).hasBinaryContent(TEST_CHUNK_CONTENT);
+        // The dictionary is cached.
+        when(storage.fetch(OBJECT_KEY, chunkIndex.chunks().get(0).range()))
+            .thenReturn(new ByteArrayInputStream(compressed));
+        assertThat(chunkManager.getChunk(OBJECT_KEY, manifest, 0)).hasBinaryContent(TEST_CHUNK_CONTENT);
+        verify(storage, times(1)).fetch(argThat(key -> key.value().equals(dictionaryKey)));
+    }
+
+    @Test
+    void reservesChunkMemoryUntilChunkIsRead() throws Exception {
+        final FixedSizeChunkIndex chunkIndex = new FixedSizeChunkIndex(10, 10, 10, 10);
+        final SegmentManifest manifest = new SegmentManifestV1(chunkIndex, SEGMENT_INDEXES, false, null, null);
+        final MemoryBudget memoryBudget = new MemoryBudget(100, 0);
+        final ChunkManager chunkManager = new DefaultChunkManager(storage, null, memoryBudget);
+        when(storage.fetch(OBJECT_KEY, chunkIndex.chunks().get(0).range()))
+            .thenReturn(new ByteArrayInputStream(TEST_CHUNK_CONTENT));
+
+        final InputStream chunk = chunkManager.getChunk(OBJECT_KEY, manifest, 0);
+        assertThat(memoryBudget.reservedBytes()).isEqualTo(10);
+        assertThat(chunk).hasBinaryContent(TEST_CHUNK_CONTENT);
+        assertThat(memoryBudget.reservedBytes()).isZero();
+    }
+
+    @Test
+    void reservesChunkBufferMemoryUntilChunkIsReleased() throws Exception {
+        final FixedSizeChunkIndex chunkIndex = new FixedSizeChunkIndex(10, 10, 10, 10);
+        final SegmentManifest manifest = new SegmentManifestV1(chunkIndex, SEGMENT_INDEXES, false, null, null);
+        final MemoryBudget memoryBudget = new MemoryBudget(100, 0);
+        final ChunkManager chunkManager = new DefaultChunkManager(storage, null, memoryBudget);
+        final InputStream content = spy(new ByteArrayInputStream(TEST_CHUNK_CONTENT));
+        when(storage.fetch(OBJECT_KEY, chunkIndex.chunks().get(0).range())).thenReturn(content);
+
+        final ChunkBuffer chunk = chunkManager.getChunkBuffer(OBJECT_KEY, manifest, 0);
+        verify(content).close();
+        assertThat(memoryBudget.reservedBytes()).isEqualTo(10);
+        final ChunkBuffer slice = chunk.slice(2, 3);
+        chunk.release();
+        assertThat(memoryBudget.reservedBytes()).isEqualTo(10);
+        assertThat(new ChunkBufferInputStream(slice)).hasContent("234");
+        slice.release();
+        assertThat(memoryBudget.reservedBytes()).isZero();
+    }
+
+    @Test
+    void getChunkBufferWithCompressionInPooledBuffers() throws Exception {
+        final byte[] compressed;
+        try (final ZstdCompressCtx compressCtx = new ZstdCompressCtx()) {
+            compressCtx.setContentSize(true);
+            compressed = compressCtx.compress(TEST_CHUNK_CONTENT);
+        }
+        final FixedSizeChunkIndex chunkIndex = new FixedSizeChunkIndex(10, 10, compressed.length, compressed.length);
+
+        when(storage.fetch(OBJECT_KEY, chunkIndex.chunks().get(0).range()))
+            .thenReturn(new ByteArrayInputStream(compressed));
+
+        final var manifest = new SegmentManifestV1(chunkIndex, SEGMENT_INDEXES, true, null, null);
+        final ChunkBufferPool bufferPool = spy(new ChunkBufferPool(2, 100, false));
+        final ChunkManager chunkManager =
+            new DefaultChunkManager(storage, null, MemoryBudget.unlimited(), null, 0, bufferPool);
+
+        final ChunkBuffer chunk = chunkManager.getChunkBuffer(OBJECT_KEY, manifest, 0);
+        assertThat(chunk.buffer()).isEqualTo(ByteBuffer.wrap(TEST_CHUNK_CONTENT));
+        // Only the compressed chunk buffer is returned to the pool until the chunk is released.
+        verify(bufferPool, times(1)).release(any());
+        chunk.release();
+        verify(bufferPool, times(2)).release(any());
+    }
+
+    @Test
+    void doesNotFetchChunkWhenMemoryBudgetIsExhausted() throws Exception {
+        final FixedSizeChunkIndex chunkIndex = new FixedSizeChunkIndex(10, 20, 10, 10);
+        final SegmentManifest manifest = new SegmentManifestV1(chunkIndex, SEGMENT_INDEXES, false, null, null);
+        final MemoryBudget memoryBudget = new MemoryBudget(15, 0);
+        final ChunkManager chunkManager = new DefaultChunkManager(storage, null, memoryBudget);
+        when(storage.fetch(OBJECT_KEY, chunkIndex.chunks().get(0).range()))
+            .thenReturn(new ByteArrayInputStream(TEST_CHUNK_CONTENT));
+
+        final InputStream firstChunk = chunkManager.getChunk(OBJECT_KEY, manifest, 0);
+        assertThatThrownBy(() -> chunkManager.getChunk(OBJECT_KEY, manifest, 1))
+            .isInstanceOf(MemoryBudgetExhaustedException.class)
+            .hasMessage("Failed to reserve 10 bytes, 10 of 15 bytes are reserved");
+        verify(storage, never()).fetch(eq(OBJECT_KEY), eq(chunkIndex.chunks().get(1).range()));
+
+        // Closing the stream releases the memory even if it's not read to the end.
+        firstChunk.close();
+        assertThat(memoryBudget.reservedBytes()).isZero();
+    }
+
+    @Test
+    void getChunksWithSingleRequest() throws Exception {
+        final FixedSizeChunkIndex chunkIndex = new FixedSizeChunkIndex(10, 30, 10, 10);
+        final SegmentManifest manifest = new SegmentManifestV1(chunkIndex, SEGMENT_INDEXES, false, null, null);
+        final MemoryBudget memoryBudget = new MemoryBudget(100, 0);
+        final ChunkManager chunkManager = new DefaultChunkManager(storage, null, memoryBudget);
+        when(storage.fetch(OBJECT_KEY, BytesRange.of(10, 29)))
+            .thenReturn(new ByteArrayInputStream("abcdefghijklmnopqrst".getBytes()));
+
+        // Nothing is fetched until a chunk is requested.
+        chunkManager.getChunks(OBJECT_KEY, manifest, 1, 2).close();
+        verifyNoInteractions(storage);
+
+        try (final ChunkSequence chunks = chunkManager.getChunks(OBJECT_KEY, manifest, 1, 2)) {
+            final ChunkBuffer firstChunk = chunks.nextChunk();
+            assertThat(memoryBudget.reservedBytes()).isEqualTo(10);
+            assertThat(firstChunk.toByteArray()).isEqualTo("abcdefghij".getBytes());
+            firstChunk.release();
+            final ChunkBuffer secondChunk = chunks.nextChunk();
+            assertThat(secondChunk.toByteArray()).isEqualTo("klmnopqrst".getBytes());
+            secondChunk.release();
+            assertThatThrownBy(chunks::nextChunk).isInstanceOf(NoSuchElementException.class);
+        }
+        assertThat(memoryBudget.reservedBytes()).isZero();
+        verify(storage).fetch(OBJECT_KEY, BytesRange.of(10, 29));
+    }
+
+    @Test
+    void getChunksWithParallelDetransformation() throws Exception {
+        final byte[] original = "0123456789abcdefghijklmnopqrstuvwxyzABCD".getBytes();
+        final var transformFinisher = new TransformFinisher(new CompressionChunkEnumeration(
+            new BaseTransformChunkEnumeration(new ByteArrayInputStream(original), 10)), original.length);
+        final byte[] transformed = transformFinisher.toInputStream().readAllBytes();
+        final ChunkIndex chunkIndex = transformFinisher.chunkIndex();
+        final SegmentManifest manifest = new SegmentManifestV1(chunkIndex, SEGMENT_INDEXES, true, null, null);
+        final List<Chunk> chunks = chunkIndex.chunks();
+        when(storage.fetch(OBJECT_KEY, BytesRange.of(0, transformed.length - 1)))
+            .thenReturn(new ByteArrayInputStream(transformed));
+
+        final MemoryBudget memoryBudget = new MemoryBudget(1000, 0);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final ChunkManager chunkManager = new DefaultChunkManager(storage, null, memoryBudget, executor, 2);
+            try (final ChunkSequence sequence = chunkManager.getChunks(OBJECT_KEY, manifest, 0, 3)) {
+                final ChunkBuffer firstChunk = sequence.nextChunk();
+                // The memory of the chunk being de-transformed along with the returned one is reserved too.
+                assertThat(memoryBudget.reservedBytes()).isEqualTo(
+                    chunks.get(0).transformedSize + chunks.get(0).originalSize
+                        + chunks.get(1).transformedSize + chunks.get(1).originalSize);
+                assertThat(firstChunk.toByteArray()).isEqualTo("0123456789".getBytes());
+                firstChunk.release();
+                for (final String content : List.of("abcdefghij", "klmnopqrst")) {
+                    final ChunkBuffer chunk = sequence.nextChunk();
+                    assertThat(chunk.toByteArray()).isEqualTo(content.getBytes());
+                    chunk.release();
+                }
+            }
+            // Closing the sequence releases the memory of the chunk de-transformed but not returned.
+            assertThat(memoryBudget.reservedBytes()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -16,8 +16,11 @@
 
 package io.aiven.kafka.tieredstorage.fetch;
 
-import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import org.apache.kafka.server.log.remote.storage.RemoteStorageManager.IndexType;
 
@@ -27,7 +30,6 @@ import io.aiven.kafka.tieredstorage.manifest.SegmentManifestV1;
 import io.aiven.kafka.tieredstorage.manifest.index.FixedSizeChunkIndex;
 import io.aiven.kafka.tieredstorage.storage.BytesRange;
 import io.aiven.kafka.tieredstorage.storage.ObjectKey;
-import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
 import io.aiven.kafka.tieredstorage.storage.TestObjectKey;
 
 import org.junit.jupiter.api.Test;
@@ -37,6 +39,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -104,15 +110,15 @@ class FetchChunkEnumerationTest {
 
     // - Single chunk
     @Test
-    void shouldReturnRangeFromSingleChunk() throws StorageBackendException {
+    void shouldReturnRangeFromSingleChunk() throws Exception {
         // Given a set of 10 chunks with 10 bytes each
         // When
         final int from = 32;
         final int to = 34;
         final FetchChunkEnumeration fetchChunk =
             new FetchChunkEnumeration(chunkManager, SEGMENT_KEY, manifest, BytesRange.of(from, to));
-        when(chunkManager.getChunk(SEGMENT_KEY, manifest, fetchChunk.currentChunkId))
-            .thenReturn(new ByteArrayInputStream(CHUNK_CONTENT));
+        when(chunkManager.getChunkBuffer(SEGMENT_KEY, manifest, fetchChunk.currentChunkId))
+            .thenReturn(ChunkBuffer.wrap(CHUNK_CONTENT));
         // Then
         assertThat(fetchChunk.startChunkId).isEqualTo(fetchChunk.lastChunkId);
         assertThat(fetchChunk.nextElement()).hasContent("234");
@@ -122,19 +128,19 @@ class FetchChunkEnumerationTest {
 
     // - Multiple chunks
     @Test
-    void shouldReturnRangeFromMultipleChunks() throws StorageBackendException {
+    void shouldReturnRangeFromMultipleChunks() throws Exception {
         // Given a set of 10 chunks with 10 bytes each
         // When
         final int from = 15;
         final int to = 34;
         final FetchChunkEnumeration fetchChunk =
             new FetchChunkEnumeration(chunkManager, SEGMENT_KEY, manifest, BytesRange.of(from, to));
-        when(chunkManager.getChunk(SEGMENT_KEY, manifest, 1))
-            .thenReturn(new ByteArrayInputStream(CHUNK_CONTENT));
-        when(chunkManager.getChunk(SEGMENT_KEY, manifest, 2))
-            .thenReturn(new ByteArrayInputStream(CHUNK_CONTENT));
-        when(chunkManager.getChunk(SEGMENT_KEY, manifest, 3))
-            .thenReturn(new ByteArrayInputStream(CHUNK_CONTENT));
+        when(chunkManager.getChunkBuffer(SEGMENT_KEY, manifest, 1))
+            .thenReturn(ChunkBuffer.wrap(CHUNK_CONTENT));
+        when(chunkManager.getChunkBuffer(SEGMENT_KEY, manifest, 2))
+            .thenReturn(ChunkBuffer.wrap(CHUNK_CONTENT));
+        when(chunkManager.getChunkBuffer(SEGMENT_KEY, manifest, 3))
+            .thenReturn(ChunkBuffer.wrap(CHUNK_CONTENT));
         // Then
         assertThat(fetchChunk.startChunkId).isNotEqualTo(fetchChunk.lastChunkId);
         assertThat(fetchChunk.nextElement()).hasContent("56789");
@@ -143,4 +149,74 @@ class FetchChunkEnumerationTest {
         assertThat(fetchChunk.hasMoreElements()).isFalse();
         assertThatThrownBy(fetchChunk::nextElement).isInstanceOf(NoSuchElementException.class);
     }
+
+    @Test
+    void shouldReleaseChunkWhenRangeIsRead() throws Exception {
+        // Given a set of 10 chunks with 10 bytes each
+        // When
+        final int from = 32;
+        final int to = 34;
+        final FetchChunkEnumeration fetchChunk =
+            new FetchChunkEnumeration(chunkManager, SEGMENT_KEY, manifest, BytesRange.of(from, to));
+        final AtomicInteger released = new AtomicInteger();
+        when(chunkManager.getChunkBuffer(SEGMENT_KEY, manifest, 3))
+            .thenReturn(ChunkBuffer.wrap(CHUNK_CONTENT, released::incrementAndGet));
+        // Then
+        final InputStream chunk = fetchChunk.nextElement();
+        assertThat(released).hasValue(0);
+        assertThat(chunk).hasContent("234");
+        chunk.close();
+        assertThat(released).hasValue(1);
+    }
+
+    // - Coalesced fetches
+    @Test
+    void shouldGetConsecutiveChunksTogether() throws Exception {
+        // Given a set of 10 chunks with 10 bytes each
+        // When
+        final int from = 15;
+        final int to = 44;
+        final FetchChunkEnumeration fetchChunk =
+            new FetchChunkEnumeration(chunkManager, SEGMENT_KEY, manifest, BytesRange.of(from, to), 25);
+        when(chunkManager.getChunks(SEGMENT_KEY, manifest, 1, 2))
+            .thenReturn(chunks(2));
+        when(chunkManager.getChunks(SEGMENT_KEY, manifest, 3, 4))
+            .thenReturn(chunks(2));
+        // Then
+        assertThat(fetchChunk.nextElement()).hasContent("56789");
+        assertThat(fetchChunk.nextElement()).hasContent("0123456789");
+        assertThat(fetchChunk.nextElement()).hasContent("0123456789");
+        assertThat(fetchChunk.nextElement()).hasContent("01234");
+        assertThat(fetchChunk.hasMoreElements()).isFalse();
+        verify(chunkManager, never()).getChunkBuffer(any(), any(), anyInt());
+    }
+
+    // - Read-ahead
+    @Test
+    void shouldReadChunksAhead() throws Exception {
+        // Given a set of 10 chunks with 10 bytes each
+        // When
+        final int from = 15;
+        final int to = 34;
+        try (final ChunkReadAhead readAhead = new ChunkReadAhead(1, 1)) {
+            final FetchChunkEnumeration fetchChunk = new FetchChunkEnumeration(
+                chunkManager, SEGMENT_KEY, manifest, BytesRange.of(from, to), 0, readAhead);
+            when(chunkManager.getChunks(SEGMENT_KEY, manifest, 1, 3))
+                .thenReturn(chunks(3));
+            // Then
+            assertThat(fetchChunk.nextElement()).hasContent("56789");
+            assertThat(fetchChunk.nextElement()).hasContent("0123456789");
+            assertThat(fetchChunk.nextElement()).hasContent("01234");
+            assertThat(fetchChunk.hasMoreElements()).isFalse();
+        }
+        verify(chunkManager, never()).getChunkBuffer(any(), any(), anyInt());
+    }
+
+    private static ChunkSequence chunks(final int count) {
+        final Iterator<ChunkBuffer> chunks = Stream
+            .generate(() -> ChunkBuffer.wrap(CHUNK_CONTENT))
+            .limit(count)
+            .iterator();
+        return chunks::next;
+    }
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage.fetch;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class ReadAheadChunkSequenceTest {
+    final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void readsChunksAheadInOrder() throws Exception {
+        final TestChunkSequence source = new TestChunkSequence(5);
+        final var sequence = new ReadAheadChunkSequence(source, 5, executor, 2);
+
+        assertThat(sequence.nextChunk().toByteArray()).isEqualTo(new byte[] {0});
+        await().untilAsserted(() -> assertThat(source.chunks).hasSize(3));
+        assertThat(sequence.nextChunk().toByteArray()).isEqualTo(new byte[] {1});
+        await().untilAsserted(() -> assertThat(source.chunks).hasSize(4));
+        assertThat(sequence.nextChunk().toByteArray()).isEqualTo(new byte[] {2});
+        assertThat(sequence.nextChunk().toByteArray()).isEqualTo(new byte[] {3});
+        assertThat(sequence.nextChunk().toByteArray()).isEqualTo(new byte[] {4});
+        assertThatThrownBy(sequence::nextChunk).isInstanceOf(NoSuchElementException.class);
+        // Never reads beyond the last chunk.
+        assertThat(source.chunks).hasSize(5);
+    }
+
+    @Test
+    void readsChunksInOrderWhenExecutorIsSaturated() throws Exception {
+        // Reads beyond the bounds of the executor are done by the thread scheduling them.
+        final ThreadPoolExecutor boundedExecutor = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            final TestChunkSequence source = new TestChunkSequence(6);
+            final var sequence = new ReadAheadChunkSequence(source, 6, boundedExecutor, 4);
+
+            for (int i = 0; i < 6; i++) {
+                assertThat(sequence.nextChunk().toByteArray()).isEqualTo(new byte[] {(byte) i});
+            }
+            assertThatThrownBy(sequence::nextChunk).isInstanceOf(NoSuchElementException.class);
+            assertThat(source.chunks).hasSize(6);
+        } finally {
+            boundedExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void closeReleasesChunksReadAhead() throws Exception {
+        final TestChunkSequence source = new TestChunkSequence(10);
+        final var sequence = new ReadAheadChunkSequence(source, 10, executor, 3);
+
+        final ChunkBuffer first = sequence.nextChunk();
+        await().untilAsserted(() -> assertThat(source.chunks).hasSize(4));
+        sequence.close();
+
+        await().untilAsserted(() -> assertThat(source.closed).isTrue());
+        assertThat(source.chunks).hasSize(4);
+        assertThat(source.chunks.subList(1, 4)).allMatch(chunk -> chunk.released);
+        // The chunk already returned belongs to the caller.
+        assertThat(source.chunks.get(0).released).isFalse();
+        assertThat(first.toByteArray()).isEqualTo(new byte[] {0});
+        assertThatThrownBy(sequence::nextChunk).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void closeWhileReadingReleasesChunkOnceRead() throws Exception {
+        final CountDownLatch readStarted = new CountDownLatch(1);
+        final CountDownLatch readAllowed = new CountDownLatch(1);
+        final TestChunkSequence source = new TestChunkSequence(10) {
+            @Override
+            public ChunkBuffer nextChunk() throws IOException, StorageBackendException {
+                if (chunks.size() == 1) {
+                    readStarted.countDown();
+                    try {
+                        readAllowed.await();
+                    } catch (final InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                return super.nextChunk();
+            }
+        };
+        final var sequence = new ReadAheadChunkSequence(source, 10, executor, 1);
+
+        sequence.nextChunk();
+        readStarted.await();
+        sequence.close();
+        assertThat(source.closed).isFalse();
+        readAllowed.countDown();
+
+        await().untilAsserted(() -> assertThat(source.closed).isTrue());
+        assertThat(source.chunks).hasSize(2);
+        assertThat(source.chunks.get(1).released).isTrue();
+    }
+
+    @Test
+    void propagatesFailures() throws Exception {
+        final TestChunkSequence source = new TestChunkSequence(3) {
+            @Override
+            public ChunkBuffer nextChunk() throws IOException, StorageBackendException {
+                if (chunks.size() == 1) {
+                    throw new StorageBackendException("test");
+                }
+                return super.nextChunk();
+            }
+        };
+        final var sequence = new ReadAheadChunkSequence(source, 3, executor, 2);
+
+        assertThat(sequence.nextChunk().toByteArray()).isEqualTo(new byte[] {0});
+        assertThatThrownBy(sequence::nextChunk)
+            .isInstanceOf(StorageBackendException.class)
+            .hasMessage("test");
+        await().untilAsserted(() -> assertThat(source.closed).isTrue());
+    }
+
+    private static class TestChunkSequence implements ChunkSequence {
+        final int chunkCount;
+        final List<TestChunk> chunks = new CopyOnWriteArrayList<>();
+        volatile boolean closed = false;
+
+        TestChunkSequence(final int chunkCount) {
+            this.chunkCount = chunkCount;
+        }
+
+        @Override
+        public ChunkBuffer nextChunk() throws IOException, StorageBackendException {
+            if (chunks.size() >= chunkCount) {
+                throw new NoSuchElementException();
+            }
+            final TestChunk chunk = new TestChunk();
+            chunks.add(chunk);
+            return ChunkBuffer.wrap(new byte[] {(byte) (chunks.size() - 1)}, () -> chunk.released = true);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static class TestChunk {
+        volatile boolean released = false;
+    }
+}
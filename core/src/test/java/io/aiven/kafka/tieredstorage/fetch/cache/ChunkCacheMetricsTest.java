@@ -94,7 +94,7 @@ class ChunkCacheMetricsTest {
         throws Exception {
         // Given a fetch chunk cache implementation
         when(chunkManager.getChunk(any(), any(), anyInt()))
-            .thenReturn(new ByteArrayInputStream("test".getBytes()));
+            .thenReturn(new ByteArrayInputStream("0123456789".getBytes()));
 
         final var chunkCache = chunkCacheClass.getDeclaredConstructor(ChunkManager.class).newInstance(chunkManager);
         chunkCache.configure(config);
@@ -20,13 +20,18 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.kafka.server.log.remote.storage.RemoteStorageManager.IndexType;
 
+import io.aiven.kafka.tieredstorage.fetch.ChunkBuffer;
 import io.aiven.kafka.tieredstorage.fetch.ChunkKey;
 import io.aiven.kafka.tieredstorage.fetch.ChunkManager;
+import io.aiven.kafka.tieredstorage.fetch.ChunkSequence;
 import io.aiven.kafka.tieredstorage.manifest.SegmentIndexesV1;
 import io.aiven.kafka.tieredstorage.manifest.SegmentManifest;
 import io.aiven.kafka.tieredstorage.manifest.SegmentManifestV1;
@@ -53,6 +58,7 @@ import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.description;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mockingDetails;
 import static org.mockito.Mockito.never;
@@ -106,6 +112,38 @@ class ChunkCacheTest {
         reset(chunkManager);
     }
 
+    @Test
+    void getsRunsOfUncachedChunksTogether() throws Exception {
+        chunkCache.configure(Map.of(
+            "retention.ms", "-1",
+            "size", "-1"
+        ));
+        when(chunkManager.getChunk(SEGMENT_OBJECT_KEY, SEGMENT_MANIFEST, 0))
+            .thenAnswer(invocation -> new ByteArrayInputStream(CHUNK_0));
+        final AtomicInteger releasedChunks = new AtomicInteger();
+        final var uncachedChunks = List.of(
+            ChunkBuffer.wrap(CHUNK_1, releasedChunks::incrementAndGet),
+            ChunkBuffer.wrap(CHUNK_2, releasedChunks::incrementAndGet)).iterator();
+        when(chunkManager.getChunks(SEGMENT_OBJECT_KEY, SEGMENT_MANIFEST, 1, 2))
+            .thenReturn(uncachedChunks::next);
+        chunkCache.getChunk(SEGMENT_OBJECT_KEY, SEGMENT_MANIFEST, 0).close();
+
+        try (final ChunkSequence chunks = chunkCache.getChunks(SEGMENT_OBJECT_KEY, SEGMENT_MANIFEST, 0, 2)) {
+            assertThat(chunks.nextChunk().toByteArray()).isEqualTo(CHUNK_0);
+            assertThat(chunks.nextChunk().toByteArray()).isEqualTo(CHUNK_1);
+            assertThat(chunks.nextChunk().toByteArray()).isEqualTo(CHUNK_2);
+            assertThatThrownBy(chunks::nextChunk).isInstanceOf(NoSuchElementException.class);
+        }
+        verify(chunkManager).getChunk(SEGMENT_OBJECT_KEY, SEGMENT_MANIFEST, 0);
+        verify(chunkManager).getChunks(SEGMENT_OBJECT_KEY, SEGMENT_MANIFEST, 1, 2);
+        // The buffers of the underlying chunk manager are released once cached.
+        assertThat(releasedChunks).hasValue(2);
+
+        // The chunks got together are cached too.
+        assertThat(chunkCache.getChunk(SEGMENT_OBJECT_KEY, SEGMENT_MANIFEST, 2)).hasBinaryContent(CHUNK_2);
+        verifyNoMoreInteractions(chunkManager);
+    }
+
     @Nested
     class CacheTests {
         @Mock
@@ -146,6 +184,21 @@ class ChunkCacheTest {
             verifyNoInteractions(removalListener);
         }
 
+        @Test
+        void refetchCachedChunkNotIntact() throws IOException, StorageBackendException {
+            chunkCache.configure(Map.of(
+                "retention.ms", "-1",
+                "size", "-1"
+            ));
+
+            assertThat(chunkCache.getChunk(SEGMENT_OBJECT_KEY, SEGMENT_MANIFEST, 0))
+                .hasBinaryContent(CHUNK_0);
+            doReturn(false).when(chunkCache).isCachedChunkIntact(any(), any());
+            assertThat(chunkCache.getChunk(SEGMENT_OBJECT_KEY, SEGMENT_MANIFEST, 0))
+                .hasBinaryContent(CHUNK_0);
+            verify(chunkManager, times(2)).getChunk(SEGMENT_OBJECT_KEY, SEGMENT_MANIFEST, 0);
+        }
+
         @Test
         void timeBasedEviction() throws IOException, StorageBackendException, InterruptedException {
             chunkCache.configure(Map.of(
@@ -18,10 +18,13 @@ package io.aiven.kafka.tieredstorage.fetch.cache;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
+import java.util.zip.CRC32C;
 
+import io.aiven.kafka.tieredstorage.Chunk;
 import io.aiven.kafka.tieredstorage.fetch.ChunkKey;
 import io.aiven.kafka.tieredstorage.fetch.ChunkManager;
 
@@ -130,6 +133,59 @@ class DiskChunkCacheTest {
             .isDirectoryNotContaining(path -> path.endsWith(SEGMENT_ID + "-" + chunkKey1.chunkId));
     }
 
+    @Test
+    void failedChunkLeavesNoTempFile() {
+        final ChunkKey chunkKey0 = new ChunkKey(SEGMENT_ID, 0);
+        final InputStream failingStream = new InputStream() {
+            @Override
+            public int read() {
+                throw new RuntimeException(TEST_EXCEPTION_MESSAGE);
+            }
+        };
+
+        assertThatThrownBy(() -> diskChunkCache.cacheChunk(chunkKey0, failingStream))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessage(TEST_EXCEPTION_MESSAGE);
+
+        assertThat(tempCachePath)
+            .isDirectoryNotContaining(path -> path.endsWith(SEGMENT_ID + "-" + chunkKey0.chunkId));
+    }
+
+    @Test
+    void verifiesChunkChecksumWhenCaching() throws IOException {
+        final CRC32C crc = new CRC32C();
+        crc.update(CHUNK_0);
+        final int checksum = (int) crc.getValue();
+        final ChunkKey chunkKey0 = new ChunkKey(SEGMENT_ID, 0);
+
+        assertThatThrownBy(() -> diskChunkCache.cacheChunk(
+            chunkKey0, new Chunk(0, 0, 10, 0, 10, false, checksum + 1), new ByteArrayInputStream(CHUNK_0)))
+            .isInstanceOf(IOException.class)
+            .hasMessageEndingWith("doesn't match its checksum");
+        assertThat(tempCachePath)
+            .isDirectoryNotContaining(path -> path.endsWith(SEGMENT_ID + "-" + chunkKey0.chunkId));
+        assertThat(cachePath)
+            .isDirectoryNotContaining(path -> path.endsWith(SEGMENT_ID + "-" + chunkKey0.chunkId));
+
+        final Path cachedChunkPath0 = diskChunkCache.cacheChunk(
+            chunkKey0, new Chunk(0, 0, 10, 0, 10, false, checksum), new ByteArrayInputStream(CHUNK_0));
+        assertThat(cachedChunkPath0).hasBinaryContent(CHUNK_0);
+    }
+
+    @Test
+    void checksCachedChunkSize() throws IOException {
+        final Path cachedChunkPath0 =
+            diskChunkCache.cacheChunk(new ChunkKey(SEGMENT_ID, 0), new ByteArrayInputStream(CHUNK_0));
+
+        assertThat(diskChunkCache.isCachedChunkIntact(cachedChunkPath0, new Chunk(0, 0, 10, 0, 10))).isTrue();
+        assertThat(cachedChunkPath0).exists();
+
+        Files.write(cachedChunkPath0, new byte[5]);
+        assertThat(diskChunkCache.isCachedChunkIntact(cachedChunkPath0, new Chunk(0, 0, 10, 0, 10))).isFalse();
+        assertThat(cachedChunkPath0).doesNotExist();
+        assertThat(diskChunkCache.isCachedChunkIntact(cachedChunkPath0, new Chunk(0, 0, 10, 0, 10))).isFalse();
+    }
+
     @Test
     void failsToReadFile() {
         assertThatThrownBy(() -> diskChunkCache.cachedChunkToInputStream(Path.of("does_not_exists")))
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage.manifest;
+
+import java.nio.ByteBuffer;
+
+import io.aiven.kafka.tieredstorage.storage.BytesRange;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PackedSegmentFooterTest {
+    @Test
+    void roundTrip() {
+        final var footer = new PackedSegmentFooter(1000, 1100, 50);
+        final ByteBuffer buffer = footer.toByteBuffer();
+        assertThat(buffer.remaining()).isEqualTo(PackedSegmentFooter.SIZE);
+        assertThat(PackedSegmentFooter.fromByteBuffer(buffer)).isEqualTo(footer);
+        assertThat(footer.manifestRange()).isEqualTo(BytesRange.of(1100, 1149));
+    }
+
+    @Test
+    void notAFooter() {
+        final ByteBuffer buffer = new PackedSegmentFooter(0, 0, 1).toByteBuffer();
+        buffer.putInt(0, 0);
+        assertThatThrownBy(() -> PackedSegmentFooter.fromByteBuffer(buffer))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Not a packed segment footer, magic 0");
+    }
+
+    @Test
+    void unsupportedVersion() {
+        final ByteBuffer buffer = new PackedSegmentFooter(0, 0, 1).toByteBuffer();
+        buffer.putInt(4, 2);
+        assertThatThrownBy(() -> PackedSegmentFooter.fromByteBuffer(buffer))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Unsupported packed segment footer version 2");
+    }
+
+    @Test
+    void tooShort() {
+        assertThatThrownBy(() -> PackedSegmentFooter.fromByteBuffer(ByteBuffer.allocate(10)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Packed segment footer needs 28 bytes, 10 given");
+    }
+}
@@ -19,6 +19,7 @@ package io.aiven.kafka.tieredstorage.manifest;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.ForkJoinPool;
@@ -27,6 +28,8 @@ import org.apache.kafka.server.log.remote.storage.RemoteStorageManager.IndexType
 
 import io.aiven.kafka.tieredstorage.manifest.index.FixedSizeChunkIndex;
 import io.aiven.kafka.tieredstorage.manifest.serde.KafkaTypeSerdeModule;
+import io.aiven.kafka.tieredstorage.storage.BytesRange;
+import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
 import io.aiven.kafka.tieredstorage.storage.ObjectKey;
 import io.aiven.kafka.tieredstorage.storage.StorageBackend;
 import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
@@ -44,6 +47,7 @@ import static org.assertj.core.api.Assertions.assertThatNoException;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -53,6 +57,7 @@ import static org.mockito.Mockito.when;
 class SegmentManifestProviderTest {
     static final ObjectMapper MAPPER = new ObjectMapper();
     public static final ObjectKey MANIFEST_KEY = () -> "topic/manifest";
+    static final ObjectKey PACKED_KEY = () -> "topic/packed";
 
     static {
         MAPPER.registerModule(new Jdk8Module());
@@ -162,4 +167,66 @@ class SegmentManifestProviderTest {
             .ignoreExceptions()
             .until(() -> provider.get(MANIFEST_KEY).equals(expectedManifest));
     }
+
+    @Test
+    void shouldReadPackedManifestFromTail() throws StorageBackendException, IOException {
+        when(storage.fetchSuffix(PACKED_KEY, SegmentManifestProvider.PACKED_TAIL_FETCH_SIZE))
+            .thenReturn(new ByteArrayInputStream(packedTail(MANIFEST.getBytes(), 10)));
+        final var chunkIndex = new FixedSizeChunkIndex(100, 1000, 110, 110);
+        final var expectedManifest = new SegmentManifestV1(chunkIndex, SEGMENT_INDEXES, false, null, null);
+
+        final SegmentManifest manifest = provider.get(MANIFEST_KEY, PACKED_KEY, true);
+        assertThat(manifest).isEqualTo(new PackedSegmentManifest(expectedManifest));
+        assertThat(manifest.packed()).isTrue();
+        assertThat(provider.get(MANIFEST_KEY, PACKED_KEY, true)).isEqualTo(manifest);
+        verify(storage).fetchSuffix(PACKED_KEY, SegmentManifestProvider.PACKED_TAIL_FETCH_SIZE);
+        verifyNoMoreInteractions(storage);
+    }
+
+    @Test
+    void shouldFetchPackedManifestNotFittingIntoTail() throws StorageBackendException, IOException {
+        final byte[] manifest = MANIFEST.getBytes();
+        final byte[] tail = packedTail(manifest, 10);
+        // Only the footer and a part of the manifest are in the tail.
+        final byte[] shortTail = new byte[PackedSegmentFooter.SIZE + 5];
+        System.arraycopy(tail, tail.length - shortTail.length, shortTail, 0, shortTail.length);
+        when(storage.fetchSuffix(PACKED_KEY, SegmentManifestProvider.PACKED_TAIL_FETCH_SIZE))
+            .thenReturn(new ByteArrayInputStream(shortTail));
+        when(storage.fetch(PACKED_KEY, BytesRange.of(10, 10 + manifest.length - 1)))
+            .thenReturn(new ByteArrayInputStream(manifest));
+
+        assertThat(provider.get(MANIFEST_KEY, PACKED_KEY, true).packed()).isTrue();
+    }
+
+    @Test
+    void shouldFallBackToOtherLayout() throws StorageBackendException, IOException {
+        // Created before stubbing, as its message calls the mock.
+        final var notFound = new KeyNotFoundException(storage, PACKED_KEY);
+        when(storage.fetchSuffix(PACKED_KEY, SegmentManifestProvider.PACKED_TAIL_FETCH_SIZE))
+            .thenThrow(notFound);
+        when(storage.fetch(MANIFEST_KEY))
+            .thenReturn(new ByteArrayInputStream(MANIFEST.getBytes()));
+
+        assertThat(provider.get(MANIFEST_KEY, PACKED_KEY, true).packed()).isFalse();
+    }
+
+    @Test
+    void shouldThrowNotFoundOfPreferredLayout() throws StorageBackendException {
+        final var manifestNotFound = new KeyNotFoundException(storage, MANIFEST_KEY);
+        final var packedNotFound = new KeyNotFoundException(storage, PACKED_KEY);
+        when(storage.fetch(MANIFEST_KEY))
+            .thenThrow(manifestNotFound);
+        when(storage.fetchSuffix(any(), anyInt()))
+            .thenThrow(packedNotFound);
+
+        assertThatThrownBy(() -> provider.get(MANIFEST_KEY, PACKED_KEY, false))
+            .isSameAs(manifestNotFound);
+    }
+
+    private static byte[] packedTail(final byte[] manifest, final long manifestPosition) {
+        final var footer = new PackedSegmentFooter(manifestPosition - 5, manifestPosition, manifest.length);
+        final ByteBuffer tail = ByteBuffer.allocate(3 + manifest.length + PackedSegmentFooter.SIZE);
+        tail.put(new byte[3]).put(manifest).put(footer.toByteBuffer());
+        return tail.array();
+    }
 }
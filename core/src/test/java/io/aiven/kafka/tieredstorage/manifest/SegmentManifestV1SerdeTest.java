@@ -34,6 +34,7 @@ import io.aiven.kafka.tieredstorage.manifest.serde.EncryptionSerdeModule;
 import io.aiven.kafka.tieredstorage.manifest.serde.KafkaTypeSerdeModule;
 import io.aiven.kafka.tieredstorage.security.EncryptedDataKey;
 import io.aiven.kafka.tieredstorage.security.RsaEncryptionProvider;
+import io.aiven.kafka.tieredstorage.transform.CompressionCodec;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -132,6 +133,22 @@ class SegmentManifestV1SerdeTest extends RsaKeyAwareTest {
             + REMOTE_LOG_SEGMENT_METADATA_JSON
             + "}";
 
+    static final String WITH_COMPRESSION_JSON =
+        "{\"version\":\"1\","
+            + "\"chunkIndex\":{\"type\":\"fixed\",\"originalChunkSize\":100,"
+            + "\"originalFileSize\":1000,\"transformedChunkSize\":110,\"finalTransformedChunkSize\":110},"
+            + "\"segmentIndexes\":{"
+            + "\"offset\":{\"position\":0,\"size\":1},"
+            + "\"timestamp\":{\"position\":1,\"size\":1},"
+            + "\"producerSnapshot\":{\"position\":2,\"size\":1},"
+            + "\"leaderEpoch\":{\"position\":3,\"size\":1},"
+            + "\"transaction\":{\"position\":4,\"size\":1}"
+            + "},"
+            + "\"compression\":true,\"compressionMetadata\":{\"codec\":\"zstd\",\"level\":19},"
+            + "\"remoteLogSegmentMetadata\":"
+            + REMOTE_LOG_SEGMENT_METADATA_JSON
+            + "}";
+
     ObjectMapper mapper;
     RsaEncryptionProvider rsaEncryptionProvider;
 
@@ -200,4 +217,61 @@ class SegmentManifestV1SerdeTest extends RsaKeyAwareTest {
         final SegmentManifest deserializedManifest = mapper.readValue(jsonStr, SegmentManifest.class);
         assertThat(deserializedManifest).isEqualTo(manifest);
     }
+
+    @Test
+    void withCompression() throws JsonProcessingException {
+        final var manifest = new SegmentManifestV1(INDEX, SEGMENT_INDEXES,
+            new SegmentCompressionMetadataV1(CompressionCodec.ZSTD, 19), null, REMOTE_LOG_SEGMENT_METADATA);
+
+        final String jsonStr = mapper.writeValueAsString(manifest);
+
+        // Compare the JSON representation.
+        assertThat(jsonStr).isEqualTo(WITH_COMPRESSION_JSON);
+
+        // Check deserialization.
+        final SegmentManifest deserializedManifest = mapper.readValue(jsonStr, SegmentManifest.class);
+        assertThat(deserializedManifest).isEqualTo(manifest);
+        assertThat(deserializedManifest.compressionMetadata())
+            .hasValue(new SegmentCompressionMetadataV1(CompressionCodec.ZSTD, 19));
+    }
+
+    @Test
+    void withLz4CompressionWithoutLevel() throws JsonProcessingException {
+        final var manifest = new SegmentManifestV1(INDEX, SEGMENT_INDEXES,
+            new SegmentCompressionMetadataV1(CompressionCodec.LZ4, null), null, REMOTE_LOG_SEGMENT_METADATA);
+
+        final String jsonStr = mapper.writeValueAsString(manifest);
+        final ObjectNode deserializedJson = (ObjectNode) mapper.readTree(jsonStr);
+        assertThat(mapper.writeValueAsString(deserializedJson.get("compressionMetadata")))
+            .isEqualTo("{\"codec\":\"lz4\"}");
+
+        final SegmentManifest deserializedManifest = mapper.readValue(jsonStr, SegmentManifest.class);
+        assertThat(deserializedManifest).isEqualTo(manifest);
+    }
+
+    @Test
+    void withCompressionWithoutMetadata() throws JsonProcessingException {
+        // Manifests written before the codec became configurable have only the compression flag.
+        final String jsonStr = WITHOUT_ENCRYPTION_JSON.replace("\"compression\":false", "\"compression\":true");
+
+        final SegmentManifest deserializedManifest = mapper.readValue(jsonStr, SegmentManifest.class);
+        assertThat(deserializedManifest.compression()).isTrue();
+        assertThat(deserializedManifest.compressionMetadata()).isEmpty();
+    }
+
+    @Test
+    void withCompressionDictionary() throws JsonProcessingException {
+        final var manifest = new SegmentManifestV1(INDEX, SEGMENT_INDEXES,
+            new SegmentCompressionMetadataV1(CompressionCodec.ZSTD, 3, "prefix/topic/dictionaries/dict.zstd-dict"),
+            null, REMOTE_LOG_SEGMENT_METADATA);
+
+        final String jsonStr = mapper.writeValueAsString(manifest);
+        final ObjectNode deserializedJson = (ObjectNode) mapper.readTree(jsonStr);
+        assertThat(mapper.writeValueAsString(deserializedJson.get("compressionMetadata")))
+            .isEqualTo("{\"codec\":\"zstd\",\"level\":3,"
+                + "\"dictionaryKey\":\"prefix/topic/dictionaries/dict.zstd-dict\"}");
+
+        final SegmentManifest deserializedManifest = mapper.readValue(jsonStr, SegmentManifest.class);
+        assertThat(deserializedManifest).isEqualTo(manifest);
+    }
 }
@@ -76,4 +76,13 @@ public class ChunkEqualsTest {
         assertThat(c2).isNotEqualTo(c1);
         assertThat(c1).doesNotHaveSameHashCodeAs(c2);
     }
+
+    @Test
+    void differentRaw() {
+        final var c1 = new Chunk(0, 20, 30, 100, 120, false);
+        final var c2 = new Chunk(0, 20, 30, 100, 120, true);
+        assertThat(c1).isNotEqualTo(c2);
+        assertThat(c2).isNotEqualTo(c1);
+        assertThat(c1).doesNotHaveSameHashCodeAs(c2);
+    }
 }
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.BitSet;
 import java.util.List;
 
 import io.aiven.kafka.tieredstorage.Chunk;
@@ -60,6 +61,9 @@ public class ChunkIndexSerializationTest {
         assertThat(expectedEncodedValue).isEqualTo(ENCODED_CHUNKS);
     }
 
+    // The checksums 1, 2 and Integer.MIN_VALUE as 4-byte big-endian values.
+    static final String ENCODED_CHECKSUMS = "AAAAAQAAAAKAAAAA";
+
     static final String FIXED_SIZE_CHUNK_INDEX_JSON = "{"
         + "\"type\":\"fixed\","
         + "\"originalChunkSize\":100,"
@@ -122,6 +126,72 @@ public class ChunkIndexSerializationTest {
         assertThat(index.chunkCount).isEqualTo(3);
     }
 
+    @Test
+    void serializeVariableSizeChunkIndexWithRawChunks() throws JsonProcessingException {
+        final BitSet rawChunkIds = new BitSet();
+        rawChunkIds.set(0);
+        rawChunkIds.set(2);
+        final var variableSizeChunkIndex = new VariableSizeChunkIndex(
+            100, 250, List.of(10, 20, 30), rawChunkIds);
+
+        // Bits 0 and 2 set, i.e. 0b101 = 5, base64-encoded.
+        assertThat(mapper.writeValueAsString(variableSizeChunkIndex))
+            .isEqualTo(VARIABLE_CHUNK_INDEX_JSON.replace("}", ",\"rawChunks\":\"BQ==\"}"));
+    }
+
+    @Test
+    void deserializeVariableSizeChunkIndexWithRawChunks() throws JsonProcessingException {
+        final String json = VARIABLE_CHUNK_INDEX_JSON.replace("}", ",\"rawChunks\":\"BQ==\"}");
+        final VariableSizeChunkIndex index = mapper.readValue(json, VariableSizeChunkIndex.class);
+
+        assertThat(index.chunks()).containsExactly(
+            new Chunk(0, 0, 100, 0, 10, true),
+            new Chunk(1, 100, 100, 10, 20, false),
+            new Chunk(2, 200, 50, 30, 30, true)
+        );
+    }
+
+    @Test
+    void serializeChunkIndexWithChecksums() throws JsonProcessingException {
+        final int[] checksums = {1, 2, Integer.MIN_VALUE};
+        final var fixedSizeChunkIndex = new FixedSizeChunkIndex(100, 250, 110, 30, checksums);
+        assertThat(mapper.writeValueAsString(fixedSizeChunkIndex))
+            .isEqualTo(FIXED_SIZE_CHUNK_INDEX_JSON.replace("}", ",\"checksums\":\"" + ENCODED_CHECKSUMS + "\"}"));
+
+        final var variableSizeChunkIndex = new VariableSizeChunkIndex(
+            100, 250, List.of(10, 20, 30), new BitSet(), checksums);
+        assertThat(mapper.writeValueAsString(variableSizeChunkIndex))
+            .isEqualTo(VARIABLE_CHUNK_INDEX_JSON.replace("}", ",\"checksums\":\"" + ENCODED_CHECKSUMS + "\"}"));
+    }
+
+    @Test
+    void deserializeChunkIndexWithChecksums() throws JsonProcessingException {
+        final String fixedJson =
+            FIXED_SIZE_CHUNK_INDEX_JSON.replace("}", ",\"checksums\":\"" + ENCODED_CHECKSUMS + "\"}");
+        assertThat(mapper.readValue(fixedJson, ChunkIndex.class).chunks()).containsExactly(
+            new Chunk(0, 0, 100, 0, 110, false, 1),
+            new Chunk(1, 100, 100, 110, 110, false, 2),
+            new Chunk(2, 200, 50, 220, 30, false, Integer.MIN_VALUE)
+        );
+
+        final String variableJson =
+            VARIABLE_CHUNK_INDEX_JSON.replace("}", ",\"checksums\":\"" + ENCODED_CHECKSUMS + "\"}");
+        final ChunkIndex variableIndex = mapper.readValue(variableJson, ChunkIndex.class);
+        assertThat(variableIndex.chunks()).containsExactly(
+            new Chunk(0, 0, 100, 0, 10, false, 1),
+            new Chunk(1, 100, 100, 10, 20, false, 2),
+            new Chunk(2, 200, 50, 30, 30, false, Integer.MIN_VALUE)
+        );
+        assertThat(variableIndex.findChunkForOriginalOffset(150)).isEqualTo(variableIndex.chunks().get(1));
+    }
+
+    @Test
+    void checksumsMustMatchChunks() {
+        assertThatThrownBy(() -> new FixedSizeChunkIndex(100, 250, 110, 30, new int[] {1, 2}))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("There must be a checksum for each of 3 chunks, 2 given");
+    }
+
     @Test
     void deserializationShouldRequireFieldsForFixedSizeChunkIndex() {
         final String json1 = "{"
@@ -52,6 +52,28 @@ public class FixedSizeChunkIndexBuilderTest extends ChunkIndexBuilderCommonTest
             .hasMessage("Non-final chunk must be of size 113, but 12 given");
     }
 
+    @Test
+    void rawChunksNotSupported() {
+        assertThatThrownBy(() -> normalInitedChunkIndexBuilder.addChunk(113, true))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Raw chunks are not supported by fixed size chunk index");
+    }
+
+    @Test
+    void untransformedIndexSameAsBuilt() {
+        for (final int fileSize : new int[] {1, 99, 100, 101, 199, 200, 253, 1000}) {
+            final var builder = new FixedSizeChunkIndexBuilder(100, fileSize, 100);
+            int remaining = fileSize;
+            while (remaining > 100) {
+                builder.addChunk(100);
+                remaining -= 100;
+            }
+            final ChunkIndex built = builder.finish(remaining);
+
+            assertThat(FixedSizeChunkIndex.untransformed(100, fileSize)).isEqualTo(built);
+        }
+    }
+
     @Test
     void threeChunks() {
         /*
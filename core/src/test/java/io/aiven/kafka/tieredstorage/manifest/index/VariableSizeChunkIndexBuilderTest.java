@@ -79,4 +79,43 @@ public class VariableSizeChunkIndexBuilderTest extends ChunkIndexBuilderCommonTe
         assertThat(index.findChunkForOriginalOffset(253)).isNull();
         assertThat(index.findChunkForOriginalOffset(254)).isNull();
     }
+
+    @Test
+    void rawChunks() {
+        final var builder = new VariableSizeChunkIndexBuilder(101, 253);
+        builder.addChunk(33, false);
+        builder.addChunk(101, true);
+        final ChunkIndex index = builder.finish(51, true);
+
+        final var transformedChunk1 = new Chunk(0, 0, 101, 0, 33, false);
+        final var transformedChunk2 = new Chunk(1, 101, 101, 33, 101, true);
+        final var transformedChunk3 = new Chunk(2, 202, 51, 134, 51, true);
+
+        assertThat(index.chunks()).containsExactly(transformedChunk1, transformedChunk2, transformedChunk3);
+        assertThat(index.findChunkForOriginalOffset(150)).isEqualTo(transformedChunk2);
+    }
+
+    @Test
+    void checksums() {
+        final var builder = new VariableSizeChunkIndexBuilder(101, 253);
+        builder.addChunk(33, false, 1);
+        builder.addChunk(101, true, 2);
+        final ChunkIndex index = builder.finish(51, true, 3);
+
+        assertThat(index.chunks()).containsExactly(
+            new Chunk(0, 0, 101, 0, 33, false, 1),
+            new Chunk(1, 101, 101, 33, 101, true, 2),
+            new Chunk(2, 202, 51, 134, 51, true, 3)
+        );
+    }
+
+    @Test
+    void checksumsOmittedIfSomeChunkHasNone() {
+        final var builder = new VariableSizeChunkIndexBuilder(101, 253);
+        builder.addChunk(33, false, 1);
+        builder.addChunk(22, false, null);
+        final ChunkIndex index = builder.finish(5, false, 3);
+
+        assertThat(index.chunks()).allMatch(chunk -> chunk.checksum == null);
+    }
 }
@@ -16,6 +16,7 @@
 
 package io.aiven.kafka.tieredstorage.manifest.index;
 
+import java.util.BitSet;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -58,4 +59,15 @@ class VariableSizeChunkIndexEqualsTest {
         assertThat(i2).isNotEqualTo(i1);
         assertThat(i1).doesNotHaveSameHashCodeAs(i2);
     }
+
+    @Test
+    void differentRawChunks() {
+        final BitSet rawChunkIds = new BitSet();
+        rawChunkIds.set(1);
+        final var i1 = new VariableSizeChunkIndex(100, 1000, List.of(10, 20, 30));
+        final var i2 = new VariableSizeChunkIndex(100, 1000, List.of(10, 20, 30), rawChunkIds);
+        assertThat(i1).isNotEqualTo(i2);
+        assertThat(i2).isNotEqualTo(i1);
+        assertThat(i1).doesNotHaveSameHashCodeAs(i2);
+    }
 }
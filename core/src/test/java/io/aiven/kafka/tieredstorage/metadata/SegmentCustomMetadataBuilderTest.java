@@ -99,4 +99,20 @@ class SegmentCustomMetadataBuilderTest {
         assertThat(fields)
             .containsExactly(entry(field.index, "topic-" + TOPIC_ID + "/0/00000000000000000001-" + SEGMENT_ID));
     }
+
+    @Test
+    void shouldIncludePackFieldsOnlyWhenAppendedToPack() {
+        final var field = SegmentCustomMetadataField.OBJECT_PREFIX;
+        final var b = new SegmentCustomMetadataBuilder(Set.of(field), OBJECT_KEY_FACTORY, REMOTE_LOG_SEGMENT_METADATA);
+        assertThat(b.build())
+            .containsExactly(entry(field.index, "p1"));
+
+        b.setPackMember("pack-1", 100, 42);
+        assertThat(b.build())
+            .containsExactly(
+                entry(field.index, "p1"),
+                entry(SegmentCustomMetadataField.PACK_ID.index, "pack-1"),
+                entry(SegmentCustomMetadataField.PACK_POSITION.index, 100),
+                entry(SegmentCustomMetadataField.PACK_SIZE.index, 42));
+    }
 }
@@ -115,4 +115,21 @@ class BaseDetransformChunkEnumerationTest {
         assertThatThrownBy(transform::nextElement)
             .isInstanceOf(NoSuchElementException.class);
     }
+
+    @Test
+    void rawChunksReported() {
+        final byte[] data = {0, 1, 2, 3, 4, 5};
+        final List<Chunk> chunks = List.of(
+            new Chunk(0, 0, 3, 0, 3, true),
+            new Chunk(1, 3, 3, 3, 3, false)
+        );
+        final var transform = new BaseDetransformChunkEnumeration(new ByteArrayInputStream(data), chunks);
+        assertThat(transform.lastChunkRaw()).isFalse();
+        assertThat(transform.nextElement()).isEqualTo(new byte[] {0, 1, 2});
+        // Checking for more elements reads ahead, but must not change the flag of the returned chunk.
+        assertThat(transform.hasMoreElements()).isTrue();
+        assertThat(transform.lastChunkRaw()).isTrue();
+        assertThat(transform.nextElement()).isEqualTo(new byte[] {3, 4, 5});
+        assertThat(transform.lastChunkRaw()).isFalse();
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChunkBufferPoolTest {
+    @Test
+    void invalidParameters() {
+        assertThatThrownBy(() -> new ChunkBufferPool(0, 10, false))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("maxPooledBuffers must be positive, 0 given");
+        assertThatThrownBy(() -> new ChunkBufferPool(1, 0, false))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("bufferSize must be positive, 0 given");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void buffersReused(final boolean direct) {
+        final var pool = new ChunkBufferPool(2, 10, direct);
+        final ByteBuffer buffer1 = pool.acquire(5);
+        assertThat(buffer1.capacity()).isEqualTo(10);
+        assertThat(buffer1.isDirect()).isEqualTo(direct);
+        buffer1.position(3).limit(7);
+        pool.release(buffer1);
+        assertThat(pool.pooledBuffers()).isOne();
+
+        final ByteBuffer buffer2 = pool.acquire(10);
+        assertThat(buffer2).isSameAs(buffer1);
+        assertThat(buffer2.position()).isZero();
+        assertThat(buffer2.limit()).isEqualTo(10);
+        assertThat(pool.pooledBuffers()).isZero();
+    }
+
+    @Test
+    void duplicatesReleased() {
+        final var pool = new ChunkBufferPool(2, 10, false);
+        final ByteBuffer buffer = pool.acquire(10);
+        pool.release(buffer.duplicate());
+        assertThat(pool.acquire(10).array()).isSameAs(buffer.array());
+    }
+
+    @Test
+    void allocatedWhenEmpty() {
+        final var pool = new ChunkBufferPool(1, 10, false);
+        final ByteBuffer buffer1 = pool.acquire(10);
+        final ByteBuffer buffer2 = pool.acquire(10);
+        assertThat(buffer2).isNotSameAs(buffer1);
+
+        pool.release(buffer1);
+        pool.release(buffer2);
+        // Only up to the maximum number of buffers is kept.
+        assertThat(pool.pooledBuffers()).isOne();
+        assertThat(pool.missesTotal()).isEqualTo(2);
+
+        pool.acquire(10);
+        assertThat(pool.missesTotal()).isEqualTo(2);
+    }
+
+    @Test
+    void largerBuffersNotPooled() {
+        final var pool = new ChunkBufferPool(2, 10, false);
+        final ByteBuffer buffer = pool.acquire(11);
+        assertThat(buffer.capacity()).isEqualTo(11);
+        assertThat(pool.missesTotal()).isOne();
+        pool.release(buffer);
+        assertThat(pool.pooledBuffers()).isZero();
+    }
+}
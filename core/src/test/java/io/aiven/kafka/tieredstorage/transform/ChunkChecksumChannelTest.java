@@ -0,0 +1,65 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkChecksumChannelTest {
+    @ParameterizedTest
+    @CsvSource({"1000, 100, 7", "1000, 100, 100", "1000, 100, 4096", "1001, 100, 33", "99, 100, 10", "0, 100, 10"})
+    void sameChecksumsAsTransformation(final int fileSize, final int chunkSize, final int bufferSize)
+        throws IOException {
+        final byte[] data = new byte[fileSize];
+        new Random().nextBytes(data);
+
+        final var transformFinisher = new TransformFinisher(
+            new BaseTransformChunkEnumeration(new ByteArrayInputStream(data), chunkSize), fileSize);
+        transformFinisher.toInputStream().readAllBytes();
+        final int[] expected = transformFinisher.transformedChunks().stream()
+            .mapToInt(TransformedChunk::checksum)
+            .toArray();
+
+        final var channel = new ChunkChecksumChannel(
+            Channels.newChannel(new ByteArrayInputStream(data)), chunkSize, fileSize);
+        final ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        while (channel.read(buffer) >= 0) {
+            buffer.clear();
+        }
+        assertThat(channel.checksums()).containsExactly(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1000, 999", "1000, 1001"})
+    void noChecksumsIfNotReadToTheEnd(final int fileSize, final int actualSize) throws IOException {
+        final var channel = new ChunkChecksumChannel(
+            Channels.newChannel(new ByteArrayInputStream(new byte[actualSize])), 100, fileSize);
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        while (channel.read(buffer) >= 0) {
+            buffer.clear();
+        }
+        assertThat(channel.checksums()).isNull();
+    }
+}
@@ -16,7 +16,14 @@
 
 package io.aiven.kafka.tieredstorage.transform;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
 import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import net.jpountz.lz4.LZ4Factory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -76,4 +83,145 @@ class CompressionChunkEnumerationTest {
         Zstd.decompress(decompressed, compressed);
         assertThat(decompressed).isEqualTo(data);
     }
+
+    @Test
+    void reusesPooledContext() {
+        final byte[] data = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        final ContextPool<CompressionContext> contextPool = CompressionContext.pool(1);
+        final var transform = new CompressionChunkEnumeration(
+            inner, CompressionCodec.ZSTD, CompressionCodec.ZSTD_DEFAULT_LEVEL, null, null, contextPool);
+        when(inner.nextElement()).thenReturn(data);
+
+        final byte[] first = transform.nextElement();
+        assertThat(contextPool.pooledContexts()).isEqualTo(1);
+        assertThat(transform.nextElement()).isEqualTo(first).isNotSameAs(first);
+        assertThat(contextPool.pooledContexts()).isEqualTo(1);
+        contextPool.close();
+    }
+
+    @Test
+    void compressChunksOfDifferentSizes() {
+        final byte[] small = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        final byte[] large = new byte[100_000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) (i % 7);
+        }
+        final var transform = new CompressionChunkEnumeration(inner);
+        when(inner.nextElement())
+            .thenReturn(small)
+            .thenReturn(large)
+            .thenReturn(small);
+
+        // The context and the output buffer are reused between chunks, so no leftovers must be seen.
+        for (final byte[] data : new byte[][] {small, large, small}) {
+            final byte[] compressed = transform.nextElement();
+            assertThat(Zstd.decompressedSize(compressed)).isEqualTo(data.length);
+            assertThat(Zstd.decompress(compressed, data.length)).isEqualTo(data);
+        }
+    }
+
+    @Test
+    void compressWithLevel() {
+        final byte[] data = new byte[10_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 13);
+        }
+        final var transform = new CompressionChunkEnumeration(inner, CompressionCodec.ZSTD, 19);
+        when(inner.nextElement()).thenReturn(data);
+
+        final byte[] compressed = transform.nextElement();
+        assertThat(Zstd.decompress(compressed, data.length)).isEqualTo(data);
+    }
+
+    @Test
+    void compressLz4() {
+        final byte[] data = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        final var transform = new CompressionChunkEnumeration(inner, CompressionCodec.LZ4, 0);
+        when(inner.nextElement()).thenReturn(data);
+
+        final byte[] compressed = transform.nextElement();
+        final ByteBuffer buffer = ByteBuffer.wrap(compressed);
+        assertThat(buffer.getInt()).isEqualTo(data.length);
+        final byte[] decompressed = new byte[data.length];
+        LZ4Factory.fastestInstance().safeDecompressor()
+            .decompress(compressed, 4, compressed.length - 4, decompressed, 0);
+        assertThat(decompressed).isEqualTo(data);
+    }
+
+    @Test
+    void compressWithDictionary() {
+        // Raw content dictionary, which is as good as a trained one for the test.
+        final byte[] dictionary = "{\"id\":1,\"status\":\"active\"}{\"id\":2,\"status\":\"inactive\"}".getBytes();
+
+        final byte[] data = "{\"id\":12345,\"status\":\"active\"}".getBytes();
+        final var transform = new CompressionChunkEnumeration(
+            inner, CompressionCodec.ZSTD, 3, new ZstdDictCompress(dictionary, 3), null);
+        when(inner.nextElement()).thenReturn(data);
+
+        final byte[] compressed = transform.nextElement();
+        assertThat(Zstd.decompress(compressed, new ZstdDictDecompress(dictionary), data.length)).isEqualTo(data);
+    }
+
+    @Test
+    void dictionaryWithLz4() {
+        final ZstdDictCompress dictionary = new ZstdDictCompress(new byte[100], 3);
+        assertThatThrownBy(() -> new CompressionChunkEnumeration(inner, CompressionCodec.LZ4, 0, dictionary, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Dictionary is supported only by Zstd, lz4 given");
+    }
+
+    @Test
+    void incompressibleChunkStoredRaw() {
+        final byte[] incompressible = new byte[10_000];
+        new Random(1).nextBytes(incompressible);
+        final byte[] compressible = new byte[10_000];
+        final var transform = new CompressionChunkEnumeration(
+            inner, CompressionCodec.ZSTD, CompressionCodec.ZSTD_DEFAULT_LEVEL, null, 0.0);
+        when(inner.nextElement()).thenReturn(incompressible, compressible);
+
+        assertThat(transform.nextElement()).isSameAs(incompressible);
+        assertThat(transform.lastChunkRaw()).isTrue();
+
+        final byte[] compressed = transform.nextElement();
+        assertThat(transform.lastChunkRaw()).isFalse();
+        assertThat(Zstd.decompress(compressed, compressible.length)).isEqualTo(compressible);
+    }
+
+    @Test
+    void chunkStoredRawWhenSavingIsBelowMargin() {
+        // Half of the chunk is compressible, so compression saves a bit less than a half.
+        final byte[] data = new byte[10_000];
+        new Random(1).nextBytes(data);
+        Arrays.fill(data, 0, 5_000, (byte) 0);
+        when(inner.nextElement()).thenReturn(data);
+
+        final var transform = new CompressionChunkEnumeration(
+            inner, CompressionCodec.LZ4, 0, null, 0.4);
+        transform.nextElement();
+        assertThat(transform.lastChunkRaw()).isFalse();
+
+        final var transformWithBiggerMargin = new CompressionChunkEnumeration(
+            inner, CompressionCodec.LZ4, 0, null, 0.6);
+        assertThat(transformWithBiggerMargin.nextElement()).isSameAs(data);
+        assertThat(transformWithBiggerMargin.lastChunkRaw()).isTrue();
+    }
+
+    @Test
+    void noRawFallbackByDefault() {
+        final byte[] incompressible = new byte[10_000];
+        new Random(1).nextBytes(incompressible);
+        final var transform = new CompressionChunkEnumeration(inner);
+        when(inner.nextElement()).thenReturn(incompressible);
+
+        final byte[] compressed = transform.nextElement();
+        assertThat(transform.lastChunkRaw()).isFalse();
+        assertThat(compressed.length).isGreaterThan(incompressible.length);
+    }
+
+    @Test
+    void invalidRawFallbackMargin() {
+        assertThatThrownBy(() -> new CompressionChunkEnumeration(inner, CompressionCodec.ZSTD, 3, null, 1.5))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("rawFallbackMargin must be between 0 and 1, 1.5 given");
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContextPoolTest {
+    final AtomicInteger created = new AtomicInteger();
+    final List<Integer> closed = new ArrayList<>();
+
+    @Test
+    void reusesReleasedContexts() {
+        final var pool = new ContextPool<>(2, created::incrementAndGet, closed::add);
+        final Integer first = pool.acquire();
+        pool.release(first);
+        assertThat(pool.acquire()).isSameAs(first);
+        assertThat(created).hasValue(1);
+        assertThat(closed).isEmpty();
+    }
+
+    @Test
+    void closesContextsNotRetained() {
+        final var pool = new ContextPool<>(2, created::incrementAndGet, closed::add);
+        final Integer first = pool.acquire();
+        final Integer second = pool.acquire();
+        final Integer third = pool.acquire();
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        assertThat(pool.pooledContexts()).isEqualTo(2);
+        assertThat(closed).containsExactly(third);
+    }
+
+    @Test
+    void closesAllContextsWhenClosed() {
+        final var pool = new ContextPool<>(2, created::incrementAndGet, closed::add);
+        final Integer first = pool.acquire();
+        final Integer second = pool.acquire();
+        pool.release(first);
+        pool.close();
+        assertThat(pool.pooledContexts()).isZero();
+        assertThat(closed).containsExactly(first);
+
+        // Contexts released after closing are not retained.
+        pool.release(second);
+        assertThat(pool.pooledContexts()).isZero();
+        assertThat(closed).containsExactly(first, second);
+    }
+
+    @Test
+    void noContextsRetained() {
+        final var pool = new ContextPool<>(0, created::incrementAndGet, closed::add);
+        final Integer context = pool.acquire();
+        pool.release(context);
+        assertThat(closed).containsExactly(context);
+    }
+
+    @Test
+    void invalidMaxPooledContexts() {
+        assertThatThrownBy(() -> new ContextPool<>(-1, created::incrementAndGet, closed::add))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("maxPooledContexts must be non-negative, -1 given");
+    }
+}
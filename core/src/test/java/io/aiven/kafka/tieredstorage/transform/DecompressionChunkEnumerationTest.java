@@ -16,7 +16,11 @@
 
 package io.aiven.kafka.tieredstorage.transform;
 
+import java.nio.ByteBuffer;
+
 import com.github.luben.zstd.ZstdCompressCtx;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -65,4 +69,53 @@ class DecompressionChunkEnumerationTest {
 
         assertThat(transform.nextElement()).isEqualTo(data);
     }
+
+    @Test
+    void rawChunkNotDecompressed() {
+        final byte[] data = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        final var transform = new DecompressionChunkEnumeration(inner, CompressionCodec.LZ4);
+        when(inner.nextElement()).thenReturn(data);
+        when(inner.lastChunkRaw()).thenReturn(true);
+
+        assertThat(transform.nextElement()).isSameAs(data);
+    }
+
+    @Test
+    void decompressLz4() {
+        final byte[] data = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+        final byte[] block = compressor.compress(data);
+        final byte[] compressed = ByteBuffer.allocate(4 + block.length)
+            .putInt(data.length)
+            .put(block)
+            .array();
+
+        final var transform = new DecompressionChunkEnumeration(inner, CompressionCodec.LZ4);
+        when(inner.nextElement()).thenReturn(compressed);
+
+        assertThat(transform.nextElement()).isEqualTo(data);
+    }
+
+    @Test
+    void decompressLz4InvalidSize() {
+        final byte[] data = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        final byte[] block = LZ4Factory.fastestInstance().fastCompressor().compress(data);
+        final byte[] compressed = ByteBuffer.allocate(4 + block.length)
+            .putInt(data.length - 1)
+            .put(block)
+            .array();
+
+        final var transform = new DecompressionChunkEnumeration(inner, CompressionCodec.LZ4);
+        when(inner.nextElement()).thenReturn(compressed);
+
+        assertThatThrownBy(transform::nextElement).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void dictionaryWithLz4() {
+        final DecompressionDictionary dictionary = new DecompressionDictionary(new byte[100]);
+        assertThatThrownBy(() -> new DecompressionChunkEnumeration(inner, CompressionCodec.LZ4, dictionary))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Dictionary is supported only by Zstd, lz4 given");
+    }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import com.github.luben.zstd.ZstdDictDecompress;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DecompressionDictionaryTest {
+    final DecompressionDictionary dictionary = new DecompressionDictionary(new byte[100]);
+
+    @Test
+    void keptLoadedUntilClosed() {
+        final ZstdDictDecompress first = dictionary.acquire();
+        dictionary.release();
+        assertThat(dictionary.loaded()).isTrue();
+        assertThat(dictionary.acquire()).isSameAs(first);
+        dictionary.release();
+
+        dictionary.close();
+        assertThat(dictionary.loaded()).isFalse();
+    }
+
+    @Test
+    void freedWhenLastUseEndsAfterClose() {
+        dictionary.acquire();
+        dictionary.acquire();
+        dictionary.close();
+        assertThat(dictionary.loaded()).isTrue();
+
+        dictionary.release();
+        assertThat(dictionary.loaded()).isTrue();
+        dictionary.release();
+        assertThat(dictionary.loaded()).isFalse();
+    }
+
+    @Test
+    void loadedAgainWhenUsedAfterClose() {
+        dictionary.close();
+
+        assertThat(dictionary.acquire()).isNotNull();
+        assertThat(dictionary.loaded()).isTrue();
+        dictionary.release();
+        assertThat(dictionary.loaded()).isFalse();
+    }
+
+    @Test
+    void releaseWithoutAcquire() {
+        assertThatThrownBy(dictionary::release)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Dictionary is not acquired");
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+
+import java.nio.ByteBuffer;
+
+import io.aiven.kafka.tieredstorage.AesKeyAwareTest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EncryptionBufferChunkEnumerationTest extends AesKeyAwareTest {
+    static final byte[] DATA = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+    // The GCM tag.
+    static final int CIPHER_OVERHEAD = 16;
+
+    @Mock
+    BufferTransformChunkEnumeration inner;
+
+    @Test
+    void nullInnerEnumeration() {
+        assertThatThrownBy(() -> new EncryptionBufferChunkEnumeration(null, AesKeyAwareTest::encryptionCipherSupplier))
+            .isInstanceOf(NullPointerException.class)
+            .hasMessage("inner cannot be null");
+    }
+
+    @Test
+    void nullCipherSupplier() {
+        assertThatThrownBy(() -> new EncryptionBufferChunkEnumeration(inner, null))
+            .isInstanceOf(NullPointerException.class)
+            .hasMessage("cipherSupplier cannot be null");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void encryptInPlace(final boolean direct) throws IllegalBlockSizeException, BadPaddingException {
+        final var bufferPool = new ChunkBufferPool(1, ivSize + DATA.length + CIPHER_OVERHEAD, direct);
+        final ByteBuffer chunk = bufferPool.acquire(bufferPool.bufferSize());
+        chunk.position(ivSize);
+        chunk.put(DATA);
+        chunk.limit(chunk.position());
+        chunk.position(ivSize);
+        when(inner.bufferPool()).thenReturn(bufferPool);
+        when(inner.nextElement()).thenReturn(chunk);
+
+        final var transform = new EncryptionBufferChunkEnumeration(inner, AesKeyAwareTest::encryptionCipherSupplier);
+        final ByteBuffer encrypted = transform.nextElement();
+
+        assertThat(encrypted.position()).isZero();
+        assertThat(encrypted.remaining()).isEqualTo(ivSize + DATA.length + CIPHER_OVERHEAD);
+        // Encrypted in the chunk buffer.
+        assertThat(chunk.duplicate().clear()).isEqualTo(encrypted);
+        assertThat(decrypt(encrypted)).isEqualTo(DATA);
+        assertThat(bufferPool.pooledBuffers()).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void encryptIntoAnotherBufferWithoutHeadroom(final boolean direct)
+        throws IllegalBlockSizeException, BadPaddingException {
+        final var bufferPool = new ChunkBufferPool(1, ivSize + DATA.length + CIPHER_OVERHEAD, direct);
+        final ByteBuffer chunk = bufferPool.acquire(bufferPool.bufferSize());
+        chunk.put(DATA);
+        chunk.flip();
+        when(inner.bufferPool()).thenReturn(bufferPool);
+        when(inner.nextElement()).thenReturn(chunk);
+
+        final var transform = new EncryptionBufferChunkEnumeration(inner, AesKeyAwareTest::encryptionCipherSupplier);
+        final ByteBuffer encrypted = transform.nextElement();
+
+        assertThat(encrypted.remaining()).isEqualTo(ivSize + DATA.length + CIPHER_OVERHEAD);
+        assertThat(decrypt(encrypted)).isEqualTo(DATA);
+        // The original chunk is released.
+        assertThat(bufferPool.pooledBuffers()).isOne();
+    }
+
+    private byte[] decrypt(final ByteBuffer encrypted) throws IllegalBlockSizeException, BadPaddingException {
+        final byte[] bytes = new byte[encrypted.remaining()];
+        encrypted.duplicate().get(bytes);
+        final Cipher decryptCipher = decryptionCipherSupplier(bytes);
+        return decryptCipher.doFinal(bytes, ivSize, bytes.length - ivSize);
+    }
+}
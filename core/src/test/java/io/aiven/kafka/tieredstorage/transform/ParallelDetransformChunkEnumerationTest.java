@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.UnaryOperator;
+
+import io.aiven.kafka.tieredstorage.Chunk;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelDetransformChunkEnumerationTest {
+    ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void invalidMaxInFlightChunks() {
+        final var source = new BaseDetransformChunkEnumeration(new ByteArrayInputStream(new byte[10]), List.of());
+        assertThatThrownBy(
+            () -> new ParallelDetransformChunkEnumeration(source, UnaryOperator.identity(), executor, 0))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("maxInFlightChunks must be positive, 0 given");
+    }
+
+    @Test
+    void chunksReturnedInOrder() throws IOException {
+        final byte[] original = new byte[1000];
+        for (int i = 0; i < original.length; i++) {
+            original[i] = (byte) i;
+        }
+        final var transformFinisher = new TransformFinisher(new CompressionChunkEnumeration(
+            new BaseTransformChunkEnumeration(new ByteArrayInputStream(original), 7)), original.length);
+        final byte[] transformed = transformFinisher.toInputStream().readAllBytes();
+        final List<Chunk> chunks = transformFinisher.chunkIndex().chunks();
+
+        final var source = new BaseDetransformChunkEnumeration(new ByteArrayInputStream(transformed), chunks);
+        // Random delays make chunks finish out of order.
+        final var detransform = new ParallelDetransformChunkEnumeration(
+            source, inner -> new DecompressionChunkEnumeration(new DelayingChunkEnumeration(inner)), executor, 4);
+
+        final byte[] detransformed = new DetransformFinisher(detransform).toInputStream().readAllBytes();
+        assertThat(detransformed).isEqualTo(original);
+        assertThat(detransform.hasMoreElements()).isFalse();
+        assertThatThrownBy(detransform::nextElement).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void detransformationFailurePropagated() {
+        final List<Chunk> chunks = List.of(new Chunk(0, 0, 5, 0, 5), new Chunk(1, 5, 5, 5, 5));
+        final var source = new BaseDetransformChunkEnumeration(new ByteArrayInputStream(new byte[10]), chunks);
+        final UnaryOperator<DetransformChunkEnumeration> failing = inner -> new DelayingChunkEnumeration(inner) {
+            @Override
+            public byte[] nextElement() {
+                throw new IllegalStateException("test");
+            }
+        };
+        final var detransform = new ParallelDetransformChunkEnumeration(source, failing, executor, 2);
+        assertThat(detransform.hasMoreElements()).isTrue();
+        assertThatThrownBy(detransform::nextElement)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("test");
+    }
+
+    private static class DelayingChunkEnumeration implements DetransformChunkEnumeration {
+        private final DetransformChunkEnumeration inner;
+
+        DelayingChunkEnumeration(final DetransformChunkEnumeration inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            return inner.hasMoreElements();
+        }
+
+        @Override
+        public byte[] nextElement() {
+            final byte[] chunk = inner.nextElement();
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(5));
+            } catch (final InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return chunk;
+        }
+
+        @Override
+        public boolean lastChunkRaw() {
+            return inner.lastChunkRaw();
+        }
+
+        @Override
+        public OptionalInt lastChunkChecksum() {
+            return inner.lastChunkChecksum();
+        }
+    }
+}
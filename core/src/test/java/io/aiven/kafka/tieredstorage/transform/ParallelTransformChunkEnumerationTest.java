@@ -0,0 +1,172 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.transform;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelTransformChunkEnumerationTest {
+    ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void invalidMaxInFlightChunks() {
+        final var source = new BaseTransformChunkEnumeration(new ByteArrayInputStream(new byte[10]), 2);
+        assertThatThrownBy(() -> new ParallelTransformChunkEnumeration(source, UnaryOperator.identity(), executor, 0))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("maxInFlightChunks must be positive, 0 given");
+    }
+
+    @Test
+    void chunkSizesPropagated() {
+        final var source = new BaseTransformChunkEnumeration(new ByteArrayInputStream(new byte[10]), 3);
+        final var transform = new ParallelTransformChunkEnumeration(
+            source, CompressionChunkEnumeration::new, executor, 2);
+        assertThat(transform.originalChunkSize()).isEqualTo(3);
+        assertThat(transform.transformedChunkSize()).isNull();
+
+        final var plainTransform = new ParallelTransformChunkEnumeration(
+            source, UnaryOperator.identity(), executor, 2);
+        assertThat(plainTransform.transformedChunkSize()).isEqualTo(3);
+    }
+
+    @Test
+    void chunksReturnedInOrder() {
+        final byte[] original = new byte[1000];
+        for (int i = 0; i < original.length; i++) {
+            original[i] = (byte) i;
+        }
+        final var source = new BaseTransformChunkEnumeration(new ByteArrayInputStream(original), 7);
+        // Random delays make chunks finish out of order.
+        final var transform = new ParallelTransformChunkEnumeration(
+            source, DelayingChunkEnumeration::new, executor, 4);
+
+        final List<byte[]> chunks = new ArrayList<>();
+        while (transform.hasMoreElements()) {
+            chunks.add(transform.nextElement());
+        }
+        assertThat(transform.hasMoreElements()).isFalse();
+        assertThatThrownBy(transform::nextElement).isInstanceOf(NoSuchElementException.class);
+
+        final var expectedSource = new BaseTransformChunkEnumeration(new ByteArrayInputStream(original), 7);
+        final List<byte[]> expected = new ArrayList<>();
+        while (expectedSource.hasMoreElements()) {
+            expected.add(expectedSource.nextElement());
+        }
+        assertThat(chunks).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void transformationFailurePropagated() {
+        final var source = new BaseTransformChunkEnumeration(new ByteArrayInputStream(new byte[10]), 2);
+        final UnaryOperator<TransformChunkEnumeration> failing = inner -> new DelayingChunkEnumeration(inner) {
+            @Override
+            public byte[] nextElement() {
+                throw new IllegalStateException("test");
+            }
+        };
+        final var transform = new ParallelTransformChunkEnumeration(source, failing, executor, 2);
+        assertThat(transform.hasMoreElements()).isTrue();
+        assertThatThrownBy(transform::nextElement)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("test");
+    }
+
+    @Test
+    void closeCancelsChunksInFlight() throws InterruptedException {
+        final var source = new BaseTransformChunkEnumeration(new ByteArrayInputStream(new byte[10]), 2);
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch interrupted = new CountDownLatch(2);
+        final UnaryOperator<TransformChunkEnumeration> blocking = inner -> new DelayingChunkEnumeration(inner) {
+            @Override
+            public byte[] nextElement() {
+                started.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (final InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return new byte[0];
+            }
+        };
+        final var transform = new ParallelTransformChunkEnumeration(source, blocking, executor, 2);
+        assertThat(transform.hasMoreElements()).isTrue();
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        transform.close();
+
+        assertThat(interrupted.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static class DelayingChunkEnumeration implements TransformChunkEnumeration {
+        private final TransformChunkEnumeration inner;
+
+        DelayingChunkEnumeration(final TransformChunkEnumeration inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public int originalChunkSize() {
+            return inner.originalChunkSize();
+        }
+
+        @Override
+        public Integer transformedChunkSize() {
+            return inner.transformedChunkSize();
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            return inner.hasMoreElements();
+        }
+
+        @Override
+        public byte[] nextElement() {
+            final byte[] chunk = inner.nextElement();
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(5));
+            } catch (final InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return chunk;
+        }
+    }
+}
@@ -19,6 +19,7 @@ package io.aiven.kafka.tieredstorage.transform;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.OptionalInt;
 
 import io.aiven.kafka.tieredstorage.Chunk;
 import io.aiven.kafka.tieredstorage.manifest.index.ChunkIndex;
@@ -34,6 +35,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class TransformFinisherTest {
@@ -84,6 +86,79 @@ class TransformFinisherTest {
         );
     }
 
+    @Test
+    void rawChunksInIndex() {
+        when(inner.originalChunkSize()).thenReturn(3);
+        when(inner.transformedChunkSize()).thenReturn(null);
+        when(inner.hasMoreElements()).thenReturn(true, true, false);
+        when(inner.nextElement()).thenReturn(new byte[2], new byte[3], new byte[1]);
+        when(inner.lastChunkRaw()).thenReturn(false, true, true);
+
+        final TransformFinisher finisher = new TransformFinisher(inner, 7);
+        finisher.nextElement();
+        finisher.nextElement();
+        finisher.nextElement();
+
+        assertThat(finisher.chunkIndex().chunks()).containsExactly(
+            new Chunk(0, 0, 3, 0, 2, false),
+            new Chunk(1, 3, 3, 2, 3, true),
+            new Chunk(2, 6, 1, 5, 1, true)
+        );
+    }
+
+    @Test
+    void checksumsInIndex() {
+        when(inner.originalChunkSize()).thenReturn(3);
+        when(inner.transformedChunkSize()).thenReturn(null);
+        when(inner.hasMoreElements()).thenReturn(false);
+        when(inner.nextElement()).thenReturn(new byte[1]);
+        when(inner.lastChunkChecksum()).thenReturn(OptionalInt.of(3));
+
+        final TransformFinisher finisher = new TransformFinisher(inner, 7);
+        finisher.resume(List.of(new TransformedChunk(2, false, 1), new TransformedChunk(3, true, 2)));
+        finisher.nextElement();
+
+        assertThat(finisher.chunkIndex().chunks()).containsExactly(
+            new Chunk(0, 0, 3, 0, 2, false, 1),
+            new Chunk(1, 3, 3, 2, 3, true, 2),
+            new Chunk(2, 6, 1, 5, 1, false, 3)
+        );
+        assertThat(finisher.transformedChunks()).last().isEqualTo(new TransformedChunk(1, false, 3));
+    }
+
+    @Test
+    void resumeWithTransformedChunks() {
+        when(inner.originalChunkSize()).thenReturn(3);
+        when(inner.transformedChunkSize()).thenReturn(null);
+        when(inner.hasMoreElements()).thenReturn(false);
+        when(inner.nextElement()).thenReturn(new byte[1]);
+        when(inner.lastChunkRaw()).thenReturn(false);
+
+        final TransformFinisher finisher = new TransformFinisher(inner, 7);
+        finisher.resume(List.of(new TransformedChunk(2, false), new TransformedChunk(3, true)));
+        finisher.nextElement();
+
+        assertThat(finisher.chunkIndex().chunks()).containsExactly(
+            new Chunk(0, 0, 3, 0, 2, false),
+            new Chunk(1, 3, 3, 2, 3, true),
+            new Chunk(2, 6, 1, 5, 1, false)
+        );
+        assertThat(finisher.transformedChunks()).containsExactly(
+            new TransformedChunk(2, false),
+            new TransformedChunk(3, true),
+            new TransformedChunk(1, false)
+        );
+    }
+
+    @Test
+    void resumeAfterChunksWereTransformed() {
+        final TransformFinisher finisher = new TransformFinisher(new FakeDataEnumerator(null), 7);
+        finisher.nextElement();
+        assertThatThrownBy(() -> finisher.resume(List.of(new TransformedChunk(3, false))))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Cannot resume after chunks were transformed");
+    }
+
     static Object[][] provideForBuildIndexAndReturnCorrectInputStreams() {
         return new Object[][] {
             new Object[] {3, FixedSizeChunkIndex.class},
@@ -18,27 +18,46 @@ package io.aiven.kafka.tieredstorage.transform;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 import io.aiven.kafka.tieredstorage.AesKeyAwareTest;
+import io.aiven.kafka.tieredstorage.Chunk;
 import io.aiven.kafka.tieredstorage.manifest.index.ChunkIndex;
 
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class TransformsEndToEndTest extends AesKeyAwareTest {
     static final int ORIGINAL_SIZE = 1812004;
 
     static byte[] original;
 
+    static ExecutorService executor;
+
     @BeforeAll
     static void init() {
         original = new byte[ORIGINAL_SIZE];
         final var random = new Random();
         random.nextBytes(original);
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        executor.shutdownNow();
     }
 
     @ParameterizedTest
@@ -68,16 +87,136 @@ public class TransformsEndToEndTest extends AesKeyAwareTest {
         test(chunkSize, true, true);
     }
 
-    private void test(final int chunkSize, final boolean compression, final boolean encryption) throws IOException {
-        // Transform.
-        TransformChunkEnumeration transformEnum = new BaseTransformChunkEnumeration(
-            new ByteArrayInputStream(original), chunkSize);
-        if (compression) {
-            transformEnum = new CompressionChunkEnumeration(transformEnum);
+    @ParameterizedTest
+    // Small chunks would make compression tests going very slowly, skipping them
+    @ValueSource(ints = {1024 - 1, 1024, 1024 * 2 + 2, 1024 * 5 + 3, ORIGINAL_SIZE - 1, ORIGINAL_SIZE * 2})
+    void parallelCompressionAndEncryption(final int chunkSize) throws IOException {
+        test(chunkSize, CompressionCodec.ZSTD, true, true);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1024 - 1, 1024, 1024 * 2 + 2, 1024 * 5 + 3, ORIGINAL_SIZE - 1, ORIGINAL_SIZE * 2})
+    void parallelEncryption(final int chunkSize) throws IOException {
+        test(chunkSize, null, true, true);
+    }
+
+    @ParameterizedTest
+    // Small chunks would make compression tests going very slowly, skipping them
+    @ValueSource(ints = {1024 - 1, 1024, 1024 * 2 + 2, 1024 * 5 + 3, ORIGINAL_SIZE - 1, ORIGINAL_SIZE * 2})
+    void lz4Compression(final int chunkSize) throws IOException {
+        test(chunkSize, CompressionCodec.LZ4, false, false);
+    }
+
+    @ParameterizedTest
+    // Small chunks would make compression tests going very slowly, skipping them
+    @ValueSource(ints = {1024 - 1, 1024, 1024 * 2 + 2, 1024 * 5 + 3, ORIGINAL_SIZE - 1, ORIGINAL_SIZE * 2})
+    void lz4CompressionAndEncryption(final int chunkSize) throws IOException {
+        test(chunkSize, CompressionCodec.LZ4, true, false);
+    }
+
+    @ParameterizedTest
+    // The original data is random, so all chunks are stored raw.
+    @ValueSource(ints = {1024 - 1, 1024, 1024 * 2 + 2, 1024 * 5 + 3, ORIGINAL_SIZE - 1, ORIGINAL_SIZE * 2})
+    void compressionWithRawFallback(final int chunkSize) throws IOException {
+        test(chunkSize, CompressionCodec.ZSTD, 0.0, false, false);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1024 - 1, 1024, 1024 * 2 + 2, 1024 * 5 + 3, ORIGINAL_SIZE - 1, ORIGINAL_SIZE * 2})
+    void parallelCompressionAndEncryptionWithRawFallback(final int chunkSize) throws IOException {
+        test(chunkSize, CompressionCodec.LZ4, 0.0, true, true);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "1023, ZSTD, true, false", "1024, ZSTD, true, true", "5123, LZ4, true, false", "5123, LZ4, false, true",
+        "1812003, ZSTD, true, true", "3624008, ZSTD, true, false", "1024, , true, false", "5123, , true, true",
+        "1024, ZSTD, false, false", "5123, , false, true"
+    })
+    void pooledBuffers(final int chunkSize,
+                       final CompressionCodec compression,
+                       final boolean encryption,
+                       final boolean direct) throws IOException {
+        final int headroom = encryption ? ivSize : 0;
+        final var bufferPool = new ChunkBufferPool(2, 100, direct);
+        BufferTransformChunkEnumeration transformEnum = new BaseBufferTransformChunkEnumeration(
+            Channels.newChannel(new ByteArrayInputStream(original)), chunkSize, bufferPool, headroom);
+        if (compression != null) {
+            transformEnum = new CompressionBufferChunkEnumeration(
+                transformEnum, compression, CompressionCodec.ZSTD_DEFAULT_LEVEL, null, null, headroom,
+                CompressionContext.pool(1));
         }
         if (encryption) {
-            transformEnum = new EncryptionChunkEnumeration(transformEnum, AesKeyAwareTest::encryptionCipherSupplier);
+            transformEnum = new EncryptionBufferChunkEnumeration(
+                transformEnum, AesKeyAwareTest::encryptionCipherSupplier);
+        }
+        final var transformFinisher = new BufferTransformFinisher(transformEnum, ORIGINAL_SIZE);
+        final byte[] uploadedData;
+        try (final var sis = transformFinisher.toInputStream()) {
+            uploadedData = sis.readAllBytes();
         }
+
+        detransformAndCheck(uploadedData, transformFinisher.chunkIndex(), compression, encryption);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void pooledBuffersReused(final boolean direct) throws IOException {
+        final int chunkSize = 1024 * 5 + 3;
+        final var bufferPool = new ChunkBufferPool(
+            2, ivSize + CompressionBufferChunkEnumeration.maxCompressedSize(CompressionCodec.ZSTD, chunkSize) + 16,
+            direct);
+        for (int i = 0; i < 2; i++) {
+            final BufferTransformChunkEnumeration transformEnum = new EncryptionBufferChunkEnumeration(
+                new CompressionBufferChunkEnumeration(
+                    new BaseBufferTransformChunkEnumeration(
+                        Channels.newChannel(new ByteArrayInputStream(original)), chunkSize, bufferPool, ivSize),
+                    CompressionCodec.ZSTD, CompressionCodec.ZSTD_DEFAULT_LEVEL, null, 0.0, ivSize,
+                    CompressionContext.pool(1)),
+                AesKeyAwareTest::encryptionCipherSupplier);
+            final var transformFinisher = new BufferTransformFinisher(transformEnum, ORIGINAL_SIZE);
+            final byte[] uploadedData;
+            try (final var sis = transformFinisher.toInputStream()) {
+                uploadedData = sis.readAllBytes();
+            }
+            assertThat(bufferPool.pooledBuffers()).isEqualTo(2);
+            detransformAndCheck(uploadedData, transformFinisher.chunkIndex(), CompressionCodec.ZSTD, true);
+        }
+    }
+
+    private void test(final int chunkSize, final boolean compression, final boolean encryption) throws IOException {
+        test(chunkSize, compression ? CompressionCodec.ZSTD : null, encryption, false);
+    }
+
+    private void test(final int chunkSize,
+                      final CompressionCodec compression,
+                      final boolean encryption,
+                      final boolean parallel) throws IOException {
+        test(chunkSize, compression, null, encryption, parallel);
+    }
+
+    private void test(final int chunkSize,
+                      final CompressionCodec compression,
+                      final Double rawFallbackMargin,
+                      final boolean encryption,
+                      final boolean parallel) throws IOException {
+        // Transform.
+        final UnaryOperator<TransformChunkEnumeration> transformation = inner -> {
+            TransformChunkEnumeration transformEnum = inner;
+            if (compression != null) {
+                transformEnum = new CompressionChunkEnumeration(
+                    transformEnum, compression, CompressionCodec.ZSTD_DEFAULT_LEVEL, null, rawFallbackMargin);
+            }
+            if (encryption) {
+                transformEnum = new EncryptionChunkEnumeration(
+                    transformEnum, AesKeyAwareTest::encryptionCipherSupplier);
+            }
+            return transformEnum;
+        };
+        final var source = new BaseTransformChunkEnumeration(new ByteArrayInputStream(original), chunkSize);
+        final TransformChunkEnumeration transformEnum = parallel
+            ? new ParallelTransformChunkEnumeration(source, transformation, executor, 3)
+            : transformation.apply(source);
         final var transformFinisher = chunkSize == 0
             ? new TransformFinisher(transformEnum)
             : new TransformFinisher(transformEnum, ORIGINAL_SIZE);
@@ -87,8 +226,74 @@ public class TransformsEndToEndTest extends AesKeyAwareTest {
             uploadedData = sis.readAllBytes();
             chunkIndex = transformFinisher.chunkIndex();
         }
+        if (rawFallbackMargin != null) {
+            assertThat(chunkIndex.chunks()).allMatch(chunk -> chunk.raw);
+        }
+
+        detransformAndCheck(uploadedData, chunkIndex, compression, encryption);
+    }
+
+    @Test
+    void corruptedChunkFailsChecksum() throws IOException {
+        final var transformFinisher = new TransformFinisher(
+            new BaseTransformChunkEnumeration(new ByteArrayInputStream(original), 1024), ORIGINAL_SIZE);
+        final byte[] uploadedData;
+        try (final var sis = transformFinisher.toInputStream()) {
+            uploadedData = sis.readAllBytes();
+        }
+        uploadedData[1024 * 3 + 5] ^= 1;
+
+        final var detransformFinisher = new DetransformFinisher(new BaseDetransformChunkEnumeration(
+            new ByteArrayInputStream(uploadedData), transformFinisher.chunkIndex().chunks()));
+        assertThatThrownBy(() -> detransformFinisher.toInputStream().readAllBytes())
+            .isInstanceOf(ChunkChecksumMismatchException.class)
+            .hasMessageStartingWith("Chunk 3 checksum mismatch")
+            .extracting(e -> ((ChunkChecksumMismatchException) e).chunkId())
+            .isEqualTo(3);
+    }
+
+    @Test
+    void decompressedChunkFailsChecksum() throws IOException {
+        final var transformFinisher = new TransformFinisher(new CompressionChunkEnumeration(
+            new BaseTransformChunkEnumeration(new ByteArrayInputStream(original), 1024),
+            CompressionCodec.ZSTD, CompressionCodec.ZSTD_DEFAULT_LEVEL, null, null), ORIGINAL_SIZE);
+        final byte[] uploadedData;
+        try (final var sis = transformFinisher.toInputStream()) {
+            uploadedData = sis.readAllBytes();
+        }
+        // The chunk is intact, but its recorded checksum is not.
+        final List<Chunk> chunks = transformFinisher.chunkIndex().chunks().stream()
+            .map(chunk -> chunk.id != 2 ? chunk : new Chunk(chunk.id,
+                chunk.originalPosition, chunk.originalSize, chunk.transformedPosition, chunk.transformedSize,
+                chunk.raw, ~chunk.checksum))
+            .collect(Collectors.toList());
+
+        final var detransformFinisher = new DetransformFinisher(new DecompressionChunkEnumeration(
+            new BaseDetransformChunkEnumeration(new ByteArrayInputStream(uploadedData), chunks)));
+        assertThatThrownBy(() -> detransformFinisher.toInputStream().readAllBytes())
+            .isInstanceOf(ChunkChecksumMismatchException.class)
+            .extracting(e -> ((ChunkChecksumMismatchException) e).chunkId())
+            .isEqualTo(2);
 
-        // Detransform.
+        final var bufferPool = new ChunkBufferPool(2, 2 * 1024, false);
+        final var bufferDetransformFinisher = new BufferDetransformFinisher(new DecompressionBufferChunkEnumeration(
+            new BaseBufferDetransformChunkEnumeration(new ByteArrayInputStream(uploadedData), chunks, bufferPool),
+            CompressionCodec.ZSTD, null));
+        assertThatThrownBy(() -> bufferDetransformFinisher.toInputStream().readAllBytes())
+            .isInstanceOf(ChunkChecksumMismatchException.class)
+            .extracting(e -> ((ChunkChecksumMismatchException) e).chunkId())
+            .isEqualTo(2);
+        // The buffer of the mismatching chunk is returned to the pool too.
+        assertThat(bufferPool.pooledBuffers()).isPositive();
+    }
+
+    private void detransformAndCheck(final byte[] uploadedData,
+                                     final ChunkIndex chunkIndex,
+                                     final CompressionCodec compression,
+                                     final boolean encryption) throws IOException {
+        if (chunkIndex != null) {
+            assertThat(chunkIndex.chunks()).allMatch(chunk -> chunk.checksum != null);
+        }
         DetransformChunkEnumeration detransformEnum = chunkIndex == null
             ? new BaseDetransformChunkEnumeration(new ByteArrayInputStream(uploadedData))
             : new BaseDetransformChunkEnumeration(new ByteArrayInputStream(uploadedData), chunkIndex.chunks());
@@ -96,13 +301,46 @@ public class TransformsEndToEndTest extends AesKeyAwareTest {
             detransformEnum = new DecryptionChunkEnumeration(
                 detransformEnum, ivSize, AesKeyAwareTest::decryptionCipherSupplier);
         }
-        if (compression) {
-            detransformEnum = new DecompressionChunkEnumeration(detransformEnum);
+        if (compression != null) {
+            detransformEnum = new DecompressionChunkEnumeration(detransformEnum, compression);
         }
         final var detransformFinisher = new DetransformFinisher(detransformEnum);
         try (final var sis = detransformFinisher.toInputStream()) {
             final byte[] downloaded = sis.readAllBytes();
             assertThat(downloaded).isEqualTo(original);
         }
+
+        if (chunkIndex != null) {
+            detransformWithPooledBuffersAndCheck(uploadedData, chunkIndex, compression, encryption, false);
+            detransformWithPooledBuffersAndCheck(uploadedData, chunkIndex, compression, encryption, true);
+        }
+    }
+
+    private void detransformWithPooledBuffersAndCheck(final byte[] uploadedData,
+                                                      final ChunkIndex chunkIndex,
+                                                      final CompressionCodec compression,
+                                                      final boolean encryption,
+                                                      final boolean direct) throws IOException {
+        final int bufferSize = chunkIndex.chunks().stream()
+            .mapToInt(chunk -> Math.max(chunk.originalSize, chunk.transformedSize))
+            .max()
+            .orElseThrow();
+        final var bufferPool = new ChunkBufferPool(2, bufferSize, direct);
+        BufferDetransformChunkEnumeration detransformEnum = new BaseBufferDetransformChunkEnumeration(
+            new ByteArrayInputStream(uploadedData), chunkIndex.chunks(), bufferPool);
+        if (encryption) {
+            detransformEnum = new DecryptionBufferChunkEnumeration(
+                detransformEnum, ivSize, AesKeyAwareTest::decryptionCipherSupplier);
+        }
+        if (compression != null) {
+            detransformEnum = new DecompressionBufferChunkEnumeration(detransformEnum, compression, null);
+        }
+        final var detransformFinisher = new BufferDetransformFinisher(detransformEnum);
+        try (final var sis = detransformFinisher.toInputStream()) {
+            final byte[] downloaded = sis.readAllBytes();
+            assertThat(downloaded).isEqualTo(original);
+        }
+        // The buffers are reused between chunks and returned to the pool once the chunks are read.
+        assertThat(bufferPool.pooledBuffers()).isBetween(1, 2);
     }
 }
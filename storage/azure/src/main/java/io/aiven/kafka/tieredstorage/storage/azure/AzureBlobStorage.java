@@ -21,29 +21,46 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import io.aiven.kafka.tieredstorage.storage.BytesRange;
 import io.aiven.kafka.tieredstorage.storage.InvalidRangeException;
 import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
+import io.aiven.kafka.tieredstorage.storage.ObjectChecksum;
 import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectMetadata;
+import io.aiven.kafka.tieredstorage.storage.ObjectUploader;
+import io.aiven.kafka.tieredstorage.storage.PreconditionFailedException;
 import io.aiven.kafka.tieredstorage.storage.StorageBackend;
 import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.storage.VersionedContent;
 import io.aiven.kafka.tieredstorage.storage.proxy.ProxyConfig;
 
+import com.azure.core.exception.UnexpectedLengthException;
 import com.azure.core.http.ProxyOptions;
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.Context;
 import com.azure.core.util.HttpClientOptions;
 import com.azure.identity.DefaultAzureCredentialBuilder;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobServiceClientBuilder;
+import com.azure.storage.blob.models.BlobDownloadContentResponse;
 import com.azure.storage.blob.models.BlobRange;
+import com.azure.storage.blob.models.BlobRequestConditions;
 import com.azure.storage.blob.models.BlobStorageException;
 import com.azure.storage.blob.models.ParallelTransferOptions;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
 import com.azure.storage.blob.options.BlockBlobOutputStreamOptions;
 import com.azure.storage.blob.specialized.BlockBlobClient;
 import com.azure.storage.blob.specialized.SpecializedBlobClientBuilder;
 import com.azure.storage.common.StorageSharedKeyCredential;
 import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
 
 public class AzureBlobStorage implements StorageBackend {
     private AzureBlobStorageConfig config;
@@ -148,6 +165,83 @@ public class AzureBlobStorage implements StorageBackend {
         }
     }
 
+    @Override
+    public long upload(final ReadableByteChannel channel,
+                       final long contentLength,
+                       final ObjectKey key) throws StorageBackendException {
+        final BinaryData data = BinaryData.fromStream(Channels.newInputStream(channel), contentLength);
+        return upload(new BlobParallelUploadOptions(data), contentLength, key);
+    }
+
+    @Override
+    public long upload(final List<ByteBuffer> buffers, final ObjectKey key) throws StorageBackendException {
+        // Duplicates keep the positions of the given buffers untouched.
+        final Flux<ByteBuffer> data = Flux.fromIterable(buffers).map(ByteBuffer::duplicate);
+        return upload(new BlobParallelUploadOptions(data), ObjectUploader.remaining(buffers), key);
+    }
+
+    /**
+     * Uploads content of a known length.
+     *
+     * <p>Unlike the output stream upload, content up to the block size is uploaded with a single PutBlob
+     * and is not copied through an intermediate buffer.
+     */
+    private long upload(final BlobParallelUploadOptions options,
+                        final long contentLength,
+                        final ObjectKey key) throws StorageBackendException {
+        final long blockSizeLong = config.uploadBlockSize();
+        options.setParallelTransferOptions(new ParallelTransferOptions()
+            .setBlockSizeLong(blockSizeLong)
+            .setMaxSingleUploadSizeLong(blockSizeLong));
+        try {
+            blobContainerClient.getBlobClient(key.value()).uploadWithResponse(options, null, Context.NONE);
+            return contentLength;
+        } catch (final BlobStorageException | UnexpectedLengthException e) {
+            throw new StorageBackendException("Failed to upload " + key, e);
+        } catch (final RuntimeException e) {
+            throw unwrapReactorExceptions(e, "Failed to upload " + key);
+        }
+    }
+
+    @Override
+    public String uploadIfVersion(final byte[] content, final ObjectKey key, final String version)
+        throws StorageBackendException {
+        final BlobRequestConditions conditions = version == null
+            ? new BlobRequestConditions().setIfNoneMatch("*")
+            : new BlobRequestConditions().setIfMatch(version);
+        final BlobParallelUploadOptions options = new BlobParallelUploadOptions(BinaryData.fromBytes(content))
+            .setRequestConditions(conditions);
+        try {
+            return blobContainerClient.getBlobClient(key.value()).uploadWithResponse(options, null, Context.NONE)
+                .getValue().getETag();
+        } catch (final BlobStorageException e) {
+            // 404 when the blob to match is deleted, 409 when it exists and must not.
+            if (e.getStatusCode() == 412 || e.getStatusCode() == 409 || e.getStatusCode() == 404) {
+                throw new PreconditionFailedException(this, key, e);
+            }
+            throw new StorageBackendException("Failed to upload " + key, e);
+        } catch (final RuntimeException e) {
+            throw unwrapReactorExceptions(e, "Failed to upload " + key);
+        }
+    }
+
+    @Override
+    public VersionedContent fetchVersioned(final ObjectKey key) throws StorageBackendException {
+        try {
+            final BlobDownloadContentResponse response = blobContainerClient.getBlobClient(key.value())
+                .downloadContentWithResponse(null, null, null, Context.NONE);
+            return new VersionedContent(response.getValue().toBytes(), response.getDeserializedHeaders().getETag());
+        } catch (final BlobStorageException e) {
+            if (e.getStatusCode() == 404) {
+                throw new KeyNotFoundException(this, key, e);
+            } else {
+                throw new StorageBackendException("Failed to fetch " + key, e);
+            }
+        } catch (final RuntimeException e) {
+            throw unwrapReactorExceptions(e, "Failed to fetch " + key);
+        }
+    }
+
     @Override
     public InputStream fetch(final ObjectKey key) throws StorageBackendException {
         try {
@@ -186,6 +280,46 @@ public class AzureBlobStorage implements StorageBackend {
         }
     }
 
+    @Override
+    public InputStream fetchSuffix(final ObjectKey key, final int size) throws StorageBackendException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive, " + size + " given");
+        }
+        try {
+            // Blob ranges can't be given from the end, so the blob size is needed first.
+            final var blobClient = blobContainerClient.getBlobClient(key.value());
+            final long blobSize = blobClient.getProperties().getBlobSize();
+            final long offset = Math.max(0, blobSize - size);
+            return blobClient.openInputStream(new BlobRange(offset, blobSize - offset), null);
+        } catch (final BlobStorageException e) {
+            if (e.getStatusCode() == 404) {
+                throw new KeyNotFoundException(this, key, e);
+            } else {
+                throw new StorageBackendException("Failed to fetch " + key, e);
+            }
+        } catch (final RuntimeException e) {
+            throw unwrapReactorExceptions(e, "Failed to fetch " + key);
+        }
+    }
+
+    @Override
+    public Optional<ObjectMetadata> metadata(final ObjectKey key) throws StorageBackendException {
+        try {
+            final var properties = blobContainerClient.getBlobClient(key.value()).getProperties();
+            // Blobs uploaded in blocks have no MD5 unless it was given with the block list.
+            final byte[] md5 = properties.getContentMd5();
+            return Optional.of(new ObjectMetadata(
+                properties.getBlobSize(), md5 != null ? ObjectChecksum.md5(md5) : null));
+        } catch (final BlobStorageException e) {
+            if (e.getStatusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new StorageBackendException("Failed to fetch metadata of " + key, e);
+        } catch (final RuntimeException e) {
+            throw unwrapReactorExceptions(e, "Failed to fetch metadata of " + key);
+        }
+    }
+
     @Override
     public void delete(final ObjectKey key) throws StorageBackendException {
         try {
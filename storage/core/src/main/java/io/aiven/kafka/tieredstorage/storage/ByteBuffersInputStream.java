@@ -0,0 +1,82 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage.storage;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * The input stream over the remaining bytes of a list of buffers.
+ *
+ * <p>The buffers are not copied, and their positions are not changed.
+ */
+public class ByteBuffersInputStream extends InputStream {
+    private final ByteBuffer[] buffers;
+    private int current = 0;
+
+    public ByteBuffersInputStream(final List<ByteBuffer> buffers) {
+        this.buffers = new ByteBuffer[buffers.size()];
+        for (int i = 0; i < this.buffers.length; i++) {
+            this.buffers[i] = buffers.get(i).duplicate();
+        }
+    }
+
+    @Override
+    public int read() {
+        if (!skipExhausted()) {
+            return -1;
+        }
+        return buffers[current].get() & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!skipExhausted()) {
+            return -1;
+        }
+        final ByteBuffer buffer = buffers[current];
+        final int read = Math.min(len, buffer.remaining());
+        buffer.get(b, off, read);
+        return read;
+    }
+
+    @Override
+    public int available() {
+        long available = 0;
+        for (int i = current; i < buffers.length; i++) {
+            available += buffers[i].remaining();
+        }
+        return (int) Math.min(available, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Moves to the next buffer with remaining bytes.
+     *
+     * @return whether there is such a buffer.
+     */
+    private boolean skipExhausted() {
+        while (current < buffers.length && !buffers[current].hasRemaining()) {
+            current++;
+        }
+        return current < buffers.length;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.storage;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The accountant of memory held in chunk and part buffers, shared by all uploads and fetches of the plugin.
+ *
+ * <p>Bytes are reserved before a buffer is allocated and released when it's not needed anymore.
+ * When the reservation doesn't fit into the limit, the caller waits until enough bytes are released,
+ * but not longer than the maximum wait time; after that the reservation fails,
+ * so concurrent operations that each wait for the others can't deadlock.
+ * A reservation larger than the whole limit is granted only when nothing else is reserved.
+ *
+ * <p>Waiting callers are not served in order; a large reservation may wait longer than smaller ones.
+ */
+public class MemoryBudget {
+    private final long limitBytes;
+    private final long maxWaitNs;
+
+    private long reservedBytes;
+    private int waitingReservations;
+    private long waitTimeNsTotal;
+    private long exhaustedTotal;
+
+    /**
+     * @param limitBytes the maximum number of reserved bytes.
+     * @param maxWaitMs  the maximum time to wait for a reservation; 0 to fail without waiting.
+     */
+    public MemoryBudget(final long limitBytes, final long maxWaitMs) {
+        if (limitBytes <= 0) {
+            throw new IllegalArgumentException("limitBytes must be positive, " + limitBytes + " given");
+        }
+        if (maxWaitMs < 0) {
+            throw new IllegalArgumentException("maxWaitMs must be non-negative, " + maxWaitMs + " given");
+        }
+        this.limitBytes = limitBytes;
+        this.maxWaitNs = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+    }
+
+    /**
+     * Returns the budget that never makes callers wait, but still accounts the reserved bytes.
+     */
+    public static MemoryBudget unlimited() {
+        return new MemoryBudget(Long.MAX_VALUE, 0);
+    }
+
+    /**
+     * Reserves the bytes, waiting until they fit into the limit.
+     *
+     * @throws MemoryBudgetExhaustedException if the bytes don't fit within the maximum wait time.
+     * @throws InterruptedIOException         if the thread is interrupted while waiting.
+     */
+    public Reservation reserve(final long bytes) throws MemoryBudgetExhaustedException, InterruptedIOException {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("bytes must be non-negative, " + bytes + " given");
+        }
+        synchronized (this) {
+            if (!fits(bytes)) {
+                awaitFitting(bytes);
+            }
+            reservedBytes += bytes;
+        }
+        return new Reservation(bytes);
+    }
+
+    private void awaitFitting(final long bytes) throws MemoryBudgetExhaustedException, InterruptedIOException {
+        final long startNs = System.nanoTime();
+        waitingReservations += 1;
+        try {
+            while (!fits(bytes)) {
+                final long remainingNs = maxWaitNs - (System.nanoTime() - startNs);
+                if (remainingNs <= 0) {
+                    exhaustedTotal += 1;
+                    throw new MemoryBudgetExhaustedException("Failed to reserve " + bytes + " bytes, "
+                        + reservedBytes + " of " + limitBytes + " bytes are reserved");
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remainingNs);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to reserve " + bytes + " bytes");
+        } finally {
+            waitingReservations -= 1;
+            waitTimeNsTotal += System.nanoTime() - startNs;
+        }
+    }
+
+    private boolean fits(final long bytes) {
+        return reservedBytes == 0 || bytes <= limitBytes - reservedBytes;
+    }
+
+    private synchronized void release(final long bytes) {
+        reservedBytes -= bytes;
+        notifyAll();
+    }
+
+    public long limitBytes() {
+        return limitBytes;
+    }
+
+    public synchronized long reservedBytes() {
+        return reservedBytes;
+    }
+
+    public synchronized int waitingReservations() {
+        return waitingReservations;
+    }
+
+    public synchronized long waitTimeMsTotal() {
+        return TimeUnit.NANOSECONDS.toMillis(waitTimeNsTotal);
+    }
+
+    /**
+     * Returns the number of reservations failed after waiting for the maximum wait time.
+     */
+    public synchronized long exhaustedTotal() {
+        return exhaustedTotal;
+    }
+
+    /**
+     * The reserved bytes, released on close. Closing it more than once has no effect.
+     */
+    public class Reservation implements AutoCloseable {
+        private final long bytes;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(final long bytes) {
+            this.bytes = bytes;
+        }
+
+        public long bytes() {
+            return bytes;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(bytes);
+            }
+        }
+    }
+}
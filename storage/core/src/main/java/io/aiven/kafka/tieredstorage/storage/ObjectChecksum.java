@@ -0,0 +1,177 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.storage;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * The MD5 checksum a storage backend keeps for an object.
+ *
+ * <p>Objects uploaded in parts may only have the checksum of the part checksums, as S3 does for multipart uploads.
+ * Such a checksum is the MD5 of the concatenated MD5 digests of the parts, followed by {@code -} and the number
+ * of parts. Checking content against it needs the size of the parts, all but the last one being the same.
+ */
+public class ObjectChecksum {
+    private final String md5;
+    private final int parts;
+    private final long partSize;
+
+    private ObjectChecksum(final String md5, final int parts, final long partSize) {
+        this.md5 = Objects.requireNonNull(md5, "md5 cannot be null").toLowerCase(Locale.ROOT);
+        this.parts = parts;
+        this.partSize = partSize;
+    }
+
+    /**
+     * @param md5 the hex encoded MD5 digest of the content.
+     */
+    public static ObjectChecksum md5(final String md5) {
+        return new ObjectChecksum(md5, 0, 0);
+    }
+
+    /**
+     * @param md5 the Base64 encoded MD5 digest of the content.
+     */
+    public static ObjectChecksum md5Base64(final String md5) {
+        return md5(Base64.getDecoder().decode(md5));
+    }
+
+    /**
+     * @param md5 the MD5 digest of the content.
+     */
+    public static ObjectChecksum md5(final byte[] md5) {
+        return md5(hex(md5));
+    }
+
+    /**
+     * @param md5      the hex encoded MD5 digest of the concatenated MD5 digests of the parts.
+     * @param parts    the number of parts.
+     * @param partSize the size of all parts but the last one.
+     */
+    public static ObjectChecksum multipartMd5(final String md5, final int parts, final long partSize) {
+        if (parts < 1) {
+            throw new IllegalArgumentException("parts must be positive, " + parts + " given");
+        }
+        if (partSize < 1) {
+            throw new IllegalArgumentException("partSize must be positive, " + partSize + " given");
+        }
+        return new ObjectChecksum(md5, parts, partSize);
+    }
+
+    /**
+     * Returns a calculator of the same checksum for content to check against this one.
+     */
+    public Calculator calculator() {
+        return new Calculator();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ObjectChecksum that = (ObjectChecksum) o;
+        return parts == that.parts && partSize == that.partSize && md5.equals(that.md5);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(md5, parts, partSize);
+    }
+
+    @Override
+    public String toString() {
+        return "ObjectChecksum("
+            + "md5=" + md5
+            + (parts > 0 ? "-" + parts + ", partSize=" + partSize : "")
+            + ")";
+    }
+
+    static MessageDigest newMd5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (final NoSuchAlgorithmException e) {
+            // Every Java platform is required to support MD5.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(final byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Calculates the checksum of content given in order.
+     */
+    public class Calculator {
+        private final MessageDigest digest = newMd5();
+        private final MessageDigest partsDigest = parts > 0 ? newMd5() : null;
+        private int calculatedParts = 0;
+        private long partRemaining = partSize;
+
+        private Calculator() {
+        }
+
+        public void update(final byte[] bytes, final int offset, final int length) {
+            if (partsDigest == null) {
+                digest.update(bytes, offset, length);
+                return;
+            }
+            int position = offset;
+            final int end = offset + length;
+            while (position < end) {
+                final int partBytes = (int) Math.min(end - position, partRemaining);
+                digest.update(bytes, position, partBytes);
+                position += partBytes;
+                partRemaining -= partBytes;
+                if (partRemaining == 0) {
+                    completePart();
+                }
+            }
+        }
+
+        private void completePart() {
+            partsDigest.update(digest.digest());
+            calculatedParts += 1;
+            partRemaining = partSize;
+        }
+
+        /**
+         * Whether the content given so far has the expected checksum. Completes the calculation.
+         */
+        public boolean matches() {
+            if (partsDigest == null) {
+                return md5.equals(hex(digest.digest()));
+            }
+            if (partRemaining < partSize) {
+                completePart();
+            }
+            return calculatedParts == parts && md5.equals(hex(partsDigest.digest()));
+        }
+    }
+}
@@ -16,7 +16,10 @@
 
 package io.aiven.kafka.tieredstorage.storage;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.Optional;
 
 public interface ObjectFetcher {
     /**
@@ -33,4 +36,50 @@ public interface ObjectFetcher {
      * @param range range with inclusive start/end positions
      */
     InputStream fetch(ObjectKey key, BytesRange range) throws StorageBackendException;
+
+    /**
+     * Fetch the end of file, without knowing its size.
+     *
+     * <p>Backends that support suffix ranges do it in a single request.
+     *
+     * @param key  file key.
+     * @param size the number of bytes to fetch from the end; the whole file is fetched if it's smaller.
+     */
+    default InputStream fetchSuffix(final ObjectKey key, final int size) throws StorageBackendException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive, " + size + " given");
+        }
+        try (final InputStream content = fetch(key)) {
+            final byte[] bytes = content.readAllBytes();
+            final int from = Math.max(0, bytes.length - size);
+            return new ByteArrayInputStream(bytes, from, bytes.length - from);
+        } catch (final IOException e) {
+            throw new StorageBackendException("Failed to fetch " + key, e);
+        }
+    }
+
+    /**
+     * Fetch the size and checksum of a file, without its content.
+     *
+     * @param key file key.
+     * @return the metadata, or empty if the file doesn't exist or the backend can't tell.
+     */
+    default Optional<ObjectMetadata> metadata(final ObjectKey key) throws StorageBackendException {
+        return Optional.empty();
+    }
+
+    /**
+     * Fetch a small file along with its version, to update it with {@link ObjectUploader#uploadIfVersion}.
+     *
+     * <p>Backends not supporting conditional writes return the content without a version.
+     *
+     * @param key file key.
+     */
+    default VersionedContent fetchVersioned(final ObjectKey key) throws StorageBackendException {
+        try (final InputStream content = fetch(key)) {
+            return new VersionedContent(content.readAllBytes(), null);
+        } catch (final IOException e) {
+            throw new StorageBackendException("Failed to fetch " + key, e);
+        }
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The size and checksum of a stored object.
+ */
+public class ObjectMetadata {
+    private final long size;
+    private final ObjectChecksum checksum;
+
+    /**
+     * @param size     object size.
+     * @param checksum object checksum, or {@code null} if the backend doesn't have one for the object.
+     */
+    public ObjectMetadata(final long size, final ObjectChecksum checksum) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size cannot be negative, " + size + " given");
+        }
+        this.size = size;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Returns the metadata of the given content, for backends that keep no checksum and read the object instead.
+     *
+     * @param content the content of the object. Not closed.
+     */
+    public static ObjectMetadata of(final InputStream content) throws IOException {
+        final MessageDigest digest = ObjectChecksum.newMd5();
+        final byte[] buffer = new byte[8192];
+        long size = 0;
+        int read;
+        while ((read = content.read(buffer)) >= 0) {
+            size += read;
+            digest.update(buffer, 0, read);
+        }
+        return new ObjectMetadata(size, ObjectChecksum.md5(digest.digest()));
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public Optional<ObjectChecksum> checksum() {
+        return Optional.ofNullable(checksum);
+    }
+
+    /**
+     * Checks whether the object has the given content, by its size and checksum.
+     *
+     * <p>An object without a checksum never matches, as its content can't be verified.
+     * The content is read fully only if the object has a checksum.
+     *
+     * @param content the content to check. Not closed.
+     */
+    public boolean matches(final InputStream content) throws IOException {
+        if (checksum == null) {
+            return false;
+        }
+        final ObjectChecksum.Calculator calculator = checksum.calculator();
+        final byte[] buffer = new byte[8192];
+        long contentSize = 0;
+        int read;
+        while ((read = content.read(buffer)) >= 0) {
+            contentSize += read;
+            if (contentSize > size) {
+                return false;
+            }
+            calculator.update(buffer, 0, read);
+        }
+        return contentSize == size && calculator.matches();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ObjectMetadata that = (ObjectMetadata) o;
+        return size == that.size && Objects.equals(checksum, that.checksum);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(size, checksum);
+    }
+
+    @Override
+    public String toString() {
+        return "ObjectMetadata("
+            + "size=" + size
+            + ", checksum=" + checksum
+            + ")";
+    }
+}
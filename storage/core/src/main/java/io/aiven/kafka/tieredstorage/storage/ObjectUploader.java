@@ -17,6 +17,11 @@
 package io.aiven.kafka.tieredstorage.storage;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface ObjectUploader {
     /**
@@ -25,4 +30,129 @@ public interface ObjectUploader {
      * @return number of bytes uploaded
      */
     long upload(InputStream inputStream, ObjectKey key) throws StorageBackendException;
+
+    /**
+     * @param inputStream content to upload. Not closed as part of the upload.
+     * @param key         path to an object within a storage backend.
+     * @param sizeHint    expected content size, which backends may use to choose how to upload it;
+     *                    the actual size may differ, e.g. when the content is compressed.
+     * @return number of bytes uploaded
+     */
+    default long upload(final InputStream inputStream, final ObjectKey key, final long sizeHint)
+        throws StorageBackendException {
+        return upload(inputStream, key);
+    }
+
+    /**
+     * Uploads content of a known length read from a channel.
+     *
+     * <p>Backends may use the length to upload the content in one request or to size their buffers,
+     * and may read from the channel without an intermediate stream.
+     *
+     * @param channel       content to upload, with exactly {@code contentLength} bytes remaining.
+     *                      Not closed as part of the upload.
+     * @param contentLength content size.
+     * @param key           path to an object within a storage backend.
+     * @return number of bytes uploaded
+     */
+    default long upload(final ReadableByteChannel channel, final long contentLength, final ObjectKey key)
+        throws StorageBackendException {
+        final long bytes = upload(Channels.newInputStream(channel), key, contentLength);
+        checkUploadedLength(key, contentLength, bytes);
+        return bytes;
+    }
+
+    /**
+     * Uploads the remaining bytes of the buffers, in order.
+     *
+     * <p>Backends may upload the buffers without copying them.
+     * The positions of the buffers are not changed, and their content must not be modified during the upload.
+     *
+     * @param buffers content to upload.
+     * @param key     path to an object within a storage backend.
+     * @return number of bytes uploaded
+     */
+    default long upload(final List<ByteBuffer> buffers, final ObjectKey key) throws StorageBackendException {
+        return upload(new ByteBuffersInputStream(buffers), key, remaining(buffers));
+    }
+
+    /**
+     * Uploads the content so that the upload can be resumed if it fails before completing.
+     *
+     * <p>Backends supporting it report the state of the upload to the listener each time more content is uploaded
+     * durably, and keep the uploaded content when the upload fails.
+     * Passing the last reported checkpoint continues that upload instead of starting a new one.
+     * Other backends upload the content as usual and never report a checkpoint.
+     *
+     * @param inputStream        content to upload, after the bytes already uploaded according to the checkpoint.
+     *                           Not closed as part of the upload.
+     * @param key                path to an object within a storage backend.
+     * @param sizeHint           expected size of the whole content, including the already uploaded bytes.
+     * @param checkpoint         the state of the upload to continue, as checked by {@link #canResumeUpload};
+     *                           or {@code null} to start a new upload.
+     * @param checkpointListener receives the state of the upload after each durably uploaded part.
+     * @return number of bytes of the whole uploaded content, including the already uploaded bytes.
+     */
+    default long upload(final InputStream inputStream,
+                        final ObjectKey key,
+                        final long sizeHint,
+                        final UploadCheckpoint checkpoint,
+                        final Consumer<UploadCheckpoint> checkpointListener) throws StorageBackendException {
+        if (checkpoint != null) {
+            throw new IllegalArgumentException("Resuming uploads is not supported");
+        }
+        return upload(inputStream, key, sizeHint);
+    }
+
+    /**
+     * Checks whether the upload the checkpoint was taken of still exists with all its parts, so it can be resumed.
+     */
+    default boolean canResumeUpload(final ObjectKey key, final UploadCheckpoint checkpoint)
+        throws StorageBackendException {
+        return false;
+    }
+
+    /**
+     * Aborts the upload the checkpoint was taken of, so the storage backend frees its uploaded parts.
+     *
+     * <p>Aborting an upload that doesn't exist anymore succeeds.
+     * Backends not supporting resumable uploads have nothing to abort.
+     */
+    default void abortUpload(final ObjectKey key, final String uploadId) throws StorageBackendException {
+    }
+
+    /**
+     * Uploads a small content only if the object wasn't changed since the given version.
+     *
+     * <p>It lets brokers update the same object concurrently without losing updates:
+     * the one whose update fails fetches the object again with {@link ObjectFetcher#fetchVersioned}
+     * and retries its update. Backends not supporting conditional writes upload the content unconditionally.
+     *
+     * @param content content to upload.
+     * @param key     path to an object within a storage backend.
+     * @param version the version the object must have, or {@code null} if it must not exist.
+     * @return the version of the uploaded object, or {@code null} if the backend doesn't support conditional writes.
+     * @throws PreconditionFailedException if the object doesn't have the version, or exists when it must not.
+     */
+    default String uploadIfVersion(final byte[] content, final ObjectKey key, final String version)
+        throws StorageBackendException {
+        upload(List.of(ByteBuffer.wrap(content)), key);
+        return null;
+    }
+
+    static long remaining(final List<ByteBuffer> buffers) {
+        long remaining = 0;
+        for (final ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        return remaining;
+    }
+
+    static void checkUploadedLength(final ObjectKey key, final long contentLength, final long uploaded)
+        throws StorageBackendException {
+        if (uploaded != contentLength) {
+            throw new StorageBackendException(
+                "Uploaded " + uploaded + " bytes to " + key + ", but " + contentLength + " expected");
+        }
+    }
 }
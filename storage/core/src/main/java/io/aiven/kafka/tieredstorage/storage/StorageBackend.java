@@ -19,4 +19,11 @@ package io.aiven.kafka.tieredstorage.storage;
 import org.apache.kafka.common.Configurable;
 
 public interface StorageBackend extends Configurable, ObjectUploader, ObjectFetcher, ObjectDeleter {
+    /**
+     * Sets the budget to reserve upload buffers in, shared with the rest of the plugin.
+     *
+     * <p>Called after {@link #configure(java.util.Map)}. Backends that don't hold buffers of their own ignore it.
+     */
+    default void setMemoryBudget(final MemoryBudget memoryBudget) {
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.storage;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The state of an unfinished multipart upload: its id and the parts uploaded so far, in order.
+ *
+ * <p>The parts cover the first {@link #uploadedBytes()} bytes of the content,
+ * so the upload can be continued with the content after them.
+ */
+public class UploadCheckpoint {
+    private final String uploadId;
+    private final List<Part> parts;
+
+    public UploadCheckpoint(final String uploadId, final List<Part> parts) {
+        this.uploadId = Objects.requireNonNull(uploadId, "uploadId cannot be null");
+        this.parts = List.copyOf(Objects.requireNonNull(parts, "parts cannot be null"));
+    }
+
+    public String uploadId() {
+        return uploadId;
+    }
+
+    public List<Part> parts() {
+        return parts;
+    }
+
+    public long uploadedBytes() {
+        long uploadedBytes = 0;
+        for (final Part part : parts) {
+            uploadedBytes += part.size;
+        }
+        return uploadedBytes;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final UploadCheckpoint that = (UploadCheckpoint) o;
+        return uploadId.equals(that.uploadId) && parts.equals(that.parts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(uploadId, parts);
+    }
+
+    @Override
+    public String toString() {
+        return "UploadCheckpoint("
+            + "uploadId=" + uploadId
+            + ", parts=" + parts
+            + ")";
+    }
+
+    public static class Part {
+        private final int number;
+        private final String etag;
+        private final long size;
+
+        public Part(final int number, final String etag, final long size) {
+            if (number < 1) {
+                throw new IllegalArgumentException("number must be positive, " + number + " given");
+            }
+            if (size < 0) {
+                throw new IllegalArgumentException("size cannot be negative, " + size + " given");
+            }
+            this.number = number;
+            this.etag = Objects.requireNonNull(etag, "etag cannot be null");
+            this.size = size;
+        }
+
+        public int number() {
+            return number;
+        }
+
+        public String etag() {
+            return etag;
+        }
+
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Part part = (Part) o;
+            return number == part.number && size == part.size && etag.equals(part.etag);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(number, etag, size);
+        }
+
+        @Override
+        public String toString() {
+            return "Part("
+                + "number=" + number
+                + ", etag=" + etag
+                + ", size=" + size
+                + ")";
+        }
+    }
+}
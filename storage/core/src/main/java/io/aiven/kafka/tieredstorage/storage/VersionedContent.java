@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage.storage;
+
+import java.util.Objects;
+
+/**
+ * The content of a small object along with its version, to update the object only if it isn't changed meanwhile.
+ *
+ * @see ObjectFetcher#fetchVersioned
+ * @see ObjectUploader#uploadIfVersion
+ */
+public class VersionedContent {
+    private final byte[] content;
+    private final String version;
+
+    /**
+     * @param content object content.
+     * @param version object version, or {@code null} if the backend doesn't support conditional writes.
+     */
+    public VersionedContent(final byte[] content, final String version) {
+        this.content = Objects.requireNonNull(content, "content cannot be null");
+        this.version = version;
+    }
+
+    public byte[] content() {
+        return content;
+    }
+
+    public String version() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "VersionedContent("
+            + "size=" + content.length
+            + ", version=" + version
+            + ")";
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.aiven.kafka.tieredstorage.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ByteBuffersInputStreamTest {
+    @Test
+    void readsAllBuffersInOrder() throws IOException {
+        final ByteBuffer first = ByteBuffer.wrap(new byte[] {0, 1, 2});
+        final ByteBuffer empty = ByteBuffer.allocate(0);
+        final ByteBuffer last = ByteBuffer.allocateDirect(4).put(new byte[] {3, 4, 5, (byte) 0xFF}).flip();
+        final List<ByteBuffer> buffers = List.of(first, empty, last);
+
+        final var in = new ByteBuffersInputStream(buffers);
+        assertThat(in.available()).isEqualTo(7);
+        assertThat(in.read()).isZero();
+        final byte[] read = new byte[10];
+        assertThat(in.read(read, 0, 10)).isEqualTo(2);
+        assertThat(in.read(read, 2, 0)).isZero();
+        assertThat(in.read(read, 2, 8)).isEqualTo(4);
+        assertThat(read).startsWith(1, 2, 3, 4, 5, (byte) 0xFF);
+        assertThat(in.available()).isZero();
+        assertThat(in.read()).isEqualTo(-1);
+        assertThat(in.read(read, 0, 10)).isEqualTo(-1);
+
+        // Buffers are not consumed, so they can be read again.
+        assertThat(first.remaining()).isEqualTo(3);
+        assertThat(last.remaining()).isEqualTo(4);
+        assertThat(new ByteBuffersInputStream(buffers)).hasBinaryContent(new byte[] {0, 1, 2, 3, 4, 5, (byte) 0xFF});
+    }
+
+    @Test
+    void readsUnsignedBytes() {
+        final var in = new ByteBuffersInputStream(List.of(ByteBuffer.wrap(new byte[] {(byte) 0xFF})));
+        assertThat(in.read()).isEqualTo(255);
+    }
+}
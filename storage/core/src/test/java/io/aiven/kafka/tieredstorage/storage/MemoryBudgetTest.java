@@ -0,0 +1,134 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.storage;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class MemoryBudgetTest {
+    @Test
+    void reservesAndReleases() throws Exception {
+        final MemoryBudget memoryBudget = new MemoryBudget(100, 0);
+
+        final MemoryBudget.Reservation first = memoryBudget.reserve(60);
+        final MemoryBudget.Reservation second = memoryBudget.reserve(40);
+        assertThat(memoryBudget.reservedBytes()).isEqualTo(100);
+
+        first.close();
+        // Closing twice releases the bytes only once.
+        first.close();
+        assertThat(memoryBudget.reservedBytes()).isEqualTo(40);
+        second.close();
+        assertThat(memoryBudget.reservedBytes()).isZero();
+    }
+
+    @Test
+    void failsWithoutWaitingWhenExhausted() throws Exception {
+        final MemoryBudget memoryBudget = new MemoryBudget(100, 0);
+
+        try (final var reservation = memoryBudget.reserve(60)) {
+            assertThat(reservation.bytes()).isEqualTo(60);
+            assertThatThrownBy(() -> memoryBudget.reserve(41))
+                .isInstanceOf(MemoryBudgetExhaustedException.class)
+                .hasMessage("Failed to reserve 41 bytes, 60 of 100 bytes are reserved");
+            assertThat(memoryBudget.exhaustedTotal()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void failsAfterMaxWait() throws Exception {
+        final MemoryBudget memoryBudget = new MemoryBudget(100, 50);
+
+        try (final var reservation = memoryBudget.reserve(100)) {
+            assertThat(reservation.bytes()).isEqualTo(100);
+            final long startNs = System.nanoTime();
+            assertThatThrownBy(() -> memoryBudget.reserve(1))
+                .isInstanceOf(MemoryBudgetExhaustedException.class);
+            assertThat(System.nanoTime() - startNs).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+            assertThat(memoryBudget.waitTimeMsTotal()).isGreaterThanOrEqualTo(50);
+        }
+    }
+
+    @Test
+    void waitsUntilReleased() throws Exception {
+        final MemoryBudget memoryBudget = new MemoryBudget(100, 10_000);
+        final MemoryBudget.Reservation first = memoryBudget.reserve(100);
+
+        final CompletableFuture<MemoryBudget.Reservation> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return memoryBudget.reserve(50);
+            } catch (final Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        await().atMost(Duration.ofSeconds(5)).until(() -> memoryBudget.waitingReservations() == 1);
+        assertThat(second).isNotDone();
+
+        first.close();
+        assertThat(second.get(5, TimeUnit.SECONDS).bytes()).isEqualTo(50);
+        assertThat(memoryBudget.reservedBytes()).isEqualTo(50);
+        assertThat(memoryBudget.waitingReservations()).isZero();
+    }
+
+    @Test
+    void grantsReservationLargerThanLimitWhenNothingIsReserved() throws Exception {
+        final MemoryBudget memoryBudget = new MemoryBudget(100, 0);
+
+        try (final var reservation = memoryBudget.reserve(150)) {
+            assertThat(memoryBudget.reservedBytes()).isEqualTo(reservation.bytes());
+            assertThatThrownBy(() -> memoryBudget.reserve(1))
+                .isInstanceOf(MemoryBudgetExhaustedException.class);
+        }
+    }
+
+    @Test
+    void failsWhenInterrupted() throws Exception {
+        final MemoryBudget memoryBudget = new MemoryBudget(100, 10_000);
+
+        try (final var reservation = memoryBudget.reserve(100)) {
+            assertThat(memoryBudget.reservedBytes()).isEqualTo(reservation.bytes());
+            Thread.currentThread().interrupt();
+            try {
+                assertThatThrownBy(() -> memoryBudget.reserve(1))
+                    .isInstanceOf(InterruptedIOException.class)
+                    .hasMessage("Interrupted while waiting to reserve 1 bytes");
+                assertThat(Thread.currentThread().isInterrupted()).isTrue();
+            } finally {
+                Thread.interrupted();
+            }
+        }
+        assertThat(memoryBudget.reservedBytes()).isZero();
+    }
+
+    @Test
+    void unlimitedNeverWaits() throws Exception {
+        final MemoryBudget memoryBudget = MemoryBudget.unlimited();
+
+        try (final var first = memoryBudget.reserve(Long.MAX_VALUE / 2);
+             final var second = memoryBudget.reserve(Long.MAX_VALUE / 2)) {
+            assertThat(memoryBudget.reservedBytes()).isEqualTo(first.bytes() + second.bytes());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ObjectMetadataTest {
+    static final byte[] CONTENT = "abcdefghij".getBytes();
+    static final String MD5 = "a925576942e94b2ef57a066101b48876";
+    // The MD5 of the MD5s of "abcd", "efgh" and "ij".
+    static final String MULTIPART_MD5 = "446feba4c1b5cc7ad93bf4d44a0e36ac";
+
+    @Test
+    void matchesMd5() throws IOException {
+        assertThat(new ObjectMetadata(10, ObjectChecksum.md5(MD5)).matches(content())).isTrue();
+        assertThat(new ObjectMetadata(10, ObjectChecksum.md5(MD5.toUpperCase())).matches(content())).isTrue();
+        assertThat(new ObjectMetadata(10, ObjectChecksum.md5Base64("qSVXaULpSy71egZhAbSIdg==")).matches(content()))
+            .isTrue();
+        assertThat(new ObjectMetadata(10, ObjectChecksum.md5(MULTIPART_MD5)).matches(content())).isFalse();
+    }
+
+    @Test
+    void matchesMultipartMd5() throws IOException {
+        assertThat(new ObjectMetadata(10, ObjectChecksum.multipartMd5(MULTIPART_MD5, 3, 4)).matches(content()))
+            .isTrue();
+        assertThat(new ObjectMetadata(10, ObjectChecksum.multipartMd5(MULTIPART_MD5, 2, 4)).matches(content()))
+            .isFalse();
+        assertThat(new ObjectMetadata(10, ObjectChecksum.multipartMd5(MULTIPART_MD5, 2, 5)).matches(content()))
+            .isFalse();
+        assertThat(new ObjectMetadata(10, ObjectChecksum.multipartMd5(MD5, 1, 10)).matches(content()))
+            .isFalse();
+    }
+
+    @Test
+    void doesNotMatchOtherSize() throws IOException {
+        assertThat(new ObjectMetadata(9, ObjectChecksum.md5(MD5)).matches(content())).isFalse();
+        assertThat(new ObjectMetadata(11, ObjectChecksum.md5(MD5)).matches(content())).isFalse();
+    }
+
+    @Test
+    void neverMatchesWithoutChecksum() throws IOException {
+        assertThat(new ObjectMetadata(10, null).matches(content())).isFalse();
+    }
+
+    @Test
+    void calculatesMetadataOfContent() throws IOException {
+        assertThat(ObjectMetadata.of(content())).isEqualTo(new ObjectMetadata(10, ObjectChecksum.md5(MD5)));
+    }
+
+    private static InputStream content() {
+        return new ByteArrayInputStream(CONTENT);
+    }
+}
@@ -19,6 +19,10 @@ package io.aiven.kafka.tieredstorage.storage;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -73,6 +77,33 @@ public abstract class BaseStorageTest {
         assertThat(storage().fetch(TOPIC_PARTITION_SEGMENT_KEY)).hasContent(content);
     }
 
+    @Test
+    void testUploadChannelWithKnownLength() throws StorageBackendException, IOException {
+        final byte[] content = "channel content".getBytes();
+        final var channel = Channels.newChannel(new ByteArrayInputStream(content));
+        final long size = storage().upload(channel, content.length, TOPIC_PARTITION_SEGMENT_KEY);
+        assertThat(size).isEqualTo(content.length);
+
+        try (final InputStream fetch = storage().fetch(TOPIC_PARTITION_SEGMENT_KEY)) {
+            assertThat(fetch).hasBinaryContent(content);
+        }
+    }
+
+    @Test
+    void testUploadByteBuffers() throws StorageBackendException, IOException {
+        final ByteBuffer heapBuffer = ByteBuffer.wrap("buffers ".getBytes());
+        final ByteBuffer directBuffer = ByteBuffer.allocateDirect(7).put("content".getBytes()).flip();
+        final long size = storage().upload(
+            List.of(heapBuffer, ByteBuffer.allocate(0), directBuffer), TOPIC_PARTITION_SEGMENT_KEY);
+        assertThat(size).isEqualTo(15);
+        assertThat(heapBuffer.remaining()).isEqualTo(8);
+        assertThat(directBuffer.remaining()).isEqualTo(7);
+
+        try (final InputStream fetch = storage().fetch(TOPIC_PARTITION_SEGMENT_KEY)) {
+            assertThat(fetch).hasContent("buffers content");
+        }
+    }
+
     @Test
     void testRetryUploadKeepLatestVersion() throws StorageBackendException {
         final String content = "content";
@@ -82,6 +113,43 @@ public abstract class BaseStorageTest {
         assertThat(storage().fetch(TOPIC_PARTITION_SEGMENT_KEY)).hasContent(content + "v2");
     }
 
+    @Test
+    void testMetadata() throws StorageBackendException, IOException {
+        final byte[] content = "content".getBytes();
+        storage().upload(List.of(ByteBuffer.wrap(content)), TOPIC_PARTITION_SEGMENT_KEY);
+
+        final Optional<ObjectMetadata> metadata = storage().metadata(TOPIC_PARTITION_SEGMENT_KEY);
+        assertThat(metadata).isPresent();
+        assertThat(metadata.get().size()).isEqualTo(content.length);
+        // Backends may not have a checksum for every object, but one they have matches only the content.
+        if (metadata.get().checksum().isPresent()) {
+            assertThat(metadata.get().matches(new ByteArrayInputStream(content))).isTrue();
+            assertThat(metadata.get().matches(new ByteArrayInputStream("CONTENT".getBytes()))).isFalse();
+        }
+
+        assertThat(storage().metadata(new TestObjectKey("non-existing"))).isEmpty();
+    }
+
+    @Test
+    protected void testUploadIfVersion() throws StorageBackendException {
+        final String v1 = storage().uploadIfVersion("v1".getBytes(), TOPIC_PARTITION_SEGMENT_KEY, null);
+        assertThatThrownBy(() -> storage().uploadIfVersion("v1".getBytes(), TOPIC_PARTITION_SEGMENT_KEY, null))
+            .isInstanceOf(PreconditionFailedException.class);
+
+        final VersionedContent fetched = storage().fetchVersioned(TOPIC_PARTITION_SEGMENT_KEY);
+        assertThat(fetched.content()).isEqualTo("v1".getBytes());
+        assertThat(fetched.version()).isEqualTo(v1);
+
+        final String v2 = storage().uploadIfVersion("v2".getBytes(), TOPIC_PARTITION_SEGMENT_KEY, v1);
+        assertThatThrownBy(() -> storage().uploadIfVersion("v3".getBytes(), TOPIC_PARTITION_SEGMENT_KEY, v1))
+            .isInstanceOf(PreconditionFailedException.class);
+        assertThat(storage().fetchVersioned(TOPIC_PARTITION_SEGMENT_KEY).version()).isEqualTo(v2);
+        assertThat(storage().fetch(TOPIC_PARTITION_SEGMENT_KEY)).hasContent("v2");
+
+        assertThatThrownBy(() -> storage().fetchVersioned(new TestObjectKey("non-existing")))
+            .isInstanceOf(KeyNotFoundException.class);
+    }
+
     @Test
     void testFetchFailWhenNonExistingKey() {
         assertThatThrownBy(() -> storage().fetch(new TestObjectKey("non-existing")))
@@ -148,6 +216,22 @@ public abstract class BaseStorageTest {
             .isInstanceOf(InvalidRangeException.class);
     }
 
+    @Test
+    void testFetchSuffix() throws IOException, StorageBackendException {
+        final String content = "AABBBBCC";
+        storage().upload(new ByteArrayInputStream(content.getBytes()), TOPIC_PARTITION_SEGMENT_KEY);
+
+        try (final InputStream fetch = storage().fetchSuffix(TOPIC_PARTITION_SEGMENT_KEY, 3)) {
+            assertThat(fetch).hasContent("BCC");
+        }
+        try (final InputStream fetch = storage().fetchSuffix(TOPIC_PARTITION_SEGMENT_KEY, 100)) {
+            assertThat(fetch).hasContent(content);
+        }
+        assertThatThrownBy(() -> storage().fetchSuffix(new TestObjectKey("non-existing"), 3))
+            .isInstanceOf(KeyNotFoundException.class)
+            .hasMessage("Key non-existing does not exists in storage " + storage());
+    }
+
     @Test
     void testFetchNonExistingKey() {
         assertThatThrownBy(() -> storage().fetch(new TestObjectKey("non-existing")))
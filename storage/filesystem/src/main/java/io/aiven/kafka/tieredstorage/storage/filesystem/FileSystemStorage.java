@@ -18,18 +18,27 @@ package io.aiven.kafka.tieredstorage.storage.filesystem;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import io.aiven.kafka.tieredstorage.storage.BytesRange;
 import io.aiven.kafka.tieredstorage.storage.InvalidRangeException;
 import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
 import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectMetadata;
+import io.aiven.kafka.tieredstorage.storage.ObjectUploader;
 import io.aiven.kafka.tieredstorage.storage.StorageBackend;
 import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.storage.VersionedContent;
 
 import org.apache.commons.io.file.PathUtils;
 import org.apache.commons.io.input.BoundedInputStream;
@@ -59,6 +68,69 @@ public class FileSystemStorage implements StorageBackend {
         }
     }
 
+    @Override
+    public long upload(final ReadableByteChannel channel,
+                       final long contentLength,
+                       final ObjectKey key) throws StorageBackendException {
+        final long transferred;
+        try (final FileChannel fileChannel = openForUpload(key)) {
+            long position = 0;
+            // transferFrom copies directly between the channels if possible, e.g. between files.
+            // It stops early at the end of the source, so a position that is not advancing means the end.
+            while (position < contentLength) {
+                final long count = fileChannel.transferFrom(channel, position, contentLength - position);
+                if (count <= 0) {
+                    break;
+                }
+                position += count;
+            }
+            transferred = position;
+        } catch (final IOException e) {
+            deleteQuietly(key);
+            throw new StorageBackendException("Failed to upload " + key, e);
+        }
+        if (transferred != contentLength) {
+            // A short file must not be mistaken for a complete object.
+            deleteQuietly(key);
+        }
+        ObjectUploader.checkUploadedLength(key, contentLength, transferred);
+        return transferred;
+    }
+
+    @Override
+    public long upload(final List<ByteBuffer> buffers, final ObjectKey key) throws StorageBackendException {
+        final ByteBuffer[] sources = new ByteBuffer[buffers.size()];
+        for (int i = 0; i < sources.length; i++) {
+            // Positions of the given buffers are left untouched.
+            sources[i] = buffers.get(i).duplicate();
+        }
+        final long contentLength = ObjectUploader.remaining(buffers);
+        try (final FileChannel fileChannel = openForUpload(key)) {
+            long written = 0;
+            while (written < contentLength) {
+                written += fileChannel.write(sources);
+            }
+            return written;
+        } catch (final IOException e) {
+            throw new StorageBackendException("Failed to upload " + key, e);
+        }
+    }
+
+    private void deleteQuietly(final ObjectKey key) {
+        try {
+            Files.deleteIfExists(fsRoot.resolve(key.value()));
+        } catch (final IOException ignored) {
+            // The upload fails anyway.
+        }
+    }
+
+    private FileChannel openForUpload(final ObjectKey key) throws IOException {
+        final Path path = fsRoot.resolve(key.value());
+        Files.createDirectories(path.getParent());
+        return FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
     @Override
     public InputStream fetch(final ObjectKey key) throws StorageBackendException {
         try {
@@ -96,6 +168,55 @@ public class FileSystemStorage implements StorageBackend {
         }
     }
 
+    @Override
+    public InputStream fetchSuffix(final ObjectKey key, final int size) throws StorageBackendException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive, " + size + " given");
+        }
+        try {
+            final Path path = fsRoot.resolve(key.value());
+            final long fileSize = Files.size(path);
+            final InputStream content = Files.newInputStream(path);
+            content.skip(Math.max(0, fileSize - size));
+            return content;
+        } catch (final NoSuchFileException e) {
+            throw new KeyNotFoundException(this, key);
+        } catch (final IOException e) {
+            throw new StorageBackendException("Failed to fetch " + key, e);
+        }
+    }
+
+    @Override
+    public Optional<ObjectMetadata> metadata(final ObjectKey key) throws StorageBackendException {
+        final Path path = fsRoot.resolve(key.value());
+        // Files have no stored checksum, but reading them is as cheap as reading the content to check.
+        try (final InputStream content = Files.newInputStream(path)) {
+            return Optional.of(ObjectMetadata.of(content));
+        } catch (final NoSuchFileException e) {
+            return Optional.empty();
+        } catch (final IOException e) {
+            throw new StorageBackendException("Failed to fetch metadata of " + key, e);
+        }
+    }
+
+    /**
+     * Fetches the file along with its version, which is the MD5 of its content.
+     *
+     * <p>Conditional writes are serialized within this process only, not with others sharing the directory.
+     */
+    @Override
+    public synchronized VersionedContent fetchVersioned(final ObjectKey key) throws StorageBackendException {
+        return FileVersions.read(this, fsRoot.resolve(key.value()), key);
+    }
+
+    @Override
+    public synchronized String uploadIfVersion(final byte[] content, final ObjectKey key, final String version)
+        throws StorageBackendException {
+        FileVersions.check(this, fsRoot.resolve(key.value()), key, version);
+        upload(List.of(ByteBuffer.wrap(content)), key);
+        return FileVersions.of(content);
+    }
+
     @Override
     public void delete(final ObjectKey key) throws StorageBackendException {
         try {
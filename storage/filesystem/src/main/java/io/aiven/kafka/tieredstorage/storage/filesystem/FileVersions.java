@@ -0,0 +1,79 @@
+/*
+ * Copyright 2023 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.storage.filesystem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Objects;
+
+import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.PreconditionFailedException;
+import io.aiven.kafka.tieredstorage.storage.StorageBackend;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.storage.VersionedContent;
+
+/**
+ * Reads and checks the versions of files for conditional writes. The version of a file is the MD5 of its content.
+ */
+final class FileVersions {
+    private FileVersions() {
+    }
+
+    static VersionedContent read(final StorageBackend storage, final Path file, final ObjectKey key)
+        throws StorageBackendException {
+        try {
+            final byte[] content = Files.readAllBytes(file);
+            return new VersionedContent(content, of(content));
+        } catch (final NoSuchFileException e) {
+            throw new KeyNotFoundException(storage, key);
+        } catch (final IOException e) {
+            throw new StorageBackendException("Failed to fetch " + key, e);
+        }
+    }
+
+    /**
+     * Checks the file has the version, or doesn't exist if the version is {@code null}.
+     */
+    static void check(final StorageBackend storage, final Path file, final ObjectKey key, final String version)
+        throws StorageBackendException {
+        String currentVersion;
+        try {
+            currentVersion = of(Files.readAllBytes(file));
+        } catch (final NoSuchFileException e) {
+            currentVersion = null;
+        } catch (final IOException e) {
+            throw new StorageBackendException("Failed to upload " + key, e);
+        }
+        if (!Objects.equals(currentVersion, version)) {
+            throw new PreconditionFailedException(storage, key);
+        }
+    }
+
+    static String of(final byte[] content) throws StorageBackendException {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(content));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new StorageBackendException("MD5 is not available", e);
+        }
+    }
+}
@@ -16,9 +16,13 @@
 
 package io.aiven.kafka.tieredstorage.storage.filesystem;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
 
 import io.aiven.kafka.tieredstorage.storage.BaseStorageTest;
@@ -102,4 +106,28 @@ class FileSystemStorageTest extends BaseStorageTest {
         assertThat(parentPath).exists();
         assertThat(root).exists();
     }
+
+    @Test
+    void testUploadFromFileChannel() throws IOException, StorageBackendException {
+        final Path source = Files.writeString(root.resolve("source"), "file content");
+        final FileSystemStorage storage = new FileSystemStorage();
+        storage.configure(Map.of("root", root.toString()));
+        try (final FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            assertThat(storage.upload(channel, 12, TOPIC_PARTITION_SEGMENT_KEY)).isEqualTo(12);
+        }
+
+        assertThat(root.resolve(TOPIC_PARTITION_SEGMENT_KEY.value())).hasContent("file content");
+    }
+
+    @Test
+    void testUploadFailsWhenChannelIsShorterThanLength() {
+        final FileSystemStorage storage = new FileSystemStorage();
+        storage.configure(Map.of("root", root.toString()));
+        final var channel = Channels.newChannel(new ByteArrayInputStream("short".getBytes()));
+
+        assertThatThrownBy(() -> storage.upload(channel, 10, TOPIC_PARTITION_SEGMENT_KEY))
+            .isInstanceOf(StorageBackendException.class)
+            .hasMessage("Uploaded 5 bytes to " + TOPIC_PARTITION_SEGMENT_KEY + ", but 10 expected");
+        assertThat(root.resolve(TOPIC_PARTITION_SEGMENT_KEY.value())).doesNotExist();
+    }
 }
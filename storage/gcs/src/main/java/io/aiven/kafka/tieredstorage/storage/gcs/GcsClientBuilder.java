@@ -0,0 +1,49 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.storage.gcs;
+
+import io.aiven.kafka.tieredstorage.storage.proxy.ProxyConfig;
+import io.aiven.kafka.tieredstorage.storage.proxy.Socks5ProxyAuthenticator;
+
+import com.google.cloud.http.HttpTransportOptions;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageOptions;
+
+class GcsClientBuilder {
+    static Storage build(final GcsStorageConfig config) {
+        final HttpTransportOptions.Builder httpTransportOptionsBuilder = HttpTransportOptions.newBuilder();
+
+        final ProxyConfig proxyConfig = config.proxyConfig();
+        if (proxyConfig != null) {
+            httpTransportOptionsBuilder.setHttpTransportFactory(
+                new ProxiedHttpTransportFactory(proxyConfig.host(), proxyConfig.port())
+            );
+            if (proxyConfig.username() != null) {
+                Socks5ProxyAuthenticator.register(
+                    proxyConfig.host(), proxyConfig.port(), proxyConfig.username(), proxyConfig.password());
+            }
+        }
+
+        final StorageOptions.Builder builder = StorageOptions.newBuilder()
+            .setCredentials(config.credentials())
+            .setTransportOptions(new MetricCollector().httpTransportOptions(httpTransportOptionsBuilder));
+        if (config.endpointUrl() != null) {
+            builder.setHost(config.endpointUrl());
+        }
+        return builder.build().getService();
+    }
+}
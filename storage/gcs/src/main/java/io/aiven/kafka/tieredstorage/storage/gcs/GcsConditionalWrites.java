@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.storage.gcs;
+
+import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.PreconditionFailedException;
+import io.aiven.kafka.tieredstorage.storage.StorageBackend;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.storage.VersionedContent;
+
+import com.google.cloud.BaseServiceException;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+
+/**
+ * Fetches small GCS objects along with their generations, and uploads them only if their generations match.
+ */
+final class GcsConditionalWrites {
+    private GcsConditionalWrites() {
+    }
+
+    static String create(final Storage storage,
+                         final String bucketName,
+                         final StorageBackend backend,
+                         final byte[] content,
+                         final ObjectKey key,
+                         final String version) throws StorageBackendException {
+        // The version is the generation of the object.
+        final BlobId blobId = version == null
+            ? BlobId.of(bucketName, key.value())
+            : BlobId.of(bucketName, key.value(), Long.parseLong(version));
+        final Storage.BlobTargetOption precondition = version == null
+            ? Storage.BlobTargetOption.doesNotExist()
+            : Storage.BlobTargetOption.generationMatch();
+        try {
+            final Blob blob = storage.create(BlobInfo.newBuilder(blobId).build(), content, precondition);
+            return String.valueOf(blob.getGeneration());
+        } catch (final BaseServiceException e) {
+            if (e.getCode() == 412) {
+                // https://cloud.google.com/storage/docs/json_api/v1/status-codes#412_Precondition_Failed
+                throw new PreconditionFailedException(backend, key, e);
+            }
+            throw new StorageBackendException("Failed to upload " + key, e);
+        }
+    }
+
+    static VersionedContent read(final Storage storage,
+                                 final String bucketName,
+                                 final StorageBackend backend,
+                                 final ObjectKey key) throws StorageBackendException {
+        try {
+            while (true) {
+                final Blob blob = storage.get(bucketName, key.value());
+                if (blob == null) {
+                    throw new KeyNotFoundException(backend, key);
+                }
+                try {
+                    // The blob ID has the generation, so the content is of the version got with the metadata.
+                    return new VersionedContent(
+                        storage.readAllBytes(blob.getBlobId()), String.valueOf(blob.getGeneration()));
+                } catch (final BaseServiceException e) {
+                    if (e.getCode() != 404) {
+                        throw e;
+                    }
+                    // The object was changed or deleted since its metadata was got, it's got again.
+                }
+            }
+        } catch (final BaseServiceException e) {
+            throw new StorageBackendException("Failed to fetch " + key, e);
+        }
+    }
+}
@@ -18,27 +18,35 @@ package io.aiven.kafka.tieredstorage.storage.gcs;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import io.aiven.kafka.tieredstorage.storage.BytesRange;
 import io.aiven.kafka.tieredstorage.storage.InvalidRangeException;
 import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
+import io.aiven.kafka.tieredstorage.storage.ObjectChecksum;
 import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectMetadata;
+import io.aiven.kafka.tieredstorage.storage.ObjectUploader;
 import io.aiven.kafka.tieredstorage.storage.StorageBackend;
 import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
-import io.aiven.kafka.tieredstorage.storage.proxy.ProxyConfig;
-import io.aiven.kafka.tieredstorage.storage.proxy.Socks5ProxyAuthenticator;
+import io.aiven.kafka.tieredstorage.storage.VersionedContent;
 
 import com.google.cloud.BaseServiceException;
 import com.google.cloud.ReadChannel;
-import com.google.cloud.http.HttpTransportOptions;
+import com.google.cloud.WriteChannel;
 import com.google.cloud.storage.Blob;
 import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
-import com.google.cloud.storage.StorageOptions;
 
 public class GcsStorage implements StorageBackend {
+    // The default chunk size of resumable uploads in the client library.
+    private static final int DEFAULT_UPLOAD_CHUNK_SIZE = 15 * 1024 * 1024;
+
     private Storage storage;
     private String bucketName;
     private Integer resumableUploadChunkSize;
@@ -46,30 +54,9 @@ public class GcsStorage implements StorageBackend {
     @Override
     public void configure(final Map<String, ?> configs) {
         final GcsStorageConfig config = new GcsStorageConfig(configs);
+        this.storage = GcsClientBuilder.build(config);
         this.bucketName = config.bucketName();
-
-        final HttpTransportOptions.Builder httpTransportOptionsBuilder = HttpTransportOptions.newBuilder();
-
-        final ProxyConfig proxyConfig = config.proxyConfig();
-        if (proxyConfig != null) {
-            httpTransportOptionsBuilder.setHttpTransportFactory(
-                new ProxiedHttpTransportFactory(proxyConfig.host(), proxyConfig.port())
-            );
-            if (proxyConfig.username() != null) {
-                Socks5ProxyAuthenticator.register(
-                    proxyConfig.host(), proxyConfig.port(), proxyConfig.username(), proxyConfig.password());
-            }
-        }
-
-        final StorageOptions.Builder builder = StorageOptions.newBuilder()
-            .setCredentials(config.credentials())
-            .setTransportOptions(new MetricCollector().httpTransportOptions(httpTransportOptionsBuilder));
-        if (config.endpointUrl() != null) {
-            builder.setHost(config.endpointUrl());
-        }
-        storage = builder.build().getService();
-
-        resumableUploadChunkSize = config.resumableUploadChunkSize();
+        this.resumableUploadChunkSize = config.resumableUploadChunkSize();
     }
 
     @Override
@@ -88,6 +75,84 @@ public class GcsStorage implements StorageBackend {
         }
     }
 
+    @Override
+    public long upload(final ReadableByteChannel channel,
+                       final long contentLength,
+                       final ObjectKey key) throws StorageBackendException {
+        long transferred = 0;
+        try {
+            // Closing the writer commits the object, so it's closed only once the whole content is written.
+            // An unclosed resumable upload is never committed and expires on the server.
+            final WriteChannel writer = writer(key);
+            // Unlike createFrom, the transfer buffer is not larger than the content.
+            final int bufferSize = (int) Math.min(contentLength, uploadChunkSize());
+            final ByteBuffer buffer = ByteBuffer.allocate(Math.max(bufferSize, 1));
+            while (transferred < contentLength) {
+                final int read = channel.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+                transferred += read;
+                buffer.flip();
+                writeFully(writer, buffer);
+                buffer.clear();
+            }
+            ObjectUploader.checkUploadedLength(key, contentLength, transferred);
+            writer.close();
+        } catch (final IOException | BaseServiceException e) {
+            throw new StorageBackendException("Failed to upload " + key, e);
+        }
+        return transferred;
+    }
+
+    @Override
+    public long upload(final List<ByteBuffer> buffers, final ObjectKey key) throws StorageBackendException {
+        final long contentLength = ObjectUploader.remaining(buffers);
+        final BlobInfo blobInfo = BlobInfo.newBuilder(this.bucketName, key.value()).build();
+        try {
+            if (buffers.size() == 1 && buffers.get(0).hasArray() && contentLength < uploadChunkSize()) {
+                // Small content in a single array is uploaded in one request without copying.
+                final ByteBuffer buffer = buffers.get(0);
+                storage.create(blobInfo, buffer.array(), buffer.arrayOffset() + buffer.position(),
+                    buffer.remaining());
+                return contentLength;
+            }
+            try (final WriteChannel writer = writer(key)) {
+                for (final ByteBuffer buffer : buffers) {
+                    writeFully(writer, buffer.duplicate());
+                }
+            }
+            return contentLength;
+        } catch (final IOException | BaseServiceException e) {
+            throw new StorageBackendException("Failed to upload " + key, e);
+        }
+    }
+
+    private WriteChannel writer(final ObjectKey key) {
+        final BlobInfo blobInfo = BlobInfo.newBuilder(this.bucketName, key.value()).build();
+        final WriteChannel writer = storage.writer(blobInfo);
+        if (resumableUploadChunkSize != null) {
+            writer.setChunkSize(resumableUploadChunkSize);
+        }
+        return writer;
+    }
+
+    private int uploadChunkSize() {
+        return resumableUploadChunkSize != null ? resumableUploadChunkSize : DEFAULT_UPLOAD_CHUNK_SIZE;
+    }
+
+    private static void writeFully(final WriteChannel writer, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            writer.write(buffer);
+        }
+    }
+
+    @Override
+    public String uploadIfVersion(final byte[] content, final ObjectKey key, final String version)
+        throws StorageBackendException {
+        return GcsConditionalWrites.create(storage, bucketName, this, content, key, version);
+    }
+
     @Override
     public void delete(final ObjectKey key) throws StorageBackendException {
         try {
@@ -113,6 +178,11 @@ public class GcsStorage implements StorageBackend {
         }
     }
 
+    @Override
+    public VersionedContent fetchVersioned(final ObjectKey key) throws StorageBackendException {
+        return GcsConditionalWrites.read(storage, bucketName, this, key);
+    }
+
     @Override
     public InputStream fetch(final ObjectKey key, final BytesRange range) throws StorageBackendException {
         try {
@@ -146,6 +216,43 @@ public class GcsStorage implements StorageBackend {
         }
     }
 
+    @Override
+    public InputStream fetchSuffix(final ObjectKey key, final int size) throws StorageBackendException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive, " + size + " given");
+        }
+        try {
+            // The blob size is known from its metadata, which is fetched anyway.
+            final Blob blob = getBlob(key);
+            final ReadChannel reader = blob.reader();
+            reader.seek(Math.max(0, blob.getSize() - size));
+            return Channels.newInputStream(reader);
+        } catch (final IOException e) {
+            throw new StorageBackendException("Failed to fetch " + key, e);
+        } catch (final BaseServiceException e) {
+            if (e.getCode() == 404) {
+                throw new KeyNotFoundException(this, key, e);
+            } else {
+                throw new StorageBackendException("Failed to fetch " + key, e);
+            }
+        }
+    }
+
+    @Override
+    public Optional<ObjectMetadata> metadata(final ObjectKey key) throws StorageBackendException {
+        try {
+            final Blob blob = storage.get(this.bucketName, key.value());
+            if (blob == null) {
+                return Optional.empty();
+            }
+            // Composite objects have no MD5 hash.
+            final ObjectChecksum checksum = blob.getMd5() != null ? ObjectChecksum.md5Base64(blob.getMd5()) : null;
+            return Optional.of(new ObjectMetadata(blob.getSize(), checksum));
+        } catch (final BaseServiceException e) {
+            throw new StorageBackendException("Failed to fetch metadata of " + key, e);
+        }
+    }
+
     private Blob getBlob(final ObjectKey key) throws KeyNotFoundException {
         // Unfortunately, it seems Google will do two a separate (HEAD-like) call to get blob metadata.
         // Since the blobs are immutable in tiered storage, we can consider caching them locally
@@ -23,12 +23,14 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.management.ManagementFactory;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import io.aiven.kafka.tieredstorage.storage.BytesRange;
 import io.aiven.kafka.tieredstorage.storage.ObjectKey;
 import io.aiven.kafka.tieredstorage.storage.TestObjectKey;
+import io.aiven.kafka.tieredstorage.storage.UploadCheckpoint;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -48,6 +50,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.InstanceOfAssertFactories.DOUBLE;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -116,7 +119,7 @@ class S3StorageMetricsTest {
 
         final InputStream failingInputStream = mock(InputStream.class);
         final IOException exception = new IOException("test");
-        when(failingInputStream.transferTo(any())).thenThrow(exception);
+        when(failingInputStream.read(any(), anyInt(), anyInt())).thenThrow(exception);
         assertThatThrownBy(() -> storage.upload(failingInputStream, key))
             .hasRootCause(exception);
 
@@ -215,4 +218,29 @@ class S3StorageMetricsTest {
             .asInstanceOf(DOUBLE)
             .isGreaterThan(0.0);
     }
+
+    @Test
+    void retriedCopyRequestsMetricsShouldBeReported() throws Exception {
+        final ObjectKey key = new TestObjectKey("retried");
+        storage.upload(new ByteArrayInputStream(new byte[PART_SIZE + 1]), key);
+
+        assertThat(storage.metadata(key)).isPresent();
+        assertThat(storage.canResumeUpload(key, new UploadCheckpoint("unknown-upload", List.of()))).isFalse();
+        storage.delete(key);
+
+        final ObjectName segmentCopyPerSecName = ObjectName.getInstance(
+            "aiven.kafka.server.tieredstorage.s3:type=s3-client-metrics");
+        // The multipart object needs another request for the size of its parts.
+        assertThat(MBEAN_SERVER.getAttribute(segmentCopyPerSecName, "head-object-requests-total"))
+            .isEqualTo(2.0);
+        assertThat(MBEAN_SERVER.getAttribute(segmentCopyPerSecName, "head-object-time-max"))
+            .asInstanceOf(DOUBLE)
+            .isGreaterThan(0.0);
+
+        assertThat(MBEAN_SERVER.getAttribute(segmentCopyPerSecName, "list-parts-requests-total"))
+            .isEqualTo(1.0);
+        assertThat(MBEAN_SERVER.getAttribute(segmentCopyPerSecName, "list-parts-time-max"))
+            .asInstanceOf(DOUBLE)
+            .isGreaterThan(0.0);
+    }
 }
@@ -16,8 +16,12 @@
 
 package io.aiven.kafka.tieredstorage.storage.s3;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 
 import io.aiven.kafka.tieredstorage.storage.BaseStorageTest;
 import io.aiven.kafka.tieredstorage.storage.StorageBackend;
@@ -28,6 +32,8 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.testcontainers.containers.localstack.LocalStackContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
@@ -73,8 +79,12 @@ public class S3StorageTest extends BaseStorageTest {
 
     @Override
     protected StorageBackend storage() {
+        return storage(Map.of());
+    }
+
+    private S3Storage storage(final Map<String, Object> extraConfigs) {
         final S3Storage s3Storage = new S3Storage();
-        final Map<String, Object> configs = Map.of(
+        final Map<String, Object> configs = new HashMap<>(Map.of(
             "s3.bucket.name", bucketName,
             "s3.region", LOCALSTACK.getRegion(),
             "s3.endpoint.url", LOCALSTACK.getEndpointOverride(LocalStackContainer.Service.S3).toString(),
@@ -82,7 +92,8 @@ public class S3StorageTest extends BaseStorageTest {
             "aws.secret.access.key", LOCALSTACK.getSecretKey(),
             "s3.path.style.access.enabled", true,
             "s3.multipart.upload.part.size", PART_SIZE
-        );
+        ));
+        configs.putAll(extraConfigs);
         s3Storage.configure(configs);
         return s3Storage;
     }
@@ -93,4 +104,45 @@ public class S3StorageTest extends BaseStorageTest {
             assertThat(os.partSize).isEqualTo(PART_SIZE);
         }
     }
+
+    @Test
+    void uploadPartsConcurrently() throws Exception {
+        final S3Storage storage = storage(Map.of("s3.multipart.upload.parallelism", 3));
+        try (final var os = storage.s3OutputStream(new TestObjectKey("test"))) {
+            assertThat(os.maxInFlightParts).isEqualTo(3);
+        }
+
+        final byte[] content = new byte[PART_SIZE * 3 + 123];
+        new Random().nextBytes(content);
+        final TestObjectKey key = new TestObjectKey("parallel");
+        assertThat(storage.upload(new ByteArrayInputStream(content), key, 0)).isEqualTo(content.length);
+        try (final InputStream fetched = storage.fetch(key)) {
+            assertThat(fetched).hasBinaryContent(content);
+        }
+    }
+
+    @Test
+    void partSizeFromSizeHint() throws IOException {
+        try (final var os = ((S3Storage) storage()).s3OutputStream(new TestObjectKey("test"), 12 * 1024 * 1024)) {
+            // Two even parts instead of 8MiB and 4MiB.
+            assertThat(os.partSize).isEqualTo(6 * 1024 * 1024);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "0, 8388608",
+        "1, 5242880",
+        "8388608, 8388608",
+        "8388609, 5242880",
+        "16777216, 8388608",
+        // Rounded up to 1MiB.
+        "23068672, 8388608",
+        "23068673, 8388608",
+        "26214400, 7340032",
+        "1073741824, 8388608"
+    })
+    void partSize(final long sizeHint, final int expectedPartSize) {
+        assertThat(S3Uploader.partSize(PART_SIZE, sizeHint)).isEqualTo(expectedPartSize);
+    }
 }
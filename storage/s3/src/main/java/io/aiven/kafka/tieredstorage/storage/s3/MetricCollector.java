@@ -78,6 +78,10 @@ class MetricCollector implements MetricPublisher {
         latencyMetrics.put("DeleteObjects", createLatencySensor("delete-objects-time"));
         requestMetrics.put("AbortMultipartUpload", createRequestsSensor("abort-multipart-upload-requests"));
         latencyMetrics.put("AbortMultipartUpload", createLatencySensor("abort-multipart-upload-time"));
+        requestMetrics.put("HeadObject", createRequestsSensor("head-object-requests"));
+        latencyMetrics.put("HeadObject", createLatencySensor("head-object-time"));
+        requestMetrics.put("ListParts", createRequestsSensor("list-parts-requests"));
+        latencyMetrics.put("ListParts", createLatencySensor("list-parts-time"));
 
         errorMetrics.put(THROTTLING.toString(), createRequestsSensor("throttling-errors"));
         errorMetrics.put(SERVER_ERROR.toString(), createRequestsSensor("server-errors"));
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.storage.s3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+
+import io.aiven.kafka.tieredstorage.storage.ByteBuffersInputStream;
+import io.aiven.kafka.tieredstorage.storage.MemoryBudget;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectUploader;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+/**
+ * Uploads objects below the multipart upload threshold with a single PutObject request.
+ *
+ * <p>The content is read from buffers, which are not copied and whose positions are not changed.
+ */
+class PutObjectUploader {
+    private static final String CONTENT_TYPE = "application/octet-stream";
+
+    private final S3Client client;
+    private final String bucketName;
+
+    PutObjectUploader(final S3Client client, final String bucketName) {
+        this.client = client;
+        this.bucketName = bucketName;
+    }
+
+    void upload(final ObjectKey key, final List<ByteBuffer> content, final long contentLength)
+        throws StorageBackendException {
+        final PutObjectRequest putRequest = PutObjectRequest.builder().bucket(bucketName).key(key.value()).build();
+        try {
+            client.putObject(putRequest, requestBody(content, contentLength));
+        } catch (final AwsServiceException | SdkClientException e) {
+            throw new StorageBackendException("Failed to upload " + key, e);
+        }
+    }
+
+    /**
+     * Reads the channel into a buffer reserved in the memory budget and uploads it.
+     *
+     * @return the number of bytes uploaded.
+     */
+    long upload(final ObjectKey key,
+                final ReadableByteChannel channel,
+                final long contentLength,
+                final MemoryBudget memoryBudget) throws IOException, StorageBackendException {
+        final MemoryBudget.Reservation contentReservation = memoryBudget.reserve(contentLength);
+        try {
+            final ByteBuffer content = ByteBuffer.allocate((int) contentLength);
+            while (content.hasRemaining()) {
+                if (channel.read(content) < 0) {
+                    break;
+                }
+            }
+            ObjectUploader.checkUploadedLength(key, contentLength, content.position());
+            upload(key, List.of(content.flip()), contentLength);
+            return contentLength;
+        } finally {
+            contentReservation.close();
+        }
+    }
+
+    /**
+     * Creates the request body over the remaining bytes of the buffers.
+     *
+     * <p>A new stream over the same buffers is provided for each attempt, so retries don't need to buffer.
+     */
+    static RequestBody requestBody(final List<ByteBuffer> content, final long contentLength) {
+        return RequestBody.fromContentProvider(
+            () -> new ByteBuffersInputStream(content), contentLength, CONTENT_TYPE);
+    }
+}
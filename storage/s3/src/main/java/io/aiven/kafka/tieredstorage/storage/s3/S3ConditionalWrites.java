@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.storage.s3;
+
+import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.PreconditionFailedException;
+import io.aiven.kafka.tieredstorage.storage.StorageBackend;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.storage.VersionedContent;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+/**
+ * Fetches small S3 objects along with their ETags, and uploads them only if their ETags match.
+ */
+final class S3ConditionalWrites {
+    private S3ConditionalWrites() {
+    }
+
+    static String put(final S3Client s3Client,
+                      final String bucketName,
+                      final StorageBackend storage,
+                      final byte[] content,
+                      final ObjectKey key,
+                      final String version) throws StorageBackendException {
+        try {
+            // The SDK doesn't model the conditional write headers of PutObject yet, so they are set directly.
+            return s3Client.putObject(b -> b.bucket(bucketName).key(key.value()).overrideConfiguration(c -> {
+                if (version == null) {
+                    c.putHeader("If-None-Match", "*");
+                } else {
+                    c.putHeader("If-Match", version);
+                }
+            }), RequestBody.fromBytes(content)).eTag();
+        } catch (final AwsServiceException e) {
+            // 404 when the object to match is deleted, 409 when a concurrent conditional write wins.
+            if (e.statusCode() == 412 || e.statusCode() == 409 || e.statusCode() == 404) {
+                throw new PreconditionFailedException(storage, key, e);
+            }
+            throw new StorageBackendException("Failed to upload " + key, e);
+        } catch (final SdkClientException e) {
+            throw new StorageBackendException("Failed to upload " + key, e);
+        }
+    }
+
+    static VersionedContent get(final S3Client s3Client,
+                                final String bucketName,
+                                final StorageBackend storage,
+                                final ObjectKey key) throws StorageBackendException {
+        try {
+            final ResponseBytes<GetObjectResponse> object =
+                s3Client.getObjectAsBytes(b -> b.bucket(bucketName).key(key.value()));
+            return new VersionedContent(object.asByteArray(), object.response().eTag());
+        } catch (final AwsServiceException e) {
+            if (e.statusCode() == 404) {
+                throw new KeyNotFoundException(storage, key, e);
+            }
+            throw new StorageBackendException("Failed to fetch " + key, e);
+        } catch (final SdkClientException e) {
+            throw new StorageBackendException("Failed to fetch " + key, e);
+        }
+    }
+}
@@ -16,28 +16,33 @@
 
 package io.aiven.kafka.tieredstorage.storage.s3;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
+import io.aiven.kafka.tieredstorage.storage.MemoryBudget;
 import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.UploadCheckpoint;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
 import software.amazon.awssdk.services.s3.model.CompletedPart;
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
-import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
 import software.amazon.awssdk.services.s3.model.UploadPartRequest;
-import software.amazon.awssdk.services.s3.model.UploadPartResponse;
 
 /**
  * S3 multipart output stream.
@@ -45,6 +50,23 @@ import software.amazon.awssdk.services.s3.model.UploadPartResponse;
  *
  * <p>Requires S3 client and starts a multipart transaction when instantiated. Do not reuse.
  *
+ * <p>A part is gathered as a list of buffer slices and uploaded from them without further copying.
+ * Bytes written with {@link #write(byte[], int, int)} are copied into the part buffer owned by the stream,
+ * bytes read with {@link #transferFrom(InputStream)} or {@link #transferFrom(ReadableByteChannel)}
+ * are read into it directly,
+ * and buffers written with {@link #write(ByteBuffer)} are referenced as they are.
+ *
+ * <p>If an executor is provided, up to {@code maxInFlightParts} parts are uploaded concurrently on it,
+ * each from its own part buffer, while the next part is being written.
+ * Part buffers are reused once their parts are uploaded. The upload is completed with the parts ordered by number.
+ *
+ * <p>Each part buffer is reserved in the memory budget before it's allocated,
+ * and all of them are released when the upload is completed or aborted.
+ *
+ * <p>If a checkpoint listener is provided, the upload is resumable: the listener receives the state of the upload
+ * after each uploaded part, and the uploaded parts are kept instead of aborted when the upload fails.
+ * A stream created with such a checkpoint continues that upload with the next part.
+ *
  * <p>{@link S3MultiPartOutputStream} is not thread-safe.
  */
 public class S3MultiPartOutputStream extends OutputStream {
@@ -52,13 +74,29 @@ public class S3MultiPartOutputStream extends OutputStream {
     private static final Logger log = LoggerFactory.getLogger(S3MultiPartOutputStream.class);
 
     private final S3Client client;
-    private final ByteBuffer partBuffer;
     private final String bucketName;
     private final ObjectKey key;
     final int partSize;
+    private final ExecutorService partUploadExecutor;
+    final int maxInFlightParts;
+    private final MemoryBudget memoryBudget;
+    private final Consumer<UploadCheckpoint> checkpointListener;
 
     private final String uploadId;
     private final List<CompletedPart> completedParts = new ArrayList<>();
+    private final List<UploadCheckpoint.Part> uploadedParts = new ArrayList<>();
+    private final Deque<InFlightPart> inFlightParts = new ArrayDeque<>();
+    private final Deque<ByteBuffer> freePartBuffers = new ArrayDeque<>();
+    private final List<MemoryBudget.Reservation> partBufferReservations = new ArrayList<>();
+
+    // The slices the current part consists of, in order.
+    private List<ByteBuffer> partSlices = new ArrayList<>();
+    private int partPosition;
+    // The buffer owned by the stream for copied bytes, allocated only when needed.
+    private ByteBuffer partBuffer;
+    // The start of the slice of the part buffer being filled, -1 if there is none.
+    private int ownedSliceStart = -1;
+    private int nextPartNumber = 1;
 
     private boolean closed;
     private long processedBytes;
@@ -67,14 +105,80 @@ public class S3MultiPartOutputStream extends OutputStream {
                                    final ObjectKey key,
                                    final int partSize,
                                    final S3Client client) {
+        this(bucketName, key, partSize, client, null, 1);
+    }
+
+    /**
+     * @param partUploadExecutor the executor to upload parts on; or {@code null} to upload them synchronously.
+     * @param maxInFlightParts   the maximum number of parts being uploaded concurrently.
+     */
+    public S3MultiPartOutputStream(final String bucketName,
+                                   final ObjectKey key,
+                                   final int partSize,
+                                   final S3Client client,
+                                   final ExecutorService partUploadExecutor,
+                                   final int maxInFlightParts) {
+        this(bucketName, key, partSize, client, partUploadExecutor, maxInFlightParts, MemoryBudget.unlimited());
+    }
+
+    /**
+     * @param partUploadExecutor the executor to upload parts on; or {@code null} to upload them synchronously.
+     * @param maxInFlightParts   the maximum number of parts being uploaded concurrently.
+     * @param memoryBudget       the budget to reserve part buffers in.
+     */
+    public S3MultiPartOutputStream(final String bucketName,
+                                   final ObjectKey key,
+                                   final int partSize,
+                                   final S3Client client,
+                                   final ExecutorService partUploadExecutor,
+                                   final int maxInFlightParts,
+                                   final MemoryBudget memoryBudget) {
+        this(bucketName, key, partSize, client, partUploadExecutor, maxInFlightParts, memoryBudget, null, null);
+    }
+
+    /**
+     * @param partUploadExecutor the executor to upload parts on; or {@code null} to upload them synchronously.
+     * @param maxInFlightParts   the maximum number of parts being uploaded concurrently.
+     * @param memoryBudget       the budget to reserve part buffers in.
+     * @param checkpoint         the state of the upload to continue; or {@code null} to start a new upload.
+     * @param checkpointListener receives the state of the upload after each uploaded part;
+     *                           or {@code null} if the upload is not resumable and is aborted on failure.
+     */
+    public S3MultiPartOutputStream(final String bucketName,
+                                   final ObjectKey key,
+                                   final int partSize,
+                                   final S3Client client,
+                                   final ExecutorService partUploadExecutor,
+                                   final int maxInFlightParts,
+                                   final MemoryBudget memoryBudget,
+                                   final UploadCheckpoint checkpoint,
+                                   final Consumer<UploadCheckpoint> checkpointListener) {
+        if (maxInFlightParts < 1) {
+            throw new IllegalArgumentException(
+                "maxInFlightParts must be positive, " + maxInFlightParts + " given");
+        }
         this.bucketName = bucketName;
         this.key = key;
         this.client = client;
         this.partSize = partSize;
-        this.partBuffer = ByteBuffer.allocate(partSize);
-        final CreateMultipartUploadRequest initialRequest = CreateMultipartUploadRequest.builder().bucket(bucketName)
+        this.partUploadExecutor = partUploadExecutor;
+        this.maxInFlightParts = maxInFlightParts;
+        this.memoryBudget = memoryBudget;
+        this.checkpointListener = checkpointListener;
+        if (checkpoint != null) {
+            this.uploadId = checkpoint.uploadId();
+            for (final UploadCheckpoint.Part part : checkpoint.parts()) {
+                completedParts.add(CompletedPart.builder().partNumber(part.number()).eTag(part.etag()).build());
+                uploadedParts.add(part);
+                nextPartNumber = part.number() + 1;
+            }
+            this.processedBytes = checkpoint.uploadedBytes();
+            log.debug("Resume multipart upload {} after {} parts", uploadId, completedParts.size());
+            return;
+        }
+        final var initialRequest = CreateMultipartUploadRequest.builder().bucket(bucketName)
             .key(key.value()).build();
-        final CreateMultipartUploadResponse initiateResult = client.createMultipartUpload(initialRequest);
+        final var initiateResult = client.createMultipartUpload(initialRequest);
         log.debug("Create new multipart upload request: {}", initiateResult.uploadId());
         this.uploadId = initiateResult.uploadId();
     }
@@ -93,44 +197,142 @@ public class S3MultiPartOutputStream extends OutputStream {
             return;
         }
         try {
-            final ByteBuffer source = ByteBuffer.wrap(b, off, len);
-            while (source.hasRemaining()) {
-                final int transferred = Math.min(partBuffer.remaining(), source.remaining());
-                final int offset = source.arrayOffset() + source.position();
-                // TODO: get rid of this array copying
-                partBuffer.put(source.array(), offset, transferred);
-                processedBytes += transferred;
-                source.position(source.position() + transferred);
-                if (!partBuffer.hasRemaining()) {
-                    flushBuffer(0, partSize);
-                }
+            int offset = off;
+            int remaining = len;
+            while (remaining > 0) {
+                final int transferred = Math.min(partSize - partPosition, remaining);
+                startOwnedSlice();
+                partBuffer.put(b, offset, transferred);
+                offset += transferred;
+                remaining -= transferred;
+                advance(transferred);
+            }
+        } catch (final IOException | RuntimeException e) {
+            log.error("Failed to write to stream on upload {}", uploadId, e);
+            failUpload();
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of the buffer without copying them.
+     *
+     * <p>The stream keeps referencing the buffer content until the part it belongs to is uploaded,
+     * so it must not be modified until the stream is closed.
+     */
+    public void write(final ByteBuffer buffer) throws IOException {
+        if (isClosed()) {
+            throw new IllegalStateException("Already closed");
+        }
+        try {
+            while (buffer.hasRemaining()) {
+                final int transferred = Math.min(partSize - partPosition, buffer.remaining());
+                endOwnedSlice();
+                final ByteBuffer slice = buffer.slice();
+                slice.limit(transferred);
+                partSlices.add(slice);
+                buffer.position(buffer.position() + transferred);
+                advance(transferred);
             }
         } catch (final RuntimeException e) {
-            log.error("Failed to write to stream on upload {}, aborting transaction", uploadId, e);
-            abortUpload();
+            log.error("Failed to write to stream on upload {}", uploadId, e);
+            failUpload();
             throw new IOException(e);
         }
     }
 
+    /**
+     * Reads the input stream until its end directly into the part buffers.
+     *
+     * <p>Unlike {@link InputStream#transferTo(OutputStream)}, there is no intermediate buffer to copy through.
+     * If reading fails, the upload is aborted, or kept to be resumed.
+     *
+     * @return the number of bytes transferred.
+     */
+    public long transferFrom(final InputStream in) throws IOException {
+        if (isClosed()) {
+            throw new IllegalStateException("Already closed");
+        }
+        long transferred = 0;
+        try {
+            while (true) {
+                startOwnedSlice();
+                final int read = in.read(
+                    partBuffer.array(), partBuffer.arrayOffset() + partBuffer.position(), partSize - partPosition);
+                if (read < 0) {
+                    return transferred;
+                }
+                partBuffer.position(partBuffer.position() + read);
+                transferred += read;
+                advance(read);
+            }
+        } catch (final IOException | RuntimeException e) {
+            log.error("Failed to transfer to stream on upload {}", uploadId, e);
+            failUpload();
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+    }
+
+    /**
+     * Reads the channel until its end directly into the part buffers.
+     *
+     * <p>If reading fails, the upload is aborted, or kept to be resumed.
+     *
+     * @return the number of bytes transferred.
+     */
+    public long transferFrom(final ReadableByteChannel channel) throws IOException {
+        if (isClosed()) {
+            throw new IllegalStateException("Already closed");
+        }
+        long transferred = 0;
+        try {
+            while (true) {
+                startOwnedSlice();
+                partBuffer.limit(partBuffer.position() + partSize - partPosition);
+                final int read = channel.read(partBuffer);
+                partBuffer.limit(partBuffer.capacity());
+                if (read < 0) {
+                    return transferred;
+                }
+                transferred += read;
+                advance(read);
+            }
+        } catch (final IOException | RuntimeException e) {
+            log.error("Failed to transfer to stream on upload {}", uploadId, e);
+            failUpload();
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+    }
+
+    /**
+     * Aborts the upload, discarding the parts uploaded so far, instead of completing it on close.
+     */
+    public void abort() {
+        if (!isClosed()) {
+            abortUpload();
+        }
+    }
+
     @Override
     public void close() throws IOException {
         if (!isClosed()) {
-            if (partBuffer.position() > 0) {
-                try {
-                    flushBuffer(partBuffer.arrayOffset(), partBuffer.position());
-                } catch (final RuntimeException e) {
-                    log.error("Failed to upload last part {}, aborting transaction", uploadId, e);
-                    abortUpload();
-                    throw new IOException(e);
+            try {
+                if (partPosition > 0) {
+                    flushPart();
                 }
+                awaitInFlightParts(0);
+            } catch (final RuntimeException e) {
+                log.error("Failed to upload last parts {}", uploadId, e);
+                failUpload();
+                throw new IOException(e);
             }
             if (!completedParts.isEmpty()) {
                 try {
                     completeUpload();
                     log.debug("Completed multipart upload {}", uploadId);
                 } catch (final RuntimeException e) {
-                    log.error("Failed to complete multipart upload {}, aborting transaction", uploadId, e);
-                    abortUpload();
+                    log.error("Failed to complete multipart upload {}", uploadId, e);
+                    failUpload();
                     throw new IOException(e);
                 }
             } else {
@@ -144,7 +346,7 @@ public class S3MultiPartOutputStream extends OutputStream {
     }
 
     private void completeUpload() {
-        final CompletedMultipartUpload completedMultipartUpload = CompletedMultipartUpload.builder()
+        final var completedMultipartUpload = CompletedMultipartUpload.builder()
             .parts(completedParts)
             .build();
         final var request = CompleteMultipartUploadRequest.builder()
@@ -153,46 +355,185 @@ public class S3MultiPartOutputStream extends OutputStream {
             .uploadId(uploadId)
             .multipartUpload(completedMultipartUpload)
             .build();
-        client.completeMultipartUpload(request);
+        try {
+            client.completeMultipartUpload(request);
+            closed = true;
+        } finally {
+            releasePartBuffers();
+        }
+    }
+
+    /**
+     * Ends the upload after a failure. A resumable upload is kept with the parts uploaded so far,
+     * otherwise it's aborted.
+     */
+    private void failUpload() {
+        if (checkpointListener == null) {
+            log.error("Aborting multipart upload {}", uploadId);
+            abortUpload();
+            return;
+        }
+        log.warn("Keeping multipart upload {} with {} uploaded parts to be resumed", uploadId, uploadedParts.size());
+        cancelInFlightParts();
         closed = true;
+        releasePartBuffers();
     }
 
     private void abortUpload() {
+        cancelInFlightParts();
         final var request = AbortMultipartUploadRequest.builder()
             .bucket(bucketName)
             .key(key.value())
             .uploadId(uploadId)
             .build();
-        client.abortMultipartUpload(request);
-        closed = true;
+        try {
+            client.abortMultipartUpload(request);
+            closed = true;
+        } finally {
+            releasePartBuffers();
+        }
+    }
+
+    private void cancelInFlightParts() {
+        InFlightPart inFlightPart;
+        while ((inFlightPart = inFlightParts.pollFirst()) != null) {
+            inFlightPart.future.cancel(true);
+        }
+    }
+
+    private void releasePartBuffers() {
+        freePartBuffers.clear();
+        partBuffer = null;
+        partBufferReservations.forEach(MemoryBudget.Reservation::close);
+        partBufferReservations.clear();
+    }
+
+    private void startOwnedSlice() throws IOException {
+        if (ownedSliceStart >= 0) {
+            return;
+        }
+        if (partBuffer == null) {
+            final ByteBuffer freePartBuffer = freePartBuffers.pollFirst();
+            if (freePartBuffer != null) {
+                partBuffer = freePartBuffer;
+            } else {
+                partBufferReservations.add(memoryBudget.reserve(partSize));
+                partBuffer = ByteBuffer.allocate(partSize);
+            }
+        }
+        ownedSliceStart = partBuffer.position();
+    }
+
+    private void endOwnedSlice() {
+        if (ownedSliceStart < 0) {
+            return;
+        }
+        if (partBuffer.position() > ownedSliceStart) {
+            final ByteBuffer slice = partBuffer.duplicate();
+            slice.position(ownedSliceStart);
+            slice.limit(partBuffer.position());
+            partSlices.add(slice.slice());
+        }
+        ownedSliceStart = -1;
+    }
+
+    private void advance(final int transferred) {
+        partPosition += transferred;
+        processedBytes += transferred;
+        if (partPosition == partSize) {
+            flushPart();
+        }
+    }
+
+    private void flushPart() {
+        endOwnedSlice();
+        final List<ByteBuffer> slices = partSlices;
+        final int size = partPosition;
+        final int partNumber = nextPartNumber++;
+        partSlices = new ArrayList<>();
+        partPosition = 0;
+        if (partUploadExecutor == null) {
+            completePart(uploadPart(slices, size, partNumber), size);
+            if (partBuffer != null) {
+                partBuffer.clear();
+            }
+            return;
+        }
+
+        // Make room for this part.
+        awaitInFlightParts(maxInFlightParts - 1);
+        // The part buffer goes along with the part if it was used for it, it's recycled after the upload.
+        final ByteBuffer ownedBuffer = partBuffer != null && partBuffer.position() > 0 ? partBuffer : null;
+        inFlightParts.addLast(
+            new InFlightPart(
+                ownedBuffer, size, partUploadExecutor.submit(() -> uploadPart(slices, size, partNumber))));
+        if (ownedBuffer != null) {
+            partBuffer = null;
+        }
+    }
+
+    /**
+     * Waits until at most {@code maxRemaining} parts are in flight, completing parts in order.
+     */
+    private void awaitInFlightParts(final int maxRemaining) {
+        while (inFlightParts.size() > maxRemaining) {
+            final InFlightPart inFlightPart = inFlightParts.peekFirst();
+            final CompletedPart completedPart;
+            try {
+                completedPart = inFlightPart.future.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            }
+            inFlightParts.removeFirst();
+            completePart(completedPart, inFlightPart.size);
+            if (inFlightPart.buffer != null) {
+                inFlightPart.buffer.clear();
+                freePartBuffers.addLast(inFlightPart.buffer);
+            }
+        }
     }
 
-    private void flushBuffer(final int offset,
-                             final int actualPartSize) {
-        final ByteArrayInputStream in = new ByteArrayInputStream(partBuffer.array(), offset, actualPartSize);
-        uploadPart(in, actualPartSize);
-        partBuffer.clear();
-    }
-
-    private void uploadPart(final InputStream in, final int actualPartSize) {
-        final int partNumber = completedParts.size() + 1;
-        final UploadPartRequest uploadPartRequest =
-            UploadPartRequest.builder()
-                .bucket(bucketName)
-                .key(key.value())
-                .uploadId(uploadId)
-                .partNumber(partNumber)
-                .build();
-        final RequestBody body = RequestBody.fromInputStream(in, actualPartSize);
-        final UploadPartResponse uploadResult = client.uploadPart(uploadPartRequest, body);
-        final CompletedPart completedPart = CompletedPart.builder()
+    private void completePart(final CompletedPart completedPart, final int size) {
+        completedParts.add(completedPart);
+        if (checkpointListener != null) {
+            uploadedParts.add(new UploadCheckpoint.Part(completedPart.partNumber(), completedPart.eTag(), size));
+            checkpointListener.accept(new UploadCheckpoint(uploadId, uploadedParts));
+        }
+    }
+
+    private CompletedPart uploadPart(final List<ByteBuffer> slices, final int size, final int partNumber) {
+        final var uploadPartRequest = UploadPartRequest.builder()
+            .bucket(bucketName)
+            .key(key.value())
+            .uploadId(uploadId)
+            .partNumber(partNumber)
+            .build();
+        final var uploadResult = client.uploadPart(uploadPartRequest, PutObjectUploader.requestBody(slices, size));
+        return CompletedPart.builder()
             .partNumber(partNumber)
             .eTag(uploadResult.eTag())
             .build();
-        completedParts.add(completedPart);
     }
 
     long processedBytes() {
         return processedBytes;
     }
+
+    private static class InFlightPart {
+        private final ByteBuffer buffer;
+        private final int size;
+        private final Future<CompletedPart> future;
+
+        private InFlightPart(final ByteBuffer buffer, final int size, final Future<CompletedPart> future) {
+            this.buffer = buffer;
+            this.size = size;
+            this.future = future;
+        }
+    }
 }
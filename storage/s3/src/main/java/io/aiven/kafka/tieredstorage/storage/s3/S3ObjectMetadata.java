@@ -0,0 +1,70 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.storage.s3;
+
+import java.util.Optional;
+
+import io.aiven.kafka.tieredstorage.storage.ObjectChecksum;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectMetadata;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.S3Client;
+
+/**
+ * Fetches the size and checksum of S3 objects from their ETags.
+ */
+final class S3ObjectMetadata {
+    private S3ObjectMetadata() {
+    }
+
+    static Optional<ObjectMetadata> fetch(final S3Client s3Client, final String bucketName, final ObjectKey key)
+        throws StorageBackendException {
+        try {
+            final var head = s3Client.headObject(b -> b.bucket(bucketName).key(key.value()));
+            final String etag = unquote(head.eTag());
+            final int partsSeparator = etag.indexOf('-');
+            if (partsSeparator < 0) {
+                // The ETag of a single part object is the MD5 of its content, unless encrypted with SSE-KMS or SSE-C.
+                // Then the content never matches it and the object is uploaded again.
+                return Optional.of(new ObjectMetadata(head.contentLength(), ObjectChecksum.md5(etag)));
+            }
+            // The ETag of a multipart object is the MD5 of the part MD5s, so the part size is needed to check it.
+            final int parts = Integer.parseInt(etag.substring(partsSeparator + 1));
+            final long partSize = s3Client.headObject(b -> b.bucket(bucketName).key(key.value()).partNumber(1))
+                .contentLength();
+            return Optional.of(new ObjectMetadata(
+                head.contentLength(), ObjectChecksum.multipartMd5(etag.substring(0, partsSeparator), parts, partSize)));
+        } catch (final AwsServiceException e) {
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new StorageBackendException("Failed to fetch metadata of " + key, e);
+        } catch (final SdkClientException e) {
+            throw new StorageBackendException("Failed to fetch metadata of " + key, e);
+        }
+    }
+
+    private static String unquote(final String etag) {
+        if (etag.length() >= 2 && etag.startsWith("\"") && etag.endsWith("\"")) {
+            return etag.substring(1, etag.length() - 1);
+        }
+        return etag;
+    }
+}
@@ -16,33 +16,41 @@
 
 package io.aiven.kafka.tieredstorage.storage.s3;
 
-import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import io.aiven.kafka.tieredstorage.storage.BytesRange;
 import io.aiven.kafka.tieredstorage.storage.InvalidRangeException;
 import io.aiven.kafka.tieredstorage.storage.KeyNotFoundException;
+import io.aiven.kafka.tieredstorage.storage.MemoryBudget;
 import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectMetadata;
 import io.aiven.kafka.tieredstorage.storage.StorageBackend;
 import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.storage.UploadCheckpoint;
+import io.aiven.kafka.tieredstorage.storage.VersionedContent;
 
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.Delete;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
-import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 
 public class S3Storage implements StorageBackend {
-
     private S3Client s3Client;
     private String bucketName;
     private int partSize;
+    private int multipartUploadThreshold;
+    private int multipartUploadParallelism;
+    private S3Uploader uploader;
 
     @Override
     public void configure(final Map<String, ?> configs) {
@@ -50,20 +58,73 @@ public class S3Storage implements StorageBackend {
         this.s3Client = S3ClientBuilder.build(config);
         this.bucketName = config.bucketName();
         this.partSize = config.uploadPartSize();
+        this.multipartUploadThreshold = config.multipartUploadThreshold();
+        this.multipartUploadParallelism = config.multipartUploadParallelism();
+        this.uploader = new S3Uploader(
+            s3Client, bucketName, partSize, multipartUploadThreshold, multipartUploadParallelism);
+    }
+
+    @Override
+    public void setMemoryBudget(final MemoryBudget memoryBudget) {
+        uploader.setMemoryBudget(memoryBudget);
     }
 
     @Override
     public long upload(final InputStream inputStream, final ObjectKey key) throws StorageBackendException {
-        try (final var out = s3OutputStream(key)) {
-            inputStream.transferTo(out);
-            return out.processedBytes();
-        } catch (final IOException e) {
-            throw new StorageBackendException("Failed to upload " + key, e);
-        }
+        return upload(inputStream, key, 0);
+    }
+
+    @Override
+    public long upload(final InputStream inputStream,
+                       final ObjectKey key,
+                       final long sizeHint) throws StorageBackendException {
+        return uploader.upload(inputStream, key, sizeHint);
+    }
+
+    @Override
+    public long upload(final ReadableByteChannel channel,
+                       final long contentLength,
+                       final ObjectKey key) throws StorageBackendException {
+        return uploader.upload(channel, contentLength, key);
+    }
+
+    @Override
+    public long upload(final InputStream inputStream,
+                       final ObjectKey key,
+                       final long sizeHint,
+                       final UploadCheckpoint checkpoint,
+                       final Consumer<UploadCheckpoint> checkpointListener) throws StorageBackendException {
+        return uploader.upload(inputStream, key, sizeHint, checkpoint, checkpointListener);
+    }
+
+    @Override
+    public boolean canResumeUpload(final ObjectKey key, final UploadCheckpoint checkpoint)
+        throws StorageBackendException {
+        return uploader.canResumeUpload(key, checkpoint);
+    }
+
+    @Override
+    public void abortUpload(final ObjectKey key, final String uploadId) throws StorageBackendException {
+        uploader.abortUpload(key, uploadId);
+    }
+
+    @Override
+    public long upload(final List<ByteBuffer> buffers, final ObjectKey key) throws StorageBackendException {
+        return uploader.upload(buffers, key);
+    }
+
+    @Override
+    public String uploadIfVersion(final byte[] content, final ObjectKey key, final String version)
+        throws StorageBackendException {
+        return S3ConditionalWrites.put(s3Client, bucketName, this, content, key, version);
     }
 
     S3MultiPartOutputStream s3OutputStream(final ObjectKey key) {
-        return new S3MultiPartOutputStream(bucketName, key, partSize, s3Client);
+        return s3OutputStream(key, 0);
+    }
+
+    S3MultiPartOutputStream s3OutputStream(final ObjectKey key, final long sizeHint) {
+        return uploader.s3OutputStream(key, sizeHint);
     }
 
     @Override
@@ -82,12 +143,7 @@ public class S3Storage implements StorageBackend {
             final Set<ObjectIdentifier> ids = keys.stream()
                 .map(k -> ObjectIdentifier.builder().key(k.value()).build())
                 .collect(Collectors.toSet());
-            final Delete delete = Delete.builder().objects(ids).build();
-            final DeleteObjectsRequest deleteObjectsRequest = DeleteObjectsRequest.builder()
-                .bucket(bucketName)
-                .delete(delete)
-                .build();
-            s3Client.deleteObjects(deleteObjectsRequest);
+            s3Client.deleteObjects(b -> b.bucket(bucketName).delete(d -> d.objects(ids)));
         } catch (final SdkClientException e) {
             throw new StorageBackendException("Failed to delete keys " + keys, e);
         }
@@ -109,6 +165,11 @@ public class S3Storage implements StorageBackend {
         }
     }
 
+    @Override
+    public VersionedContent fetchVersioned(final ObjectKey key) throws StorageBackendException {
+        return S3ConditionalWrites.get(s3Client, bucketName, this, key);
+    }
+
     @Override
     public InputStream fetch(final ObjectKey key, final BytesRange range) throws StorageBackendException {
         try {
@@ -136,6 +197,38 @@ public class S3Storage implements StorageBackend {
         }
     }
 
+    @Override
+    public InputStream fetchSuffix(final ObjectKey key, final int size) throws StorageBackendException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive, " + size + " given");
+        }
+        try {
+            // The suffix range gives the whole object if it's smaller.
+            final GetObjectRequest getRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key.value())
+                .range("bytes=-" + size)
+                .build();
+            return s3Client.getObject(getRequest);
+        } catch (final AwsServiceException e) {
+            if (e.statusCode() == 404) {
+                throw new KeyNotFoundException(this, key, e);
+            }
+            if (e.statusCode() == 416) {
+                throw new InvalidRangeException("Invalid suffix range of " + size + " bytes", e);
+            }
+
+            throw new StorageBackendException("Failed to fetch " + key, e);
+        } catch (final SdkClientException e) {
+            throw new StorageBackendException("Failed to fetch " + key, e);
+        }
+    }
+
+    @Override
+    public Optional<ObjectMetadata> metadata(final ObjectKey key) throws StorageBackendException {
+        return S3ObjectMetadata.fetch(s3Client, bucketName, key);
+    }
+
     private String formatRange(final BytesRange range) {
         return "bytes=" + range.firstPosition() + "-" + range.lastPosition();
     }
@@ -145,6 +238,8 @@ public class S3Storage implements StorageBackend {
         return "S3Storage{"
             + "bucketName='" + bucketName + '\''
             + ", partSize=" + partSize
+            + ", multipartUploadThreshold=" + multipartUploadThreshold
+            + ", multipartUploadParallelism=" + multipartUploadParallelism
             + '}';
     }
 }
@@ -57,11 +57,27 @@ public class S3StorageConfig extends AbstractConfig {
     // AWS limits to 5GiB, but 2GiB are used here as ByteBuffer allocation is based on int
     private static final String S3_MULTIPART_UPLOAD_PART_SIZE_DOC = "Size of parts in bytes to use when uploading. "
         + "All parts but the last one will have this size. "
+        + "If the expected object size is known (as for log segments), parts may be smaller, "
+        + "but not smaller than 5MiB, to spread the object evenly over the same number of parts. "
         + "Valid values: between 5MiB and 2GiB";
     static final int S3_MULTIPART_UPLOAD_PART_SIZE_MIN = 5 * 1024 * 1024; // 5MiB
     static final int S3_MULTIPART_UPLOAD_PART_SIZE_MAX = Integer.MAX_VALUE;
     static final int S3_MULTIPART_UPLOAD_PART_SIZE_DEFAULT = S3_MULTIPART_UPLOAD_PART_SIZE_MIN;
 
+    private static final String S3_MULTIPART_UPLOAD_THRESHOLD_CONFIG = "s3.multipart.upload.threshold";
+    private static final String S3_MULTIPART_UPLOAD_THRESHOLD_DOC = "Objects smaller than this size in bytes "
+        + "are uploaded with a single PutObject request instead of a multipart upload. "
+        + "Objects expected to be smaller are buffered up to this size to find out if they are really small, "
+        + "others, including ones of unknown size, are streamed to a multipart upload right away. "
+        + "0 means multipart upload is always used";
+    static final int S3_MULTIPART_UPLOAD_THRESHOLD_DEFAULT = S3_MULTIPART_UPLOAD_PART_SIZE_MIN;
+
+    private static final String S3_MULTIPART_UPLOAD_PARALLELISM_CONFIG = "s3.multipart.upload.parallelism";
+    private static final String S3_MULTIPART_UPLOAD_PARALLELISM_DOC = "The maximum number of parts of an object "
+        + "uploaded concurrently, while the next part is being written. Each part in flight holds its own buffer "
+        + "of up to s3.multipart.upload.part.size bytes. "
+        + "The default is 1, which means parts are uploaded one by one in the uploading thread";
+
     private static final String S3_API_CALL_TIMEOUT_CONFIG = "s3.api.call.timeout";
     private static final String S3_API_CALL_TIMEOUT_DOC = "AWS S3 API call timeout in milliseconds";
     private static final String S3_API_CALL_ATTEMPT_TIMEOUT_CONFIG = "s3.api.call.attempt.timeout";
@@ -87,7 +103,8 @@ public class S3StorageConfig extends AbstractConfig {
     private static final String AWS_CHECKSUM_CHECK_ENABLED_DOC =
         "This property is used to enable checksum validation done by AWS library. "
             + "When set to \"false\", there will be no validation. "
-            + "It is disabled by default as Kafka already validates integrity of the files.";
+            + "It is disabled by default as Kafka already validates integrity of the files, "
+            + "and segment log chunks are verified against the checksums recorded in the segment manifest.";
 
 
     private static final ConfigDef CONFIG;
@@ -127,6 +144,20 @@ public class S3StorageConfig extends AbstractConfig {
                 ConfigDef.Range.between(S3_MULTIPART_UPLOAD_PART_SIZE_MIN, S3_MULTIPART_UPLOAD_PART_SIZE_MAX),
                 ConfigDef.Importance.MEDIUM,
                 S3_MULTIPART_UPLOAD_PART_SIZE_DOC)
+            .define(
+                S3_MULTIPART_UPLOAD_THRESHOLD_CONFIG,
+                ConfigDef.Type.INT,
+                S3_MULTIPART_UPLOAD_THRESHOLD_DEFAULT,
+                ConfigDef.Range.atLeast(0),
+                ConfigDef.Importance.LOW,
+                S3_MULTIPART_UPLOAD_THRESHOLD_DOC)
+            .define(
+                S3_MULTIPART_UPLOAD_PARALLELISM_CONFIG,
+                ConfigDef.Type.INT,
+                1,
+                ConfigDef.Range.atLeast(1),
+                ConfigDef.Importance.MEDIUM,
+                S3_MULTIPART_UPLOAD_PARALLELISM_DOC)
             .define(
                 S3_API_CALL_TIMEOUT_CONFIG,
                 ConfigDef.Type.LONG,
@@ -265,6 +296,14 @@ public class S3StorageConfig extends AbstractConfig {
         return getInt(S3_MULTIPART_UPLOAD_PART_SIZE_CONFIG);
     }
 
+    public int multipartUploadThreshold() {
+        return getInt(S3_MULTIPART_UPLOAD_THRESHOLD_CONFIG);
+    }
+
+    public int multipartUploadParallelism() {
+        return getInt(S3_MULTIPART_UPLOAD_PARALLELISM_CONFIG);
+    }
+
     URI s3ServiceEndpoint() {
         final String url = getString(S3_ENDPOINT_URL_CONFIG);
         if (url != null) {
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2024 Aiven Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.tieredstorage.storage.s3;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.apache.kafka.common.utils.ThreadUtils;
+
+import io.aiven.kafka.tieredstorage.storage.MemoryBudget;
+import io.aiven.kafka.tieredstorage.storage.ObjectKey;
+import io.aiven.kafka.tieredstorage.storage.ObjectUploader;
+import io.aiven.kafka.tieredstorage.storage.StorageBackendException;
+import io.aiven.kafka.tieredstorage.storage.UploadCheckpoint;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.ListPartsRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.Part;
+
+/**
+ * Uploads objects smaller than the multipart upload threshold with a single PutObject request,
+ * and larger ones with a multipart upload.
+ *
+ * <p>The buffers holding the content are reserved in the memory budget.
+ */
+class S3Uploader {
+    // The S3 limit for all parts but the last one.
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    private static final int PART_SIZE_GRANULARITY = 1024 * 1024;
+
+    private final S3Client s3Client;
+    private final String bucketName;
+    private final PutObjectUploader putObjectUploader;
+    private final int partSize;
+    private final int multipartUploadThreshold;
+    private final int multipartUploadParallelism;
+    private final ExecutorService partUploadExecutor;
+    private MemoryBudget memoryBudget = MemoryBudget.unlimited();
+
+    S3Uploader(final S3Client s3Client,
+               final String bucketName,
+               final int partSize,
+               final int multipartUploadThreshold,
+               final int multipartUploadParallelism) {
+        this.s3Client = s3Client;
+        this.bucketName = bucketName;
+        this.putObjectUploader = new PutObjectUploader(s3Client, bucketName);
+        this.partSize = partSize;
+        this.multipartUploadThreshold = multipartUploadThreshold;
+        this.multipartUploadParallelism = multipartUploadParallelism;
+        // Threads are created as needed, the concurrency is bounded by the parallelism of each upload.
+        this.partUploadExecutor = multipartUploadParallelism > 1
+            ? Executors.newCachedThreadPool(ThreadUtils.createThreadFactory("s3-part-upload-%d", true))
+            : null;
+    }
+
+    void setMemoryBudget(final MemoryBudget memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    long upload(final InputStream inputStream,
+                final ObjectKey key,
+                final long sizeHint) throws StorageBackendException {
+        // Only objects expected to be small are buffered, others are streamed to the multipart upload.
+        // The head is reserved until the upload ends, as the first part references it.
+        final long headSize = sizeHint > 0 && sizeHint < multipartUploadThreshold ? multipartUploadThreshold : 0;
+        try (final var headReservation = memoryBudget.reserve(headSize)) {
+            byte[] head = null;
+            if (headSize > 0) {
+                // The size hint may be inexact, so the actual size is checked.
+                head = inputStream.readNBytes((int) headReservation.bytes());
+                if (head.length < multipartUploadThreshold) {
+                    putObjectUploader.upload(key, List.of(ByteBuffer.wrap(head)), head.length);
+                    return head.length;
+                }
+            }
+            try (final var out = s3OutputStream(key, sizeHint)) {
+                if (head != null) {
+                    // The head array is not used anymore, so the stream can reference it instead of copying.
+                    out.write(ByteBuffer.wrap(head));
+                }
+                out.transferFrom(inputStream);
+                return out.processedBytes();
+            }
+        } catch (final IOException e) {
+            throw new StorageBackendException("Failed to upload " + key, e);
+        }
+    }
+
+    long upload(final ReadableByteChannel channel,
+                final long contentLength,
+                final ObjectKey key) throws StorageBackendException {
+        try {
+            if (contentLength < multipartUploadThreshold) {
+                return putObjectUploader.upload(key, channel, contentLength, memoryBudget);
+            }
+            try (final var out = s3OutputStream(key, contentLength)) {
+                final long transferred = out.transferFrom(channel);
+                if (transferred != contentLength) {
+                    out.abort();
+                    ObjectUploader.checkUploadedLength(key, contentLength, transferred);
+                }
+                return transferred;
+            }
+        } catch (final IOException e) {
+            throw new StorageBackendException("Failed to upload " + key, e);
+        }
+    }
+
+    long upload(final List<ByteBuffer> buffers, final ObjectKey key) throws StorageBackendException {
+        final long contentLength = ObjectUploader.remaining(buffers);
+        if (contentLength < multipartUploadThreshold) {
+            putObjectUploader.upload(key, buffers, contentLength);
+            return contentLength;
+        }
+        try (final var out = s3OutputStream(key, contentLength)) {
+            for (final ByteBuffer buffer : buffers) {
+                // The stream references the buffer content, the duplicate keeps the buffer position untouched.
+                out.write(buffer.duplicate());
+            }
+            return out.processedBytes();
+        } catch (final IOException e) {
+            throw new StorageBackendException("Failed to upload " + key, e);
+        }
+    }
+
+    long upload(final InputStream inputStream,
+                final ObjectKey key,
+                final long sizeHint,
+                final UploadCheckpoint checkpoint,
+                final Consumer<UploadCheckpoint> checkpointListener) throws StorageBackendException {
+        // Small new uploads are not worth resuming, they are uploaded in one request.
+        if (checkpoint == null && sizeHint > 0 && sizeHint < multipartUploadThreshold) {
+            return upload(inputStream, key, sizeHint);
+        }
+        try (final var out = new S3MultiPartOutputStream(
+            bucketName, key, partSize(partSize, sizeHint), s3Client, partUploadExecutor, multipartUploadParallelism,
+            memoryBudget, checkpoint, checkpointListener)) {
+            out.transferFrom(inputStream);
+            return out.processedBytes();
+        } catch (final IOException e) {
+            throw new StorageBackendException("Failed to upload " + key, e);
+        }
+    }
+
+    boolean canResumeUpload(final ObjectKey key, final UploadCheckpoint checkpoint) throws StorageBackendException {
+        final ListPartsRequest request = ListPartsRequest.builder()
+            .bucket(bucketName)
+            .key(key.value())
+            .uploadId(checkpoint.uploadId())
+            .build();
+        final Map<Integer, Part> uploadedParts = new HashMap<>();
+        try {
+            s3Client.listPartsPaginator(request).parts().forEach(part -> uploadedParts.put(part.partNumber(), part));
+        } catch (final NoSuchUploadException e) {
+            return false;
+        } catch (final AwsServiceException | SdkClientException e) {
+            throw new StorageBackendException("Failed to list parts of upload " + checkpoint.uploadId(), e);
+        }
+        for (final UploadCheckpoint.Part part : checkpoint.parts()) {
+            final Part uploadedPart = uploadedParts.get(part.number());
+            if (uploadedPart == null
+                || !part.etag().equals(uploadedPart.eTag())
+                || part.size() != uploadedPart.size()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void abortUpload(final ObjectKey key, final String uploadId) throws StorageBackendException {
+        final AbortMultipartUploadRequest request = AbortMultipartUploadRequest.builder()
+            .bucket(bucketName)
+            .key(key.value())
+            .uploadId(uploadId)
+            .build();
+        try {
+            s3Client.abortMultipartUpload(request);
+        } catch (final NoSuchUploadException e) {
+            // Aborted or completed already.
+        } catch (final AwsServiceException | SdkClientException e) {
+            throw new StorageBackendException("Failed to abort upload " + uploadId, e);
+        }
+    }
+
+    S3MultiPartOutputStream s3OutputStream(final ObjectKey key, final long sizeHint) {
+        return new S3MultiPartOutputStream(
+            bucketName, key, partSize(partSize, sizeHint), s3Client, partUploadExecutor, multipartUploadParallelism,
+            memoryBudget);
+    }
+
+    /**
+     * Returns the part size to upload an object of the expected size with.
+     *
+     * <p>The object is spread evenly over the same number of parts it would take with the maximum part size,
+     * so the last part is not much smaller than the others and part buffers are not larger than needed.
+     * The part size is rounded up to 1MiB to tolerate the actual size being a bit larger than expected.
+     */
+    static int partSize(final int maxPartSize, final long sizeHint) {
+        if (sizeHint <= 0) {
+            return maxPartSize;
+        }
+        final long parts = (sizeHint + maxPartSize - 1) / maxPartSize;
+        final long evenPartSize = (sizeHint + parts - 1) / parts;
+        final long roundedPartSize =
+            (evenPartSize + PART_SIZE_GRANULARITY - 1) / PART_SIZE_GRANULARITY * PART_SIZE_GRANULARITY;
+        return (int) Math.max(MIN_PART_SIZE, Math.min(roundedPartSize, maxPartSize));
+    }
+}
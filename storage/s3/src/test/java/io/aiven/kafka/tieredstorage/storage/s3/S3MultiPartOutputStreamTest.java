@@ -16,14 +16,30 @@
 
 package io.aiven.kafka.tieredstorage.storage.s3;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.aiven.kafka.tieredstorage.storage.MemoryBudget;
+import io.aiven.kafka.tieredstorage.storage.MemoryBudgetExhaustedException;
 import io.aiven.kafka.tieredstorage.storage.ObjectKey;
 import io.aiven.kafka.tieredstorage.storage.TestObjectKey;
+import io.aiven.kafka.tieredstorage.storage.UploadCheckpoint;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -46,6 +62,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -71,10 +90,105 @@ class S3MultiPartOutputStreamTest {
 
     final Random random = new Random();
 
+    ExecutorService executor;
+
     @BeforeEach
     void setUp() {
-        when(mockedS3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+        // Not used by tests failing before the upload is created.
+        lenient().when(mockedS3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
             .thenReturn(newInitiateMultipartUploadResult());
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void invalidMaxInFlightParts() {
+        assertThatThrownBy(() -> new S3MultiPartOutputStream(BUCKET_NAME, FILE_KEY, 10, mockedS3, executor, 0))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("maxInFlightParts must be positive, 0 given");
+    }
+
+    @Test
+    void writesPartsConcurrently() throws Exception {
+        final int partSize = 10;
+        final Map<Integer, byte[]> uploadedParts = new ConcurrentHashMap<>();
+        when(mockedS3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+            .thenAnswer(invocation -> {
+                final UploadPartRequest upload = invocation.getArgument(0);
+                final RequestBody body = invocation.getArgument(1);
+                uploadedParts.put(upload.partNumber(), body.contentStreamProvider().newStream().readAllBytes());
+                // Random delays make parts finish out of order.
+                Thread.sleep(ThreadLocalRandom.current().nextInt(5));
+                return newUploadPartResponse("SOME_ETAG#" + upload.partNumber());
+            });
+        when(mockedS3.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+            .thenReturn(CompleteMultipartUploadResponse.builder().build());
+
+        final byte[] content = new byte[partSize * 7 + 3];
+        random.nextBytes(content);
+        final var out = new S3MultiPartOutputStream(BUCKET_NAME, FILE_KEY, partSize, mockedS3, executor, 3);
+        assertThat(out.maxInFlightParts).isEqualTo(3);
+        for (int i = 0; i < content.length; i += 4) {
+            out.write(content, i, Math.min(4, content.length - i));
+        }
+        out.close();
+
+        assertThat(out.isClosed()).isTrue();
+        assertThat(out.processedBytes()).isEqualTo(content.length);
+        verify(mockedS3, times(8)).uploadPart(any(UploadPartRequest.class), any(RequestBody.class));
+        verify(mockedS3).completeMultipartUpload(completeMultipartUploadRequestCaptor.capture());
+
+        final List<CompletedPart> expectedParts = new ArrayList<>();
+        for (int partNumber = 1; partNumber <= 8; partNumber++) {
+            final int from = (partNumber - 1) * partSize;
+            final byte[] expectedPart = new byte[Math.min(partSize, content.length - from)];
+            System.arraycopy(content, from, expectedPart, 0, expectedPart.length);
+            assertThat(uploadedParts.get(partNumber)).isEqualTo(expectedPart);
+            expectedParts.add(CompletedPart.builder().partNumber(partNumber).eTag("SOME_ETAG#" + partNumber).build());
+        }
+        assertCompleteMultipartUploadRequest(completeMultipartUploadRequestCaptor.getValue(), expectedParts);
+    }
+
+    @Test
+    void sendAbortForAnyExceptionWhileUploadingPartsConcurrently() {
+        final RuntimeException testException = new RuntimeException("test");
+        when(mockedS3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+            .thenThrow(testException);
+
+        final var out = new S3MultiPartOutputStream(BUCKET_NAME, FILE_KEY, 1, mockedS3, executor, 2);
+        // The failure of the first part surfaces when the third one waits for room.
+        assertThatThrownBy(() -> out.write(new byte[] {1, 2, 3}))
+            .isInstanceOf(IOException.class)
+            .hasRootCause(testException);
+
+        assertThat(out.isClosed()).isTrue();
+        assertThatCode(out::close).doesNotThrowAnyException();
+
+        verify(mockedS3, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        verify(mockedS3).abortMultipartUpload(abortMultipartUploadRequestCaptor.capture());
+        assertAbortMultipartUploadRequest(abortMultipartUploadRequestCaptor.getValue());
+    }
+
+    @Test
+    void sendAbortForAnyExceptionWhenClosingConcurrentUpload() throws Exception {
+        when(mockedS3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+            .thenThrow(RuntimeException.class);
+
+        final var out = new S3MultiPartOutputStream(BUCKET_NAME, FILE_KEY, 10, mockedS3, executor, 2);
+        out.write(new byte[5]);
+
+        assertThatThrownBy(out::close)
+            .isInstanceOf(IOException.class)
+            .hasRootCauseInstanceOf(RuntimeException.class);
+
+        assertThat(out.isClosed()).isTrue();
+        verify(mockedS3, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        verify(mockedS3).abortMultipartUpload(abortMultipartUploadRequestCaptor.capture());
+        assertAbortMultipartUploadRequest(abortMultipartUploadRequestCaptor.getValue());
     }
 
     @Test
@@ -286,6 +400,219 @@ class S3MultiPartOutputStreamTest {
         );
     }
 
+    @Test
+    void writesByteBuffersWithoutCopying() throws Exception {
+        final Map<Integer, byte[]> uploadedParts = captureUploadedParts();
+        when(mockedS3.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+            .thenReturn(CompleteMultipartUploadResponse.builder().build());
+
+        final byte[] first = {0, 1, 2, 3, 4, 5, 6, 7};
+        final byte[] second = {8, 9, 10, 11, 12};
+        final var out = new S3MultiPartOutputStream(BUCKET_NAME, FILE_KEY, 10, mockedS3);
+        final ByteBuffer firstBuffer = ByteBuffer.wrap(first);
+        out.write(firstBuffer);
+        assertThat(firstBuffer.hasRemaining()).isFalse();
+        out.write(ByteBuffer.wrap(second, 1, 4));
+        // The last part is not uploaded yet and still references the written buffer.
+        second[4] = 42;
+        out.close();
+
+        assertThat(out.processedBytes()).isEqualTo(12);
+        assertThat(uploadedParts.get(1)).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 9, 10);
+        assertThat(uploadedParts.get(2)).containsExactly(11, 42);
+        verify(mockedS3).completeMultipartUpload(completeMultipartUploadRequestCaptor.capture());
+        assertThat(completeMultipartUploadRequestCaptor.getValue().multipartUpload().parts()).hasSize(2);
+    }
+
+    @Test
+    void writesMixedBytesAndByteBuffersConcurrently() throws Exception {
+        final Map<Integer, byte[]> uploadedParts = captureUploadedParts();
+        when(mockedS3.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+            .thenReturn(CompleteMultipartUploadResponse.builder().build());
+
+        final byte[] content = new byte[100];
+        random.nextBytes(content);
+        final var out = new S3MultiPartOutputStream(BUCKET_NAME, FILE_KEY, 16, mockedS3, executor, 2);
+        int position = 0;
+        for (int i = 0; position < content.length; i++) {
+            final int length = Math.min(i % 13 + 1, content.length - position);
+            if (i % 2 == 0) {
+                out.write(content, position, length);
+            } else {
+                out.write(ByteBuffer.wrap(content, position, length));
+            }
+            position += length;
+        }
+        out.close();
+
+        assertThat(out.processedBytes()).isEqualTo(content.length);
+        final ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        for (int partNumber = 1; partNumber <= 7; partNumber++) {
+            uploaded.write(uploadedParts.get(partNumber));
+        }
+        assertThat(uploadedParts).hasSize(7);
+        assertThat(uploaded.toByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    void transfersFromInputStream() throws Exception {
+        final Map<Integer, byte[]> uploadedParts = captureUploadedParts();
+        when(mockedS3.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+            .thenReturn(CompleteMultipartUploadResponse.builder().build());
+
+        final byte[] content = new byte[25];
+        random.nextBytes(content);
+        final var out = new S3MultiPartOutputStream(BUCKET_NAME, FILE_KEY, 10, mockedS3);
+        out.write(content, 0, 3);
+        assertThat(out.transferFrom(new ByteArrayInputStream(content, 3, 22))).isEqualTo(22);
+        out.close();
+
+        assertThat(out.processedBytes()).isEqualTo(content.length);
+        assertThat(uploadedParts.get(1)).isEqualTo(Arrays.copyOfRange(content, 0, 10));
+        assertThat(uploadedParts.get(2)).isEqualTo(Arrays.copyOfRange(content, 10, 20));
+        assertThat(uploadedParts.get(3)).isEqualTo(Arrays.copyOfRange(content, 20, 25));
+    }
+
+    @Test
+    void transfersFromChannel() throws Exception {
+        final Map<Integer, byte[]> uploadedParts = captureUploadedParts();
+        when(mockedS3.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+            .thenReturn(CompleteMultipartUploadResponse.builder().build());
+
+        final byte[] content = new byte[25];
+        random.nextBytes(content);
+        final var out = new S3MultiPartOutputStream(BUCKET_NAME, FILE_KEY, 10, mockedS3);
+        out.write(content, 0, 3);
+        final var channel = Channels.newChannel(new ByteArrayInputStream(content, 3, 22));
+        assertThat(out.transferFrom(channel)).isEqualTo(22);
+        out.close();
+
+        assertThat(out.processedBytes()).isEqualTo(content.length);
+        assertThat(uploadedParts.get(1)).isEqualTo(Arrays.copyOfRange(content, 0, 10));
+        assertThat(uploadedParts.get(2)).isEqualTo(Arrays.copyOfRange(content, 10, 20));
+        assertThat(uploadedParts.get(3)).isEqualTo(Arrays.copyOfRange(content, 20, 25));
+    }
+
+    @Test
+    void abortsInsteadOfCompleting() throws Exception {
+        captureUploadedParts();
+
+        final var out = new S3MultiPartOutputStream(BUCKET_NAME, FILE_KEY, 10, mockedS3);
+        out.write(new byte[15]);
+        out.abort();
+        out.close();
+
+        assertThat(out.isClosed()).isTrue();
+        verify(mockedS3, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        verify(mockedS3).abortMultipartUpload(abortMultipartUploadRequestCaptor.capture());
+        assertAbortMultipartUploadRequest(abortMultipartUploadRequestCaptor.getValue());
+    }
+
+    @Test
+    void reservesPartBuffersUntilCompleted() throws Exception {
+        captureUploadedParts();
+        when(mockedS3.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+            .thenReturn(CompleteMultipartUploadResponse.builder().build());
+        final MemoryBudget memoryBudget = new MemoryBudget(100, 0);
+
+        final var out = new S3MultiPartOutputStream(BUCKET_NAME, FILE_KEY, 10, mockedS3, null, 1, memoryBudget);
+        out.write(new byte[25]);
+        // The part buffer is reused for all parts.
+        assertThat(memoryBudget.reservedBytes()).isEqualTo(10);
+        out.close();
+
+        assertThat(memoryBudget.reservedBytes()).isZero();
+    }
+
+    @Test
+    void sendAbortWhenPartBufferDoesNotFitIntoMemoryBudget() throws Exception {
+        final MemoryBudget memoryBudget = new MemoryBudget(15, 0);
+
+        try (final var otherReservation = memoryBudget.reserve(10)) {
+            final var out = new S3MultiPartOutputStream(BUCKET_NAME, FILE_KEY, 10, mockedS3, null, 1, memoryBudget);
+            assertThatThrownBy(() -> out.write(new byte[5]))
+                .isInstanceOf(MemoryBudgetExhaustedException.class);
+
+            assertThat(out.isClosed()).isTrue();
+            verify(mockedS3, never()).uploadPart(any(UploadPartRequest.class), any(RequestBody.class));
+            verify(mockedS3).abortMultipartUpload(abortMultipartUploadRequestCaptor.capture());
+            assertAbortMultipartUploadRequest(abortMultipartUploadRequestCaptor.getValue());
+            assertThat(memoryBudget.reservedBytes()).isEqualTo(otherReservation.bytes());
+        }
+    }
+
+    @Test
+    void keepsUploadedPartsOnFailureAndResumesFromCheckpoint() throws Exception {
+        final Map<Integer, byte[]> uploadedParts = new ConcurrentHashMap<>();
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        when(mockedS3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+            .thenAnswer(invocation -> {
+                final UploadPartRequest upload = invocation.getArgument(0);
+                if (upload.partNumber() == 3 && failed.compareAndSet(false, true)) {
+                    throw new RuntimeException("test");
+                }
+                final RequestBody body = invocation.getArgument(1);
+                uploadedParts.put(upload.partNumber(), body.contentStreamProvider().newStream().readAllBytes());
+                return newUploadPartResponse("SOME_ETAG#" + upload.partNumber());
+            });
+        when(mockedS3.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+            .thenReturn(CompleteMultipartUploadResponse.builder().build());
+        final byte[] content = new byte[35];
+        random.nextBytes(content);
+        final List<UploadCheckpoint> checkpoints = new ArrayList<>();
+
+        final var out = new S3MultiPartOutputStream(
+            BUCKET_NAME, FILE_KEY, 10, mockedS3, null, 1, MemoryBudget.unlimited(), null, checkpoints::add);
+        assertThatThrownBy(() -> out.write(content))
+            .isInstanceOf(IOException.class)
+            .hasRootCauseMessage("test");
+
+        assertThat(out.isClosed()).isTrue();
+        verify(mockedS3, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        final UploadCheckpoint checkpoint = new UploadCheckpoint(UPLOAD_ID, List.of(
+            new UploadCheckpoint.Part(1, "SOME_ETAG#1", 10),
+            new UploadCheckpoint.Part(2, "SOME_ETAG#2", 10)));
+        assertThat(checkpoints).last().isEqualTo(checkpoint);
+        assertThat(checkpoint.uploadedBytes()).isEqualTo(20);
+
+        final var resumed = new S3MultiPartOutputStream(
+            BUCKET_NAME, FILE_KEY, 10, mockedS3, null, 1, MemoryBudget.unlimited(), checkpoint, checkpoints::add);
+        resumed.write(content, 20, 15);
+        resumed.close();
+
+        assertThat(resumed.processedBytes()).isEqualTo(content.length);
+        verify(mockedS3).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+        verify(mockedS3).completeMultipartUpload(completeMultipartUploadRequestCaptor.capture());
+        assertCompleteMultipartUploadRequest(
+            completeMultipartUploadRequestCaptor.getValue(),
+            List.of(
+                CompletedPart.builder().partNumber(1).eTag("SOME_ETAG#1").build(),
+                CompletedPart.builder().partNumber(2).eTag("SOME_ETAG#2").build(),
+                CompletedPart.builder().partNumber(3).eTag("SOME_ETAG#3").build(),
+                CompletedPart.builder().partNumber(4).eTag("SOME_ETAG#4").build()
+            )
+        );
+        assertThat(uploadedParts.get(3)).isEqualTo(Arrays.copyOfRange(content, 20, 30));
+        assertThat(uploadedParts.get(4)).isEqualTo(Arrays.copyOfRange(content, 30, 35));
+        assertThat(checkpoints).hasSize(4);
+    }
+
+    @Test
+    void sendAbortForExceptionWhileTransferring() throws Exception {
+        final InputStream failingInputStream = mock(InputStream.class);
+        final IOException exception = new IOException("test");
+        when(failingInputStream.read(any(), anyInt(), anyInt())).thenThrow(exception);
+
+        final var out = new S3MultiPartOutputStream(BUCKET_NAME, FILE_KEY, 10, mockedS3);
+        assertThatThrownBy(() -> out.transferFrom(failingInputStream)).isSameAs(exception);
+
+        assertThat(out.isClosed()).isTrue();
+        assertThatCode(out::close).doesNotThrowAnyException();
+        verify(mockedS3, never()).uploadPart(any(UploadPartRequest.class), any(RequestBody.class));
+        verify(mockedS3).abortMultipartUpload(abortMultipartUploadRequestCaptor.capture());
+        assertAbortMultipartUploadRequest(abortMultipartUploadRequestCaptor.getValue());
+    }
+
     @Test
     void sendAbortIfNoWritingHappened() throws IOException {
         final var out = new S3MultiPartOutputStream(BUCKET_NAME, FILE_KEY, 100, mockedS3);
@@ -312,6 +639,20 @@ class S3MultiPartOutputStreamTest {
             .hasMessage("Already closed");
     }
 
+    private Map<Integer, byte[]> captureUploadedParts() {
+        final Map<Integer, byte[]> uploadedParts = new ConcurrentHashMap<>();
+        when(mockedS3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+            .thenAnswer(invocation -> {
+                final UploadPartRequest upload = invocation.getArgument(0);
+                final RequestBody body = invocation.getArgument(1);
+                final byte[] part = body.contentStreamProvider().newStream().readAllBytes();
+                assertThat(body.optionalContentLength()).hasValue((long) part.length);
+                uploadedParts.put(upload.partNumber(), part);
+                return newUploadPartResponse("SOME_ETAG#" + upload.partNumber());
+            });
+        return uploadedParts;
+    }
+
     private static CreateMultipartUploadResponse newInitiateMultipartUploadResult() {
         final CreateMultipartUploadResponse.Builder resultBuilder = CreateMultipartUploadResponse.builder();
         resultBuilder.uploadId(UPLOAD_ID);
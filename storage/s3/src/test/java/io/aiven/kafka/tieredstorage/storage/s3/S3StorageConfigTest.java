@@ -29,6 +29,7 @@ import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 
 import static io.aiven.kafka.tieredstorage.storage.s3.S3StorageConfig.S3_MULTIPART_UPLOAD_PART_SIZE_DEFAULT;
+import static io.aiven.kafka.tieredstorage.storage.s3.S3StorageConfig.S3_MULTIPART_UPLOAD_THRESHOLD_DEFAULT;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -51,6 +52,8 @@ class S3StorageConfigTest {
         assertThat(config.credentialsProvider()).isNull();
         assertThat(config.pathStyleAccessEnabled()).isNull();
         assertThat(config.uploadPartSize()).isEqualTo(S3_MULTIPART_UPLOAD_PART_SIZE_DEFAULT);
+        assertThat(config.multipartUploadThreshold()).isEqualTo(S3_MULTIPART_UPLOAD_THRESHOLD_DEFAULT);
+        assertThat(config.multipartUploadParallelism()).isOne();
         assertThat(config.certificateCheckEnabled()).isTrue();
         assertThat(config.checksumCheckEnabled()).isFalse();
         assertThat(config.region()).isEqualTo(TEST_REGION);
@@ -219,6 +222,44 @@ class S3StorageConfigTest {
                 + "Value must be at least 5242880");
     }
 
+    @Test
+    void multipartUploadThreshold() {
+        final var config = new S3StorageConfig(Map.of(
+            "s3.bucket.name", BUCKET_NAME,
+            "s3.region", TEST_REGION.id(),
+            "s3.multipart.upload.threshold", 0
+        ));
+        assertThat(config.multipartUploadThreshold()).isZero();
+
+        assertThatThrownBy(() -> new S3StorageConfig(Map.of(
+            "s3.bucket.name", BUCKET_NAME,
+            "s3.region", TEST_REGION.id(),
+            "s3.multipart.upload.threshold", -1
+        )))
+            .isInstanceOf(ConfigException.class)
+            .hasMessage("Invalid value -1 for configuration s3.multipart.upload.threshold: "
+                + "Value must be at least 0");
+    }
+
+    @Test
+    void multipartUploadParallelism() {
+        final var config = new S3StorageConfig(Map.of(
+            "s3.bucket.name", BUCKET_NAME,
+            "s3.region", TEST_REGION.id(),
+            "s3.multipart.upload.parallelism", 4
+        ));
+        assertThat(config.multipartUploadParallelism()).isEqualTo(4);
+
+        assertThatThrownBy(() -> new S3StorageConfig(Map.of(
+            "s3.bucket.name", BUCKET_NAME,
+            "s3.region", TEST_REGION.id(),
+            "s3.multipart.upload.parallelism", 0
+        )))
+            .isInstanceOf(ConfigException.class)
+            .hasMessage("Invalid value 0 for configuration s3.multipart.upload.parallelism: "
+                + "Value must be at least 1");
+    }
+
     @Test
     void withApiCallTimeouts() {
         final var configs = Map.of(